@@ -0,0 +1,144 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Generador de archivos de datos sintéticos para los benchmarks:
+ * "inquilinos.txt", "cocheras.txt" y "reservas.txt" con la cantidad de registros
+ * indicada, y un "pagos.txt" vacío.
+ * <p>
+ * Cada inquilino tiene una cochera; hay una reserva cada diez inquilinos, sin repetir
+ * lugar y fecha. Con generarPagos() se agrega además un historial de pagos. Los archivos derivados (almacén de cocheras, instantánea, registro de
+ * operaciones y secuencia de reservas) se borran para que se vuelvan a generar.
+ * <p>
+ * Como los archivos se escriben en el directorio de trabajo, sólo se generan si ese
+ * directorio contiene el archivo de marca que crea LanzadorBenchmarks; así nunca se
+ * pisan los datos reales del sistema.
+ */
+public class GeneradorDatos {
+
+    // Archivo que identifica a un directorio de trabajo de benchmarks.
+    static final String MARCA = ".datos-benchmark";
+
+    // Archivos derivados que se borran al generar datos nuevos.
+    private static final String[] DERIVADOS = {"cocheras.dat", "estado.snap", "operaciones.wal", "reservas.seq"};
+
+    // Categorías que se asignan a las cocheras, en forma cíclica.
+    private static final String[] CATEGORIAS = {"Base", "Superior"};
+
+    // Primer DNI generado.
+    private static final int DNI_INICIAL = 10_000_000;
+
+    // Fecha de la primera reserva generada.
+    static final LocalDate FECHA_INICIAL = LocalDate.of(2000, 1, 1);
+
+    /**
+     * Devuelve la cantidad de días, desde FECHA_INICIAL, que tienen reservas generadas.
+     *
+     * @param cantidad Cantidad de inquilinos.
+     * @return Cantidad de días con al menos una reserva.
+     */
+    static int diasConReservas(int cantidad) {
+        int reservas = (cantidad + 9) / 10;
+        return (reservas + Lugar.values().length - 1) / Lugar.values().length;
+    }
+
+    /**
+     * Genera los archivos de datos en el directorio indicado.
+     *
+     * @param directorio Directorio de trabajo (debe contener el archivo de marca).
+     * @param cantidad   Cantidad de inquilinos y de cocheras.
+     * @throws IOException Si ocurre un error al escribir.
+     * @throws IllegalStateException Si el directorio no es un directorio de benchmarks.
+     */
+    public static void generar(Path directorio, int cantidad) throws IOException {
+        if (!Files.exists(directorio.resolve(MARCA))) {
+            throw new IllegalStateException("El directorio " + directorio.toAbsolutePath()
+                    + " no es un directorio de benchmarks: ejecutar los benchmarks con LanzadorBenchmarks.");
+        }
+        for (String derivado : DERIVADOS) {
+            Files.deleteIfExists(directorio.resolve(derivado));
+        }
+
+        try (BufferedWriter inquilinos = escritor(directorio, "inquilinos.txt");
+             BufferedWriter cocheras = escritor(directorio, "cocheras.txt");
+             BufferedWriter reservas = escritor(directorio, "reservas.txt")) {
+            int nroReserva = 0;
+            for (int i = 0; i < cantidad; i++) {
+                int dni = DNI_INICIAL + i;
+                inquilinos.write("Nombre" + i + ",Apellido" + i + "," + dni);
+                inquilinos.newLine();
+                cocheras.write((i + 1) + "," + CATEGORIAS[i % CATEGORIAS.length] + ",false," + dni);
+                cocheras.newLine();
+                if (i % 10 == 0) {
+                    // Cada lugar se reserva una vez por día, por lo que no hay reservas superpuestas.
+                    Lugar lugar = Lugar.values()[nroReserva % Lugar.values().length];
+                    LocalDate fecha = FECHA_INICIAL.plusDays(nroReserva / Lugar.values().length);
+                    nroReserva++;
+                    reservas.write("R1," + nroReserva + "," + Fechas.formatear(fecha) + "," + lugar + "," + dni);
+                    reservas.newLine();
+                }
+            }
+        }
+        Files.write(directorio.resolve("pagos.txt"), new byte[0]);
+    }
+
+    /**
+     * Agrega a "pagos.txt" un historial de pagos de las cocheras generadas: un pago de cada
+     * cochera en cada uno de los meses anteriores al actual, y uno de cada dos cocheras en el
+     * mes actual. Debe invocarse después de generar() y con el sistema cerrado.
+     *
+     * @param directorio Directorio de trabajo (debe contener el archivo de marca).
+     * @param cantidad   Cantidad de inquilinos y de cocheras generados.
+     * @param meses      Cantidad de meses anteriores al actual con pagos.
+     * @throws IOException Si ocurre un error al escribir.
+     * @throws IllegalStateException Si el directorio no es un directorio de benchmarks.
+     */
+    public static void generarPagos(Path directorio, int cantidad, int meses) throws IOException {
+        if (!Files.exists(directorio.resolve(MARCA))) {
+            throw new IllegalStateException("El directorio " + directorio.toAbsolutePath()
+                    + " no es un directorio de benchmarks: ejecutar los benchmarks con LanzadorBenchmarks.");
+        }
+        YearMonth actual = YearMonth.now();
+        try (BufferedWriter pagos = Files.newBufferedWriter(directorio.resolve("pagos.txt"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (int mes = meses; mes >= 0; mes--) {
+                String fecha = Fechas.formatear(actual.minusMonths(mes).atDay(1));
+                for (int i = mes == 0 ? 1 : 0; i < cantidad; i += mes == 0 ? 2 : 1) {
+                    pagos.write("P1,1000.0," + fecha + "," + (DNI_INICIAL + i) + "," + (i + 1));
+                    pagos.newLine();
+                }
+            }
+        }
+    }
+
+    private static BufferedWriter escritor(Path directorio, String archivo) throws IOException {
+        return Files.newBufferedWriter(directorio.resolve(archivo), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Genera los archivos en un directorio nuevo o vacío.
+     * Uso: java GeneradorDatos cantidad directorio
+     *
+     * @param args Cantidad de inquilinos y cocheras, y directorio de destino.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public static void main(String[] args) throws IOException {
+        int cantidad = Integer.parseInt(args[0]);
+        Path directorio = Paths.get(args[1]);
+        Files.createDirectories(directorio);
+        if (!Files.exists(directorio.resolve(MARCA))) {
+            try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+                if (contenido.iterator().hasNext()) {
+                    System.out.println("Error: el directorio " + directorio + " no está vacío.");
+                    return;
+                }
+            }
+            Files.createFile(directorio.resolve(MARCA));
+        }
+        generar(directorio, cantidad);
+        System.out.println("Se generaron " + cantidad + " inquilinos y cocheras en " + directorio.toAbsolutePath());
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Punto de entrada de target/benchmarks.jar.
+ * <p>
+ * El sistema lee y escribe sus archivos en el directorio de trabajo, por lo que JMH se
+ * ejecuta en un proceso aparte cuyo directorio de trabajo es un directorio temporal
+ * (marcado para GeneradorDatos). Al terminar, el directorio temporal se borra.
+ * <p>
+ * Sin argumentos se ejecutan todos los benchmarks con el perfilador de memoria
+ * ("-prof gc") y los resultados se guardan en "jmh-result.json" del directorio actual.
+ * Con argumentos, éstos se pasan sin cambios a JMH (por ejemplo: "PagoBenchmark -p cantidad=1000").
+ */
+public class LanzadorBenchmarks {
+
+    /**
+     * Ejecuta JMH en un directorio temporal.
+     *
+     * @param args Opciones de JMH (opcional).
+     * @throws Exception Si no se puede crear el directorio o iniciar el proceso.
+     */
+    public static void main(String[] args) throws Exception {
+        Path directorio = Files.createTempDirectory("benchmarks-cocheras");
+        Files.createFile(directorio.resolve(GeneradorDatos.MARCA));
+
+        List<String> comando = new ArrayList<>();
+        comando.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        comando.add("-cp");
+        comando.add(classpathAbsoluto());
+        comando.add("org.openjdk.jmh.Main");
+        if (args.length == 0) {
+            comando.addAll(Arrays.asList("-prof", "gc", "-rf", "json",
+                    "-rff", Paths.get("jmh-result.json").toAbsolutePath().toString()));
+        } else {
+            comando.addAll(Arrays.asList(args));
+        }
+
+        int salida;
+        try {
+            salida = new ProcessBuilder(comando).directory(directorio.toFile()).inheritIO().start().waitFor();
+        } finally {
+            borrar(directorio);
+        }
+        System.exit(salida);
+    }
+
+    /**
+     * Devuelve el classpath actual con rutas absolutas, ya que el proceso hijo usa otro directorio de trabajo.
+     */
+    static String classpathAbsoluto() {
+        List<String> rutas = new ArrayList<>();
+        for (String ruta : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            rutas.add(Paths.get(ruta).toAbsolutePath().toString());
+        }
+        return String.join(File.pathSeparator, rutas);
+    }
+
+    /**
+     * Borra el directorio temporal y todo su contenido.
+     */
+    static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> rutas = Files.walk(directorio)) {
+            for (Path ruta : (Iterable<Path>) rutas.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(ruta);
+            }
+        }
+    }
+}
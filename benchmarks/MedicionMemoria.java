@@ -0,0 +1,92 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Medición de la memoria (heap) que ocupan inquilinos y cocheras una vez construidos.
+ * <p>
+ * Genera datos sintéticos en un directorio temporal (ver GeneradorDatos) e inicia el sistema
+ * en un proceso aparte, cuyo directorio de trabajo es ese directorio. El proceso mide el heap
+ * ocupado tras abrir el Administrador, recorre todas las cocheras y sus inquilinos (como lo
+ * hace el listado de cocheras, lo que los deja construidos) y vuelve a medir. Ambas mediciones
+ * se toman después de una recolección de basura completa.
+ * <pre>
+ *     java -cp target/benchmarks.jar MedicionMemoria [cantidad]
+ * </pre>
+ * Por defecto: 1000000 inquilinos y cocheras.
+ */
+public class MedicionMemoria {
+
+    // Argumento con el que se inicia el proceso que mide.
+    private static final String MEDIR = "--medir";
+
+    /**
+     * Ejecuta la medición.
+     *
+     * @param args Cantidad de datos (opcional).
+     * @throws Exception Si no se pueden generar los datos o iniciar el proceso.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(MEDIR)) {
+            medir();
+            return;
+        }
+        int cantidad = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        Path directorio = Files.createTempDirectory("memoria-cocheras");
+        try {
+            Files.createFile(directorio.resolve(GeneradorDatos.MARCA));
+            GeneradorDatos.generar(directorio, cantidad);
+            // La primera ejecución genera el almacén y la instantánea; la segunda mide.
+            for (int i = 0; i < 2; i++) {
+                Process proceso = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-Xmx4g", "-cp", LanzadorBenchmarks.classpathAbsoluto(), "MedicionMemoria", MEDIR)
+                        .directory(directorio.toFile()).redirectErrorStream(true).start();
+                String salida = new String(proceso.getInputStream().readAllBytes());
+                if (proceso.waitFor() != 0 || i == 1) {
+                    System.out.print(salida);
+                }
+            }
+        } finally {
+            LanzadorBenchmarks.borrar(directorio);
+        }
+    }
+
+    /**
+     * Mide el heap ocupado antes y después de construir todas las cocheras y sus inquilinos.
+     */
+    private static void medir() {
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Administrador admin = new Administrador("Admin", "Memoria", "1", new PrintWriter(Writer.nullWriter()));
+        long antes = heapOcupado();
+
+        List<Cochera> cocheras = admin.getCocheras();
+        long caracteres = 0;
+        for (Cochera cochera : cocheras) {
+            Inquilino inquilino = cochera.getInquilino();
+            caracteres += cochera.getCategoria().length() + inquilino.getNombre().length() + inquilino.getApellido().length();
+        }
+        long despues = heapOcupado();
+        admin.cerrar();
+
+        System.setOut(consola);
+        int cantidad = cocheras.size();
+        System.out.printf("Cocheras construidas: %d (%d caracteres de texto)%n", cantidad, caracteres);
+        System.out.printf("Heap tras abrir: %.1f MB | tras construir: %.1f MB | diferencia: %.1f MB (%.0f bytes por cochera con su inquilino)%n",
+                antes / 1e6, despues / 1e6, (despues - antes) / 1e6, (despues - antes) / (double) Math.max(1, cantidad));
+    }
+
+    /**
+     * Devuelve el heap ocupado después de una recolección de basura completa.
+     */
+    private static long heapOcupado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+}
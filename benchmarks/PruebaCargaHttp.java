@@ -0,0 +1,188 @@
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de la API HTTP (ServidorHttp) contra localhost.
+ * <p>
+ * Genera datos sintéticos en un directorio temporal (ver GeneradorDatos), inicia el
+ * sistema con "--http 0" en un proceso aparte y lo somete a una cantidad fija de clientes
+ * concurrentes, cada uno en un hilo virtual que envía una solicitud tras otra:
+ * 60% GET /cocheras/{n}, 25% GET /inquilinos/{dni}, 10% POST /pagos y 5% POST /reservas.
+ * Tras un período de calentamiento, informa solicitudes por segundo y percentiles de latencia
+ * vistos por los clientes, y al final las latencias medidas dentro del servidor (GET /metricas).
+ * <pre>
+ *     java -cp target/benchmarks.jar PruebaCargaHttp [clientes] [segundos] [cantidad]
+ * </pre>
+ * Por defecto: 200 clientes, 20 segundos de medición y 10000 inquilinos y cocheras.
+ */
+public class PruebaCargaHttp {
+
+    // Primer DNI que genera GeneradorDatos.
+    private static final int DNI_INICIAL = 10_000_000;
+
+    // Fecha desde la que se piden reservas, posterior a todas las generadas.
+    private static final LocalDate FECHA_RESERVAS = LocalDate.of(3000, 1, 1);
+
+    // Proporción acumulada de cada tipo de solicitud (sobre 100).
+    private static final int HASTA_COCHERA = 60;
+    private static final int HASTA_INQUILINO = 85;
+    private static final int HASTA_PAGO = 95;
+
+    // Latencias de las solicitudes medidas, en nanosegundos.
+    private static final Histograma latencias = new Histograma();
+
+    // Cantidad de respuestas por clase de código (1xx a 5xx) y de fallos de conexión.
+    private static final AtomicLongArray respuestas = new AtomicLongArray(6);
+    private static final LongAdder fallos = new LongAdder();
+
+    // Si es true, las solicitudes se registran (false durante el calentamiento).
+    private static volatile boolean midiendo;
+
+    /**
+     * Ejecuta la prueba de carga.
+     *
+     * @param args Clientes, segundos de medición y cantidad de datos (opcionales).
+     * @throws Exception Si no se puede iniciar el servidor.
+     */
+    public static void main(String[] args) throws Exception {
+        int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int cantidad = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int calentamiento = Math.max(2, segundos / 4);
+
+        Path directorio = Files.createTempDirectory("carga-http-cocheras");
+        Process servidor = null;
+        try {
+            Files.createFile(directorio.resolve(GeneradorDatos.MARCA));
+            GeneradorDatos.generar(directorio, cantidad);
+
+            servidor = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", LanzadorBenchmarks.classpathAbsoluto(), "Main", "--http", "0")
+                    .directory(directorio.toFile()).redirectErrorStream(true).start();
+            String url = esperarServidor(servidor);
+            System.out.println("Servidor en " + url + " con " + cantidad + " inquilinos; "
+                    + clientes + " clientes, " + calentamiento + " s de calentamiento y " + segundos + " s de medición.");
+
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(calentamiento + segundos);
+            try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clientes; i++) {
+                    hilos.submit(() -> ejecutarCliente(cliente, url, cantidad, fin));
+                }
+                Thread.sleep(TimeUnit.SECONDS.toMillis(calentamiento));
+                midiendo = true;
+                long inicioMedicion = System.nanoTime();
+                hilos.shutdown();
+                hilos.awaitTermination(segundos + 60L, TimeUnit.SECONDS);
+                informar((System.nanoTime() - inicioMedicion) / 1e9);
+            }
+
+            // Latencias medidas dentro del servidor, sin la espera en la red ni en la cola de conexiones.
+            String metricas = cliente.send(HttpRequest.newBuilder(URI.create(url + "/metricas")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            System.out.println("Latencias en el servidor, incluido el calentamiento (us):");
+            metricas.lines().filter(linea -> linea.startsWith("  http.") || linea.startsWith("  operación"))
+                    .forEach(System.out::println);
+        } finally {
+            if (servidor != null) {
+                // El servidor se detiene con su gancho de cierre, que cierra los archivos.
+                servidor.destroy();
+                servidor.waitFor(30, TimeUnit.SECONDS);
+            }
+            LanzadorBenchmarks.borrar(directorio);
+        }
+    }
+
+    /**
+     * Lee la salida del servidor hasta que informa su dirección, y luego la descarta en segundo plano.
+     */
+    private static String esperarServidor(Process servidor) throws IOException {
+        BufferedReader salida = new BufferedReader(new InputStreamReader(servidor.getInputStream(), StandardCharsets.UTF_8));
+        String linea;
+        while ((linea = salida.readLine()) != null) {
+            int inicio = linea.indexOf("http://");
+            if (inicio >= 0) {
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        salida.transferTo(Writer.nullWriter());
+                    } catch (IOException e) {
+                        // El servidor terminó.
+                    }
+                });
+                return linea.substring(inicio).trim();
+            }
+        }
+        throw new IOException("El servidor terminó sin iniciar la API HTTP.");
+    }
+
+    /**
+     * Envía solicitudes, una tras otra, hasta el instante indicado.
+     */
+    private static void ejecutarCliente(HttpClient cliente, String url, int cantidad, long fin) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        while (System.nanoTime() < fin) {
+            int tipo = azar.nextInt(100);
+            int dni = DNI_INICIAL + azar.nextInt(cantidad);
+            HttpRequest solicitud;
+            if (tipo < HASTA_COCHERA) {
+                solicitud = HttpRequest.newBuilder(URI.create(url + "/cocheras/" + (azar.nextInt(cantidad) + 1))).build();
+            } else if (tipo < HASTA_INQUILINO) {
+                solicitud = HttpRequest.newBuilder(URI.create(url + "/inquilinos/" + dni)).build();
+            } else if (tipo < HASTA_PAGO) {
+                solicitud = HttpRequest.newBuilder(URI.create(url + "/pagos"))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"dni\":\"" + dni + "\",\"monto\":1000}")).build();
+            } else {
+                String fecha = Fechas.formatear(FECHA_RESERVAS.plusDays(azar.nextInt(300_000)));
+                solicitud = HttpRequest.newBuilder(URI.create(url + "/reservas"))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"dni\":\"" + dni + "\",\"fecha\":\"" + fecha + "\",\"lugar\":\"SUM\"}")).build();
+            }
+
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<Void> respuesta = cliente.send(solicitud, HttpResponse.BodyHandlers.discarding());
+                if (midiendo) {
+                    latencias.registrar(System.nanoTime() - inicio);
+                    respuestas.incrementAndGet(Math.min(5, respuesta.statusCode() / 100));
+                }
+            } catch (IOException e) {
+                if (midiendo) {
+                    fallos.increment();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Muestra los resultados de la medición.
+     */
+    private static void informar(double segundos) {
+        List<String> codigos = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            if (respuestas.get(i) > 0) {
+                codigos.add(i + "xx=" + respuestas.get(i));
+            }
+        }
+        System.out.printf("Solicitudes: %d en %.1f s (%.0f solicitudes/s), respuestas %s, fallos de conexión %d%n",
+                latencias.getCantidad(), segundos, latencias.getCantidad() / segundos, codigos, fallos.sum());
+        System.out.printf("Latencia (ms): promedio %.2f | p50 %.2f | p90 %.2f | p99 %.2f | p99.9 %.2f | máximo %.2f%n",
+                latencias.getPromedio() / 1e6, latencias.getPercentil(50) / 1e6, latencias.getPercentil(90) / 1e6,
+                latencias.getPercentil(99) / 1e6, latencias.getPercentil(99.9) / 1e6, latencias.getMaximo() / 1e6);
+    }
+}
@@ -0,0 +1,244 @@
+import bench.Sistema;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implementación de las operaciones medidas por los benchmarks (ver bench.Sistema),
+ * sobre un Administrador abierto en el directorio de trabajo.
+ */
+public class SistemaBenchmark implements Sistema {
+
+    // Fecha posterior a todas las reservas generadas, que se reserva y se cancela en cada operación.
+    private static final LocalDate FECHA_LIBRE = LocalDate.of(3500, 1, 1);
+
+    // Cantidad de inquilinos y de cocheras generados.
+    private int cantidad;
+
+    // Administrador abierto (null si el sistema está cerrado).
+    private Administrador admin;
+
+    // Inquilinos del sistema, en el orden del archivo.
+    private List<Inquilino> inquilinos;
+
+    // Salida original, que se restaura al terminar.
+    private PrintStream salida;
+
+    // Registros para medir CodecRegistros (ver prepararRegistros): pagos y reservas
+    // intercalados, el codec que los resuelve, el buffer reutilizado para codificarlos,
+    // sus registros binarios y sus líneas CSV.
+    private List<Object> registros;
+    private CodecRegistros codec;
+    private ByteBuffer buffer;
+    private ByteBuffer binarios;
+    private List<String> lineas;
+
+    @Override
+    public void generarDatos(int cantidad) throws IOException {
+        this.cantidad = cantidad;
+        GeneradorDatos.generar(Paths.get(""), cantidad);
+        if (salida == null) {
+            salida = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    @Override
+    public void generarPagos(int meses) throws IOException {
+        GeneradorDatos.generarPagos(Paths.get(""), cantidad, meses);
+    }
+
+    @Override
+    public void abrir() {
+        admin = new Administrador("Admin", "Benchmark", "1", new PrintWriter(Writer.nullWriter()));
+        inquilinos = admin.listarInquilinos();
+    }
+
+    @Override
+    public void cerrar() {
+        admin.cerrar();
+        admin = null;
+    }
+
+    @Override
+    public void restaurarSalida() {
+        if (salida != null) {
+            System.setOut(salida);
+            salida = null;
+        }
+    }
+
+    @Override
+    public void borrarInstantanea() throws IOException {
+        Files.deleteIfExists(Paths.get("estado.snap"));
+    }
+
+    /**
+     * Elige un inquilino al azar.
+     */
+    private Inquilino inquilinoAlAzar() {
+        return inquilinos.get(ThreadLocalRandom.current().nextInt(inquilinos.size()));
+    }
+
+    @Override
+    public void registrarPago() {
+        Inquilino inquilino = inquilinoAlAzar();
+        admin.registrarPago(new Pago(1000, LocalDate.now(), inquilino, admin.getCocheraPorInquilino(inquilino)));
+    }
+
+    @Override
+    public Object crearReserva() {
+        return new Reserva(FECHA_LIBRE, inquilinoAlAzar(), Lugar.SUM);
+    }
+
+    @Override
+    public boolean reservarYCancelar() {
+        Reserva reserva = new Reserva(FECHA_LIBRE, inquilinoAlAzar(), Lugar.PILETA);
+        boolean reservada = admin.reservarLugar(reserva);
+        admin.cancelarReserva(reserva.getNroReserva());
+        return reservada;
+    }
+
+    /**
+     * Elige al azar uno de los días con reservas generadas.
+     */
+    private LocalDate diaConReservasAlAzar() {
+        return GeneradorDatos.FECHA_INICIAL.plusDays(
+                ThreadLocalRandom.current().nextInt(GeneradorDatos.diasConReservas(cantidad)));
+    }
+
+    @Override
+    public Object buscarFranjasLibres() {
+        // Los días generados están reservados completos, por lo que la búsqueda debe saltar
+        // hasta el final de las reservas de ese lugar.
+        return admin.getFranjasLibres(Lugar.PARRILLA, diaConReservasAlAzar().atTime(12, 0), Duration.ofHours(2), 10);
+    }
+
+    @Override
+    public Object calendario() {
+        return admin.getCalendario(Lugar.SUM, YearMonth.from(diaConReservasAlAzar()));
+    }
+
+    @Override
+    public Object buscarCocheraPorInquilino() {
+        return admin.getCocheraPorInquilino(inquilinoAlAzar());
+    }
+
+    @Override
+    public Object buscarCocheraPorNumero() {
+        return admin.getCocheraPorNumero(ThreadLocalRandom.current().nextInt(cantidad) + 1);
+    }
+
+    @Override
+    public void listarCocheras() {
+        admin.listarCocheras();
+    }
+
+    @Override
+    public Object facturar() throws IOException {
+        return admin.facturar(YearMonth.now());
+    }
+
+    @Override
+    public Object leerInquilinos(ForkJoinPool pool) throws IOException {
+        return InstantaneaEstado.inquilinosDesdeTexto(Paths.get("inquilinos.txt"), pool);
+    }
+
+    @Override
+    public Object leerCocheras(ForkJoinPool pool) throws IOException {
+        return ArchivoCocheras.registrosDesdeCsv(Paths.get("cocheras.txt"), pool);
+    }
+
+    @Override
+    public void prepararRegistros(int cantidad) {
+        Map<String, Inquilino> inquilinosPorDni = new HashMap<>();
+        Map<Integer, Cochera> cocherasPorNumero = new HashMap<>();
+        registros = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            Inquilino inquilino = new Inquilino("Nombre" + i, "Apellido" + i, String.valueOf(20000000 + i));
+            inquilinosPorDni.put(inquilino.getDni(), inquilino);
+            LocalDate fecha = GeneradorDatos.FECHA_INICIAL.plusDays(i);
+            if (i % 2 == 0) {
+                Cochera cochera = new Cochera(i + 1, "Base", false, inquilino);
+                cocherasPorNumero.put(cochera.getNumero(), cochera);
+                registros.add(new Pago(15000 + i, fecha, inquilino, cochera));
+            } else {
+                registros.add(new Reserva(i, fecha, LocalTime.of(10, 0), LocalTime.of(12, 30), inquilino, Lugar.SUM));
+            }
+        }
+        codec = new CodecRegistros(inquilinosPorDni::get, nombre -> null, cocherasPorNumero::get);
+        buffer = ByteBuffer.allocate(cantidad * 64);
+        binarios = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), codificarBinario()));
+        lineas = new ArrayList<>(cantidad);
+        for (Object registro : registros) {
+            lineas.add(registro instanceof Pago ? codec.aCsv((Pago) registro) : codec.aCsv((Reserva) registro));
+        }
+    }
+
+    @Override
+    public int codificarBinario() {
+        buffer.clear();
+        for (Object registro : registros) {
+            if (registro instanceof Pago) {
+                codec.codificar((Pago) registro, buffer);
+            } else {
+                codec.codificar((Reserva) registro, buffer);
+            }
+        }
+        return buffer.position();
+    }
+
+    @Override
+    public Object decodificarBinario() {
+        ByteBuffer origen = binarios.duplicate();
+        Object ultimo = null;
+        while (origen.hasRemaining()) {
+            ultimo = CodecRegistros.tipoSiguiente(origen) == CodecRegistros.TIPO_PAGO
+                    ? codec.decodificarPago(origen) : codec.decodificarReserva(origen);
+        }
+        return ultimo;
+    }
+
+    @Override
+    public int codificarCsv() {
+        int caracteres = 0;
+        for (Object registro : registros) {
+            String linea = registro instanceof Pago ? codec.aCsv((Pago) registro) : codec.aCsv((Reserva) registro);
+            caracteres += linea.length();
+        }
+        return caracteres;
+    }
+
+    @Override
+    public Object decodificarCsv() {
+        Object ultimo = null;
+        for (String linea : lineas) {
+            ultimo = CodecRegistros.tipoDeLinea(linea) == CodecRegistros.TIPO_PAGO
+                    ? codec.pagoDesdeLinea(linea) : codec.reservaDesdeLinea(linea);
+        }
+        return ultimo;
+    }
+
+    @Override
+    public int lineasDesdeBinario() {
+        ByteBuffer origen = binarios.duplicate();
+        int caracteres = 0;
+        while (origen.hasRemaining()) {
+            caracteres += CodecRegistros.lineaDesdeBinario(origen).length();
+        }
+        return caracteres;
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks del inicio del sistema (carga de inquilinos y cocheras), medidos como tiempo
+ * de una única ejecución: con la instantánea ya generada, y desde los archivos de texto
+ * (la instantánea se borra antes de cada ejecución y se vuelve a generar).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArranqueBenchmark {
+
+    // Cantidad de inquilinos y de cocheras.
+    @Param({"10", "1000", "100000", "1000000"})
+    public int cantidad;
+
+    private Sistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        sistema = Sistema.crear();
+        sistema.generarDatos(cantidad);
+        // Se abre el sistema una vez para generar el almacén de cocheras y la instantánea.
+        sistema.abrir();
+        sistema.cerrar();
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        sistema.restaurarSalida();
+    }
+
+    /**
+     * Borra la instantánea antes de cada ejecución, para medir la carga desde los archivos de texto.
+     */
+    @State(Scope.Thread)
+    public static class SinInstantanea {
+
+        @Setup(Level.Invocation)
+        public void borrarInstantanea(ArranqueBenchmark benchmark) throws IOException {
+            benchmark.sistema.borrarInstantanea();
+        }
+    }
+
+    @Benchmark
+    public void conInstantanea() {
+        sistema.abrir();
+        sistema.cerrar();
+    }
+
+    @Benchmark
+    public void desdeTexto(SinInstantanea sinInstantanea) {
+        sistema.abrir();
+        sistema.cerrar();
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de la lectura por bloques en paralelo de "inquilinos.txt" y "cocheras.txt"
+ * (la parte de la generación de la instantánea y del almacén de cocheras que depende del
+ * tamaño de los archivos de texto), con pools de distinta cantidad de hilos, para ver cómo
+ * escala con los núcleos disponibles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CargaTextoBenchmark {
+
+    // Cantidad de inquilinos y de cocheras.
+    @Param({"1000000", "4000000"})
+    public int cantidad;
+
+    // Cantidad de hilos del pool que procesa los bloques.
+    @Param({"1", "2", "4", "8"})
+    public int hilos;
+
+    private Sistema sistema;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        sistema = Sistema.crear();
+        sistema.generarDatos(cantidad);
+        pool = new ForkJoinPool(hilos);
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurar() {
+        pool.shutdown();
+        sistema.restaurarSalida();
+    }
+
+    @Benchmark
+    public Object inquilinos() throws IOException {
+        return sistema.leerInquilinos(pool);
+    }
+
+    @Benchmark
+    public Object cocheras() throws IOException {
+        return sistema.leerCocheras(pool);
+    }
+}
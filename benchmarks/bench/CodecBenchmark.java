@@ -0,0 +1,62 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de CodecRegistros sobre pagos y reservas: codificar y decodificar en formato
+ * binario (sobre un buffer reutilizado) y en CSV, y armar las líneas CSV a partir del formato
+ * binario, como al recuperar el registro de operaciones.
+ * Se informa el rendimiento en registros por microsegundo; con "-prof gc" se informa además
+ * la memoria asignada por registro.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    // Cantidad de registros que procesa cada invocación.
+    private static final int REGISTROS = 1000;
+
+    private Sistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        sistema = Sistema.crear();
+        sistema.prepararRegistros(REGISTROS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int codificarBinario() {
+        return sistema.codificarBinario();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public Object decodificarBinario() {
+        return sistema.decodificarBinario();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int codificarCsv() {
+        return sistema.codificarCsv();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public Object decodificarCsv() {
+        return sistema.decodificarCsv();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REGISTROS)
+    public int lineasDesdeBinario() {
+        return sistema.lineasDesdeBinario();
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la facturación mensual completa: lectura de "pagos.txt", recálculo del
+ * estado de pago de todas las cocheras y exportación de "cocheras.txt".
+ * Los datos incluyen un pago por cochera en cada uno de los tres meses anteriores y uno
+ * de cada dos cocheras en el mes actual, que es el que se factura.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FacturacionBenchmark {
+
+    // Meses anteriores al actual con pagos.
+    private static final int MESES_DE_HISTORIAL = 3;
+
+    // Cantidad de inquilinos y de cocheras.
+    @Param({"100000", "1000000"})
+    public int cantidad;
+
+    private Sistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        sistema = Sistema.crear();
+        sistema.generarDatos(cantidad);
+        sistema.generarPagos(MESES_DE_HISTORIAL);
+        sistema.abrir();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        sistema.cerrar();
+        sistema.restaurarSalida();
+    }
+
+    @Benchmark
+    public Object facturar() throws IOException {
+        return sistema.facturar();
+    }
+}
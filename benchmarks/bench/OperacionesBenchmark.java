@@ -0,0 +1,93 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las operaciones de los usuarios sobre conjuntos de datos de distinto tamaño:
+ * registrar un pago (desde uno y desde varios hilos), crear una reserva, reservar y
+ * cancelar, las consultas de la agenda de lugares (próximas franjas libres y calendario
+ * de un mes), las búsquedas de cocheras y el listado de todas las cocheras.
+ * Se informa el rendimiento (operaciones por microsegundo) y la distribución de la latencia
+ * (percentiles); con "-prof gc" se informa además la memoria asignada por operación.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperacionesBenchmark {
+
+    // Cantidad de inquilinos y de cocheras.
+    @Param({"10", "1000", "100000", "1000000"})
+    public int cantidad;
+
+    private Sistema sistema;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        sistema = Sistema.crear();
+        sistema.generarDatos(cantidad);
+        sistema.abrir();
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        sistema.cerrar();
+        sistema.restaurarSalida();
+    }
+
+    @Benchmark
+    public void registrarPago() {
+        sistema.registrarPago();
+    }
+
+    /**
+     * Pagos de 8 hilos a la vez, en general de cocheras distintas: como la escritura forzada
+     * del registro de operaciones se espera fuera del bloqueo de "pagos.txt" y se comparte,
+     * el rendimiento total debe superar al de registrarPago con un único hilo.
+     */
+    @Benchmark
+    @Threads(8)
+    public void registrarPagoConcurrente() {
+        sistema.registrarPago();
+    }
+
+    @Benchmark
+    public Object crearReserva() {
+        return sistema.crearReserva();
+    }
+
+    @Benchmark
+    public boolean reservarYCancelar() {
+        return sistema.reservarYCancelar();
+    }
+
+    @Benchmark
+    public Object buscarFranjasLibres() {
+        return sistema.buscarFranjasLibres();
+    }
+
+    @Benchmark
+    public Object calendario() {
+        return sistema.calendario();
+    }
+
+    @Benchmark
+    public Object buscarCocheraPorInquilino() {
+        return sistema.buscarCocheraPorInquilino();
+    }
+
+    @Benchmark
+    public Object buscarCocheraPorNumero() {
+        return sistema.buscarCocheraPorNumero();
+    }
+
+    @Benchmark
+    public void listarCocheras() {
+        sistema.listarCocheras();
+    }
+}
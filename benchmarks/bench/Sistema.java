@@ -0,0 +1,192 @@
+package bench;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Operaciones del sistema que miden los benchmarks.
+ * <p>
+ * JMH exige que las clases de benchmarks estén en un paquete con nombre, pero las clases
+ * del sistema están en el paquete por defecto, que no puede importarse. Por eso los
+ * benchmarks usan esta interfaz, implementada en el paquete por defecto por
+ * SistemaBenchmark, que se obtiene una única vez por reflexión.
+ */
+public interface Sistema {
+
+    /**
+     * Crea la implementación del paquete por defecto.
+     *
+     * @return Sistema listo para generar datos y abrirse.
+     */
+    static Sistema crear() {
+        try {
+            return (Sistema) Class.forName("SistemaBenchmark").getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se encontró la clase SistemaBenchmark.", e);
+        }
+    }
+
+    /**
+     * Genera los archivos de datos en el directorio de trabajo y descarta la salida por consola.
+     *
+     * @param cantidad Cantidad de inquilinos y de cocheras.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void generarDatos(int cantidad) throws IOException;
+
+    /**
+     * Agrega un historial de pagos a los datos generados (ver GeneradorDatos.generarPagos).
+     * Debe invocarse con el sistema cerrado.
+     *
+     * @param meses Cantidad de meses anteriores al actual con pagos.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void generarPagos(int meses) throws IOException;
+
+    /**
+     * Inicia el sistema (crea el Administrador) sobre los datos generados.
+     */
+    void abrir();
+
+    /**
+     * Cierra el sistema.
+     */
+    void cerrar();
+
+    /**
+     * Restaura la salida por consola.
+     */
+    void restaurarSalida();
+
+    /**
+     * Borra la instantánea, para que el próximo inicio cargue los archivos de texto.
+     *
+     * @throws IOException Si no se puede borrar.
+     */
+    void borrarInstantanea() throws IOException;
+
+    /**
+     * Registra un pago de un inquilino elegido al azar.
+     */
+    void registrarPago();
+
+    /**
+     * Crea una reserva (sin registrarla) de un inquilino elegido al azar.
+     *
+     * @return La reserva creada.
+     */
+    Object crearReserva();
+
+    /**
+     * Registra una reserva de un inquilino elegido al azar y la cancela.
+     *
+     * @return true si la reserva fue aceptada.
+     */
+    boolean reservarYCancelar();
+
+    /**
+     * Busca las próximas franjas libres de un lugar desde un día elegido al azar entre
+     * los que tienen reservas generadas.
+     *
+     * @return Las franjas encontradas.
+     */
+    Object buscarFranjasLibres();
+
+    /**
+     * Arma el calendario de un lugar para un mes elegido al azar entre los que tienen reservas generadas.
+     *
+     * @return Las franjas del mes.
+     */
+    Object calendario();
+
+    /**
+     * Busca la cochera de un inquilino elegido al azar.
+     *
+     * @return La cochera encontrada.
+     */
+    Object buscarCocheraPorInquilino();
+
+    /**
+     * Busca una cochera elegida al azar por su número.
+     *
+     * @return La cochera encontrada.
+     */
+    Object buscarCocheraPorNumero();
+
+    /**
+     * Lista todas las cocheras en una salida que descarta lo escrito.
+     */
+    void listarCocheras();
+
+    /**
+     * Ejecuta la facturación mensual del mes actual.
+     *
+     * @return Resultado de la facturación.
+     * @throws IOException Si no se pudo dejar el resultado en disco.
+     */
+    Object facturar() throws IOException;
+
+    /**
+     * Lee "inquilinos.txt" por bloques en el pool indicado, como al generar la instantánea.
+     *
+     * @param pool Pool donde se procesan los bloques.
+     * @return Los inquilinos leídos.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    Object leerInquilinos(ForkJoinPool pool) throws IOException;
+
+    /**
+     * Convierte "cocheras.txt" en registros de ancho fijo por bloques en el pool indicado,
+     * como al generar el almacén de cocheras.
+     *
+     * @param pool Pool donde se procesan los bloques.
+     * @return Los registros generados.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    Object leerCocheras(ForkJoinPool pool) throws IOException;
+
+    /**
+     * Arma en memoria pagos y reservas (la mitad de cada uno, las reservas con horario) de
+     * inquilinos ficticios, junto con sus registros binarios y sus líneas CSV, para medir
+     * CodecRegistros. No usa los datos generados ni necesita abrir el sistema.
+     *
+     * @param cantidad Cantidad de registros.
+     */
+    void prepararRegistros(int cantidad);
+
+    /**
+     * Codifica todos los registros en formato binario sobre un mismo buffer reutilizado.
+     *
+     * @return Cantidad de bytes escritos.
+     */
+    int codificarBinario();
+
+    /**
+     * Decodifica todos los registros desde su formato binario.
+     *
+     * @return El último registro leído.
+     */
+    Object decodificarBinario();
+
+    /**
+     * Arma la línea CSV de todos los registros.
+     *
+     * @return Cantidad de caracteres escritos.
+     */
+    int codificarCsv();
+
+    /**
+     * Lee todos los registros desde sus líneas CSV.
+     *
+     * @return El último registro leído.
+     */
+    Object decodificarCsv();
+
+    /**
+     * Arma la línea CSV de todos los registros a partir de su formato binario, como al
+     * recuperar el registro de operaciones.
+     *
+     * @return Cantidad de caracteres escritos.
+     */
+    int lineasDesdeBinario();
+}
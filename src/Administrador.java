@@ -1,101 +1,542 @@
 import java.io.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Clase Administrador que gestiona los pagos, reservas, cocheras e inquilinos.
  * Hereda de la clase Persona.
+ * <p>
+ * Una misma instancia puede ser usada por varios hilos a la vez:
+ * <ul>
+ *     <li>Inquilinos y cocheras se leen de una instantánea binaria proyectada en memoria
+ *     (InstantaneaEstado): cada objeto se construye la primera vez que se accede a él,
+ *     siempre como la misma instancia, y luego sólo se lee.</li>
+ *     <li>Los pagos de una misma cochera se serializan con el bloqueo de esa cochera,
+ *     por lo que pagos de cocheras distintas no se bloquean entre sí.</li>
+ *     <li>Las reservas se serializan en el registro de reservas, y sus números
+ *     provienen de una secuencia atómica. Los horarios de cada lugar se
+ *     verifican y se ocupan de forma atómica en la agenda, con un bloqueo por lugar.</li>
+ *     <li>Las escrituras de archivos son agregados sincronizados o reemplazos atómicos
+ *     (archivo temporal + renombrado).</li>
+ *     <li>Cada pago, reserva y cancelación se anota antes en el registro de operaciones
+ *     ("operaciones.wal"), que al iniciar se vuelve a aplicar sobre los archivos de datos.
+ *     La espera de que la entrada llegue a disco se hace sin el bloqueo de "pagos.txt", y los
+ *     pagos que se registran a la vez comparten una misma escritura forzada.</li>
+ * </ul>
+ * Los pagos no se guardan en memoria: se leen de "pagos.txt" por bloques, a través de una
+ * caché acotada de los bloques consultados recientemente (ver AlmacenPagos).
+ * <p>
+ * La duración de cada operación pública, los resultados de pagos y reservas, el tamaño de
+ * las colecciones en memoria y los aciertos y fallos de la caché de pagos se registran en
+ * Metricas, con nombres que empiezan con "admin.".
  */
 class Administrador extends Persona {
 
-    // Lista para almacenar todos los pagos realizados.
-    private List<Pago> pagos;
+    // Pagos registrados en "pagos.txt", con una caché acotada de los bloques leídos.
+    private final AlmacenPagos almacenPagos;
 
-    // Lista para almacenar todas las reservas realizadas.
-    private List<Reserva> reservas;
+    // Registro de reservas vigentes, respaldado por el archivo "reservas.txt".
+    private final RegistroReservas registroReservas;
 
-    // Lista de cocheras disponibles o asignadas a inquilinos.
-    private List<Cochera> cocheras;
+    // Números de las reservas nuevas, persistidos en la marca de agua "reservas.seq".
+    private final SecuenciaReservas secuencia;
 
-    // Lista de inquilinos registrados en el sistema.
-    private List<Inquilino> inquilinos;
+    // Horarios reservados de cada lugar común, para detectar reservas superpuestas
+    // y responder las consultas de disponibilidad.
+    private final AgendaLugares agenda;
+
+    // Totales de pagos por inquilino y por mes, actualizados con cada pago.
+    // Se arma la primera vez que se consulta (null hasta entonces).
+    private volatile LibroPagos libroPagos;
+    private final Object bloqueoLibroPagos = new Object();
+
+    // Inquilinos y cocheras, con sus índices por DNI y por número.
+    private final InstantaneaEstado instantanea;
+
+    // Índice de inquilinos por "nombre apellido", sólo para líneas del formato anterior.
+    // Se arma la primera vez que se necesita (null hasta entonces).
+    private volatile Map<String, Inquilino> inquilinosPorNombre;
 
     // Objeto para la gestión de lectura/escritura en archivos de texto.
-    private GestorArchivo gestorArchivo;
+    private final GestorArchivo gestorArchivo;
+
+    // Codec para escribir y leer los registros de pagos y reservas.
+    private final CodecRegistros codec;
+
+    // Almacén binario de cocheras con registros de ancho fijo (null si no pudo abrirse).
+    private ArchivoCocheras archivoCocheras;
+
+    // Registro de operaciones (write-ahead log) de pagos, reservas y cancelaciones.
+    private final RegistroOperaciones operaciones;
+
+    // Registro de métricas del sistema.
+    private final Metricas metricas = Metricas.global();
+
+    // Salida con buffer de los listados (por defecto, la consola).
+    private final PrintWriter salida;
 
     /**
-     * Constructor de Administrador.
-     * Inicializa las listas de pagos, reservas, cocheras e inquilinos.
-     * También carga los datos de inquilinos y cocheras desde archivos.
+     * Constructor de Administrador que escribe los listados en la consola, con buffer (ver Consola).
      *
      * @param nombre   Nombre del administrador.
      * @param apellido Apellido del administrador.
      * @param dni      DNI del administrador.
+     * @throws UncheckedIOException Si no se puede abrir o recuperar el registro de operaciones.
      */
     public Administrador(String nombre, String apellido, String dni) {
-        // Se inicializan las listas donde se almacenarán pagos, reservas, cocheras e inquilinos.
-        this.pagos = new ArrayList<>();
-        this.reservas = new ArrayList<>();
-        this.cocheras = new ArrayList<>();
-        this.inquilinos = new ArrayList<>();
+        this(nombre, apellido, dni, Consola.crearSalida());
+    }
+
+    /**
+     * Constructor de Administrador.
+     * Inicializa el almacén de pagos y el registro de reservas, y abre los datos de
+     * inquilinos y cocheras. Las cocheras se leen del almacén binario "cocheras.dat",
+     * que se genera a partir de "cocheras.txt" la primera vez que se ejecuta el sistema
+     * y cada vez que "cocheras.txt" se modifica por fuera del sistema.
+     * Inquilinos y cocheras se leen de la instantánea "estado.snap", que se genera a partir
+     * de "inquilinos.txt" y del almacén cuando no existe o cuando "inquilinos.txt" o
+     * "cocheras.txt" se modificaron por fuera del sistema.
+     * El libro de pagos se arma recién en la primera consulta.
+     * Antes de abrir los datos se aplican las operaciones del registro de operaciones
+     * que no hayan llegado a los archivos (por ejemplo, tras una interrupción).
+     *
+     * @param nombre   Nombre del administrador.
+     * @param apellido Apellido del administrador.
+     * @param dni      DNI del administrador.
+     * @param salida   Salida de los listados. Se vacía al terminar cada listado, pero no se cierra.
+     * @throws UncheckedIOException Si no se puede abrir o recuperar el registro de operaciones.
+     */
+    public Administrador(String nombre, String apellido, String dni, PrintWriter salida) {
+        super(nombre, apellido, dni);
+        long inicio = System.nanoTime();
+        this.salida = salida;
 
         // Se inicializa el gestor de archivos para manejar la lectura/escritura.
         this.gestorArchivo = new GestorArchivo();
 
-        // Se cargan inquilinos y cocheras desde sus respectivos archivos de texto.
-        cargarInquilinos("inquilinos.txt");
-        cargarCocheras("cocheras.txt");
+        // Los pagos se leen de "pagos.txt" cuando se consultan, a través de la caché de bloques.
+        this.almacenPagos = new AlmacenPagos("pagos.txt", gestorArchivo, this::pagoDesdeLinea);
+
+        // Se abre el almacén binario de cocheras (migrándolo desde el CSV si hace falta).
+        try {
+            this.archivoCocheras = ArchivoCocheras.abrir("cocheras.dat", "cocheras.txt");
+        } catch (IOException e) {
+            System.out.println("Error al abrir el archivo de cocheras: " + e.getMessage());
+        }
+
+        // Se abre el registro de operaciones y se aplican las que quedaron pendientes.
+        // Sin él no se puede garantizar que los pagos y reservas no se pierdan, por lo que el error es fatal.
+        try {
+            this.operaciones = new RegistroOperaciones("operaciones.wal", "pagos.txt", "reservas.txt",
+                    this::sincronizarDatos);
+            // Ninguna línea llega a los archivos de datos antes que su entrada en el registro.
+            gestorArchivo.setAntesDeEscribir(operaciones::forzar);
+            int reaplicadas = operaciones.recuperar(archivoCocheras);
+            if (reaplicadas > 0) {
+                System.out.println("Se recuperaron " + reaplicadas + " operaciones pendientes.");
+            }
+            operaciones.puntoDeControl(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al recuperar el registro de operaciones", e);
+        }
+
+        // Se crea el codec de registros. Las líneas del formato anterior de pagos y reservas
+        // identifican al inquilino por nombre y apellido.
+        this.codec = new CodecRegistros(this::buscarInquilinoPorDNI, this::buscarInquilinoPorNombre, this::getCocheraPorNumero);
+
+        // Se abren inquilinos y cocheras desde la instantánea (o desde los archivos de texto, si está desactualizada).
+        this.instantanea = InstantaneaEstado.abrir("estado.snap", "inquilinos.txt", "cocheras.txt",
+                archivoCocheras, "cocheras.dat");
+
+        // Se cargan las reservas vigentes.
+        this.registroReservas = new RegistroReservas("reservas.txt", codec, gestorArchivo, operaciones);
+
+        // Se abre la secuencia de números de reserva. Se adelanta hasta el mayor número del archivo
+        // de reservas (ya con las operaciones recuperadas), por si la marca de agua quedó atrasada.
+        this.secuencia = new SecuenciaReservas("reservas.seq");
+        secuencia.avanzarHasta(registroReservas.getMayorNroReserva());
+
+        // Se reconstruye la agenda de los lugares a partir de las reservas vigentes.
+        // Las reservas anteriores a los horarios pueden superponerse: se informan y quedan
+        // vigentes, pero sólo la primera ocupa el horario en la agenda.
+        this.agenda = new AgendaLugares();
+        for (Reserva reserva : registroReservas.getReservas()) {
+            if (!agenda.ocupar(reserva)) {
+                System.out.println("Error: la reserva N°" + reserva.getNroReserva() + " (" + reserva.getLugar()
+                        + ", " + reserva.getTurno() + ") se superpone con otra reserva del mismo lugar.");
+            }
+        }
+
+        // Se publican los tamaños de las colecciones en memoria.
+        metricas.registrarIndicador("admin.pagos.cache.aciertos", () -> almacenPagos.getEstadisticasCache().getAciertos());
+        metricas.registrarIndicador("admin.pagos.cache.fallos", () -> almacenPagos.getEstadisticasCache().getFallos());
+        metricas.registrarIndicador("admin.pagos.cache.expulsiones", () -> almacenPagos.getEstadisticasCache().getExpulsiones());
+        metricas.registrarIndicador("admin.pagos.cache.pagos", () -> almacenPagos.getEstadisticasCache().getPeso());
+        metricas.registrarIndicador("admin.reservas.vigentes", registroReservas::getCantidad);
+        metricas.registrarIndicador("admin.inquilinos", instantanea::getCantidadInquilinos);
+        metricas.registrarIndicador("admin.cocheras", instantanea::getCantidadCocheras);
+        metricas.registrarIndicador("archivo.escritores", gestorArchivo::getCantidadEscritores);
+        metricas.registrarLatencia("admin.iniciar", inicio);
     }
 
     /**
      * Registra un pago realizado por un inquilino.
-     * Agrega el objeto Pago a la lista de pagos, lo guarda en el archivo "pagos.txt",
-     * actualiza la información de pago en el archivo "cocheras.txt" y recarga
-     * la lista de cocheras para mantener la información actualizada.
+     * El pago se anota primero en el registro de operaciones y se guarda en el archivo
+     * "pagos.txt"; cuando la entrada está en disco (la escritura forzada se comparte con
+     * los pagos simultáneos), se marca como pagada la cochera en memoria y se persiste
+     * únicamente ese cambio en el almacén de cocheras.
+     * Si el registro de operaciones no puede escribirse, el pago no se aplica.
      *
      * @param pago Objeto Pago que contiene la información del pago.
+     * @throws UncheckedIOException Si no se pudo registrar la operación; el pago no se aplica
+     *                              (si su entrada llegó a disco, se aplica al recuperar en el próximo inicio).
      */
     public void registrarPago(Pago pago) {
-        // Se agrega el pago a la lista local de pagos.
-        pagos.add(pago);
+        long inicio = System.nanoTime();
+        try {
+            aplicarPago(pago);
+        } finally {
+            metricas.registrarLatencia("admin.registrarPago", inicio);
+        }
+    }
 
-        // Se guarda la información del pago en el archivo "pagos.txt".
-        gestorArchivo.guardarEnArchivo("pagos.txt", pago.toString());
+    /**
+     * Implementación de registrarPago().
+     */
+    private void aplicarPago(Pago pago) {
+        Cochera cochera = pago.getCochera();
+        String linea = codec.aCsv(pago);
+        try {
+            operaciones.ejecutar(() -> {
+                // Se anota el pago en el registro de operaciones y se guarda en "pagos.txt".
+                // Recién después de soltar el bloqueo de "pagos.txt" se espera a que la entrada
+                // llegue a disco, junto con las de los pagos que se anoten mientras tanto.
+                long[] secuencia = new long[1];
+                gestorArchivo.guardarEnArchivo("pagos.txt", linea, desplazamiento -> secuencia[0] =
+                        operaciones.anotar(desplazamiento, cochera.getNumero(), destino -> codec.codificar(pago, destino)));
+                operaciones.esperarEnDisco(secuencia[0]);
 
-        // Se actualiza el archivo "cocheras.txt" para reflejar el estado de pago de la cochera.
-        // Parámetros de 'actualizarArchivo': archivo, valor clave (número de cochera),
-        // columna a actualizar (2 en este caso) y el nuevo valor ("true").
-        gestorArchivo.actualizarArchivo("cocheras.txt", pago.getCochera().getNumero(), 2, "true");
+                // Se actualiza la cochera en memoria: es la misma instancia que está en la lista.
+                // El bloqueo es por cochera, de modo que pagos de cocheras distintas no se esperan entre sí.
+                synchronized (cochera) {
+                    cochera.marcarPagada();
 
-        // Tras la actualización, se recarga la lista de cocheras para reflejar los cambios.
-        cargarCocheras("cocheras.txt");
+                    // Se persiste el cambio en el almacén binario.
+                    // Es la escritura de un único byte en la posición del registro de la cochera.
+                    if (archivoCocheras != null) {
+                        int indice = instantanea.indiceCochera(cochera.getNumero());
+                        if (indice >= 0) {
+                            archivoCocheras.actualizarEstadoPagoEn(instantanea.getPosicionEnAlmacen(indice), true);
+                        } else {
+                            archivoCocheras.actualizarEstadoPago(cochera.getNumero(), true);
+                        }
+                    }
+                }
 
-        // Mensaje de confirmación.
-        System.out.println("Pago registrado con éxito.");
+                // Se agrega el pago al libro de pagos, si ya fue armado. Si todavía no existe,
+                // el pago se incluirá al leer "pagos.txt" cuando se arme.
+                LibroPagos libro = libroPagos;
+                if (libro != null) {
+                    libro.registrar(pago);
+                }
+            });
+        } catch (IOException e) {
+            metricas.incrementar("admin.pagos.fallidos");
+            throw new UncheckedIOException(e);
+        }
+        metricas.incrementar("admin.pagos.registrados");
     }
 
     /**
-     * Registra una reserva realizada por un inquilino.
-     * Agrega el objeto Reserva a la lista de reservas y lo guarda en el archivo "reservas.txt".
+     * Registra una reserva realizada por un inquilino, asignándole el siguiente número
+     * de la secuencia de reservas (ver Reserva.getNroReserva).
+     * Antes de aceptarla se verifica (y se ocupa, de forma atómica) que el horario de la
+     * reserva no se superponga con otra reserva del mismo lugar. Si no se superpone, se agrega
+     * el objeto Reserva al registro de reservas, que la guarda al final del archivo
+     * "reservas.txt". El número se asigna recién después de verificar que el horario está
+     * libre, por lo que las reservas rechazadas no consumen números.
      *
      * @param reserva Objeto Reserva con la información de la reserva.
+     * @return true si la reserva fue registrada; false si el lugar ya estaba reservado en ese horario.
+     * @throws UncheckedIOException Si no se pudo registrar la operación; el lugar queda libre.
      */
-    public void reservarLugar(Reserva reserva) {
-        // Se agrega la reserva a la lista local de reservas.
-        reservas.add(reserva);
-
-        // Se guarda la información de la reserva en el archivo "reservas.txt".
-        gestorArchivo.guardarEnArchivo("reservas.txt", reserva.toString());
+    public boolean reservarLugar(Reserva reserva) {
+        long inicio = System.nanoTime();
+        try {
+            // Se verifica antes de asignar el número, para no consumir números en reservas rechazadas.
+            // Sólo si otro usuario ocupa el horario entre la verificación y la ocupación se pierde un número.
+            if (!agenda.estaLibre(reserva.getLugar(), reserva.getFecha(), reserva.getHoraDesde(), reserva.getHoraHasta())) {
+                metricas.incrementar("admin.reservas.rechazadas");
+                return false;
+            }
+            reserva.asignarNumero(secuencia.siguiente());
+            if (!agenda.ocupar(reserva)) {
+                metricas.incrementar("admin.reservas.rechazadas");
+                return false;
+            }
+            try {
+                registroReservas.agregar(reserva);
+            } catch (UncheckedIOException e) {
+                agenda.liberar(reserva);
+                metricas.incrementar("admin.reservas.fallidas");
+                throw e;
+            }
+            metricas.incrementar("admin.reservas.registradas");
+            return true;
+        } finally {
+            metricas.registrarLatencia("admin.reservarLugar", inicio);
+        }
     }
 
     /**
      * Cancela una reserva existente, buscándola por su número.
-     * El proceso de eliminación se realiza en el archivo de texto "reservas.txt".
+     * La reserva se quita del registro en memoria y la baja se agrega al final de "reservas.txt";
+     * el archivo se compacta luego en segundo plano.
      *
      * @param nroReserva Número de reserva a cancelar.
+     * @return true si la reserva fue cancelada; false si no existe una reserva vigente con ese número.
+     * @throws UncheckedIOException Si no se pudo registrar la operación; la reserva sigue vigente.
      */
-    public void cancelarReserva(int nroReserva) {
-        System.out.println("nroReserva " + nroReserva);
-        eliminarReserva(nroReserva);
+    public boolean cancelarReserva(int nroReserva) {
+        long inicio = System.nanoTime();
+        try {
+            Reserva reserva;
+            try {
+                reserva = registroReservas.cancelar(nroReserva);
+            } catch (UncheckedIOException e) {
+                metricas.incrementar("admin.cancelaciones.fallidas");
+                throw e;
+            }
+            if (reserva == null) {
+                metricas.incrementar("admin.cancelaciones.inexistentes");
+                return false;
+            }
+            // Se libera el horario que ocupaba la reserva.
+            agenda.liberar(reserva);
+            metricas.incrementar("admin.cancelaciones.registradas");
+            return true;
+        } finally {
+            metricas.registrarLatencia("admin.cancelarReserva", inicio);
+        }
+    }
+
+    /**
+     * Importa pagos y reservas desde un archivo CSV (ver ImportadorCsv para el formato).
+     * Las líneas se interpretan y validan en paralelo; las reservas se aceptan en el orden
+     * del archivo si el lugar está libre en ese horario. Las filas aceptadas se confirman
+     * juntas al final:
+     * <ol>
+     *     <li>Se anotan todas en el registro de operaciones como un único lote, con una
+     *     sola escritura forzada a disco. Desde ese momento la importación se recupera
+     *     completa ante una interrupción; si la escritura falla, no se aplica ninguna fila.</li>
+     *     <li>Se agregan las líneas a "pagos.txt" y "reservas.txt" y se marcan como pagadas
+     *     las cocheras (una vez cada una). Si alguna línea no puede guardarse, no se sigue:
+     *     el registro de operaciones conserva el lote y deja de aceptar operaciones
+     *     (ver RegistroOperaciones.marcarFalla), y las filas se aplican al reiniciar el sistema.</li>
+     *     <li>Se hace un punto de control, que fuerza los archivos a disco y exporta
+     *     "cocheras.txt" una única vez.</li>
+     * </ol>
+     *
+     * @param archivo Ruta del archivo CSV.
+     * @return Resultado con la cantidad de filas aceptadas, los rechazos y la velocidad.
+     * @throws IOException Si no se pudo leer el archivo o confirmar la importación; en ese
+     *                     caso no se aplica ninguna fila, salvo que el lote ya se hubiera
+     *                     registrado: entonces sus filas se aplican al reiniciar el sistema.
+     */
+    public ImportadorCsv.Resultado importarCsv(String archivo) throws IOException {
+        long inicio = System.nanoTime();
+        List<Pago> nuevosPagos = new ArrayList<>();
+        List<Reserva> nuevasReservas = new ArrayList<>();
+        boolean confirmando = false;
+
+        ImportadorCsv importador = new ImportadorCsv(this::buscarInquilinoPorDNI,
+                inquilino -> instantanea.buscarCocheraDeInquilino(inquilino.getDni()),
+                instantanea::buscarCochera, Runtime.getRuntime().availableProcessors() - 1);
+        try {
+            ImportadorCsv.Resultado resultado = importador.importar(archivo, fila -> {
+                if (fila.getTipo() == CodecRegistros.TIPO_PAGO) {
+                    nuevosPagos.add(fila.getPago());
+                    return null;
+                }
+                // El horario se ocupa ahora, para que las filas siguientes (y otros usuarios) lo vean ocupado.
+                // Se verifica antes de asignar el número, para no consumir números en filas rechazadas.
+                String ocupado = fila.getLugar() + " ya está reservado para el " + fila.getTurno();
+                if (!agenda.estaLibre(fila.getLugar(), fila.getFecha(), fila.getHoraDesde(), fila.getHoraHasta())) {
+                    return ocupado;
+                }
+                Reserva reserva = new Reserva(fila.getFecha(), fila.getHoraDesde(), fila.getHoraHasta(),
+                        fila.getInquilino(), fila.getLugar());
+                reserva.asignarNumero(secuencia.siguiente());
+                if (!agenda.ocupar(reserva)) {
+                    return ocupado;
+                }
+                nuevasReservas.add(reserva);
+                return null;
+            });
+            if (!nuevosPagos.isEmpty() || !nuevasReservas.isEmpty()) {
+                confirmando = true;
+                confirmarImportacion(nuevosPagos, nuevasReservas);
+            }
+            resultado.setDuracionNanos(System.nanoTime() - inicio);
+            metricas.incrementar("admin.importaciones");
+            return resultado;
+        } catch (IOException | RuntimeException e) {
+            // No se aplicó ninguna fila: se liberan los horarios ocupados por las reservas aceptadas.
+            // Si falló la confirmación, ella misma decide si liberarlos.
+            if (!confirmando) {
+                liberarHorarios(nuevasReservas);
+            }
+            metricas.incrementar("admin.importaciones.fallidas");
+            throw e;
+        } finally {
+            metricas.registrarLatencia("admin.importarCsv", inicio);
+        }
+    }
+
+    /**
+     * Libera los horarios ocupados por las reservas de una importación que no se aplicó.
+     */
+    private void liberarHorarios(List<Reserva> reservas) {
+        for (Reserva reserva : reservas) {
+            agenda.liberar(reserva);
+        }
+    }
+
+    /**
+     * Confirma las filas aceptadas de una importación (ver importarCsv).
+     * Se toma el bloqueo del registro de reservas antes que el exclusivo del registro de
+     * operaciones, en el mismo orden que las reservas y la compactación.
+     * Si el lote no llega a registrarse, se liberan los horarios de sus reservas; si se
+     * registró pero sus filas no pudieron guardarse, los horarios quedan ocupados, ya que
+     * las filas se aplicarán al reiniciar.
+     */
+    private void confirmarImportacion(List<Pago> nuevosPagos, List<Reserva> nuevasReservas) throws IOException {
+        registroReservas.getBloqueo().lock();
+        try {
+            operaciones.ejecutarExclusiva(() -> {
+                // Con el bloqueo exclusivo nadie más agrega líneas, por lo que las posiciones
+                // de las líneas del lote pueden calcularse de antemano.
+                RegistroOperaciones.Lote lote = new RegistroOperaciones.Lote();
+                List<String> lineasPagos = new ArrayList<>(nuevosPagos.size());
+                long posicion = gestorArchivo.posicionFinal("pagos.txt");
+                for (Pago pago : nuevosPagos) {
+                    String linea = codec.aCsv(pago);
+                    lineasPagos.add(linea);
+                    posicion = lote.agregar(posicion, pago.getCochera().getNumero(), linea,
+                            destino -> codec.codificar(pago, destino));
+                }
+                List<String> lineasReservas = new ArrayList<>(nuevasReservas.size());
+                posicion = gestorArchivo.posicionFinal(registroReservas.getArchivo());
+                for (Reserva reserva : nuevasReservas) {
+                    String linea = codec.aCsv(reserva);
+                    lineasReservas.add(linea);
+                    posicion = lote.agregar(posicion, -1, linea, destino -> codec.codificar(reserva, destino));
+                }
+                try {
+                    operaciones.registrar(lote);
+                } catch (IOException | RuntimeException e) {
+                    liberarHorarios(nuevasReservas);
+                    throw e;
+                }
+                try {
+                    aplicarImportacion(nuevosPagos, lineasPagos, nuevasReservas, lineasReservas);
+                } catch (IOException e) {
+                    // El lote ya está en el registro de operaciones: sin punto de control, no se vacía,
+                    // y al reiniciar se aplican las filas que no llegaron a los archivos.
+                    operaciones.marcarFalla(e);
+                    throw new IOException("No se pudieron guardar las filas importadas;"
+                            + " se aplicarán al reiniciar el sistema.", e);
+                }
+
+                // Un único punto de control deja todo en disco y vacía el registro de operaciones.
+                operaciones.puntoDeControl(null);
+            });
+        } finally {
+            registroReservas.getBloqueo().unlock();
+        }
+    }
+
+    /**
+     * Agrega a los archivos las filas de una importación ya registrada en el registro de
+     * operaciones y actualiza el estado en memoria. Cada cochera se marca como pagada una sola vez.
+     *
+     * @throws IOException Si no se pudo guardar alguna de las líneas.
+     */
+    private void aplicarImportacion(List<Pago> nuevosPagos, List<String> lineasPagos,
+                                    List<Reserva> nuevasReservas, List<String> lineasReservas) throws IOException {
+        BitSet marcadas = new BitSet(instantanea.getCantidadCocheras());
+        for (int i = 0; i < nuevosPagos.size(); i++) {
+            gestorArchivo.agregarEnArchivo("pagos.txt", lineasPagos.get(i));
+            Cochera cochera = nuevosPagos.get(i).getCochera();
+            int indice = instantanea.indiceCochera(cochera.getNumero());
+            if (indice >= 0 && !marcadas.get(indice)) {
+                marcadas.set(indice);
+                synchronized (cochera) {
+                    cochera.marcarPagada();
+                    if (archivoCocheras != null) {
+                        archivoCocheras.actualizarEstadoPagoEn(instantanea.getPosicionEnAlmacen(indice), true);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < nuevasReservas.size(); i++) {
+            registroReservas.agregarRegistrada(nuevasReservas.get(i), lineasReservas.get(i));
+        }
+        LibroPagos libro = libroPagos;
+        if (libro != null) {
+            nuevosPagos.forEach(libro::registrar);
+        }
+    }
+
+    /**
+     * Ejecuta la facturación mensual de un período (ver FacturacionMensual): todas las cocheras
+     * quedan pendientes salvo las que registran un pago con fecha en ese mes, y se totalizan
+     * cocheras, pagos y montos por categoría. "pagos.txt" se lee una única vez y las cocheras
+     * se recorren en paralelo.
+     * <p>
+     * Se ejecuta con el bloqueo exclusivo del registro de operaciones, por lo que los pagos que
+     * lleguen mientras tanto esperan a que termine. Al final, un único punto de control fuerza
+     * el almacén a disco y exporta "cocheras.txt" con un reemplazo atómico. El resultado sólo
+     * depende de "pagos.txt", por lo que una facturación interrumpida puede repetirse.
+     *
+     * @param periodo Mes a facturar.
+     * @return Resultado con los totales por categoría y la duración.
+     * @throws IOException Si no se pudo leer "pagos.txt" (en ese caso no se cambia ningún estado)
+     *                     o dejar el resultado en disco.
+     */
+    public FacturacionMensual.Resultado facturar(YearMonth periodo) throws IOException {
+        long inicio = System.nanoTime();
+        FacturacionMensual facturacion = new FacturacionMensual(instantanea, archivoCocheras);
+        FacturacionMensual.Resultado resultado = new FacturacionMensual.Resultado(periodo);
+        try {
+            operaciones.ejecutarExclusiva(() -> {
+                // Sólo se interpretan las líneas del período; las demás se descartan por el texto de la fecha.
+                // Un error de lectura se informa antes de cambiar el estado de alguna cochera: los
+                // pagos se leen completos antes de aplicar los estados.
+                try (Stream<Pago> historial = gestorArchivo.lineas("pagos.txt")
+                        .filter(CodecRegistros.lineasDePagosDelMes(periodo))
+                        .map(this::pagoDesdeLinea)
+                        .filter(Objects::nonNull)) {
+                    facturacion.facturar(historial, resultado);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                // Un único punto de control deja el almacén en disco y reescribe "cocheras.txt".
+                operaciones.puntoDeControl(null);
+            });
+        } catch (IOException | RuntimeException e) {
+            metricas.incrementar("admin.facturaciones.fallidas");
+            throw e;
+        } finally {
+            metricas.registrarLatencia("admin.facturar", inicio);
+        }
+        resultado.setDuracionNanos(System.nanoTime() - inicio);
+        metricas.incrementar("admin.facturaciones");
+        return resultado;
     }
 
     /**
@@ -103,13 +544,27 @@ class Administrador extends Persona {
      * número, categoría, estado de pago e inquilino asociado.
      */
     public void listarCocheras() {
-        System.out.println("Listado de Cocheras:");
-        for (Cochera cochera : cocheras) {
+        long inicio = System.nanoTime();
+        salida.println("Listado de Cocheras:");
+        // Cada fila se escribe por partes en el buffer de la salida, sin armar cadenas intermedias.
+        for (Cochera cochera : instantanea.getCocheras()) {
             Inquilino inquilino = cochera.getInquilino();
-            System.out.println("Cochera N°" + cochera.getNumero() + " | Categoría: " + cochera.getCategoria() +
-                    " | Estado de pago: " + (cochera.isEstadoPago() ? "Pagado" : "Pendiente") +
-                    " | Inquilino: " + inquilino.getNombre() + " " + inquilino.getApellido() + " (DNI: " + inquilino.getDni() + ")");
+            salida.print("Cochera N°");
+            salida.print(cochera.getNumero());
+            salida.print(" | Categoría: ");
+            salida.print(cochera.getCategoria());
+            salida.print(" | Estado de pago: ");
+            salida.print(cochera.isEstadoPago() ? "Pagado" : "Pendiente");
+            salida.print(" | Inquilino: ");
+            salida.print(inquilino.getNombre());
+            salida.print(' ');
+            salida.print(inquilino.getApellido());
+            salida.print(" (DNI: ");
+            salida.print(inquilino.getDni());
+            salida.println(')');
         }
+        salida.flush();
+        metricas.registrarLatencia("admin.listarCocheras", inicio);
     }
 
     /**
@@ -117,28 +572,264 @@ class Administrador extends Persona {
      * la información desde el archivo "pagos.txt".
      */
     public void listarPagos() {
-        System.out.println("Listado de Pagos:");
-        gestorArchivo.leerDesdeArchivo("pagos.txt");
+        long inicio = System.nanoTime();
+        salida.println("Listado de Pagos:");
+        try (Stream<Pago> stream = pagos(pago -> true, 0, Long.MAX_VALUE)) {
+            stream.forEach(salida::println);
+        }
+        salida.flush();
+        metricas.registrarLatencia("admin.listarPagos", inicio);
     }
 
     /**
-     * Lista todas las reservas registradas, leyendo y mostrando
-     * la información desde el archivo "reservas.txt".
+     * Lista todas las reservas vigentes.
      */
     public void listarReservas() {
-        System.out.println("Listado de Reservas:");
-        gestorArchivo.leerDesdeArchivo("reservas.txt");
+        long inicio = System.nanoTime();
+        salida.println("Listado de Reservas:");
+        try (Stream<Reserva> stream = reservas(reserva -> true, 0, Long.MAX_VALUE)) {
+            stream.forEach(salida::println);
+        }
+        salida.flush();
+        metricas.registrarLatencia("admin.listarReservas", inicio);
+    }
+
+    /**
+     * Consulta los pagos registrados en "pagos.txt". El archivo se lee por bloques, a medida
+     * que se consume el Stream, y la lectura se detiene en cuanto se completa la página
+     * (offset + limite registros que cumplen el filtro). Los bloques consultados recientemente
+     * se obtienen de la caché del almacén de pagos, sin leer ni decodificar el archivo.
+     * Las líneas inválidas se omiten.
+     * El Stream debe cerrarse (por ejemplo, con try-with-resources); la duración de la
+     * consulta se registra al cerrarlo.
+     *
+     * @param filtro Condición que deben cumplir los pagos (ver Filtros).
+     * @param offset Cantidad de pagos que cumplen el filtro a saltear.
+     * @param limite Cantidad máxima de pagos a devolver.
+     * @return Stream de pagos, en el orden en que fueron registrados.
+     */
+    public Stream<Pago> pagos(Predicate<Pago> filtro, long offset, long limite) {
+        long inicio = System.nanoTime();
+        Stream<Pago> almacenados;
+        try {
+            almacenados = almacenPagos.pagos();
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo pagos.txt: " + e.getMessage());
+            almacenados = Stream.empty();
+        }
+        return almacenados
+                .onClose(() -> metricas.registrarLatencia("admin.pagos", inicio))
+                .filter(filtro)
+                .skip(offset)
+                .limit(limite);
+    }
+
+    /**
+     * Lee un pago de una línea de "pagos.txt"; si la línea es inválida, informa el error y devuelve null.
+     */
+    private Pago pagoDesdeLinea(String linea) {
+        try {
+            return codec.pagoDesdeLinea(linea);
+        } catch (IllegalArgumentException e) {
+            metricas.incrementar("admin.pagos.lineasInvalidas");
+            System.out.println("Error: línea de pago inválida: " + linea);
+            return null;
+        }
+    }
+
+    /**
+     * Consulta las reservas vigentes. Se recorre "reservas.txt" de a poco, a medida que
+     * se consume el Stream: de cada línea sólo se lee el número, y la reserva se toma del
+     * registro en memoria (las reservas canceladas se omiten). La lectura se detiene en
+     * cuanto se completa la página. El Stream debe cerrarse (por ejemplo, con try-with-resources);
+     * la duración de la consulta se registra al cerrarlo.
+     *
+     * @param filtro Condición que deben cumplir las reservas (ver Filtros).
+     * @param offset Cantidad de reservas que cumplen el filtro a saltear.
+     * @param limite Cantidad máxima de reservas a devolver.
+     * @return Stream de reservas, en el orden en que fueron registradas.
+     */
+    public Stream<Reserva> reservas(Predicate<Reserva> filtro, long offset, long limite) {
+        long inicio = System.nanoTime();
+        return lineas(registroReservas.getArchivo())
+                .onClose(() -> metricas.registrarLatencia("admin.reservas", inicio))
+                .filter(linea -> CodecRegistros.tipoDeLinea(linea) == CodecRegistros.TIPO_RESERVA)
+                .map(linea -> {
+                    try {
+                        return registroReservas.buscar(CodecRegistros.nroReservaDesdeLinea(linea));
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                })
+                .filter(reserva -> reserva != null && filtro.test(reserva))
+                .skip(offset)
+                .limit(limite);
+    }
+
+    /**
+     * Devuelve las próximas franjas libres de un lugar en las que entra una reserva de la
+     * duración indicada. Se responde con la agenda en memoria, sin leer archivos.
+     *
+     * @param lugar    Lugar a consultar.
+     * @param desde    Instante desde el que se busca.
+     * @param duracion Duración mínima de cada franja (entre un minuto y un día).
+     * @param cantidad Cantidad de franjas a devolver.
+     * @return Franjas libres, en orden cronológico (ver AgendaLugares.proximasLibres).
+     * @throws IllegalArgumentException Si la duración o la cantidad no son válidas.
+     */
+    public List<AgendaLugares.Franja> getFranjasLibres(Lugar lugar, LocalDateTime desde, Duration duracion, int cantidad) {
+        long inicio = System.nanoTime();
+        try {
+            return agenda.proximasLibres(lugar, desde, duracion, cantidad);
+        } finally {
+            metricas.registrarLatencia("admin.getFranjasLibres", inicio);
+        }
+    }
+
+    /**
+     * Devuelve la agenda de un lugar para un mes, con las franjas ocupadas y libres.
+     * Se responde con la agenda en memoria, sin leer archivos.
+     *
+     * @param lugar Lugar a consultar.
+     * @param mes   Mes a consultar.
+     * @return Franjas que cubren el mes completo, en orden cronológico.
+     */
+    public List<AgendaLugares.Franja> getCalendario(Lugar lugar, YearMonth mes) {
+        long inicio = System.nanoTime();
+        try {
+            return agenda.calendario(lugar, mes);
+        } finally {
+            metricas.registrarLatencia("admin.getCalendario", inicio);
+        }
+    }
+
+    /**
+     * Devuelve las líneas de un archivo como Stream; si no puede abrirse, informa el error y devuelve un Stream vacío.
+     */
+    private Stream<String> lineas(String archivo) {
+        try {
+            return gestorArchivo.lineas(archivo);
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo " + archivo + ": " + e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Devuelve el libro de pagos, armándolo con una única lectura de "pagos.txt" la primera vez.
+     * La lectura se hace sin pagos en curso, de modo que ningún pago se cuente dos veces ni se omita.
+     */
+    private LibroPagos libroPagos() {
+        LibroPagos libro = libroPagos;
+        if (libro != null) {
+            return libro;
+        }
+        synchronized (bloqueoLibroPagos) {
+            if (libroPagos == null) {
+                try {
+                    operaciones.ejecutarExclusiva(() -> {
+                        LibroPagos nuevo = new LibroPagos();
+                        try (Stream<Pago> historial = pagos(pago -> true, 0, Long.MAX_VALUE)) {
+                            historial.forEach(nuevo::registrar);
+                        }
+                        libroPagos = nuevo;
+                    });
+                } catch (IOException e) {
+                    // La lectura de "pagos.txt" informa sus propios errores y no lanza excepciones.
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return libroPagos;
+        }
+    }
+
+    /**
+     * Devuelve los inquilinos con cochera asignada que no registran pagos en el mes actual.
+     * Se responde con el libro de pagos en memoria, sin leer archivos.
+     *
+     * @return Lista de inquilinos en mora.
+     */
+    public List<Inquilino> getInquilinosEnMora() {
+        long inicio = System.nanoTime();
+        try {
+            List<Cochera> cocheras = instantanea.getCocheras();
+            List<Inquilino> conCochera = new ArrayList<>(cocheras.size());
+            for (Cochera cochera : cocheras) {
+                conCochera.add(cochera.getInquilino());
+            }
+            return libroPagos().getEnMora(conCochera, YearMonth.now());
+        } finally {
+            metricas.registrarLatencia("admin.getInquilinosEnMora", inicio);
+        }
+    }
+
+    /**
+     * Devuelve el total recaudado en un mes, según el libro de pagos en memoria.
+     *
+     * @param mes Mes a consultar.
+     * @return Total recaudado en ese mes.
+     */
+    public double getTotalRecaudado(YearMonth mes) {
+        long inicio = System.nanoTime();
+        try {
+            return libroPagos().getRecaudadoCentavos(mes) / 100.0;
+        } finally {
+            metricas.registrarLatencia("admin.getTotalRecaudado", inicio);
+        }
+    }
+
+    /**
+     * Devuelve el total pagado históricamente por un inquilino, según el libro de pagos en memoria.
+     *
+     * @param inquilino Inquilino a consultar.
+     * @return Total pagado por el inquilino.
+     */
+    public double getTotalPagado(Inquilino inquilino) {
+        long inicio = System.nanoTime();
+        try {
+            return libroPagos().getTotalCentavos(inquilino.getDni()) / 100.0;
+        } finally {
+            metricas.registrarLatencia("admin.getTotalPagado", inicio);
+        }
     }
 
     /**
      * Devuelve la lista de inquilinos registrados.
      *
-     * @return Lista de objetos Inquilino.
+     * @return Lista (no modificable) de objetos Inquilino.
      */
     public List<Inquilino> listarInquilinos() {
+        long inicio = System.nanoTime();
+        List<Inquilino> inquilinos = instantanea.getInquilinos();
+        metricas.registrarLatencia("admin.listarInquilinos", inicio);
         return inquilinos;
     }
 
+    /**
+     * Devuelve la lista de cocheras registradas.
+     *
+     * @return Lista (no modificable) de objetos Cochera, en el orden del archivo.
+     */
+    public List<Cochera> getCocheras() {
+        long inicio = System.nanoTime();
+        List<Cochera> cocheras = instantanea.getCocheras();
+        metricas.registrarLatencia("admin.getCocheras", inicio);
+        return cocheras;
+    }
+
+    /**
+     * Busca un inquilino a partir de su DNI.
+     *
+     * @param dni DNI del inquilino.
+     * @return Objeto Inquilino con ese DNI, o null si no existe.
+     */
+    public Inquilino getInquilinoPorDni(String dni) {
+        long inicio = System.nanoTime();
+        Inquilino inquilino = instantanea.buscarInquilino(dni);
+        metricas.registrarLatencia("admin.getInquilinoPorDni", inicio);
+        return inquilino;
+    }
+
     /**
      * Busca y devuelve la cochera asignada a un inquilino específico.
      *
@@ -146,73 +837,71 @@ class Administrador extends Persona {
      * @return Objeto Cochera asignado al inquilino, o null si no tiene una asignada.
      */
     public Cochera getCocheraPorInquilino(Inquilino inquilino) {
-        for (Cochera cochera : cocheras) {
-            // Se compara el inquilino de la cochera con el inquilino proporcionado.
-            if (cochera.getInquilino().equals(inquilino)) {
-                return cochera;
-            }
-        }
-        return null;
+        long inicio = System.nanoTime();
+        Cochera cochera = instantanea.buscarCocheraDeInquilino(inquilino.getDni());
+        metricas.registrarLatencia("admin.getCocheraPorInquilino", inicio);
+        return cochera;
     }
 
     /**
-     * Carga los inquilinos desde el archivo de texto especificado y los almacena
-     * en la lista de inquilinos. Cada línea del archivo debe tener el formato:
-     * nombre,apellido,dni
+     * Busca una cochera a partir de su número.
      *
-     * @param archivo Nombre del archivo que contiene los datos de los inquilinos.
-     */
-    private void cargarInquilinos(String archivo) {
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            // Se leen línea a línea los datos del archivo.
-            while ((linea = br.readLine()) != null) {
-                // Separamos la línea por comas.
-                String[] datos = linea.split(",");
-                // Verificamos que tenga la cantidad correcta de campos.
-                if (datos.length == 3) {
-                    // Se crea un nuevo inquilino y se agrega a la lista.
-                    inquilinos.add(new Inquilino(datos[0], datos[1], datos[2]));
-                }
-            }
+     * @param numero Número de la cochera.
+     * @return Objeto Cochera con ese número, o null si no existe.
+     */
+    public Cochera getCocheraPorNumero(int numero) {
+        long inicio = System.nanoTime();
+        Cochera cochera = instantanea.buscarCochera(numero);
+        metricas.registrarLatencia("admin.getCocheraPorNumero", inicio);
+        return cochera;
+    }
+
+    /**
+     * Cierra el registro de reservas, el registro de operaciones (con un punto de control final),
+     * los archivos de texto y el almacén de cocheras, asegurando que los cambios queden escritos
+     * en disco. Debe invocarse al finalizar el sistema.
+     */
+    public void cerrar() {
+        long inicio = System.nanoTime();
+        registroReservas.close();
+        try {
+            operaciones.close();
         } catch (IOException e) {
-            System.out.println("Error al leer el archivo de inquilinos: " + e.getMessage());
+            System.out.println("Error al cerrar el registro de operaciones: " + e.getMessage());
+        }
+        gestorArchivo.close();
+        if (archivoCocheras != null) {
+            try {
+                archivoCocheras.close();
+            } catch (IOException e) {
+                System.out.println("Error al cerrar el archivo de cocheras: " + e.getMessage());
+            }
         }
+        metricas.registrarLatencia("admin.cerrar", inicio);
     }
 
     /**
-     * Carga las cocheras desde el archivo de texto especificado y las almacena
-     * en la lista de cocheras. Cada línea del archivo debe tener el formato:
-     * numero,categoria,estadoPago,dniInquilino
-     *
-     * @param archivo Nombre del archivo que contiene los datos de las cocheras.
-     */
-    private void cargarCocheras(String archivo) {
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            // Se limpia la lista antes de volver a cargarla, para evitar duplicados.
-            cocheras.clear();
-            // Se leen línea a línea los datos del archivo.
-            while ((linea = br.readLine()) != null) {
-                // Separamos la línea por comas.
-                String[] datos = linea.split(",");
-                // Verificamos que tenga la cantidad correcta de campos.
-                if (datos.length == 4) {
-                    // Se busca el inquilino por DNI para asociarlo a la cochera.
-                    Inquilino inquilino = buscarInquilinoPorDNI(datos[3]);
-                    if (inquilino != null) {
-                        // Se crea y agrega la cochera a la lista local.
-                        cocheras.add(new Cochera(
-                                Integer.parseInt(datos[0]), // Número de cochera
-                                datos[1],                   // Categoría
-                                Boolean.parseBoolean(datos[2]), // Estado de pago
-                                inquilino                   // Inquilino asociado
-                        ));
-                    }
+     * Fuerza a disco los archivos de datos durante un punto de control del registro de operaciones:
+     * las líneas pendientes de "pagos.txt" y "reservas.txt", la marca de agua de la secuencia de
+     * reservas y el almacén de cocheras. Además, si
+     * hubo pagos, se exporta "cocheras.txt" desde el almacén, reemplazándolo de forma atómica.
+     */
+    private void sincronizarDatos() throws IOException {
+        gestorArchivo.sincronizar();
+        // La secuencia se abre después de la recuperación (secuencia es null hasta entonces).
+        if (secuencia != null) {
+            secuencia.sincronizar();
+        }
+        if (archivoCocheras != null) {
+            archivoCocheras.sincronizar();
+            if (archivoCocheras.isModificado()) {
+                gestorArchivo.reemplazarArchivo("cocheras.txt", archivoCocheras.lineasCsv());
+                archivoCocheras.marcarExportado("cocheras.txt");
+                // La instantánea no se abre hasta terminar la recuperación (instantanea es null).
+                if (instantanea != null) {
+                    instantanea.actualizarOrigenCocheras("cocheras.txt");
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Error al leer el archivo de cocheras: " + e.getMessage());
         }
     }
 
@@ -223,59 +912,30 @@ class Administrador extends Persona {
      * @return Objeto Inquilino si se encuentra; null en caso contrario.
      */
     private Inquilino buscarInquilinoPorDNI(String dni) {
-        for (Inquilino inquilino : inquilinos) {
-            if (inquilino.getDni().equals(dni)) {
-                return inquilino;
-            }
-        }
-        return null;
+        return instantanea.buscarInquilino(dni);
     }
 
     /**
-     * Elimina una reserva del archivo "reservas.txt" buscando por el número de reserva.
-     * Si se encuentra, se omite al reescribir el contenido del archivo con el resto de las reservas.
+     * Busca un inquilino por "nombre apellido". El índice se arma la primera vez que se necesita,
+     * ya que sólo lo usan las líneas de pagos y reservas del formato anterior.
      *
-     * @param numeroReserva Número de la reserva que se desea eliminar.
-     */
-    private static void eliminarReserva(int numeroReserva) {
-        // Lista temporal para almacenar todas las líneas que no correspondan a la reserva eliminada.
-        List<String> lineas = new ArrayList<>();
-        boolean reservaEncontrada = false;
-
-        // Primero, se lee todo el contenido del archivo y se excluye la línea que contenga la reserva buscada.
-        try (BufferedReader br = new BufferedReader(new FileReader("reservas.txt"))) {
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                // Verificamos que la línea no sea la reserva que queremos eliminar.
-                // Se asume que la línea de la reserva empieza con "Reserva N°{nroReserva} |".
-                if (!linea.startsWith("Reserva N°" + numeroReserva + " |")) {
-                    lineas.add(linea);
-                } else {
-                    reservaEncontrada = true;
+     * @param nombreCompleto Nombre y apellido separados por un espacio.
+     * @return El primer inquilino con ese nombre, o null si no existe.
+     */
+    private Inquilino buscarInquilinoPorNombre(String nombreCompleto) {
+        Map<String, Inquilino> indice = inquilinosPorNombre;
+        if (indice == null) {
+            synchronized (this) {
+                if (inquilinosPorNombre == null) {
+                    Map<String, Inquilino> nuevo = new HashMap<>();
+                    for (Inquilino inquilino : instantanea.getInquilinos()) {
+                        nuevo.putIfAbsent(inquilino.getNombre() + " " + inquilino.getApellido(), inquilino);
+                    }
+                    inquilinosPorNombre = nuevo;
                 }
+                indice = inquilinosPorNombre;
             }
-        } catch (IOException e) {
-            System.out.println("Error al leer el archivo de reservas: " + e.getMessage());
-            return;
-        }
-
-        // Si no se encontró la reserva, se notifica y se finaliza el método.
-        if (!reservaEncontrada) {
-            System.out.println("Error: No se encontró una reserva con el número " + numeroReserva);
-            return;
-        }
-
-        // Se reescribe el archivo de reservas con la lista actualizada de líneas.
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("reservas.txt"))) {
-            for (String linea : lineas) {
-                bw.write(linea);
-                bw.newLine();
-            }
-        } catch (IOException e) {
-            System.out.println("Error al actualizar el archivo de reservas: " + e.getMessage());
         }
-
-        // Mensaje de confirmación para el usuario.
-        System.out.println("Reserva N°" + numeroReserva + " eliminada con éxito.");
+        return indice.get(nombreCompleto);
     }
 }
\ No newline at end of file
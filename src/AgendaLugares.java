@@ -0,0 +1,304 @@
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Agenda en memoria de los horarios reservados de cada lugar común.
+ * <p>
+ * Los instantes se expresan en minutos desde el 01/01/1970 a las 00:00. Para cada Lugar
+ * se mantienen dos mapas ordenados (TreeMap):
+ * <ul>
+ *     <li>reservas: cada reserva, por su minuto de inicio. Como las reservas de un lugar no se
+ *     superponen, la única que puede contener un instante es la que empieza en él o la
+ *     inmediatamente anterior (floorEntry).</li>
+ *     <li>ocupado: tramos ocupados sin interrupción, por su minuto de inicio; las reservas
+ *     contiguas se unen en un único tramo al ocupar y se separan al liberar. Así, el próximo
+ *     instante libre está a una búsqueda de distancia aunque haya miles de reservas seguidas.</li>
+ * </ul>
+ * Verificar superposiciones, ocupar y liberar cuestan O(log n). Las consultas de franjas
+ * libres y el calendario de un mes cuestan O(log n) más la cantidad de franjas devueltas.
+ * Cada lugar tiene su propio bloqueo, por lo que ocupar es atómico y dos reservas
+ * simultáneas superpuestas del mismo lugar no pueden ser aceptadas ambas.
+ */
+class AgendaLugares {
+
+    // Minutos de un día.
+    private static final long MINUTOS_POR_DIA = 24 * 60;
+
+    /**
+     * Intervalo [inicio, fin) de la agenda de un lugar, libre u ocupado por una reserva.
+     */
+    static class Franja {
+
+        private final LocalDateTime inicio;
+        private final LocalDateTime fin;
+
+        // Reserva que ocupa la franja, o null si está libre.
+        private final Reserva reserva;
+
+        Franja(LocalDateTime inicio, LocalDateTime fin, Reserva reserva) {
+            this.inicio = inicio;
+            this.fin = fin;
+            this.reserva = reserva;
+        }
+
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+
+        public LocalDateTime getFin() {
+            return fin;
+        }
+
+        public Reserva getReserva() {
+            return reserva;
+        }
+
+        public boolean isLibre() {
+            return reserva == null;
+        }
+
+        /**
+         * Devuelve el horario de la franja como texto, por ejemplo "10:00 a 14:00".
+         *
+         * @return Horario en formato HH:mm a HH:mm (el final del día se escribe 24:00).
+         */
+        public String getHorario() {
+            return Fechas.formatearHora(inicio.toLocalTime()) + " a " + Fechas.formatearHoraFin(fin.toLocalTime());
+        }
+
+        @Override
+        public String toString() {
+            return Fechas.formatear(inicio.toLocalDate()) + " " + getHorario()
+                    + (reserva == null ? " | Libre" : " | Reserva N°" + reserva.getNroReserva());
+        }
+    }
+
+    /**
+     * Reservas y tramos ocupados de un lugar. Se usa también como bloqueo del lugar.
+     */
+    private static class Agenda {
+
+        // Reservas por minuto de inicio.
+        final TreeMap<Long, Reserva> reservas = new TreeMap<>();
+
+        // Tramos ocupados: minuto de inicio -> minuto de fin (excluido).
+        final TreeMap<Long, Long> ocupado = new TreeMap<>();
+    }
+
+    // Agenda de cada lugar.
+    private final Map<Lugar, Agenda> agendas;
+
+    /**
+     * Crea la agenda sin horarios ocupados.
+     */
+    public AgendaLugares() {
+        this.agendas = new EnumMap<>(Lugar.class);
+        for (Lugar lugar : Lugar.values()) {
+            agendas.put(lugar, new Agenda());
+        }
+    }
+
+    /**
+     * Indica si un lugar está libre durante todo un horario de una fecha.
+     *
+     * @param lugar Lugar a consultar.
+     * @param fecha Fecha a consultar.
+     * @param desde Hora de inicio (incluida).
+     * @param hasta Hora de fin (excluida); 00:00 indica el final del día.
+     * @return true si ninguna reserva del lugar se superpone con ese horario.
+     */
+    public boolean estaLibre(Lugar lugar, LocalDate fecha, LocalTime desde, LocalTime hasta) {
+        long inicio = minuto(fecha, desde, false);
+        long fin = minuto(fecha, hasta, true);
+        Agenda agenda = agendas.get(lugar);
+        synchronized (agenda) {
+            return estaLibre(agenda, inicio, fin);
+        }
+    }
+
+    /**
+     * Ocupa el horario de la reserva, sólo si no se superpone con otra reserva del mismo lugar.
+     * La verificación y la ocupación se hacen de forma atómica.
+     *
+     * @param reserva Reserva a agregar.
+     * @return true si el horario estaba libre y quedó ocupado; false si se superpone con otra reserva.
+     */
+    public boolean ocupar(Reserva reserva) {
+        long inicio = inicio(reserva);
+        long fin = fin(reserva);
+        Agenda agenda = agendas.get(reserva.getLugar());
+        synchronized (agenda) {
+            if (!estaLibre(agenda, inicio, fin)) {
+                return false;
+            }
+            agenda.reservas.put(inicio, reserva);
+
+            // Se une el nuevo tramo con los tramos contiguos, si los hay.
+            Map.Entry<Long, Long> anterior = agenda.ocupado.floorEntry(inicio);
+            if (anterior != null && anterior.getValue() == inicio) {
+                inicio = anterior.getKey();
+            }
+            Long siguienteFin = agenda.ocupado.remove(fin);
+            if (siguienteFin != null) {
+                fin = siguienteFin;
+            }
+            agenda.ocupado.put(inicio, fin);
+            return true;
+        }
+    }
+
+    /**
+     * Libera el horario de la reserva. Si la reserva no está en la agenda, no hace nada.
+     *
+     * @param reserva Reserva a quitar.
+     */
+    public void liberar(Reserva reserva) {
+        long inicio = inicio(reserva);
+        long fin = fin(reserva);
+        Agenda agenda = agendas.get(reserva.getLugar());
+        synchronized (agenda) {
+            if (!agenda.reservas.remove(inicio, reserva)) {
+                return;
+            }
+            // Se quita el horario del tramo que lo contiene, que puede quedar dividido en dos.
+            Map.Entry<Long, Long> tramo = agenda.ocupado.floorEntry(inicio);
+            agenda.ocupado.remove(tramo.getKey());
+            if (tramo.getKey() < inicio) {
+                agenda.ocupado.put(tramo.getKey(), inicio);
+            }
+            if (fin < tramo.getValue()) {
+                agenda.ocupado.put(fin, tramo.getValue());
+            }
+        }
+    }
+
+    /**
+     * Busca las próximas franjas libres de un lugar en las que entra una reserva de la duración
+     * indicada. Cada franja es el intervalo libre completo dentro de un día (las reservas no
+     * pasan de un día a otro), por lo que los días sin reservas se devuelven enteros.
+     *
+     * @param lugar    Lugar a consultar.
+     * @param desde    Instante desde el que se busca (se redondea al minuto).
+     * @param duracion Duración mínima de la franja (entre un minuto y un día).
+     * @param cantidad Cantidad de franjas a devolver.
+     * @return Franjas libres, en orden cronológico.
+     * @throws IllegalArgumentException Si la duración o la cantidad no son válidas.
+     */
+    public List<Franja> proximasLibres(Lugar lugar, LocalDateTime desde, Duration duracion, int cantidad) {
+        long minutos = duracion.toMinutes();
+        if (minutos < 1 || minutos > MINUTOS_POR_DIA) {
+            throw new IllegalArgumentException("la duración debe estar entre 1 minuto y 24 horas");
+        }
+        if (cantidad < 1) {
+            throw new IllegalArgumentException("la cantidad de franjas debe ser mayor que cero");
+        }
+        List<Franja> libres = new ArrayList<>(cantidad);
+        long cursor = minuto(desde.toLocalDate(), desde.toLocalTime(), false);
+        Agenda agenda = agendas.get(lugar);
+        synchronized (agenda) {
+            while (libres.size() < cantidad) {
+                // Si el cursor cae dentro de un tramo ocupado, se salta al final del tramo.
+                Map.Entry<Long, Long> tramo = agenda.ocupado.floorEntry(cursor);
+                if (tramo != null && tramo.getValue() > cursor) {
+                    cursor = tramo.getValue();
+                }
+                Long siguiente = agenda.ocupado.higherKey(cursor);
+                long finHueco = siguiente == null ? Long.MAX_VALUE : siguiente;
+
+                // El hueco [cursor, finHueco) se recorre día por día.
+                while (cursor < finHueco && libres.size() < cantidad) {
+                    long fin = Math.min(finHueco, (Math.floorDiv(cursor, MINUTOS_POR_DIA) + 1) * MINUTOS_POR_DIA);
+                    if (fin - cursor >= minutos) {
+                        libres.add(new Franja(instante(cursor), instante(fin), null));
+                    }
+                    cursor = fin;
+                }
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Devuelve la agenda de un lugar para un mes: todas sus franjas, ocupadas y libres, en
+     * orden cronológico. Las franjas libres se dividen por día.
+     *
+     * @param lugar Lugar a consultar.
+     * @param mes   Mes a consultar.
+     * @return Franjas que cubren el mes completo.
+     */
+    public List<Franja> calendario(Lugar lugar, YearMonth mes) {
+        long inicioMes = mes.atDay(1).toEpochDay() * MINUTOS_POR_DIA;
+        long finMes = mes.plusMonths(1).atDay(1).toEpochDay() * MINUTOS_POR_DIA;
+        List<Franja> franjas = new ArrayList<>();
+        long cursor = inicioMes;
+        Agenda agenda = agendas.get(lugar);
+        synchronized (agenda) {
+            for (Reserva reserva : agenda.reservas.subMap(inicioMes, finMes).values()) {
+                agregarLibres(franjas, cursor, inicio(reserva));
+                franjas.add(new Franja(reserva.getInicio(), reserva.getFin(), reserva));
+                cursor = fin(reserva);
+            }
+        }
+        agregarLibres(franjas, cursor, finMes);
+        return franjas;
+    }
+
+    /**
+     * Indica si el intervalo [inicio, fin) no se superpone con ningún tramo ocupado.
+     */
+    private static boolean estaLibre(Agenda agenda, long inicio, long fin) {
+        Map.Entry<Long, Long> anterior = agenda.ocupado.floorEntry(inicio);
+        if (anterior != null && anterior.getValue() > inicio) {
+            return false;
+        }
+        Long siguiente = agenda.ocupado.higherKey(inicio);
+        return siguiente == null || siguiente >= fin;
+    }
+
+    /**
+     * Agrega las franjas libres del intervalo [inicio, fin), una por día.
+     */
+    private static void agregarLibres(List<Franja> franjas, long inicio, long fin) {
+        while (inicio < fin) {
+            long finDia = Math.min(fin, (Math.floorDiv(inicio, MINUTOS_POR_DIA) + 1) * MINUTOS_POR_DIA);
+            franjas.add(new Franja(instante(inicio), instante(finDia), null));
+            inicio = finDia;
+        }
+    }
+
+    private static long inicio(Reserva reserva) {
+        return minuto(reserva.getFecha(), reserva.getHoraDesde(), false);
+    }
+
+    private static long fin(Reserva reserva) {
+        return minuto(reserva.getFecha(), reserva.getHoraHasta(), true);
+    }
+
+    /**
+     * Convierte una fecha y hora en minutos desde el 01/01/1970 a las 00:00.
+     * Si es una hora de fin, medianoche se toma como el final del día.
+     */
+    private static long minuto(LocalDate fecha, LocalTime hora, boolean esFin) {
+        long minutoDelDia = hora.toSecondOfDay() / 60;
+        if (esFin && minutoDelDia == 0) {
+            minutoDelDia = MINUTOS_POR_DIA;
+        }
+        return fecha.toEpochDay() * MINUTOS_POR_DIA + minutoDelDia;
+    }
+
+    /**
+     * Convierte minutos desde el 01/01/1970 a las 00:00 en fecha y hora.
+     */
+    private static LocalDateTime instante(long minuto) {
+        return LocalDate.ofEpochDay(Math.floorDiv(minuto, MINUTOS_POR_DIA))
+                .atTime(LocalTime.ofSecondOfDay(Math.floorMod(minuto, MINUTOS_POR_DIA) * 60));
+    }
+}
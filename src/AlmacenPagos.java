@@ -0,0 +1,296 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lectura de "pagos.txt" por bloques, con una caché acotada de los bloques ya leídos.
+ * <p>
+ * El archivo se divide en bloques de hasta 64 KB que terminan en un fin de línea: cada
+ * bloque empieza donde termina el anterior, por lo que se identifica por su posición
+ * (en bytes) dentro del archivo. Como a "pagos.txt" sólo se le agregan líneas al final,
+ * un bloque leído nunca cambia, y sus pagos decodificados se guardan en una CacheAcotada
+ * (W-TinyLFU) cuyo peso es la cantidad de pagos. Así, los bloques que se consultan seguido
+ * (por ejemplo, los del mes actual) se sirven desde memoria y el historial poco usado
+ * queda en disco, con un uso de memoria acotado.
+ * <p>
+ * El último bloque del archivo puede estar incompleto; al volver a consultarlo se leen y
+ * decodifican sólo las líneas agregadas desde entonces. Una línea final sin fin de línea
+ * (por ejemplo, a medio escribir) se devuelve pero no se guarda en la caché. El archivo se
+ * lee por posición con un FileChannel; antes se escriben las líneas pendientes del GestorArchivo.
+ * <p>
+ * La caché se dimensiona con la propiedad del sistema "pagos.cache" (cantidad máxima de
+ * pagos en memoria, por defecto 100000).
+ */
+class AlmacenPagos {
+
+    // Tamaño de los bloques, en bytes.
+    private static final int TAM_BLOQUE = 64 * 1024;
+
+    // Cantidad máxima de pagos en la caché, por defecto.
+    private static final long PAGOS_EN_CACHE = 100_000;
+
+    /**
+     * Pagos de las líneas completas de [inicio, fin) del archivo.
+     */
+    private static class Bloque {
+        final long fin;
+        final Pago[] pagos;
+
+        // true si se leyó el bloque completo (64 KB o una línea más larga); si no, el bloque
+        // llegaba al final del archivo y puede completarse con las líneas que se agreguen.
+        final boolean cerrado;
+
+        Bloque(long fin, Pago[] pagos, boolean cerrado) {
+            this.fin = fin;
+            this.pagos = pagos;
+            this.cerrado = cerrado;
+        }
+    }
+
+    // Archivo de pagos y gestor con el que se escribe (para escribir antes las líneas pendientes).
+    private final String archivo;
+    private final Path ruta;
+    private final GestorArchivo gestorArchivo;
+
+    // Convierte una línea en un pago; devuelve null si la línea es inválida.
+    private final Function<String, Pago> decodificador;
+
+    // Bloques decodificados, por posición de inicio.
+    private final CacheAcotada<Long, Bloque> cache;
+
+    // Tamaño del archivo en el último recorrido, para detectar si fue reemplazado por uno más corto.
+    private volatile long tamanioConocido;
+
+    /**
+     * Crea el almacén sobre el archivo indicado.
+     *
+     * @param archivo       Nombre o ruta del archivo de pagos.
+     * @param gestorArchivo Gestor con el que se agregan líneas al archivo.
+     * @param decodificador Convierte una línea en un pago (null si es inválida).
+     */
+    public AlmacenPagos(String archivo, GestorArchivo gestorArchivo, Function<String, Pago> decodificador) {
+        this.archivo = archivo;
+        this.ruta = Paths.get(archivo);
+        this.gestorArchivo = gestorArchivo;
+        this.decodificador = decodificador;
+        this.cache = new CacheAcotada<>(Long.getLong("pagos.cache", PAGOS_EN_CACHE), bloque -> bloque.pagos.length);
+    }
+
+    /**
+     * Devuelve los pagos del archivo, en el orden en que fueron registrados. Los bloques se
+     * obtienen de a uno, a medida que se consume el Stream. Las líneas inválidas se omiten.
+     * El Stream debe cerrarse (por ejemplo, con try-with-resources) para liberar el archivo.
+     *
+     * @return Stream de pagos.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public Stream<Pago> pagos() throws IOException {
+        gestorArchivo.escribirPendientes(archivo);
+        if (!Files.exists(ruta)) {
+            return Stream.empty();
+        }
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ);
+        long tamanio = canal.size();
+        if (tamanio < tamanioConocido) {
+            // El archivo no sólo creció: los bloques guardados ya no corresponden a su contenido.
+            cache.vaciar();
+        }
+        tamanioConocido = tamanio;
+        Recorrido recorrido = new Recorrido(canal, tamanio);
+        return StreamSupport.stream(recorrido, false).onClose(() -> {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Devuelve las estadísticas de uso de la caché de bloques.
+     *
+     * @return Estadísticas de la caché (el peso es la cantidad de pagos en memoria).
+     */
+    public CacheAcotada.Estadisticas getEstadisticasCache() {
+        return cache.getEstadisticas();
+    }
+
+    /**
+     * Recorrido de los pagos de un archivo, bloque por bloque.
+     */
+    private class Recorrido extends Spliterators.AbstractSpliterator<Pago> {
+
+        private final FileChannel canal;
+
+        // Tamaño del archivo al comenzar el recorrido: lo que se agregue después no se lee.
+        private final long tamanio;
+
+        // Posición del próximo bloque, pagos del bloque actual y próximo pago a devolver.
+        private long posicion;
+        private Pago[] pagos = new Pago[0];
+        private int indice;
+
+        Recorrido(FileChannel canal, long tamanio) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.canal = canal;
+            this.tamanio = tamanio;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Pago> accion) {
+            while (indice == pagos.length) {
+                if (posicion >= tamanio) {
+                    return false;
+                }
+                try {
+                    Bloque bloque = bloque(canal, posicion, tamanio);
+                    if (bloque.fin > posicion) {
+                        pagos = bloque.pagos;
+                        posicion = bloque.fin;
+                    } else {
+                        // Sólo queda una línea sin fin de línea: se devuelve sin guardarla en la caché.
+                        pagos = ultimaLinea(canal, posicion, tamanio);
+                        posicion = tamanio;
+                    }
+                    indice = 0;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            accion.accept(pagos[indice++]);
+            return true;
+        }
+    }
+
+    /**
+     * Devuelve el bloque que empieza en la posición indicada, desde la caché o leyéndolo del
+     * archivo. Si el bloque guardado no está cerrado y el archivo creció, se completa con las
+     * líneas nuevas. Si desde esa posición no hay ninguna línea completa, devuelve un bloque
+     * vacío que termina en la misma posición.
+     */
+    private Bloque bloque(FileChannel canal, long inicio, long tamanio) throws IOException {
+        Bloque guardado = cache.obtener(inicio);
+        if (guardado != null && (guardado.cerrado || guardado.fin >= tamanio)) {
+            return guardado;
+        }
+        long desde = guardado == null ? inicio : guardado.fin;
+        boolean completo = inicio + TAM_BLOQUE <= tamanio;
+        byte[] datos = leer(canal, desde, Math.min(inicio + TAM_BLOQUE, tamanio) - desde);
+        int largo = finUltimaLinea(datos);
+        if (largo == 0 && guardado == null && completo) {
+            // Una única línea más larga que el bloque: se lee hasta su fin de línea.
+            datos = leerLinea(canal, desde, tamanio);
+            largo = finUltimaLinea(datos);
+        }
+        if (largo == 0) {
+            if (guardado == null) {
+                return new Bloque(inicio, new Pago[0], false);
+            }
+            if (!completo) {
+                return guardado;
+            }
+            // No entra ninguna otra línea completa: el bloque queda cerrado sin cambios.
+            Bloque cerrado = new Bloque(guardado.fin, guardado.pagos, true);
+            cache.agregar(inicio, cerrado);
+            return cerrado;
+        }
+        List<Pago> nuevos = decodificar(datos, largo);
+        Pago[] pagos;
+        if (guardado == null) {
+            pagos = nuevos.toArray(new Pago[0]);
+        } else {
+            pagos = Arrays.copyOf(guardado.pagos, guardado.pagos.length + nuevos.size());
+            for (int i = 0; i < nuevos.size(); i++) {
+                pagos[guardado.pagos.length + i] = nuevos.get(i);
+            }
+        }
+        Bloque bloque = new Bloque(desde + largo, pagos, completo);
+        cache.agregar(inicio, bloque);
+        return bloque;
+    }
+
+    /**
+     * Lee y decodifica la línea final del archivo, que no termina en un fin de línea.
+     */
+    private Pago[] ultimaLinea(FileChannel canal, long desde, long tamanio) throws IOException {
+        String linea = quitarRetorno(new String(leer(canal, desde, tamanio - desde), StandardCharsets.UTF_8));
+        Pago pago = decodificador.apply(linea);
+        return pago == null ? new Pago[0] : new Pago[]{pago};
+    }
+
+    /**
+     * Lee desde la posición indicada hasta el primer fin de línea (incluido) o el final del archivo.
+     */
+    private static byte[] leerLinea(FileChannel canal, long desde, long tamanio) throws IOException {
+        int largo = TAM_BLOQUE;
+        while (true) {
+            byte[] datos = leer(canal, desde, Math.min(largo, tamanio - desde));
+            if (finUltimaLinea(datos) > 0 || desde + datos.length >= tamanio) {
+                return datos;
+            }
+            largo *= 2;
+        }
+    }
+
+    /**
+     * Lee la cantidad de bytes indicada desde una posición del archivo.
+     */
+    private static byte[] leer(FileChannel canal, long desde, long cantidad) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) cantidad);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, desde + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Devuelve la cantidad de bytes hasta el último fin de línea (incluido), o 0 si no hay ninguno.
+     */
+    private static int finUltimaLinea(byte[] datos) {
+        for (int i = datos.length - 1; i >= 0; i--) {
+            if (datos[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decodifica las líneas completas de los primeros bytes indicados, omitiendo las inválidas.
+     */
+    private List<Pago> decodificar(byte[] datos, int largo) {
+        String texto = new String(datos, 0, largo, StandardCharsets.UTF_8);
+        List<Pago> pagos = new ArrayList<>(largo / 32);
+        int desde = 0;
+        int fin;
+        while ((fin = texto.indexOf('\n', desde)) >= 0) {
+            Pago pago = decodificador.apply(quitarRetorno(texto.substring(desde, fin)));
+            if (pago != null) {
+                pagos.add(pago);
+            }
+            desde = fin + 1;
+        }
+        return pagos;
+    }
+
+    private static String quitarRetorno(String linea) {
+        return linea.endsWith("\r") ? linea.substring(0, linea.length() - 1) : linea;
+    }
+}
@@ -0,0 +1,421 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Almacén de cocheras basado en registros de ancho fijo dentro de un archivo
+ * binario mapeado en memoria.
+ * <p>
+ * Cada cochera ocupa siempre la misma cantidad de bytes, por lo que su posición
+ * dentro del archivo se calcula a partir de su número. Así, marcar una cochera
+ * como pagada es la escritura de un único byte, sin leer ni reescribir el resto
+ * del archivo.
+ * <p>
+ * El almacén se genera a partir del CSV de cocheras y se vuelve a generar si el CSV cambia
+ * (por ejemplo, si se le agregan cocheras a mano): la cabecera guarda el tamaño y la fecha
+ * de modificación del CSV del que se generó o al que se exportó por última vez.
+ * <p>
+ * Formato del archivo:
+ * <ul>
+ *     <li>Cabecera: marca (4 bytes), versión (4 bytes), cantidad de registros (4 bytes),
+ *     tamaño y fecha de modificación del CSV (8 bytes cada uno).</li>
+ *     <li>Registro: número (4 bytes), estado de pago (1 byte), categoría (16 bytes)
+ *     y DNI del inquilino (12 bytes), completados con ceros a la derecha.</li>
+ * </ul>
+ */
+class ArchivoCocheras implements Closeable {
+
+    // Marca que identifica al archivo como un almacén de cocheras ("CCHR").
+    private static final int MARCA = 0x43434852;
+
+    // Versión del formato de registro.
+    private static final int VERSION = 2;
+
+    // Desplazamientos del tamaño y de la fecha del CSV dentro de la cabecera.
+    private static final int DESP_TAMANIO_CSV = 12;
+    private static final int DESP_FECHA_CSV = DESP_TAMANIO_CSV + 8;
+
+    // Tamaño de la cabecera: marca + versión + cantidad de registros + tamaño y fecha del CSV.
+    private static final int TAM_CABECERA = DESP_FECHA_CSV + 8;
+
+    // Tamaño máximo (en bytes) de la categoría y del DNI dentro de un registro.
+    private static final int TAM_CATEGORIA = 16;
+    private static final int TAM_DNI = 12;
+
+    // Desplazamientos de cada campo dentro de un registro.
+    private static final int DESP_ESTADO = 4;
+    private static final int DESP_CATEGORIA = DESP_ESTADO + 1;
+    private static final int DESP_DNI = DESP_CATEGORIA + TAM_CATEGORIA;
+
+    // Tamaño total de un registro.
+    private static final int TAM_REGISTRO = DESP_DNI + TAM_DNI;
+
+    // Canal del archivo binario y su proyección en memoria.
+    private final FileChannel canal;
+    private final MappedByteBuffer buffer;
+
+    // Cantidad de registros almacenados.
+    private final int cantidad;
+
+    // Índice que relaciona el número de cochera con la posición de su registro.
+    // Se arma la primera vez que se actualiza una cochera por número (null hasta entonces).
+    private Map<Integer, Integer> posiciones;
+
+    // Indica si hubo cambios desde la última exportación a CSV.
+    private volatile boolean modificado;
+
+    private ArchivoCocheras(FileChannel canal, MappedByteBuffer buffer, int cantidad) {
+        this.canal = canal;
+        this.buffer = buffer;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Abre el almacén binario de cocheras. Si todavía no existe, o si el archivo CSV
+     * (numero,categoria,estadoPago,dniInquilino) cambió desde que se generó o se exportó
+     * por última vez, se genera a partir del CSV.
+     *
+     * @param archivoDatos Ruta del archivo binario de cocheras.
+     * @param archivoCsv   Ruta del archivo CSV original de cocheras.
+     * @return Almacén de cocheras listo para usar.
+     * @throws IOException Si ocurre un error al migrar, abrir o mapear el archivo.
+     */
+    public static ArchivoCocheras abrir(String archivoDatos, String archivoCsv) throws IOException {
+        Path datos = Paths.get(archivoDatos);
+        Path csv = Paths.get(archivoCsv);
+        if (!Files.exists(datos) || desactualizado(datos, csv)) {
+            migrarDesdeCsv(csv, datos);
+        }
+
+        FileChannel canal = FileChannel.open(datos, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+            if (buffer.capacity() < TAM_CABECERA || buffer.getInt(0) != MARCA || buffer.getInt(4) != VERSION) {
+                throw new IOException("El archivo " + archivoDatos + " no es un almacén de cocheras válido.");
+            }
+            int cantidad = buffer.getInt(8);
+            if (buffer.capacity() < TAM_CABECERA + (long) cantidad * TAM_REGISTRO) {
+                throw new IOException("El archivo " + archivoDatos + " está incompleto.");
+            }
+            return new ArchivoCocheras(canal, buffer, cantidad);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si el almacén debe volver a generarse: es de una versión anterior o el CSV
+     * no coincide en tamaño o fecha de modificación con el registrado en la cabecera.
+     * Si el CSV no existe, el almacén se usa tal como está.
+     */
+    private static boolean desactualizado(Path datos, Path csv) throws IOException {
+        if (!Files.exists(csv)) {
+            return false;
+        }
+        ByteBuffer cabecera = ByteBuffer.allocate(TAM_CABECERA);
+        try (FileChannel canal = FileChannel.open(datos, StandardOpenOption.READ)) {
+            while (cabecera.hasRemaining() && canal.read(cabecera) >= 0) {
+                // Se lee la cabecera completa (o lo que haya, si el archivo es más corto).
+            }
+        }
+        if (cabecera.position() < 8 || cabecera.getInt(0) != MARCA) {
+            return false; // No es un almacén: se informa al abrirlo.
+        }
+        if (cabecera.getInt(4) != VERSION) {
+            return true;
+        }
+        long[] origen = origenCsv(csv);
+        return cabecera.position() < TAM_CABECERA
+                || cabecera.getLong(DESP_TAMANIO_CSV) != origen[0] || cabecera.getLong(DESP_FECHA_CSV) != origen[1];
+    }
+
+    /**
+     * Devuelve el tamaño y la fecha de modificación (en milisegundos) del CSV.
+     */
+    private static long[] origenCsv(Path csv) throws IOException {
+        return new long[]{Files.size(csv), Files.getLastModifiedTime(csv).toMillis()};
+    }
+
+    /**
+     * Convierte el archivo CSV de cocheras al formato binario de ancho fijo.
+     * Se escribe primero en un archivo temporal que luego se renombra, de modo que
+     * una migración interrumpida no deja un almacén a medio escribir.
+     *
+     * @param csv   Archivo CSV de origen.
+     * @param datos Archivo binario de destino.
+     * @throws IOException Si ocurre un error de lectura/escritura o un registro no entra en el formato.
+     */
+    private static void migrarDesdeCsv(Path csv, Path datos) throws IOException {
+        // Se toman tamaño y fecha antes de leerlo: si cambia mientras tanto, se volverá a migrar.
+        long[] origen = origenCsv(csv);
+        List<byte[]> bloques = registrosDesdeCsv(csv, ForkJoinPool.commonPool());
+        int cantidad = 0;
+        for (byte[] registros : bloques) {
+            cantidad += registros.length / TAM_REGISTRO;
+        }
+
+        ByteBuffer cabecera = ByteBuffer.allocate(TAM_CABECERA);
+        cabecera.putInt(MARCA).putInt(VERSION).putInt(cantidad).putLong(origen[0]).putLong(origen[1]);
+
+        Path temporal = datos.resolveSibling(datos.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(temporal)) {
+            os.write(cabecera.array());
+            for (byte[] registros : bloques) {
+                os.write(registros);
+            }
+        }
+        Files.move(temporal, datos, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Convierte las líneas del archivo CSV de cocheras en registros de ancho fijo. El archivo
+     * se lee por bloques en paralelo (ver LectorCsvParalelo); las líneas que no tengan la
+     * cantidad correcta de campos se omiten.
+     *
+     * @param csv  Archivo CSV de origen.
+     * @param pool Pool donde se procesan los bloques.
+     * @return Registros de cada bloque, en el orden del archivo.
+     * @throws IOException Si ocurre un error de lectura o un registro no entra en el formato.
+     */
+    static List<byte[]> registrosDesdeCsv(Path csv, ForkJoinPool pool) throws IOException {
+        return LectorCsvParalelo.leer(csv, lineas -> {
+            ByteArrayOutputStream registros = new ByteArrayOutputStream();
+            ByteBuffer registro = ByteBuffer.allocate(TAM_REGISTRO);
+            while (lineas.siguienteLinea()) {
+                if (lineas.getCantidadCampos() != 4) {
+                    continue;
+                }
+                registro.clear();
+                registro.putInt(lineas.entero(0));
+                registro.put((byte) (lineas.booleano(2) ? 1 : 0));
+                escribirTexto(registro, lineas, 1, TAM_CATEGORIA);
+                escribirTexto(registro, lineas, 3, TAM_DNI);
+                registros.write(registro.array(), 0, TAM_REGISTRO);
+            }
+            return registros.toByteArray();
+        }, pool);
+    }
+
+    /**
+     * Copia un campo de la línea actual en un campo de ancho fijo, completando con ceros a la derecha.
+     */
+    private static void escribirTexto(ByteBuffer registro, LectorCsvParalelo.Tokenizador lineas,
+                                      int campo, int tamanio) throws IOException {
+        int largo = lineas.getLargo(campo);
+        if (largo > tamanio) {
+            throw new IOException("El valor '" + lineas.texto(campo) + "' supera los " + tamanio + " bytes permitidos.");
+        }
+        lineas.copiar(campo, registro);
+        for (int i = largo; i < tamanio; i++) {
+            registro.put((byte) 0);
+        }
+    }
+
+    /**
+     * Lee un texto de un campo de ancho fijo, descartando los ceros de relleno.
+     */
+    private String leerTexto(int desplazamiento, int tamanio) {
+        byte[] bytes = new byte[tamanio];
+        int largo = 0;
+        for (int i = 0; i < tamanio; i++) {
+            byte b = buffer.get(desplazamiento + i);
+            if (b == 0) {
+                break;
+            }
+            bytes[largo++] = b;
+        }
+        return new String(bytes, 0, largo, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Calcula el desplazamiento (en bytes) del registro ubicado en la posición indicada.
+     */
+    private static int desplazamiento(int posicion) {
+        return TAM_CABECERA + posicion * TAM_REGISTRO;
+    }
+
+    /**
+     * Devuelve la cantidad de cocheras almacenadas.
+     *
+     * @return Cantidad de registros del archivo.
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Devuelve el número de la cochera almacenada en la posición indicada.
+     *
+     * @param posicion Posición del registro (entre 0 y getCantidad() - 1).
+     * @return Número de la cochera.
+     */
+    public int getNumero(int posicion) {
+        return buffer.getInt(desplazamiento(posicion));
+    }
+
+    /**
+     * Devuelve el estado de pago de la cochera almacenada en la posición indicada.
+     *
+     * @param posicion Posición del registro (entre 0 y getCantidad() - 1).
+     * @return true si la cochera está pagada, false si está pendiente.
+     */
+    public boolean isEstadoPago(int posicion) {
+        return buffer.get(desplazamiento(posicion) + DESP_ESTADO) != 0;
+    }
+
+    /**
+     * Devuelve la categoría de la cochera almacenada en la posición indicada.
+     *
+     * @param posicion Posición del registro (entre 0 y getCantidad() - 1).
+     * @return Categoría de la cochera.
+     */
+    public String getCategoria(int posicion) {
+        return leerTexto(desplazamiento(posicion) + DESP_CATEGORIA, TAM_CATEGORIA);
+    }
+
+    /**
+     * Devuelve el DNI del inquilino de la cochera almacenada en la posición indicada.
+     *
+     * @param posicion Posición del registro (entre 0 y getCantidad() - 1).
+     * @return DNI del inquilino asociado.
+     */
+    public String getDniInquilino(int posicion) {
+        return leerTexto(desplazamiento(posicion) + DESP_DNI, TAM_DNI);
+    }
+
+    /**
+     * Actualiza el estado de pago de una cochera escribiendo un único byte
+     * en la posición calculada a partir de su número.
+     *
+     * @param numero     Número de la cochera.
+     * @param estadoPago Nuevo estado de pago.
+     * @return true si la cochera existe en el almacén, false en caso contrario.
+     */
+    public boolean actualizarEstadoPago(int numero, boolean estadoPago) {
+        Integer posicion = posiciones().get(numero);
+        if (posicion == null) {
+            return false;
+        }
+        actualizarEstadoPagoEn(posicion, estadoPago);
+        return true;
+    }
+
+    /**
+     * Actualiza el estado de pago de la cochera almacenada en la posición indicada,
+     * escribiendo un único byte.
+     *
+     * @param posicion   Posición del registro (entre 0 y getCantidad() - 1).
+     * @param estadoPago Nuevo estado de pago.
+     */
+    public void actualizarEstadoPagoEn(int posicion, boolean estadoPago) {
+        buffer.put(desplazamiento(posicion) + DESP_ESTADO, (byte) (estadoPago ? 1 : 0));
+        modificado = true;
+    }
+
+    /**
+     * Fija el estado de pago de todas las cocheras en una única pasada: quedan pagadas las
+     * posiciones indicadas y pendientes todas las demás. Los registros se recorren en paralelo
+     * en el pool común de ForkJoin; cada uno es la escritura de un único byte.
+     *
+     * @param pagadas Posiciones de los registros que quedan pagados (no se modifica).
+     */
+    public void establecerEstadosPago(BitSet pagadas) {
+        IntStream.range(0, cantidad).parallel().forEach(posicion ->
+                buffer.put(desplazamiento(posicion) + DESP_ESTADO, (byte) (pagadas.get(posicion) ? 1 : 0)));
+        modificado = true;
+    }
+
+    /**
+     * Devuelve el índice de posiciones por número, armándolo la primera vez que se necesita.
+     */
+    private synchronized Map<Integer, Integer> posiciones() {
+        if (posiciones == null) {
+            posiciones = new HashMap<>();
+            for (int i = 0; i < cantidad; i++) {
+                posiciones.putIfAbsent(getNumero(i), i);
+            }
+        }
+        return posiciones;
+    }
+
+    /**
+     * Indica si hubo cambios de estado desde la última exportación a CSV (ver lineasCsv()).
+     *
+     * @return true si el CSV exportado quedó desactualizado.
+     */
+    public boolean isModificado() {
+        return modificado;
+    }
+
+    /**
+     * Indica que el CSV exportado quedó al día con el almacén, y registra su tamaño y fecha
+     * de modificación para no volver a generar el almacén a partir de él al abrirlo.
+     *
+     * @param archivoCsv Ruta del CSV recién exportado.
+     * @throws IOException Si no se pueden leer los datos del CSV.
+     */
+    public void marcarExportado(String archivoCsv) throws IOException {
+        long[] origen = origenCsv(Paths.get(archivoCsv));
+        buffer.putLong(DESP_TAMANIO_CSV, origen[0]);
+        buffer.putLong(DESP_FECHA_CSV, origen[1]);
+        buffer.force();
+        modificado = false;
+    }
+
+    /**
+     * Devuelve los registros en el formato CSV original (numero,categoria,estadoPago,dniInquilino).
+     * Las líneas se generan a medida que se recorren, sin armar una lista en memoria.
+     *
+     * @return Líneas CSV de todas las cocheras, en el orden del archivo.
+     */
+    public Iterable<String> lineasCsv() {
+        return () -> new Iterator<>() {
+            private int posicion;
+
+            @Override
+            public boolean hasNext() {
+                return posicion < cantidad;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int actual = posicion++;
+                return getNumero(actual) + "," + getCategoria(actual) + ","
+                        + isEstadoPago(actual) + "," + getDniInquilino(actual);
+            }
+        };
+    }
+
+    /**
+     * Fuerza la escritura a disco de los cambios realizados sobre el archivo mapeado.
+     */
+    public void sincronizar() {
+        buffer.force();
+    }
+
+    /**
+     * Sincroniza los cambios pendientes y cierra el canal del archivo.
+     *
+     * @throws IOException Si ocurre un error al cerrar el canal.
+     */
+    @Override
+    public void close() throws IOException {
+        sincronizar();
+        canal.close();
+    }
+}
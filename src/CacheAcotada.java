@@ -0,0 +1,398 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Caché en memoria con un peso total máximo, con la política W-TinyLFU.
+ * <p>
+ * Cada valor tiene un peso (por ejemplo, la cantidad de registros que contiene) y la suma
+ * de los pesos nunca supera el máximo. Las entradas se reparten en tres colas LRU:
+ * <ul>
+ *     <li>Ventana (1% del peso): recibe las entradas nuevas, para que una entrada recién
+ *     cargada sobreviva a unos pocos accesos seguidos.</li>
+ *     <li>Prueba (20% del resto): entradas que salieron de la ventana y fueron admitidas.</li>
+ *     <li>Protegida (80% del resto): entradas de prueba que volvieron a accederse.</li>
+ * </ul>
+ * Cuando una entrada sale de la ventana y no hay lugar, compite con la entrada más antigua
+ * de prueba: entra sólo si se accedió más veces. La frecuencia de acceso de cada clave
+ * (incluidas las que no están en la caché) se estima con un sketch de conteo (count-min)
+ * de cuatro filas, cuyos contadores se dividen por dos cada cierta cantidad de accesos,
+ * para que la frecuencia refleje el uso reciente.
+ * <p>
+ * A diferencia de una caché LRU, un recorrido completo de datos que no entran en la caché
+ * no la vacía: las entradas que se acceden una sola vez no desplazan a las que se usan
+ * seguido. Todas las operaciones son O(1) y están sincronizadas; el valor de una clave
+ * ausente lo carga quien la consulta, fuera del bloqueo (ver agregar).
+ *
+ * @param <K> Tipo de las claves.
+ * @param <V> Tipo de los valores.
+ */
+class CacheAcotada<K, V> {
+
+    /**
+     * Estadísticas de uso de la caché.
+     */
+    static class Estadisticas {
+
+        private final long aciertos;
+        private final long fallos;
+        private final long expulsiones;
+        private final long rechazos;
+        private final int entradas;
+        private final long peso;
+        private final long pesoMaximo;
+
+        private Estadisticas(long aciertos, long fallos, long expulsiones, long rechazos,
+                             int entradas, long peso, long pesoMaximo) {
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.expulsiones = expulsiones;
+            this.rechazos = rechazos;
+            this.entradas = entradas;
+            this.peso = peso;
+            this.pesoMaximo = pesoMaximo;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        /**
+         * Devuelve la proporción de consultas que encontraron el valor en la caché.
+         *
+         * @return Valor entre 0 y 1 (0 si no hubo consultas).
+         */
+        public double getTasaAciertos() {
+            long consultas = aciertos + fallos;
+            return consultas == 0 ? 0 : (double) aciertos / consultas;
+        }
+
+        public long getExpulsiones() {
+            return expulsiones;
+        }
+
+        public long getRechazos() {
+            return rechazos;
+        }
+
+        public int getEntradas() {
+            return entradas;
+        }
+
+        public long getPeso() {
+            return peso;
+        }
+
+        public long getPesoMaximo() {
+            return pesoMaximo;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d aciertos, %d fallos (%.1f%% aciertos), %d expulsiones, %d rechazos; "
+                            + "%d entradas, peso %d de %d",
+                    aciertos, fallos, getTasaAciertos() * 100, expulsiones, rechazos, entradas, peso, pesoMaximo);
+        }
+    }
+
+    /**
+     * Valor guardado, con su peso.
+     */
+    private static class Entrada<V> {
+        final V valor;
+        final int peso;
+
+        Entrada(V valor, int peso) {
+            this.valor = valor;
+            this.peso = peso;
+        }
+    }
+
+    // Colas LRU (LinkedHashMap en orden de acceso: la primera entrada es la más antigua).
+    private final LinkedHashMap<K, Entrada<V>> ventana = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entrada<V>> prueba = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entrada<V>> protegida = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Peso máximo total y de la ventana y la cola protegida.
+    private final long pesoMaximo;
+    private final long pesoMaximoVentana;
+    private final long pesoMaximoProtegida;
+
+    // Peso actual de cada cola.
+    private long pesoVentana;
+    private long pesoPrueba;
+    private long pesoProtegida;
+
+    // Función que calcula el peso de un valor.
+    private final ToIntFunction<V> pesador;
+
+    // Estimador de la frecuencia de acceso de cada clave.
+    private final Frecuencias frecuencias;
+
+    // Estadísticas.
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long rechazos;
+
+    /**
+     * Crea una caché vacía.
+     *
+     * @param pesoMaximo Peso total máximo de los valores guardados.
+     * @param pesador    Calcula el peso de un valor (al menos 1).
+     * @throws IllegalArgumentException Si el peso máximo no es positivo.
+     */
+    public CacheAcotada(long pesoMaximo, ToIntFunction<V> pesador) {
+        if (pesoMaximo <= 0) {
+            throw new IllegalArgumentException("El peso máximo de la caché debe ser positivo.");
+        }
+        this.pesoMaximo = pesoMaximo;
+        this.pesoMaximoVentana = Math.max(1, pesoMaximo / 100);
+        this.pesoMaximoProtegida = (pesoMaximo - pesoMaximoVentana) * 8 / 10;
+        this.pesador = pesador;
+        this.frecuencias = new Frecuencias(pesoMaximo);
+    }
+
+    /**
+     * Busca el valor de una clave y registra el acceso.
+     *
+     * @param clave Clave a buscar.
+     * @return El valor, o null si no está en la caché (quien consulta debe cargarlo y agregarlo).
+     */
+    public synchronized V obtener(K clave) {
+        frecuencias.registrar(clave);
+        Entrada<V> entrada = ventana.get(clave);
+        if (entrada == null) {
+            entrada = protegida.get(clave);
+        }
+        if (entrada == null) {
+            entrada = prueba.remove(clave);
+            if (entrada != null) {
+                // Segundo acceso desde la cola de prueba: la entrada pasa a la protegida.
+                pesoPrueba -= entrada.peso;
+                protegida.put(clave, entrada);
+                pesoProtegida += entrada.peso;
+                degradarProtegidas();
+            }
+        }
+        if (entrada == null) {
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        return entrada.valor;
+    }
+
+    /**
+     * Agrega (o reemplaza) el valor de una clave. Se usa después de un fallo de obtener(),
+     * con el valor recién cargado. Si dos hilos cargan la misma clave a la vez, queda el
+     * último valor agregado. Los valores que pesan más que la caché completa no se guardan.
+     *
+     * @param clave Clave.
+     * @param valor Valor.
+     */
+    public synchronized void agregar(K clave, V valor) {
+        Entrada<V> entrada = new Entrada<>(valor, Math.max(1, pesador.applyAsInt(valor)));
+        quitar(clave);
+        if (entrada.peso > pesoMaximo) {
+            rechazos++;
+            return;
+        }
+        ventana.put(clave, entrada);
+        pesoVentana += entrada.peso;
+
+        // Las entradas más antiguas de la ventana pasan a la cola de prueba, si son admitidas.
+        while (pesoVentana > pesoMaximoVentana && ventana.size() > 1) {
+            Map.Entry<K, Entrada<V>> candidata = ventana.entrySet().iterator().next();
+            ventana.remove(candidata.getKey());
+            pesoVentana -= candidata.getValue().peso;
+            admitir(candidata.getKey(), candidata.getValue());
+        }
+        // Si la ventana sola supera el máximo (una única entrada muy pesada), se libera lugar en las otras colas.
+        while (pesoVentana + pesoPrueba + pesoProtegida > pesoMaximo && expulsarMasAntigua()) {
+            expulsiones++;
+        }
+    }
+
+    /**
+     * Quita todas las entradas (por ejemplo, si el archivo de respaldo cambió). Las estadísticas se conservan.
+     */
+    public synchronized void vaciar() {
+        ventana.clear();
+        prueba.clear();
+        protegida.clear();
+        pesoVentana = 0;
+        pesoPrueba = 0;
+        pesoProtegida = 0;
+    }
+
+    /**
+     * Devuelve las estadísticas de uso acumuladas.
+     *
+     * @return Estadísticas de la caché.
+     */
+    public synchronized Estadisticas getEstadisticas() {
+        return new Estadisticas(aciertos, fallos, expulsiones, rechazos,
+                ventana.size() + prueba.size() + protegida.size(),
+                pesoVentana + pesoPrueba + pesoProtegida, pesoMaximo);
+    }
+
+    /**
+     * Admite en la cola de prueba una entrada que sale de la ventana. Si no hay lugar, se
+     * expulsan las entradas más antiguas de prueba (o de la protegida, si prueba está vacía)
+     * mientras se hayan accedido menos veces que la candidata; si no, se descarta la candidata.
+     */
+    private void admitir(K clave, Entrada<V> candidata) {
+        int frecuenciaCandidata = frecuencias.estimar(clave);
+        while (pesoVentana + pesoPrueba + pesoProtegida + candidata.peso > pesoMaximo) {
+            LinkedHashMap<K, Entrada<V>> cola = prueba.isEmpty() ? protegida : prueba;
+            if (cola.isEmpty()) {
+                break;
+            }
+            K victima = cola.keySet().iterator().next();
+            if (frecuencias.estimar(victima) >= frecuenciaCandidata) {
+                rechazos++;
+                return;
+            }
+            expulsarMasAntigua();
+            expulsiones++;
+        }
+        prueba.put(clave, candidata);
+        pesoPrueba += candidata.peso;
+    }
+
+    /**
+     * Expulsa la entrada más antigua de prueba, de la protegida o de la ventana, en ese orden.
+     *
+     * @return false si la caché está vacía.
+     */
+    private boolean expulsarMasAntigua() {
+        if (!prueba.isEmpty()) {
+            pesoPrueba -= quitarPrimera(prueba);
+        } else if (!protegida.isEmpty()) {
+            pesoProtegida -= quitarPrimera(protegida);
+        } else if (!ventana.isEmpty()) {
+            pesoVentana -= quitarPrimera(ventana);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Quita la entrada más antigua de una cola (no vacía) y devuelve su peso.
+     */
+    private int quitarPrimera(LinkedHashMap<K, Entrada<V>> cola) {
+        Iterator<Entrada<V>> valores = cola.values().iterator();
+        int peso = valores.next().peso;
+        valores.remove();
+        return peso;
+    }
+
+    /**
+     * Si la cola protegida supera su peso máximo, sus entradas más antiguas vuelven a prueba.
+     */
+    private void degradarProtegidas() {
+        while (pesoProtegida > pesoMaximoProtegida && protegida.size() > 1) {
+            Map.Entry<K, Entrada<V>> antigua = protegida.entrySet().iterator().next();
+            protegida.remove(antigua.getKey());
+            pesoProtegida -= antigua.getValue().peso;
+            prueba.put(antigua.getKey(), antigua.getValue());
+            pesoPrueba += antigua.getValue().peso;
+        }
+    }
+
+    /**
+     * Quita una clave de la cola en la que esté.
+     */
+    private void quitar(K clave) {
+        Entrada<V> anterior = ventana.remove(clave);
+        if (anterior != null) {
+            pesoVentana -= anterior.peso;
+            return;
+        }
+        anterior = prueba.remove(clave);
+        if (anterior != null) {
+            pesoPrueba -= anterior.peso;
+            return;
+        }
+        anterior = protegida.remove(clave);
+        if (anterior != null) {
+            pesoProtegida -= anterior.peso;
+        }
+    }
+
+    /**
+     * Sketch de conteo (count-min) de cuatro filas con contadores de 0 a 15. La frecuencia
+     * estimada de una clave es el menor de sus cuatro contadores. Después de una cantidad de
+     * accesos proporcional al ancho, todos los contadores se dividen por dos.
+     */
+    private static class Frecuencias {
+
+        // Multiplicadores (impares) que distribuyen el hash de la clave en cada fila.
+        private static final int[] SEMILLAS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+        // Valor máximo de un contador.
+        private static final int MAXIMO = 15;
+
+        private final byte[][] contadores;
+        private final int mascara;
+        private final int accesosPorPeriodo;
+        private int accesos;
+
+        Frecuencias(long pesoMaximo) {
+            // El ancho es una potencia de dos, del orden de la cantidad de valores que pueden estar
+            // en la caché (como cada valor pesa al menos 1, nunca son más que el peso máximo).
+            int ancho = Integer.highestOneBit((int) Math.min(1 << 20, Math.max(16, pesoMaximo)));
+            this.contadores = new byte[SEMILLAS.length][ancho];
+            this.mascara = ancho - 1;
+            this.accesosPorPeriodo = 10 * ancho;
+        }
+
+        void registrar(Object clave) {
+            int hash = dispersar(clave);
+            for (int fila = 0; fila < SEMILLAS.length; fila++) {
+                int indice = indice(hash, fila);
+                if (contadores[fila][indice] < MAXIMO) {
+                    contadores[fila][indice]++;
+                }
+            }
+            if (++accesos >= accesosPorPeriodo) {
+                envejecer();
+            }
+        }
+
+        int estimar(Object clave) {
+            int hash = dispersar(clave);
+            int minimo = MAXIMO;
+            for (int fila = 0; fila < SEMILLAS.length; fila++) {
+                minimo = Math.min(minimo, contadores[fila][indice(hash, fila)]);
+            }
+            return minimo;
+        }
+
+        private void envejecer() {
+            for (byte[] fila : contadores) {
+                for (int i = 0; i < fila.length; i++) {
+                    fila[i] >>= 1;
+                }
+            }
+            accesos /= 2;
+        }
+
+        private int indice(int hash, int fila) {
+            int h = hash * SEMILLAS[fila];
+            return (h ^ (h >>> 16)) & mascara;
+        }
+
+        private static int dispersar(Object clave) {
+            int h = clave.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+}
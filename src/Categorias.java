@@ -0,0 +1,65 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diccionario de las categorías de cochera.
+ * <p>
+ * Hay muy pocas categorías distintas (casi todas las cocheras son "Base"), por lo que cada
+ * categoría se guarda una única vez y cada Cochera guarda sólo su código, en lugar de una
+ * cadena propia. Los códigos se asignan en orden de aparición y no cambian mientras el
+ * proceso está en ejecución; no se guardan en ningún archivo.
+ */
+final class Categorias {
+
+    // Código de cada categoría.
+    private static final Map<String, Short> codigos = new ConcurrentHashMap<>();
+
+    // Categoría de cada código. Se reemplaza por una copia al agregar una categoría.
+    private static volatile String[] textos = new String[0];
+
+    private Categorias() {
+    }
+
+    /**
+     * Devuelve el código de una categoría, agregándola al diccionario si no estaba.
+     *
+     * @param categoria Categoría de cochera.
+     * @return Código de la categoría.
+     * @throws IllegalStateException Si ya hay Short.MAX_VALUE + 1 categorías distintas.
+     */
+    public static short codigo(String categoria) {
+        Short codigo = codigos.get(categoria);
+        return codigo != null ? codigo : agregar(categoria);
+    }
+
+    /**
+     * Agrega una categoría al diccionario. El texto se publica antes que el código,
+     * para que cualquier código que se obtenga ya tenga su texto.
+     */
+    private static synchronized short agregar(String categoria) {
+        Short codigo = codigos.get(categoria);
+        if (codigo == null) {
+            String[] actuales = textos;
+            if (actuales.length > Short.MAX_VALUE) {
+                throw new IllegalStateException("Hay demasiadas categorías de cochera distintas.");
+            }
+            String[] nuevos = Arrays.copyOf(actuales, actuales.length + 1);
+            nuevos[actuales.length] = categoria;
+            textos = nuevos;
+            codigo = (short) actuales.length;
+            codigos.put(categoria, codigo);
+        }
+        return codigo;
+    }
+
+    /**
+     * Devuelve la categoría de un código.
+     *
+     * @param codigo Código obtenido con codigo(String).
+     * @return Categoría de cochera (siempre la misma instancia).
+     */
+    public static String texto(short codigo) {
+        return textos[codigo];
+    }
+}
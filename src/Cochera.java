@@ -7,11 +7,13 @@ class Cochera {
     // Número de la cochera (identificador único).
     private int numero;
 
-    // Categoría de la cochera (por ejemplo, puede indicar el tamaño o tipo).
-    private String categoria;
+    // Código de la categoría de la cochera (por ejemplo, puede indicar el tamaño o tipo).
+    // Se guarda el código del diccionario de categorías, no una cadena por cochera.
+    private short categoria;
 
     // Indica si el pago de la cochera está al día (true) o pendiente (false).
-    private boolean estadoPago;
+    // Es volatile porque puede modificarse desde un hilo y leerse desde otro.
+    private volatile boolean estadoPago;
 
     // Inquilino al que se le ha asignado esta cochera.
     private Inquilino inquilino;
@@ -26,7 +28,7 @@ class Cochera {
      */
     public Cochera(int numero, String categoria, boolean estadoPago, Inquilino inquilino) {
         this.numero = numero;
-        this.categoria = categoria;
+        this.categoria = Categorias.codigo(categoria);
         this.estadoPago = estadoPago;
         this.inquilino = inquilino;
     }
@@ -58,13 +60,27 @@ class Cochera {
         return estadoPago;
     }
 
+    /**
+     * Marca la cochera como pagada.
+     */
+    public void marcarPagada() {
+        this.estadoPago = true;
+    }
+
+    /**
+     * Marca la cochera como pendiente de pago (por ejemplo, al iniciar un período de facturación).
+     */
+    public void marcarPendiente() {
+        this.estadoPago = false;
+    }
+
     /**
      * Devuelve la categoría de la cochera.
      *
      * @return Cadena que representa la categoría de la cochera.
      */
     public String getCategoria() {
-        return categoria;
+        return Categorias.texto(categoria);
     }
 
     /**
@@ -76,7 +92,7 @@ class Cochera {
     @Override
     public String toString() {
         return "Cochera N°" + numero
-                + " | Categoría: " + categoria
+                + " | Categoría: " + getCategoria()
                 + " | Estado de pago: " + (estadoPago ? "Pagado" : "Pendiente");
     }
 }
\ No newline at end of file
@@ -0,0 +1,753 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Codificador/decodificador de registros de Inquilino, Cochera, Pago y Reserva.
+ * <p>
+ * Ofrece dos formatos versionados:
+ * <ul>
+ *     <li>Binario con prefijo de longitud: largo (4 bytes), tipo (1 byte), versión (1 byte)
+ *     y los campos del registro. Los textos se guardan como largo (2 bytes) + UTF-8
+ *     y las fechas como número de día desde el 01/01/1970 (4 bytes).
+ *     Se escribe y se lee sobre un ByteBuffer provisto (y reutilizado) por quien llama.
+ *     Es el formato de las entradas del registro de operaciones (RegistroOperaciones), que
+ *     al recuperar se convierten en su línea CSV sin construir objetos (lineaDesdeBinario).</li>
+ *     <li>CSV de una línea, cuyo primer campo indica tipo y versión (por ejemplo "P1,...").
+ *     Las fechas se escriben como dd/MM/yyyy. Se lee con un recorrido manual de la línea, sin String.split.</li>
+ * </ul>
+ * Los campos opcionales se agregan al final del registro, de modo que los registros que no
+ * los tienen (por ejemplo, las reservas de día completo) conservan el formato anterior.
+ * <p>
+ * Las referencias a otras entidades se guardan por clave (DNI del inquilino, número de
+ * cochera) y se resuelven al decodificar. Si el inquilino ya no existe, se conserva
+ * un inquilino con los datos disponibles para no perder el registro.
+ * <p>
+ * Además se reconocen las líneas de texto que se guardaban antes en "pagos.txt"
+ * y "reservas.txt" (el resultado de toString), para poder leer los archivos existentes.
+ * La clase no guarda estado entre llamadas, por lo que puede usarse desde varios hilos.
+ */
+class CodecRegistros {
+
+    // Tipos de registro.
+    static final byte TIPO_INQUILINO = 'I';
+    static final byte TIPO_COCHERA = 'K';
+    static final byte TIPO_PAGO = 'P';
+    static final byte TIPO_RESERVA = 'R';
+    static final byte TIPO_BAJA_RESERVA = 'B';
+
+    // Versión actual de todos los formatos.
+    static final byte VERSION = 1;
+
+    // Tamaño del encabezado binario que sigue al largo: tipo + versión.
+    private static final int TAM_ENCABEZADO = 2;
+
+    // Prefijos de las líneas escritas por toString en versiones anteriores.
+    private static final String LEGADO_PAGO = "Pago por : $";
+    private static final String LEGADO_RESERVA = "Reserva N°";
+    private static final String LEGADO_BAJA = "Cancelada N°";
+
+    // Funciones para resolver las referencias al decodificar.
+    private final Function<String, Inquilino> inquilinoPorDni;
+    private final Function<String, Inquilino> inquilinoPorNombre;
+    private final IntFunction<Cochera> cocheraPorNumero;
+
+    /**
+     * Crea un codec que resuelve las referencias con las funciones indicadas.
+     *
+     * @param inquilinoPorDni    Busca un inquilino por DNI.
+     * @param inquilinoPorNombre Busca un inquilino por "nombre apellido" (sólo para líneas del formato anterior).
+     * @param cocheraPorNumero   Busca una cochera por número.
+     */
+    public CodecRegistros(Function<String, Inquilino> inquilinoPorDni,
+                          Function<String, Inquilino> inquilinoPorNombre,
+                          IntFunction<Cochera> cocheraPorNumero) {
+        this.inquilinoPorDni = inquilinoPorDni;
+        this.inquilinoPorNombre = inquilinoPorNombre;
+        this.cocheraPorNumero = cocheraPorNumero;
+    }
+
+    // ------------------------------------------------------------------
+    // Formato binario
+    // ------------------------------------------------------------------
+
+    /**
+     * Escribe un inquilino en formato binario a partir de la posición actual del buffer.
+     *
+     * @param inquilino Inquilino a codificar.
+     * @param destino   Buffer de destino (debe tener espacio suficiente).
+     */
+    public void codificar(Inquilino inquilino, ByteBuffer destino) {
+        int inicio = iniciarRegistro(destino, TIPO_INQUILINO);
+        escribirTexto(destino, inquilino.getNombre());
+        escribirTexto(destino, inquilino.getApellido());
+        escribirTexto(destino, inquilino.getDni());
+        cerrarRegistro(destino, inicio);
+    }
+
+    /**
+     * Escribe una cochera en formato binario a partir de la posición actual del buffer.
+     *
+     * @param cochera Cochera a codificar.
+     * @param destino Buffer de destino (debe tener espacio suficiente).
+     */
+    public void codificar(Cochera cochera, ByteBuffer destino) {
+        int inicio = iniciarRegistro(destino, TIPO_COCHERA);
+        destino.putInt(cochera.getNumero());
+        escribirTexto(destino, cochera.getCategoria());
+        destino.put((byte) (cochera.isEstadoPago() ? 1 : 0));
+        escribirTexto(destino, cochera.getInquilino().getDni());
+        cerrarRegistro(destino, inicio);
+    }
+
+    /**
+     * Escribe un pago en formato binario a partir de la posición actual del buffer.
+     *
+     * @param pago    Pago a codificar.
+     * @param destino Buffer de destino (debe tener espacio suficiente).
+     */
+    public void codificar(Pago pago, ByteBuffer destino) {
+        int inicio = iniciarRegistro(destino, TIPO_PAGO);
+        destino.putDouble(pago.getMonto());
+        destino.putInt((int) pago.getFecha().toEpochDay());
+        escribirTexto(destino, pago.getInquilino().getDni());
+        destino.putInt(pago.getCochera() == null ? -1 : pago.getCochera().getNumero());
+        cerrarRegistro(destino, inicio);
+    }
+
+    /**
+     * Escribe una reserva en formato binario a partir de la posición actual del buffer.
+     *
+     * @param reserva Reserva a codificar.
+     * @param destino Buffer de destino (debe tener espacio suficiente).
+     */
+    public void codificar(Reserva reserva, ByteBuffer destino) {
+        int inicio = iniciarRegistro(destino, TIPO_RESERVA);
+        destino.putInt(reserva.getNroReserva());
+        destino.putInt((int) reserva.getFecha().toEpochDay());
+        destino.put((byte) reserva.getLugar().ordinal());
+        escribirTexto(destino, reserva.getInquilino().getDni());
+        // Horario opcional, en minutos desde las 00:00 (el fin del día se guarda como 1440).
+        if (!reserva.isDiaCompleto()) {
+            destino.putShort((short) minutoDelDia(reserva.getHoraDesde(), false));
+            destino.putShort((short) minutoDelDia(reserva.getHoraHasta(), true));
+        }
+        cerrarRegistro(destino, inicio);
+    }
+
+    /**
+     * Escribe la baja (cancelación) de una reserva en formato binario a partir de la posición actual del buffer.
+     *
+     * @param nroReserva Número de la reserva cancelada.
+     * @param destino    Buffer de destino (debe tener espacio suficiente).
+     */
+    public void codificarBaja(int nroReserva, ByteBuffer destino) {
+        int inicio = iniciarRegistro(destino, TIPO_BAJA_RESERVA);
+        destino.putInt(nroReserva);
+        cerrarRegistro(destino, inicio);
+    }
+
+    /**
+     * Devuelve el tipo del próximo registro binario del buffer, sin consumirlo.
+     *
+     * @param origen Buffer posicionado al comienzo de un registro.
+     * @return Tipo del registro (TIPO_INQUILINO, TIPO_COCHERA, TIPO_PAGO, TIPO_RESERVA o TIPO_BAJA_RESERVA).
+     */
+    public static byte tipoSiguiente(ByteBuffer origen) {
+        return origen.get(origen.position() + Integer.BYTES);
+    }
+
+    /**
+     * Indica si el buffer contiene un registro binario completo a partir de su posición actual.
+     *
+     * @param origen Buffer a revisar.
+     * @return true si el próximo registro puede leerse entero.
+     */
+    public static boolean hayRegistroCompleto(ByteBuffer origen) {
+        if (origen.remaining() < Integer.BYTES + TAM_ENCABEZADO) {
+            return false;
+        }
+        int largo = origen.getInt(origen.position());
+        return largo >= TAM_ENCABEZADO && origen.remaining() - Integer.BYTES >= largo;
+    }
+
+    /**
+     * Lee un inquilino en formato binario desde la posición actual del buffer.
+     *
+     * @param origen Buffer de origen.
+     * @return Inquilino leído.
+     */
+    public Inquilino decodificarInquilino(ByteBuffer origen) {
+        int fin = abrirRegistro(origen, TIPO_INQUILINO);
+        Inquilino inquilino = new Inquilino(leerTexto(origen), leerTexto(origen), leerTexto(origen));
+        origen.position(fin);
+        return inquilino;
+    }
+
+    /**
+     * Lee una cochera en formato binario desde la posición actual del buffer.
+     *
+     * @param origen Buffer de origen.
+     * @return Cochera leída.
+     */
+    public Cochera decodificarCochera(ByteBuffer origen) {
+        int fin = abrirRegistro(origen, TIPO_COCHERA);
+        int numero = origen.getInt();
+        String categoria = leerTexto(origen);
+        boolean estadoPago = origen.get() != 0;
+        Inquilino inquilino = resolverInquilino(leerTexto(origen));
+        origen.position(fin);
+        return new Cochera(numero, categoria, estadoPago, inquilino);
+    }
+
+    /**
+     * Lee un pago en formato binario desde la posición actual del buffer.
+     *
+     * @param origen Buffer de origen.
+     * @return Pago leído.
+     */
+    public Pago decodificarPago(ByteBuffer origen) {
+        int fin = abrirRegistro(origen, TIPO_PAGO);
+        double monto = origen.getDouble();
+        LocalDate fecha = LocalDate.ofEpochDay(origen.getInt());
+        Inquilino inquilino = resolverInquilino(leerTexto(origen));
+        int numeroCochera = origen.getInt();
+        origen.position(fin);
+        return new Pago(monto, fecha, inquilino, numeroCochera < 0 ? null : cocheraPorNumero.apply(numeroCochera));
+    }
+
+    /**
+     * Lee una reserva en formato binario desde la posición actual del buffer.
+     *
+     * @param origen Buffer de origen.
+     * @return Reserva leída.
+     */
+    public Reserva decodificarReserva(ByteBuffer origen) {
+        int fin = abrirRegistro(origen, TIPO_RESERVA);
+        int nro = origen.getInt();
+        LocalDate fecha = LocalDate.ofEpochDay(origen.getInt());
+        Lugar lugar = Lugar.values()[origen.get()];
+        Inquilino inquilino = resolverInquilino(leerTexto(origen));
+        LocalTime desde = LocalTime.MIDNIGHT;
+        LocalTime hasta = LocalTime.MIDNIGHT;
+        if (origen.position() < fin) {
+            desde = horaDesdeMinuto(origen.getShort());
+            hasta = horaDesdeMinuto(origen.getShort());
+        }
+        origen.position(fin);
+        return new Reserva(nro, fecha, desde, hasta, inquilino, lugar);
+    }
+
+    /**
+     * Lee la baja de una reserva en formato binario desde la posición actual del buffer.
+     *
+     * @param origen Buffer de origen.
+     * @return Número de la reserva cancelada.
+     */
+    public int decodificarBaja(ByteBuffer origen) {
+        int fin = abrirRegistro(origen, TIPO_BAJA_RESERVA);
+        int nro = origen.getInt();
+        origen.position(fin);
+        return nro;
+    }
+
+    /**
+     * Lee un pago, una reserva o una baja en formato binario y devuelve su línea CSV, igual a
+     * la que devuelve aCsv (o aCsvBaja). No resuelve referencias ni construye los objetos,
+     * por lo que sirve para reconstruir las líneas de los archivos de datos al recuperar.
+     *
+     * @param origen Buffer posicionado al comienzo de un registro.
+     * @return Línea CSV del registro.
+     * @throws IllegalArgumentException Si el registro no es un pago, una reserva ni una baja.
+     */
+    public static String lineaDesdeBinario(ByteBuffer origen) {
+        byte tipo = tipoSiguiente(origen);
+        if (tipo == TIPO_PAGO) {
+            int fin = abrirRegistro(origen, TIPO_PAGO);
+            double monto = origen.getDouble();
+            LocalDate fecha = LocalDate.ofEpochDay(origen.getInt());
+            String dni = leerTexto(origen);
+            int numeroCochera = origen.getInt();
+            origen.position(fin);
+            return csvPago(monto, fecha, dni, numeroCochera);
+        }
+        if (tipo == TIPO_RESERVA) {
+            int fin = abrirRegistro(origen, TIPO_RESERVA);
+            int nro = origen.getInt();
+            LocalDate fecha = LocalDate.ofEpochDay(origen.getInt());
+            Lugar lugar = Lugar.values()[origen.get()];
+            String dni = leerTexto(origen);
+            LocalTime desde = null;
+            LocalTime hasta = null;
+            if (origen.position() < fin) {
+                desde = horaDesdeMinuto(origen.getShort());
+                hasta = horaDesdeMinuto(origen.getShort());
+            }
+            origen.position(fin);
+            return csvReserva(nro, fecha, lugar, dni, desde, hasta);
+        }
+        if (tipo == TIPO_BAJA_RESERVA) {
+            int fin = abrirRegistro(origen, TIPO_BAJA_RESERVA);
+            int nro = origen.getInt();
+            origen.position(fin);
+            return csvBaja(nro);
+        }
+        throw new IllegalArgumentException("Registro binario sin línea de datos: tipo " + (char) tipo);
+    }
+
+    /**
+     * Reserva lugar para el largo del registro y escribe tipo y versión.
+     *
+     * @return Posición donde comienza el registro.
+     */
+    private static int iniciarRegistro(ByteBuffer destino, byte tipo) {
+        int inicio = destino.position();
+        destino.putInt(0);
+        destino.put(tipo);
+        destino.put(VERSION);
+        return inicio;
+    }
+
+    /**
+     * Completa el largo del registro que comienza en la posición indicada.
+     */
+    private static void cerrarRegistro(ByteBuffer destino, int inicio) {
+        destino.putInt(inicio, destino.position() - inicio - Integer.BYTES);
+    }
+
+    /**
+     * Lee y valida el encabezado de un registro.
+     *
+     * @return Posición del buffer donde termina el registro.
+     */
+    private static int abrirRegistro(ByteBuffer origen, byte tipoEsperado) {
+        int largo = origen.getInt();
+        int fin = origen.position() + largo;
+        byte tipo = origen.get();
+        byte version = origen.get();
+        if (tipo != tipoEsperado || version != VERSION) {
+            throw new IllegalArgumentException("Registro binario inesperado: tipo " + (char) tipo + ", versión " + version);
+        }
+        return fin;
+    }
+
+    /**
+     * Escribe un texto como largo (2 bytes) seguido de sus bytes UTF-8.
+     * Los textos ASCII, que son la gran mayoría, se copian carácter a carácter sin crear arreglos intermedios.
+     */
+    private static void escribirTexto(ByteBuffer destino, String texto) {
+        int largo = texto.length();
+        int posicionLargo = destino.position();
+        destino.putShort((short) largo);
+        for (int i = 0; i < largo; i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80) {
+                // Texto con caracteres no ASCII: se codifica completo en UTF-8.
+                byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+                destino.position(posicionLargo);
+                destino.putShort((short) bytes.length);
+                destino.put(bytes);
+                return;
+            }
+            destino.put((byte) c);
+        }
+    }
+
+    /**
+     * Lee un texto escrito por escribirTexto.
+     */
+    private static String leerTexto(ByteBuffer origen) {
+        int largo = origen.getShort() & 0xFFFF;
+        if (largo > origen.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String texto;
+        if (origen.hasArray()) {
+            texto = new String(origen.array(), origen.arrayOffset() + origen.position(), largo, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[largo];
+            origen.get(origen.position(), bytes);
+            texto = new String(bytes, StandardCharsets.UTF_8);
+        }
+        origen.position(origen.position() + largo);
+        return texto;
+    }
+
+    // ------------------------------------------------------------------
+    // Formato CSV
+    // ------------------------------------------------------------------
+
+    /**
+     * Devuelve la línea CSV de un inquilino: I1,nombre,apellido,dni
+     */
+    public String aCsv(Inquilino inquilino) {
+        return new StringBuilder(48).append((char) TIPO_INQUILINO).append(VERSION)
+                .append(',').append(inquilino.getNombre())
+                .append(',').append(inquilino.getApellido())
+                .append(',').append(inquilino.getDni())
+                .toString();
+    }
+
+    /**
+     * Devuelve la línea CSV de una cochera: K1,numero,categoria,estadoPago,dniInquilino
+     */
+    public String aCsv(Cochera cochera) {
+        return new StringBuilder(48).append((char) TIPO_COCHERA).append(VERSION)
+                .append(',').append(cochera.getNumero())
+                .append(',').append(cochera.getCategoria())
+                .append(',').append(cochera.isEstadoPago())
+                .append(',').append(cochera.getInquilino().getDni())
+                .toString();
+    }
+
+    /**
+     * Devuelve la línea CSV de un pago: P1,monto,fecha,dniInquilino,numeroCochera
+     * (numeroCochera es -1 si el pago no tiene cochera).
+     */
+    public String aCsv(Pago pago) {
+        return csvPago(pago.getMonto(), pago.getFecha(), pago.getInquilino().getDni(),
+                pago.getCochera() == null ? -1 : pago.getCochera().getNumero());
+    }
+
+    /**
+     * Devuelve la línea CSV de una reserva: R1,nroReserva,fecha,lugar,dniInquilino[,desde,hasta]
+     * El horario (HH:mm) sólo se escribe si la reserva no ocupa el día completo.
+     */
+    public String aCsv(Reserva reserva) {
+        boolean diaCompleto = reserva.isDiaCompleto();
+        return csvReserva(reserva.getNroReserva(), reserva.getFecha(), reserva.getLugar(),
+                reserva.getInquilino().getDni(),
+                diaCompleto ? null : reserva.getHoraDesde(), diaCompleto ? null : reserva.getHoraHasta());
+    }
+
+    /**
+     * Devuelve la línea CSV de la baja (cancelación) de una reserva: B1,nroReserva
+     */
+    public String aCsvBaja(int nroReserva) {
+        return csvBaja(nroReserva);
+    }
+
+    private static String csvPago(double monto, LocalDate fecha, String dni, int numeroCochera) {
+        return new StringBuilder(48).append((char) TIPO_PAGO).append(VERSION)
+                .append(',').append(monto)
+                .append(',').append(Fechas.formatear(fecha))
+                .append(',').append(dni)
+                .append(',').append(numeroCochera)
+                .toString();
+    }
+
+    /**
+     * Arma la línea de una reserva; desde y hasta son null si ocupa el día completo.
+     */
+    private static String csvReserva(int nro, LocalDate fecha, Lugar lugar, String dni, LocalTime desde, LocalTime hasta) {
+        StringBuilder linea = new StringBuilder(64).append((char) TIPO_RESERVA).append(VERSION)
+                .append(',').append(nro)
+                .append(',').append(Fechas.formatear(fecha))
+                .append(',').append(lugar)
+                .append(',').append(dni);
+        if (desde != null) {
+            linea.append(',').append(Fechas.formatearHora(desde))
+                    .append(',').append(Fechas.formatearHoraFin(hasta));
+        }
+        return linea.toString();
+    }
+
+    private static String csvBaja(int nroReserva) {
+        return String.valueOf((char) TIPO_BAJA_RESERVA) + VERSION + ',' + nroReserva;
+    }
+
+    /**
+     * Devuelve el tipo de registro de una línea, o 0 si no se reconoce.
+     * Las líneas del formato anterior se informan con el tipo que les corresponde.
+     *
+     * @param linea Línea leída de un archivo.
+     * @return Tipo de registro de la línea.
+     */
+    public static byte tipoDeLinea(String linea) {
+        if (linea.length() > 2 && linea.charAt(1) == '0' + VERSION && linea.charAt(2) == ',') {
+            return (byte) linea.charAt(0);
+        }
+        if (linea.startsWith(LEGADO_PAGO)) {
+            return TIPO_PAGO;
+        }
+        if (linea.startsWith(LEGADO_RESERVA)) {
+            return TIPO_RESERVA;
+        }
+        if (linea.startsWith(LEGADO_BAJA)) {
+            return TIPO_BAJA_RESERVA;
+        }
+        return 0;
+    }
+
+    /**
+     * Lee un inquilino desde su línea CSV.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public Inquilino inquilinoDesdeCsv(String linea) {
+        Campos campos = new Campos(linea, TIPO_INQUILINO);
+        return new Inquilino(campos.texto(), campos.texto(), campos.texto());
+    }
+
+    /**
+     * Lee una cochera desde su línea CSV.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public Cochera cocheraDesdeCsv(String linea) {
+        Campos campos = new Campos(linea, TIPO_COCHERA);
+        int numero = campos.entero();
+        String categoria = campos.texto();
+        boolean estadoPago = Boolean.parseBoolean(campos.texto());
+        return new Cochera(numero, categoria, estadoPago, resolverInquilino(campos.texto()));
+    }
+
+    /**
+     * Lee un pago desde una línea de "pagos.txt", en formato CSV o en el formato anterior.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public Pago pagoDesdeLinea(String linea) {
+        if (linea.startsWith(LEGADO_PAGO)) {
+            return pagoLegado(linea);
+        }
+        Campos campos = new Campos(linea, TIPO_PAGO);
+        double monto = Double.parseDouble(campos.texto());
+        LocalDate fecha = campos.fecha();
+        Inquilino inquilino = resolverInquilino(campos.texto());
+        int numeroCochera = campos.entero();
+        return new Pago(monto, fecha, inquilino, numeroCochera < 0 ? null : cocheraPorNumero.apply(numeroCochera));
+    }
+
+    /**
+     * Devuelve un filtro rápido de las líneas de "pagos.txt" que pueden corresponder a pagos
+     * de un mes. En las líneas CSV sólo se compara el texto de la fecha, sin interpretar la
+     * línea ni resolver inquilino y cochera; las líneas del formato anterior siempre pasan
+     * el filtro. Las líneas que pasan deben leerse con pagoDesdeLinea y filtrarse por fecha.
+     *
+     * @param mes Mes de los pagos.
+     * @return Filtro de líneas; descarta sólo líneas CSV de otros meses (o de otro tipo).
+     */
+    public static Predicate<String> lineasDePagosDelMes(YearMonth mes) {
+        // Las fechas CSV tienen la forma dd/MM/yyyy: basta comparar lo que sigue al día.
+        String sufijo = "/" + Fechas.formatearMes(mes);
+        return linea -> {
+            if (linea.startsWith(LEGADO_PAGO)) {
+                return true;
+            }
+            if (tipoDeLinea(linea) != TIPO_PAGO) {
+                return false;
+            }
+            int inicioFecha = linea.indexOf(',', 3) + 1;
+            int finFecha = linea.indexOf(',', inicioFecha);
+            return inicioFecha > 0 && finFecha > inicioFecha
+                    && linea.startsWith(sufijo, finFecha - sufijo.length());
+        };
+    }
+
+    /**
+     * Lee una reserva desde una línea de "reservas.txt", en formato CSV o en el formato anterior.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public Reserva reservaDesdeLinea(String linea) {
+        if (linea.startsWith(LEGADO_RESERVA)) {
+            return reservaLegada(linea);
+        }
+        Campos campos = new Campos(linea, TIPO_RESERVA);
+        int nro = campos.entero();
+        LocalDate fecha = campos.fecha();
+        Lugar lugar = Lugar.valueOf(campos.texto());
+        Inquilino inquilino = resolverInquilino(campos.texto());
+        if (!campos.hayMas()) {
+            return new Reserva(nro, fecha, inquilino, lugar);
+        }
+        LocalTime desde = campos.hora();
+        return new Reserva(nro, fecha, desde, campos.hora(), inquilino, lugar);
+    }
+
+    /**
+     * Lee sólo el número de una línea de reserva (CSV o formato anterior), sin resolver el inquilino.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public static int nroReservaDesdeLinea(String linea) {
+        if (linea.startsWith(LEGADO_RESERVA)) {
+            return Integer.parseInt(linea.substring(LEGADO_RESERVA.length(), indiceSeparador(linea, 0)).trim());
+        }
+        return new Campos(linea, TIPO_RESERVA).entero();
+    }
+
+    /**
+     * Lee el número de reserva de una línea de baja, en formato CSV o en el formato anterior.
+     *
+     * @throws IllegalArgumentException Si la línea no tiene un formato válido.
+     */
+    public int bajaDesdeLinea(String linea) {
+        if (linea.startsWith(LEGADO_BAJA)) {
+            return Integer.parseInt(linea.substring(LEGADO_BAJA.length()).trim());
+        }
+        return new Campos(linea, TIPO_BAJA_RESERVA).entero();
+    }
+
+    /**
+     * Lee un pago del formato anterior:
+     * "Pago por : $55650.0 | Fecha: 19/02/2025 | Inquilino: Maria Gonzalez".
+     * Ese formato no incluía la cochera, por lo que el pago se devuelve sin ella.
+     */
+    private Pago pagoLegado(String linea) {
+        int finMonto = indiceSeparador(linea, LEGADO_PAGO.length());
+        int finFecha = indiceSeparador(linea, finMonto + 3);
+        double monto = Double.parseDouble(linea.substring(LEGADO_PAGO.length(), finMonto).trim());
+        LocalDate fecha = parsearFecha(valorLegado(linea, finMonto + 3, finFecha, "Fecha:"));
+        String nombre = valorLegado(linea, finFecha + 3, linea.length(), "Inquilino:");
+        return new Pago(monto, fecha, resolverInquilinoPorNombre(nombre), null);
+    }
+
+    /**
+     * Lee una reserva del formato anterior:
+     * "Reserva N°1 | Fecha: 20/09/2025 | Lugar: SUM | Inquilino: Diego Silva".
+     */
+    private Reserva reservaLegada(String linea) {
+        int finNro = indiceSeparador(linea, LEGADO_RESERVA.length());
+        int finFecha = indiceSeparador(linea, finNro + 3);
+        int finLugar = indiceSeparador(linea, finFecha + 3);
+        int nro = Integer.parseInt(linea.substring(LEGADO_RESERVA.length(), finNro).trim());
+        LocalDate fecha = parsearFecha(valorLegado(linea, finNro + 3, finFecha, "Fecha:"));
+        Lugar lugar = Lugar.valueOf(valorLegado(linea, finFecha + 3, finLugar, "Lugar:"));
+        String nombre = valorLegado(linea, finLugar + 3, linea.length(), "Inquilino:");
+        return new Reserva(nro, fecha, resolverInquilinoPorNombre(nombre), lugar);
+    }
+
+    private static int indiceSeparador(String linea, int desde) {
+        int indice = linea.indexOf(" | ", desde);
+        if (indice < 0) {
+            throw new IllegalArgumentException("Línea con formato inválido: " + linea);
+        }
+        return indice;
+    }
+
+    private static String valorLegado(String linea, int inicio, int fin, String etiqueta) {
+        if (!linea.startsWith(etiqueta, inicio)) {
+            throw new IllegalArgumentException("Línea con formato inválido: " + linea);
+        }
+        return linea.substring(inicio + etiqueta.length(), fin).trim();
+    }
+
+    /**
+     * Convierte una fecha dd/MM/yyyy, informando los errores como IllegalArgumentException.
+     */
+    private static LocalDate parsearFecha(String texto) {
+        try {
+            return Fechas.parsear(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida: " + texto, e);
+        }
+    }
+
+    private static LocalTime parsearHora(String texto) {
+        try {
+            return Fechas.parsearHora(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Hora inválida: " + texto, e);
+        }
+    }
+
+    /**
+     * Convierte una hora en minutos desde las 00:00; si es una hora de fin, medianoche vale 1440.
+     */
+    private static int minutoDelDia(LocalTime hora, boolean esFin) {
+        int minuto = hora.toSecondOfDay() / 60;
+        return esFin && minuto == 0 ? 24 * 60 : minuto;
+    }
+
+    /**
+     * Convierte minutos desde las 00:00 en una hora; 1440 (fin del día) se convierte en medianoche.
+     */
+    private static LocalTime horaDesdeMinuto(int minuto) {
+        return LocalTime.ofSecondOfDay((minuto % (24 * 60)) * 60L);
+    }
+
+    /**
+     * Busca un inquilino por DNI; si no existe, devuelve uno con ese DNI y sin nombre.
+     */
+    private Inquilino resolverInquilino(String dni) {
+        Inquilino inquilino = inquilinoPorDni.apply(dni);
+        return inquilino != null ? inquilino : new Inquilino("", "", dni);
+    }
+
+    /**
+     * Busca un inquilino por "nombre apellido"; si no existe, devuelve uno con ese nombre y sin DNI.
+     */
+    private Inquilino resolverInquilinoPorNombre(String nombreCompleto) {
+        Inquilino inquilino = inquilinoPorNombre.apply(nombreCompleto);
+        if (inquilino != null) {
+            return inquilino;
+        }
+        int espacio = nombreCompleto.indexOf(' ');
+        return espacio < 0
+                ? new Inquilino(nombreCompleto, "", "")
+                : new Inquilino(nombreCompleto.substring(0, espacio), nombreCompleto.substring(espacio + 1), "");
+    }
+
+    /**
+     * Recorre los campos de una línea CSV, de izquierda a derecha, sin dividirla de antemano.
+     */
+    private static class Campos {
+        private final String linea;
+        private int posicion;
+
+        Campos(String linea, byte tipo) {
+            if (tipoDeLinea(linea) != tipo) {
+                throw new IllegalArgumentException("Línea con formato inválido: " + linea);
+            }
+            this.linea = linea;
+            this.posicion = 3;
+        }
+
+        String texto() {
+            if (posicion > linea.length()) {
+                throw new IllegalArgumentException("Faltan campos en la línea: " + linea);
+            }
+            int fin = linea.indexOf(',', posicion);
+            if (fin < 0) {
+                fin = linea.length();
+            }
+            String valor = linea.substring(posicion, fin);
+            posicion = fin + 1;
+            return valor;
+        }
+
+        LocalDate fecha() {
+            return parsearFecha(texto());
+        }
+
+        LocalTime hora() {
+            return parsearHora(texto());
+        }
+
+        boolean hayMas() {
+            return posicion <= linea.length();
+        }
+
+        int entero() {
+            if (posicion > linea.length()) {
+                throw new IllegalArgumentException("Faltan campos en la línea: " + linea);
+            }
+            int fin = linea.indexOf(',', posicion);
+            if (fin < 0) {
+                fin = linea.length();
+            }
+            int valor = Integer.parseInt(linea, posicion, fin, 10);
+            posicion = fin + 1;
+            return valor;
+        }
+    }
+}
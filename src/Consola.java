@@ -0,0 +1,30 @@
+import java.io.*;
+
+/**
+ * Salida por consola con buffer, para listados y reportes extensos.
+ * <p>
+ * System.out vacía su buffer en cada println, por lo que un listado de miles de líneas
+ * termina en miles de llamadas al sistema. La salida que se crea aquí escribe sobre el mismo
+ * descriptor de la salida estándar, con la misma codificación, pero sólo la vacía cuando se
+ * llena el buffer o cuando se llama a flush(). Quien la usa debe vaciarla al terminar cada
+ * listado, para que no se mezcle con lo que se escriba después en System.out.
+ */
+final class Consola {
+
+    // Tamaño del buffer de salida, en caracteres.
+    private static final int TAMANIO_BUFFER = 1 << 16;
+
+    private Consola() {
+    }
+
+    /**
+     * Crea una salida con buffer sobre la salida estándar.
+     * No debe cerrarse, ya que cerrarla cierra también la salida estándar del proceso.
+     *
+     * @return Salida con buffer y sin vaciado automático.
+     */
+    public static PrintWriter crearSalida() {
+        return new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), System.out.charset()), TAMANIO_BUFFER));
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Escritor de sólo agregado (append) que mantiene abierto el canal de un archivo
+ * y agrupa varias líneas en una sola escritura.
+ * <p>
+ * Las líneas se acumulan en un buffer y se escriben en el archivo cuando se alcanza
+ * la cantidad de registros por lote, cuando el buffer se llena o cuando se invoca
+ * vaciar()/sincronizar(). Opcionalmente, cada escritura se fuerza a disco (force).
+ * Antes de cada escritura se ejecuta una acción previa, que espera a que el registro de
+ * operaciones llegue a disco (ver RegistroOperaciones.forzar).
+ * Todos los métodos públicos son seguros para ser usados desde varios hilos.
+ * <p>
+ * El bloqueo es un ReentrantLock y no un bloque synchronized: bajo él se fuerza el archivo
+ * a disco y se ejecuta la acción previa a cada escritura, y un hilo virtual que espera esas
+ * escrituras no debe retener su hilo portador.
+ */
+class EscritorAgrupado implements Closeable {
+
+    // Tamaño del buffer de escritura.
+    private static final int TAM_BUFFER = 64 * 1024;
+
+    // Canal abierto en modo agregado.
+    private final FileChannel canal;
+
+    // Buffer donde se acumulan las líneas pendientes.
+    private final ByteBuffer buffer;
+
+    // Codificador UTF-8 reutilizado para todas las líneas.
+    private final CharsetEncoder codificador;
+
+    // Cantidad de líneas que disparan una escritura.
+    private final int registrosPorLote;
+
+    // Si es true, cada escritura se fuerza a disco.
+    private final boolean forzarDisco;
+
+    // Acción que se ejecuta antes de escribir las líneas pendientes en el canal.
+    private final RegistroOperaciones.Operacion antesDeEscribir;
+
+    // Cantidad de líneas acumuladas en el buffer.
+    private int pendientes;
+
+    // Cantidad de bytes del archivo ya escritos en el canal (sin contar el buffer).
+    private long posicionCanal;
+
+    // Bloqueo que protege el buffer y el canal.
+    private final Lock bloqueo = new ReentrantLock();
+
+    /**
+     * Abre (o crea) el archivo indicado para agregar líneas al final.
+     *
+     * @param archivo          Ruta del archivo.
+     * @param registrosPorLote Cantidad de líneas que disparan una escritura (1 = escribir cada línea).
+     * @param forzarDisco      Si es true, cada escritura se fuerza a disco.
+     * @param antesDeEscribir  Acción que se ejecuta antes de escribir las líneas pendientes en el archivo.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public EscritorAgrupado(String archivo, int registrosPorLote, boolean forzarDisco,
+                            RegistroOperaciones.Operacion antesDeEscribir) throws IOException {
+        this.canal = FileChannel.open(Paths.get(archivo),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocate(TAM_BUFFER);
+        this.codificador = StandardCharsets.UTF_8.newEncoder();
+        this.registrosPorLote = Math.max(1, registrosPorLote);
+        this.forzarDisco = forzarDisco;
+        this.antesDeEscribir = antesDeEscribir;
+        this.posicionCanal = canal.size();
+    }
+
+    /**
+     * Agrega una línea (se le añade el salto de línea) al final del archivo.
+     *
+     * @param linea Línea a agregar.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public void agregar(String linea) throws IOException {
+        bloqueo.lock();
+        try {
+            codificar(CharBuffer.wrap(linea));
+            codificar(CharBuffer.wrap(System.lineSeparator()));
+            pendientes++;
+            if (pendientes >= registrosPorLote) {
+                vaciar();
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Agrega una línea al final del archivo, informando antes la posición (en bytes)
+     * en la que comenzará dentro del archivo. Como la consulta y el agregado se hacen
+     * bajo el mismo bloqueo, ninguna otra línea puede quedar en medio. La acción se ejecuta
+     * con el bloqueo tomado, por lo que no debe esperar escrituras forzadas a disco.
+     *
+     * @param linea        Línea a agregar.
+     * @param alPosicionar Acción que recibe la posición de la línea; si lanza una excepción, la línea no se agrega.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public void agregar(String linea, LongConsumer alPosicionar) throws IOException {
+        bloqueo.lock();
+        try {
+            alPosicionar.accept(posicionCanal + buffer.position());
+            agregar(linea);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Devuelve la posición (en bytes) en la que comenzará la próxima línea agregada.
+     *
+     * @return Tamaño del archivo contando las líneas pendientes.
+     */
+    public long posicion() {
+        bloqueo.lock();
+        try {
+            return posicionCanal + buffer.position();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Codifica los caracteres en el buffer, escribiéndolo en el canal cada vez que se llena.
+     */
+    private void codificar(CharBuffer caracteres) throws IOException {
+        codificador.reset();
+        while (true) {
+            CoderResult resultado = codificador.encode(caracteres, buffer, true);
+            if (resultado.isOverflow()) {
+                escribirBuffer();
+            } else if (resultado.isUnderflow()) {
+                break;
+            } else {
+                resultado.throwException();
+            }
+        }
+    }
+
+    /**
+     * Escribe en el canal el contenido del buffer.
+     */
+    private void escribirBuffer() throws IOException {
+        if (buffer.position() > 0) {
+            antesDeEscribir.ejecutar();
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            posicionCanal += canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Escribe en el archivo las líneas pendientes. Si el escritor fue creado con
+     * forzarDisco, además fuerza los datos a disco.
+     *
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public void vaciar() throws IOException {
+        bloqueo.lock();
+        try {
+            if (pendientes == 0 && buffer.position() == 0) {
+                return;
+            }
+            escribirBuffer();
+            pendientes = 0;
+            if (forzarDisco) {
+                canal.force(false);
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Escribe las líneas pendientes y fuerza los datos a disco, sin importar la política configurada.
+     *
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    public void sincronizar() throws IOException {
+        bloqueo.lock();
+        try {
+            escribirBuffer();
+            pendientes = 0;
+            canal.force(false);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Escribe las líneas pendientes y cierra el canal.
+     *
+     * @throws IOException Si ocurre un error al escribir o cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        bloqueo.lock();
+        try {
+            vaciar();
+        } finally {
+            canal.close();
+            bloqueo.unlock();
+        }
+    }
+}
@@ -0,0 +1,315 @@
+import java.time.YearMonth;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Facturación mensual: recalcula el estado de pago de todas las cocheras para un período.
+ * <p>
+ * Al comenzar un período, todas las cocheras quedan pendientes salvo las que registran un
+ * pago con fecha dentro de ese mes. La facturación tiene dos etapas, ambas en paralelo en el
+ * pool común de ForkJoin:
+ * <ol>
+ *     <li>Cobros: se recorren los pagos y, por cada pago del período, se marca su cochera como
+ *     pagada y se suma el monto a la categoría de la cochera. Los pagos del formato anterior,
+ *     que no indican la cochera, se asignan a la cochera del inquilino.</li>
+ *     <li>Estados: se fija el estado de pago de todo el almacén en una única pasada (ver
+ *     ArchivoCocheras.establecerEstadosPago), se actualizan las cocheras que ya estaban
+ *     construidas en memoria y se cuentan las pagadas y pendientes de cada categoría.</li>
+ * </ol>
+ * Cada hilo acumula sus propios totales, que se unen al final, por lo que durante el recorrido
+ * no hay bloqueos compartidos. Quien invoca facturar() debe impedir que se registren pagos
+ * mientras tanto y exportar luego "cocheras.txt" (ver Administrador.facturar).
+ */
+class FacturacionMensual {
+
+    /**
+     * Totales de una categoría de cocheras.
+     */
+    static class TotalesCategoria {
+
+        // Cantidad de cocheras de la categoría y cuántas quedaron pagadas.
+        private long cocheras;
+        private long pagadas;
+
+        // Cantidad de pagos del período y monto cobrado, en centavos.
+        private long pagos;
+        private long recaudadoCentavos;
+
+        public long getCocheras() {
+            return cocheras;
+        }
+
+        public long getPagadas() {
+            return pagadas;
+        }
+
+        public long getPendientes() {
+            return cocheras - pagadas;
+        }
+
+        public long getPagos() {
+            return pagos;
+        }
+
+        public long getRecaudadoCentavos() {
+            return recaudadoCentavos;
+        }
+
+        private void unir(TotalesCategoria otros) {
+            cocheras += otros.cocheras;
+            pagadas += otros.pagadas;
+            pagos += otros.pagos;
+            recaudadoCentavos += otros.recaudadoCentavos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d cocheras, %d pagadas, %d pendientes; %d pagos por $%.2f",
+                    cocheras, pagadas, getPendientes(), pagos, recaudadoCentavos / 100.0);
+        }
+    }
+
+    /**
+     * Resultado de una facturación: totales por categoría, pagos que no corresponden a
+     * ninguna cochera y duración. También se usa para acumular los totales parciales de cada hilo.
+     */
+    static class Resultado {
+
+        // Mes facturado.
+        private final YearMonth periodo;
+
+        // Totales por categoría, ordenados por nombre.
+        private final Map<String, TotalesCategoria> categorias = new TreeMap<>();
+
+        // Pagos del período cuya cochera no existe (y su monto, en centavos).
+        private long pagosSinCochera;
+        private long sinCocheraCentavos;
+
+        // Duración total de la facturación, en nanosegundos.
+        private long duracionNanos;
+
+        /**
+         * Crea un resultado vacío.
+         *
+         * @param periodo Mes a facturar.
+         */
+        public Resultado(YearMonth periodo) {
+            this.periodo = periodo;
+        }
+
+        public YearMonth getPeriodo() {
+            return periodo;
+        }
+
+        public Map<String, TotalesCategoria> getCategorias() {
+            return Collections.unmodifiableMap(categorias);
+        }
+
+        public long getPagosSinCochera() {
+            return pagosSinCochera;
+        }
+
+        public long getSinCocheraCentavos() {
+            return sinCocheraCentavos;
+        }
+
+        public long getDuracionNanos() {
+            return duracionNanos;
+        }
+
+        /**
+         * Fija la duración total, incluyendo la exportación de "cocheras.txt".
+         *
+         * @param duracionNanos Duración en nanosegundos.
+         */
+        void setDuracionNanos(long duracionNanos) {
+            this.duracionNanos = duracionNanos;
+        }
+
+        /**
+         * Devuelve la cantidad total de cocheras facturadas.
+         *
+         * @return Cantidad de cocheras, de todas las categorías.
+         */
+        public long getCocheras() {
+            return categorias.values().stream().mapToLong(TotalesCategoria::getCocheras).sum();
+        }
+
+        /**
+         * Devuelve la cantidad de cocheras que quedaron pagadas.
+         *
+         * @return Cantidad de cocheras pagadas, de todas las categorías.
+         */
+        public long getPagadas() {
+            return categorias.values().stream().mapToLong(TotalesCategoria::getPagadas).sum();
+        }
+
+        /**
+         * Devuelve el monto cobrado en el período, incluidos los pagos sin cochera.
+         *
+         * @return Monto total, en centavos.
+         */
+        public long getRecaudadoCentavos() {
+            return sinCocheraCentavos
+                    + categorias.values().stream().mapToLong(TotalesCategoria::getRecaudadoCentavos).sum();
+        }
+
+        private TotalesCategoria totales(String categoria) {
+            return categorias.computeIfAbsent(categoria, c -> new TotalesCategoria());
+        }
+
+        /**
+         * Suma un pago del período a la categoría indicada, o a los pagos sin cochera si es null.
+         */
+        private void sumarPago(String categoria, long centavos) {
+            if (categoria == null) {
+                pagosSinCochera++;
+                sinCocheraCentavos += centavos;
+                return;
+            }
+            TotalesCategoria totales = totales(categoria);
+            totales.pagos++;
+            totales.recaudadoCentavos += centavos;
+        }
+
+        /**
+         * Cuenta una cochera de la categoría indicada.
+         */
+        private void contarCochera(String categoria, boolean pagada) {
+            TotalesCategoria totales = totales(categoria);
+            totales.cocheras++;
+            if (pagada) {
+                totales.pagadas++;
+            }
+        }
+
+        /**
+         * Suma al resultado los totales de otro (por ejemplo, los parciales de un hilo).
+         */
+        private void unir(Resultado otro) {
+            otro.categorias.forEach((categoria, totales) -> totales(categoria).unir(totales));
+            pagosSinCochera += otro.pagosSinCochera;
+            sinCocheraCentavos += otro.sinCocheraCentavos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texto = new StringBuilder(String.format(
+                    "Período %s: %d cocheras, %d pagadas, %d pendientes; recaudado $%.2f en %.2f s",
+                    Fechas.formatearMes(periodo), getCocheras(), getPagadas(), getCocheras() - getPagadas(),
+                    getRecaudadoCentavos() / 100.0, duracionNanos / 1e9));
+            categorias.forEach((categoria, totales) ->
+                    texto.append(System.lineSeparator()).append("  ").append(categoria).append(": ").append(totales));
+            if (pagosSinCochera > 0) {
+                texto.append(System.lineSeparator()).append(String.format("  Sin cochera: %d pagos por $%.2f",
+                        pagosSinCochera, sinCocheraCentavos / 100.0));
+            }
+            return texto.toString();
+        }
+    }
+
+    /**
+     * Pagos del período con la cochera a la que se asignan, acumulados por un hilo.
+     */
+    private static class Cobros {
+
+        // Cocheras pagadas, por posición en la instantánea.
+        private final BitSet pagadas = new BitSet();
+
+        // Pagos y montos por categoría.
+        private final Resultado totales;
+
+        Cobros(YearMonth periodo) {
+            this.totales = new Resultado(periodo);
+        }
+
+        void unir(Cobros otros) {
+            pagadas.or(otros.pagadas);
+            totales.unir(otros.totales);
+        }
+    }
+
+    // Inquilinos y cocheras, con sus índices.
+    private final InstantaneaEstado instantanea;
+
+    // Almacén de cocheras donde se fijan los estados (puede ser null).
+    private final ArchivoCocheras archivoCocheras;
+
+    /**
+     * Crea la facturación sobre los datos indicados.
+     *
+     * @param instantanea     Inquilinos y cocheras.
+     * @param archivoCocheras Almacén de cocheras (puede ser null).
+     */
+    public FacturacionMensual(InstantaneaEstado instantanea, ArchivoCocheras archivoCocheras) {
+        this.instantanea = instantanea;
+        this.archivoCocheras = archivoCocheras;
+    }
+
+    /**
+     * Factura el período del resultado: recalcula el estado de pago de todas las cocheras
+     * a partir de los pagos y suma los totales al resultado.
+     *
+     * @param pagos     Pagos registrados (todos; se consideran sólo los del período). Se recorren en paralelo.
+     * @param resultado Resultado donde se suman los totales.
+     */
+    public void facturar(Stream<Pago> pagos, Resultado resultado) {
+        YearMonth periodo = resultado.getPeriodo();
+        Predicate<Pago> delPeriodo = Filtros.pagosEntre(periodo.atDay(1), periodo.atEndOfMonth());
+        Cobros cobros = pagos.parallel()
+                .filter(delPeriodo)
+                .collect(() -> new Cobros(periodo), this::cobrar, Cobros::unir);
+
+        // El almacén se actualiza primero, de modo que las cocheras que se construyan desde
+        // ahora ya lean el nuevo estado.
+        if (archivoCocheras != null) {
+            BitSet posiciones = new BitSet(archivoCocheras.getCantidad());
+            for (int i = cobros.pagadas.nextSetBit(0); i >= 0; i = cobros.pagadas.nextSetBit(i + 1)) {
+                posiciones.set(instantanea.getPosicionEnAlmacen(i));
+            }
+            archivoCocheras.establecerEstadosPago(posiciones);
+        }
+
+        Resultado estados = IntStream.range(0, instantanea.getCantidadCocheras()).parallel()
+                .collect(() -> new Resultado(periodo), (parcial, indice) -> {
+                    boolean pagada = cobros.pagadas.get(indice);
+                    Cochera cochera = instantanea.getCocheraConstruida(indice);
+                    if (cochera != null) {
+                        synchronized (cochera) {
+                            if (pagada) {
+                                cochera.marcarPagada();
+                            } else {
+                                cochera.marcarPendiente();
+                            }
+                        }
+                    }
+                    parcial.contarCochera(instantanea.getCategoria(indice), pagada);
+                }, Resultado::unir);
+
+        resultado.unir(cobros.totales);
+        resultado.unir(estados);
+    }
+
+    /**
+     * Asigna un pago del período a su cochera.
+     */
+    private void cobrar(Cobros cobros, Pago pago) {
+        long centavos = Math.round(pago.getMonto() * 100);
+        Cochera cochera = pago.getCochera();
+        if (cochera == null) {
+            cochera = instantanea.buscarCocheraDeInquilino(pago.getInquilino().getDni());
+        }
+        int indice = cochera == null ? -1 : instantanea.indiceCochera(cochera.getNumero());
+        if (indice < 0) {
+            cobros.totales.sumarPago(null, centavos);
+            return;
+        }
+        cobros.pagadas.set(indice);
+        cobros.totales.sumarPago(instantanea.getCategoria(indice), centavos);
+    }
+}
@@ -0,0 +1,107 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversión entre fechas (LocalDate) y su representación de texto dd/MM/yyyy.
+ * <p>
+ * El modelo (Pago, Reserva) guarda las fechas como LocalDate; el texto sólo se usa
+ * al leer o escribir archivos y al interactuar con el usuario. El formateador se
+ * crea una única vez y se comparte, ya que DateTimeFormatter es inmutable y seguro entre hilos.
+ */
+final class Fechas {
+
+    // Formato de fecha usado en archivos y consola.
+    static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    // Formato de los meses (períodos de facturación).
+    static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    // Formato de las horas (horarios de las reservas).
+    static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Texto de la hora de fin que indica el final del día.
+    static final String FIN_DEL_DIA = "24:00";
+
+    private Fechas() {
+    }
+
+    /**
+     * Convierte un texto con formato dd/MM/yyyy en una fecha.
+     *
+     * @param texto Fecha en formato dd/MM/yyyy.
+     * @return Fecha correspondiente.
+     * @throws DateTimeParseException Si el texto no tiene un formato válido.
+     */
+    public static LocalDate parsear(String texto) {
+        return LocalDate.parse(texto, FORMATO);
+    }
+
+    /**
+     * Convierte una fecha en texto con formato dd/MM/yyyy.
+     *
+     * @param fecha Fecha a convertir.
+     * @return Texto con la fecha.
+     */
+    public static String formatear(LocalDate fecha) {
+        return FORMATO.format(fecha);
+    }
+
+    /**
+     * Convierte un texto con formato MM/yyyy en un mes.
+     *
+     * @param texto Mes en formato MM/yyyy.
+     * @return Mes correspondiente.
+     * @throws DateTimeParseException Si el texto no tiene un formato válido.
+     */
+    public static YearMonth parsearMes(String texto) {
+        return YearMonth.parse(texto, FORMATO_MES);
+    }
+
+    /**
+     * Convierte un mes en texto con formato MM/yyyy.
+     *
+     * @param mes Mes a convertir.
+     * @return Texto con el mes.
+     */
+    public static String formatearMes(YearMonth mes) {
+        return FORMATO_MES.format(mes);
+    }
+
+    /**
+     * Convierte un texto con formato HH:mm en una hora. "24:00" se acepta como fin del día
+     * y se convierte en medianoche (00:00), que es como Reserva representa ese límite.
+     *
+     * @param texto Hora en formato HH:mm.
+     * @return Hora correspondiente.
+     * @throws DateTimeParseException Si el texto no tiene un formato válido.
+     */
+    public static LocalTime parsearHora(String texto) {
+        if (FIN_DEL_DIA.equals(texto)) {
+            return LocalTime.MIDNIGHT;
+        }
+        return LocalTime.parse(texto, FORMATO_HORA);
+    }
+
+    /**
+     * Convierte una hora en texto con formato HH:mm.
+     *
+     * @param hora Hora a convertir.
+     * @return Texto con la hora.
+     */
+    public static String formatearHora(LocalTime hora) {
+        return FORMATO_HORA.format(hora);
+    }
+
+    /**
+     * Convierte una hora de fin en texto con formato HH:mm; medianoche se escribe "24:00".
+     *
+     * @param hora Hora de fin a convertir.
+     * @return Texto con la hora.
+     */
+    public static String formatearHoraFin(LocalTime hora) {
+        return LocalTime.MIDNIGHT.equals(hora) ? FIN_DEL_DIA : formatearHora(hora);
+    }
+}
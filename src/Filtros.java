@@ -0,0 +1,68 @@
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+/**
+ * Filtros predefinidos para las consultas de pagos y reservas de Administrador.
+ * Pueden combinarse entre sí con Predicate.and / Predicate.or.
+ */
+final class Filtros {
+
+    private Filtros() {
+    }
+
+    /**
+     * Filtra los pagos realizados por el inquilino con el DNI indicado.
+     *
+     * @param dni DNI del inquilino.
+     * @return Filtro de pagos.
+     */
+    public static Predicate<Pago> pagosDeInquilino(String dni) {
+        return pago -> pago.getInquilino().tieneDni(dni);
+    }
+
+    /**
+     * Filtra los pagos realizados entre dos fechas (ambas incluidas).
+     *
+     * @param desde Fecha inicial, o null para no limitar.
+     * @param hasta Fecha final, o null para no limitar.
+     * @return Filtro de pagos.
+     */
+    public static Predicate<Pago> pagosEntre(LocalDate desde, LocalDate hasta) {
+        return pago -> estaEntre(pago.getFecha(), desde, hasta);
+    }
+
+    /**
+     * Filtra las reservas realizadas por el inquilino con el DNI indicado.
+     *
+     * @param dni DNI del inquilino.
+     * @return Filtro de reservas.
+     */
+    public static Predicate<Reserva> reservasDeInquilino(String dni) {
+        return reserva -> reserva.getInquilino().tieneDni(dni);
+    }
+
+    /**
+     * Filtra las reservas cuya fecha está entre dos fechas (ambas incluidas).
+     *
+     * @param desde Fecha inicial, o null para no limitar.
+     * @param hasta Fecha final, o null para no limitar.
+     * @return Filtro de reservas.
+     */
+    public static Predicate<Reserva> reservasEntre(LocalDate desde, LocalDate hasta) {
+        return reserva -> estaEntre(reserva.getFecha(), desde, hasta);
+    }
+
+    /**
+     * Filtra las reservas de un lugar.
+     *
+     * @param lugar Lugar reservado.
+     * @return Filtro de reservas.
+     */
+    public static Predicate<Reserva> reservasEnLugar(Lugar lugar) {
+        return reserva -> reserva.getLugar() == lugar;
+    }
+
+    private static boolean estaEntre(LocalDate fecha, LocalDate desde, LocalDate hasta) {
+        return (desde == null || !fecha.isBefore(desde)) && (hasta == null || !fecha.isAfter(hasta));
+    }
+}
@@ -1,103 +1,373 @@
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * Clase GestorArchivo que ofrece métodos para:
  * <ul>
- *     <li>Guardar contenido en un archivo de texto.</li>
- *     <li>Leer y mostrar el contenido de un archivo de texto.</li>
- *     <li>Actualizar valores específicos dentro de un archivo de texto.</li>
+ *     <li>Guardar contenido en un archivo de texto, agrupando las escrituras.</li>
+ *     <li>Recorrer las líneas de un archivo de texto (UTF-8) como un Stream perezoso.</li>
+ *     <li>Reemplazar por completo un archivo de texto de forma atómica.</li>
  * </ul>
+ * Para cada archivo en el que se guarda información se mantiene abierto un
+ * EscritorAgrupado. Las líneas se escriben en el archivo cada cierta cantidad
+ * de registros, cada cierto intervalo de tiempo o al invocar sincronizar().
+ * Las lecturas de un archivo escriben antes sus líneas pendientes.
+ * <p>
+ * La duración de cada operación y la cantidad de errores se registran en Metricas,
+ * con nombres que empiezan con "archivo.".
  */
-public class GestorArchivo {
+public class GestorArchivo implements Closeable {
+
+    // Política de escritura por defecto.
+    private static final int REGISTROS_POR_LOTE = 64;
+    private static final long INTERVALO_MS = 200;
+
+    // Cantidad de líneas que disparan una escritura.
+    private final int registrosPorLote;
+
+    // Si es true, cada escritura se fuerza a disco.
+    private final boolean forzarDisco;
+
+    // Escritores abiertos, por nombre de archivo.
+    private final Map<String, EscritorAgrupado> escritores;
+
+    // Hilo en segundo plano que escribe periódicamente las líneas pendientes (null si no hay intervalo).
+    private final ScheduledExecutorService temporizador;
+
+    // Registro de métricas del sistema.
+    private final Metricas metricas = Metricas.global();
+
+    // Acción que se ejecuta antes de escribir líneas en cualquier archivo (null si no hay).
+    private volatile RegistroOperaciones.Operacion antesDeEscribir;
+
+    /**
+     * Crea un gestor con la política por defecto: se escribe cada 64 líneas
+     * o cada 200 milisegundos, sin forzar a disco.
+     */
+    public GestorArchivo() {
+        this(REGISTROS_POR_LOTE, INTERVALO_MS, false);
+    }
+
+    /**
+     * Crea un gestor con la política de escritura indicada.
+     *
+     * @param registrosPorLote Cantidad de líneas que disparan una escritura (1 = escribir cada línea).
+     * @param intervaloMs      Cada cuántos milisegundos se escriben las líneas pendientes (0 = nunca).
+     * @param forzarDisco      Si es true, cada escritura se fuerza a disco (force).
+     */
+    public GestorArchivo(int registrosPorLote, long intervaloMs, boolean forzarDisco) {
+        this.registrosPorLote = registrosPorLote;
+        this.forzarDisco = forzarDisco;
+        this.escritores = new ConcurrentHashMap<>();
+        if (intervaloMs > 0) {
+            this.temporizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "escritor-archivos");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            temporizador.scheduleWithFixedDelay(this::vaciarTodos, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.temporizador = null;
+        }
+    }
 
     /**
      * Guarda información en un archivo de texto, añadiéndola al final (append).
+     * La línea puede quedar pendiente hasta que se cumpla la política de escritura.
      *
      * @param archivo   Nombre o ruta del archivo donde se guardará la información.
      * @param contenido Cadena de texto que se escribirá en el archivo.
      */
-    public static void guardarEnArchivo(String archivo, String contenido) {
-        // Se utiliza un try-with-resources para asegurar el cierre del BufferedWriter.
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(archivo, true))) {
-            // Escribe el contenido en el archivo y añade una nueva línea.
-            bw.write(contenido);
-            bw.newLine();
+    public void guardarEnArchivo(String archivo, String contenido) {
+        long inicio = System.nanoTime();
+        try {
+            escritor(archivo).agregar(contenido);
         } catch (IOException e) {
             // Si ocurre un error de lectura/escritura, se notifica al usuario.
+            metricas.incrementar("archivo.errores");
             System.out.println("Error al guardar en archivo: " + e.getMessage());
+        } finally {
+            metricas.registrarLatencia("archivo.guardar", inicio);
         }
     }
 
     /**
-     * Lee y muestra el contenido de un archivo de texto línea por línea.
+     * Guarda una línea al final de un archivo, como guardarEnArchivo, pero informa el error
+     * con una excepción en lugar de mostrarlo, para quien no debe continuar si la línea no se guardó.
      *
-     * @param archivo Nombre o ruta del archivo a leer.
+     * @param archivo   Nombre o ruta del archivo donde se guardará la información.
+     * @param contenido Cadena de texto que se escribirá en el archivo.
+     * @throws IOException Si ocurre un error al escribir.
      */
-    public static void leerDesdeArchivo(String archivo) {
-        // Se utiliza un try-with-resources para asegurar el cierre del BufferedReader.
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            // Se lee cada línea del archivo hasta llegar al final (null).
-            while ((linea = br.readLine()) != null) {
-                // Muestra cada línea en consola.
-                System.out.println(linea);
-            }
+    public void agregarEnArchivo(String archivo, String contenido) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            escritor(archivo).agregar(contenido);
         } catch (IOException e) {
-            // Si ocurre un error de lectura/escritura, se notifica al usuario.
-            System.out.println("Error al leer el archivo: " + e.getMessage());
+            metricas.incrementar("archivo.errores");
+            throw e;
+        } finally {
+            metricas.registrarLatencia("archivo.guardar", inicio);
         }
     }
 
     /**
-     * Actualiza un valor específico dentro de un archivo de texto.
-     * La lógica de este método asume que:
-     * <ul>
-     *     <li>La primera columna (índice 0) es un identificador único (ej. ID, número de cochera, etc.).</li>
-     *     <li>Los campos de cada línea están separados por comas (CSV simple).</li>
-     *     <li>El campo a actualizar se especifica por un índice.</li>
-     * </ul>
+     * Guarda una línea al final de un archivo, informando antes la posición (en bytes)
+     * en la que quedará dentro del archivo. Se usa para registrar la operación en el
+     * registro de operaciones (RegistroOperaciones) antes de aplicarla.
      *
-     * @param archivo         Nombre o ruta del archivo a actualizar.
-     * @param id              Identificador del registro (en la primera columna) a modificar.
-     * @param campoActualizar Índice del campo dentro de la línea CSV que se desea modificar.
-     * @param nuevoValor      Nuevo valor a establecer en ese campo.
-     */
-    public static void actualizarArchivo(String archivo, int id, int campoActualizar, String nuevoValor) {
-        // Lista para almacenar temporalmente todas las líneas del archivo (modificadas o no).
-        List<String> lineas = new ArrayList<>();
-
-        // Primero, se lee todo el contenido del archivo, línea por línea.
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-            String linea;
-            while ((linea = br.readLine()) != null) {
-                // Se asume que cada línea es un CSV con campos separados por comas.
-                String[] datos = linea.split(",");
-                /*
-                 * Si el primer campo (datos[0]) coincide con 'id', se actualiza el
-                 * campo indicado por 'campoActualizar' con el 'nuevoValor'.
-                 */
-                if (Integer.parseInt(datos[0]) == id) {
-                    datos[campoActualizar] = nuevoValor;
+     * @param archivo      Nombre o ruta del archivo donde se guardará la información.
+     * @param contenido    Cadena de texto que se escribirá en el archivo.
+     * @param alPosicionar Acción que recibe la posición de la línea; si falla, la línea no se guarda.
+     * @throws IOException Si ocurre un error al escribir o al ejecutar la acción.
+     */
+    public void guardarEnArchivo(String archivo, String contenido, LongConsumer alPosicionar) throws IOException {
+        long inicio = System.nanoTime();
+        try {
+            escritor(archivo).agregar(contenido, alPosicionar);
+        } catch (UncheckedIOException e) {
+            metricas.incrementar("archivo.errores");
+            throw e.getCause();
+        } finally {
+            metricas.registrarLatencia("archivo.guardar", inicio);
+        }
+    }
+
+    /**
+     * Indica una acción que se ejecuta antes de escribir líneas pendientes en cualquier archivo;
+     * por ejemplo, esperar a que el registro de operaciones que las anotó llegue a disco.
+     *
+     * @param accion Acción a ejecutar (null para ninguna).
+     */
+    public void setAntesDeEscribir(RegistroOperaciones.Operacion accion) {
+        this.antesDeEscribir = accion;
+    }
+
+    /**
+     * Ejecuta la acción previa a las escrituras, si hay una.
+     */
+    private void antesDeEscribir() throws IOException {
+        RegistroOperaciones.Operacion accion = antesDeEscribir;
+        if (accion != null) {
+            accion.ejecutar();
+        }
+    }
+
+    /**
+     * Devuelve la posición (en bytes) en la que comenzará la próxima línea guardada en el
+     * archivo, contando las líneas pendientes. Sirve para calcular de antemano las posiciones
+     * de un lote de líneas (ver RegistroOperaciones.Lote) mientras nadie más agrega líneas.
+     *
+     * @param archivo Nombre o ruta del archivo.
+     * @return Posición de la próxima línea.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public long posicionFinal(String archivo) throws IOException {
+        return escritor(archivo).posicion();
+    }
+
+    /**
+     * Escribe las líneas pendientes de todos los archivos y las fuerza a disco.
+     *
+     * @throws IOException Si no se pudo sincronizar alguno de los archivos.
+     */
+    public void sincronizar() throws IOException {
+        long inicio = System.nanoTime();
+        IOException error = null;
+        for (Map.Entry<String, EscritorAgrupado> entrada : escritores.entrySet()) {
+            try {
+                entrada.getValue().sincronizar();
+            } catch (IOException e) {
+                metricas.incrementar("archivo.errores");
+                System.out.println("Error al sincronizar el archivo " + entrada.getKey() + ": " + e.getMessage());
+                error = e;
+            }
+        }
+        metricas.registrarLatencia("archivo.sincronizar", inicio);
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Escribe las líneas pendientes del archivo indicado y cierra su escritor.
+     * Debe invocarse antes de reemplazar o reescribir el archivo por otro medio;
+     * la próxima línea guardada volverá a abrirlo.
+     *
+     * @param archivo Nombre o ruta del archivo.
+     */
+    public void cerrarArchivo(String archivo) {
+        EscritorAgrupado escritor = escritores.remove(archivo);
+        if (escritor != null) {
+            long inicio = System.nanoTime();
+            try {
+                escritor.close();
+            } catch (IOException e) {
+                metricas.incrementar("archivo.errores");
+                System.out.println("Error al cerrar el archivo " + archivo + ": " + e.getMessage());
+            } finally {
+                metricas.registrarLatencia("archivo.cerrar", inicio);
+            }
+        }
+    }
+
+    /**
+     * Devuelve el escritor del archivo, abriéndolo si es la primera vez que se usa.
+     */
+    private EscritorAgrupado escritor(String archivo) throws IOException {
+        try {
+            return escritores.computeIfAbsent(archivo, nombre -> {
+                try {
+                    return new EscritorAgrupado(nombre, registrosPorLote, forzarDisco, this::antesDeEscribir);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-                // Se reconstruye la línea modificada y se agrega a la lista.
-                lineas.add(String.join(",", datos));
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escribe las líneas pendientes del archivo indicado, si tiene un escritor abierto.
+     * Si no puede escribirlas, informa el error.
+     */
+    private void vaciar(String archivo) {
+        try {
+            vaciarOFallar(archivo);
+        } catch (IOException e) {
+            System.out.println("Error al guardar en archivo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe las líneas pendientes del archivo indicado, si tiene un escritor abierto.
+     */
+    private void vaciarOFallar(String archivo) throws IOException {
+        EscritorAgrupado escritor = escritores.get(archivo);
+        if (escritor != null) {
+            long inicio = System.nanoTime();
+            try {
+                escritor.vaciar();
+            } catch (IOException e) {
+                metricas.incrementar("archivo.errores");
+                throw e;
+            } finally {
+                metricas.registrarLatencia("archivo.vaciar", inicio);
             }
+        }
+    }
+
+    /**
+     * Escribe en el archivo sus líneas pendientes, sin forzarlas a disco, para que una
+     * lectura directa del archivo (sin pasar por este gestor) las vea.
+     *
+     * @param archivo Nombre o ruta del archivo.
+     */
+    public void escribirPendientes(String archivo) {
+        vaciar(archivo);
+    }
+
+    /**
+     * Escribe las líneas pendientes de todos los archivos (tarea periódica).
+     */
+    private void vaciarTodos() {
+        for (String archivo : escritores.keySet()) {
+            vaciar(archivo);
+        }
+    }
+
+    /**
+     * Devuelve las líneas de un archivo de texto como un Stream que se lee de a poco,
+     * a medida que se consumen sus elementos. Antes se escriben las líneas pendientes del
+     * archivo, para que el Stream las incluya. Si el archivo no existe, el Stream está vacío.
+     * El Stream debe cerrarse (por ejemplo, con try-with-resources) para liberar el archivo;
+     * la duración registrada va desde la apertura hasta el cierre del Stream.
+     *
+     * @param archivo Nombre o ruta del archivo a leer.
+     * @return Stream con las líneas del archivo.
+     * @throws IOException Si ocurre un error al escribir las líneas pendientes o al abrir el archivo.
+     */
+    public Stream<String> lineas(String archivo) throws IOException {
+        long inicio = System.nanoTime();
+        vaciarOFallar(archivo);
+        Path ruta = Paths.get(archivo);
+        if (!Files.exists(ruta)) {
+            metricas.registrarLatencia("archivo.lineas", inicio);
+            return Stream.empty();
+        }
+        try {
+            return Files.lines(ruta, StandardCharsets.UTF_8)
+                    .onClose(() -> metricas.registrarLatencia("archivo.lineas", inicio));
         } catch (IOException e) {
-            // Mensaje de error en caso de problemas de lectura.
-            System.out.println("Error al leer el archivo " + archivo + ": " + e.getMessage());
+            metricas.incrementar("archivo.errores");
+            throw e;
         }
+    }
+
+    /**
+     * Reemplaza por completo el contenido de un archivo de texto de forma atómica:
+     * las líneas se escriben en un archivo temporal, se fuerzan a disco y luego el
+     * temporal se renombra sobre el original. Si algo falla, el archivo original queda intacto.
+     *
+     * @param archivo Nombre o ruta del archivo a reemplazar.
+     * @param lineas  Nuevas líneas del archivo.
+     * @throws IOException Si ocurre un error al escribir o renombrar.
+     */
+    public void reemplazarArchivo(String archivo, Iterable<String> lineas) throws IOException {
+        // El escritor abierto (si lo hay) apunta al archivo anterior: se cierra antes de reemplazarlo.
+        cerrarArchivo(archivo);
 
-        // Luego, se reescribe el archivo con las líneas actualizadas.
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(archivo))) {
-            for (String lineaModificada : lineas) {
-                bw.write(lineaModificada);
-                bw.newLine();
+        long inicio = System.nanoTime();
+        Path destino = Paths.get(archivo);
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(temporal.toFile());
+                 BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+                for (String linea : lineas) {
+                    bw.write(linea);
+                    bw.newLine();
+                }
+                bw.flush();
+                fos.getFD().sync();
             }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
-            // Mensaje de error en caso de problemas de escritura.
-            System.out.println("Error al actualizar el archivo " + archivo + ": " + e.getMessage());
+            metricas.incrementar("archivo.errores");
+            throw e;
+        } finally {
+            Files.deleteIfExists(temporal);
+            metricas.registrarLatencia("archivo.reemplazar", inicio);
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de archivos con un escritor abierto.
+     *
+     * @return Cantidad de escritores abiertos.
+     */
+    public int getCantidadEscritores() {
+        return escritores.size();
+    }
+
+    /**
+     * Detiene la escritura periódica y cierra todos los escritores, escribiendo sus líneas pendientes.
+     */
+    @Override
+    public void close() {
+        if (temporizador != null) {
+            temporizador.shutdown();
+        }
+        for (String archivo : escritores.keySet()) {
+            cerrarArchivo(archivo);
         }
     }
 }
\ No newline at end of file
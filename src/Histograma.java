@@ -0,0 +1,119 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con precisión relativa fija, al estilo de HdrHistogram.
+ * <p>
+ * Los valores (en nanosegundos) se agrupan en intervalos logarítmicos, y cada intervalo se
+ * divide en 32 sub-intervalos lineales, por lo que el error de cada percentil es menor al 3%
+ * en cualquier escala, desde nanosegundos hasta horas. Registrar un valor es un incremento
+ * atómico sobre un arreglo de tamaño fijo, sin bloqueos ni asignación de memoria.
+ */
+class Histograma {
+
+    // Bits de precisión: cada potencia de 2 se divide en 2^BITS_SUBINTERVALO sub-intervalos.
+    private static final int BITS_SUBINTERVALO = 5;
+    private static final int SUBINTERVALOS = 1 << BITS_SUBINTERVALO;
+
+    // Cantidad de intervalos necesaria para cubrir todos los valores long positivos.
+    private static final int INTERVALOS = (63 - BITS_SUBINTERVALO + 1) * SUBINTERVALOS;
+
+    // Cantidad de valores registrados en cada intervalo.
+    private final AtomicLongArray cuentas = new AtomicLongArray(INTERVALOS);
+
+    // Cantidad, suma y máximo de los valores registrados.
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra un valor. Los valores negativos se registran como 0.
+     *
+     * @param valor Valor a registrar (por ejemplo, una duración en nanosegundos).
+     */
+    public void registrar(long valor) {
+        valor = Math.max(0, valor);
+        cuentas.incrementAndGet(indice(valor));
+        cantidad.increment();
+        suma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    /**
+     * Calcula el intervalo de un valor: los valores menores a 32 tienen un intervalo propio;
+     * el resto se ubica según su potencia de 2 y sus 5 bits más significativos.
+     */
+    private static int indice(long valor) {
+        if (valor < SUBINTERVALOS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = exponente - BITS_SUBINTERVALO;
+        int mantisa = (int) (valor >>> desplazamiento);
+        return (desplazamiento + 1) * SUBINTERVALOS + (mantisa - SUBINTERVALOS);
+    }
+
+    /**
+     * Devuelve el mayor valor que cae en el intervalo indicado.
+     */
+    private static long valorMaximo(int indice) {
+        if (indice < SUBINTERVALOS) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBINTERVALOS - 1;
+        long mantisa = indice % SUBINTERVALOS + SUBINTERVALOS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+
+    /**
+     * Devuelve la cantidad de valores registrados.
+     *
+     * @return Cantidad de valores.
+     */
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    /**
+     * Devuelve el promedio de los valores registrados.
+     *
+     * @return Promedio, o 0 si no hay valores.
+     */
+    public double getPromedio() {
+        long n = cantidad.sum();
+        return n == 0 ? 0 : (double) suma.sum() / n;
+    }
+
+    /**
+     * Devuelve el mayor valor registrado.
+     *
+     * @return Máximo, o 0 si no hay valores.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Devuelve el percentil indicado: el menor valor tal que el porcentaje indicado
+     * de los valores registrados es menor o igual a él (con un error menor al 3%).
+     *
+     * @param porcentaje Porcentaje entre 0 y 100 (por ejemplo, 99.9).
+     * @return Valor del percentil, o 0 si no hay valores.
+     */
+    public long getPercentil(double porcentaje) {
+        long total = cantidad.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(total * porcentaje / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            acumulado += cuentas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(valorMaximo(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+}
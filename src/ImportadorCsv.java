@@ -0,0 +1,528 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Importación masiva de pagos y reservas desde un archivo CSV.
+ * <p>
+ * Cada línea del archivo es un pago o una reserva (las líneas vacías y las que empiezan
+ * con '#' se ignoran):
+ * <pre>
+ *     pago,dniInquilino,monto,dd/MM/yyyy[,numeroCochera]
+ *     reserva,dniInquilino,dd/MM/yyyy,PARRILLA|SUM|PILETA[,HH:mm,HH:mm]
+ * </pre>
+ * Si el pago no indica la cochera, se usa la asignada al inquilino. Si la reserva no indica
+ * el horario (desde y hasta; "24:00" es el final del día), ocupa el día completo.
+ * <p>
+ * El archivo se procesa en tres etapas comunicadas por colas acotadas:
+ * <ol>
+ *     <li>Lectura: un hilo lee el archivo y lo divide en bloques de líneas.</li>
+ *     <li>Interpretación y validación: varios hilos, en paralelo, convierten cada línea
+ *     en una fila, verificando formato, inquilino, cochera, monto, fecha y lugar.</li>
+ *     <li>Aplicación: el hilo que invoca importar() entrega las filas válidas al Aplicador,
+ *     en el orden del archivo, que puede rechazarlas (por ejemplo, un lugar ya reservado).</li>
+ * </ol>
+ * La cantidad de bloques en curso está limitada, por lo que la memoria usada no depende
+ * del tamaño del archivo. El Aplicador sólo acumula las filas: quien lo provee las
+ * confirma juntas al final (ver Administrador.importarCsv).
+ */
+class ImportadorCsv {
+
+    // Cantidad de líneas de cada bloque.
+    private static final int LINEAS_POR_BLOQUE = 1024;
+
+    // Cantidad de bloques en curso por cada hilo de interpretación.
+    private static final int BLOQUES_POR_HILO = 4;
+
+    // Bloque que indica el final del archivo.
+    private static final Bloque FIN = new Bloque(-1, 0, new String[0]);
+
+    /**
+     * Etapa de aplicación: recibe cada fila válida, en el orden del archivo.
+     */
+    interface Aplicador {
+        /**
+         * Aplica (o acumula) una fila válida.
+         *
+         * @param fila Fila a aplicar.
+         * @return null si la fila se acepta, o el motivo por el que se rechaza.
+         */
+        String aplicar(Fila fila);
+    }
+
+    /**
+     * Fila del archivo ya interpretada: un pago o los datos de una reserva.
+     * La reserva no se crea al interpretar la línea para no consumir números de reserva
+     * con filas que luego se rechazan.
+     */
+    static class Fila {
+
+        // Número de línea en el archivo (empezando en 1) y su texto.
+        private final int numeroLinea;
+        private final String linea;
+
+        // Motivo por el que la línea es inválida (null si es válida).
+        private String motivo;
+
+        // Tipo de la fila: CodecRegistros.TIPO_PAGO o TIPO_RESERVA.
+        private byte tipo;
+
+        // Pago de la fila (sólo si es un pago).
+        private Pago pago;
+
+        // Datos de la reserva (sólo si es una reserva).
+        private Inquilino inquilino;
+        private LocalDate fecha;
+        private Lugar lugar;
+        private LocalTime desde = LocalTime.MIDNIGHT;
+        private LocalTime hasta = LocalTime.MIDNIGHT;
+
+        private Fila(int numeroLinea, String linea) {
+            this.numeroLinea = numeroLinea;
+            this.linea = linea;
+        }
+
+        public byte getTipo() {
+            return tipo;
+        }
+
+        public Pago getPago() {
+            return pago;
+        }
+
+        public Inquilino getInquilino() {
+            return inquilino;
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        public Lugar getLugar() {
+            return lugar;
+        }
+
+        public LocalTime getHoraDesde() {
+            return desde;
+        }
+
+        public LocalTime getHoraHasta() {
+            return hasta;
+        }
+
+        /**
+         * Devuelve la fecha y, si no es el día completo, el horario de la reserva (ver Reserva.getTurno).
+         */
+        public String getTurno() {
+            return Reserva.turno(fecha, desde, hasta);
+        }
+    }
+
+    /**
+     * Línea rechazada, con el motivo del rechazo.
+     */
+    static class Rechazo {
+
+        private final int numeroLinea;
+        private final String linea;
+        private final String motivo;
+
+        private Rechazo(int numeroLinea, String linea, String motivo) {
+            this.numeroLinea = numeroLinea;
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+
+        public int getNumeroLinea() {
+            return numeroLinea;
+        }
+
+        public String getLinea() {
+            return linea;
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+
+        @Override
+        public String toString() {
+            return "Línea " + numeroLinea + ": " + motivo + " (" + linea + ")";
+        }
+    }
+
+    /**
+     * Resultado de una importación.
+     */
+    static class Resultado {
+
+        // Cantidad de filas leídas (sin contar líneas vacías ni comentarios).
+        private long filas;
+
+        // Cantidad de pagos y reservas aceptados.
+        private long pagos;
+        private long reservas;
+
+        // Filas rechazadas, en el orden del archivo.
+        private final List<Rechazo> rechazos = new ArrayList<>();
+
+        // Duración total de la importación, en nanosegundos.
+        private long duracionNanos;
+
+        public long getFilas() {
+            return filas;
+        }
+
+        public long getPagos() {
+            return pagos;
+        }
+
+        public long getReservas() {
+            return reservas;
+        }
+
+        public List<Rechazo> getRechazos() {
+            return Collections.unmodifiableList(rechazos);
+        }
+
+        public long getDuracionNanos() {
+            return duracionNanos;
+        }
+
+        /**
+         * Fija la duración total, incluyendo la confirmación de las filas aceptadas.
+         *
+         * @param duracionNanos Duración en nanosegundos.
+         */
+        void setDuracionNanos(long duracionNanos) {
+            this.duracionNanos = duracionNanos;
+        }
+
+        /**
+         * Devuelve la velocidad de la importación.
+         *
+         * @return Filas procesadas por segundo.
+         */
+        public double getFilasPorSegundo() {
+            return duracionNanos == 0 ? 0 : filas * 1_000_000_000.0 / duracionNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d filas en %.2f s (%.0f filas/s): %d pagos, %d reservas, %d rechazos",
+                    filas, duracionNanos / 1e9, getFilasPorSegundo(), pagos, reservas, rechazos.size());
+        }
+    }
+
+    /**
+     * Bloque de líneas consecutivas del archivo, con sus filas una vez interpretadas.
+     */
+    private static class Bloque {
+
+        // Orden del bloque dentro del archivo (empezando en 0).
+        private final int indice;
+
+        // Número de la primera línea del bloque.
+        private final int primeraLinea;
+
+        // Líneas del bloque y sus filas (null para líneas vacías o comentarios).
+        private final String[] lineas;
+        private final Fila[] filas;
+
+        private Bloque(int indice, int primeraLinea, String[] lineas) {
+            this.indice = indice;
+            this.primeraLinea = primeraLinea;
+            this.lineas = lineas;
+            this.filas = new Fila[lineas.length];
+        }
+    }
+
+    // Búsquedas de inquilinos y cocheras (deben poder usarse desde varios hilos).
+    private final Function<String, Inquilino> inquilinoPorDni;
+    private final Function<Inquilino, Cochera> cocheraDeInquilino;
+    private final IntFunction<Cochera> cocheraPorNumero;
+
+    // Cantidad de hilos de interpretación.
+    private final int hilos;
+
+    /**
+     * Crea un importador.
+     *
+     * @param inquilinoPorDni    Búsqueda de inquilinos por DNI.
+     * @param cocheraDeInquilino Búsqueda de la cochera asignada a un inquilino.
+     * @param cocheraPorNumero   Búsqueda de cocheras por número.
+     * @param hilos              Cantidad de hilos de interpretación (al menos 1).
+     */
+    public ImportadorCsv(Function<String, Inquilino> inquilinoPorDni, Function<Inquilino, Cochera> cocheraDeInquilino,
+                         IntFunction<Cochera> cocheraPorNumero, int hilos) {
+        this.inquilinoPorDni = inquilinoPorDni;
+        this.cocheraDeInquilino = cocheraDeInquilino;
+        this.cocheraPorNumero = cocheraPorNumero;
+        this.hilos = Math.max(1, hilos);
+    }
+
+    /**
+     * Importa el archivo indicado, entregando cada fila válida al Aplicador.
+     *
+     * @param archivo   Ruta del archivo CSV.
+     * @param aplicador Etapa de aplicación.
+     * @return Resultado de la importación (la duración incluye sólo la lectura y la aplicación).
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    public Resultado importar(String archivo, Aplicador aplicador) throws IOException {
+        long inicio = System.nanoTime();
+        Resultado resultado = new Resultado();
+
+        // Permisos de bloques en curso: el lector toma uno por bloque y la aplicación lo devuelve.
+        int capacidad = hilos * BLOQUES_POR_HILO;
+        Semaphore enCurso = new Semaphore(capacidad);
+        BlockingQueue<Bloque> leidos = new ArrayBlockingQueue<>(capacidad + hilos);
+        BlockingQueue<Bloque> interpretados = new ArrayBlockingQueue<>(capacidad + hilos);
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos + 1, tarea -> {
+            Thread hilo = new Thread(tarea, "importador-csv");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        try {
+            Future<?> lectura = ejecutor.submit(() -> {
+                leer(Paths.get(archivo), leidos, enCurso);
+                return null;
+            });
+            for (int i = 0; i < hilos; i++) {
+                ejecutor.submit(() -> interpretar(leidos, interpretados));
+            }
+
+            // Los bloques se aplican en el orden del archivo; los que llegan antes de tiempo esperan.
+            Map<Integer, Bloque> adelantados = new HashMap<>();
+            int siguiente = 0;
+            int finalizados = 0;
+            while (finalizados < hilos) {
+                Bloque bloque = interpretados.take();
+                if (bloque == FIN) {
+                    finalizados++;
+                    continue;
+                }
+                adelantados.put(bloque.indice, bloque);
+                while ((bloque = adelantados.remove(siguiente)) != null) {
+                    aplicar(bloque, aplicador, resultado);
+                    enCurso.release();
+                    siguiente++;
+                }
+            }
+            lectura.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Importación interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        resultado.duracionNanos = System.nanoTime() - inicio;
+        return resultado;
+    }
+
+    /**
+     * Etapa de lectura: divide el archivo en bloques. Al terminar (incluso por un error)
+     * encola una marca de fin por cada hilo de interpretación.
+     */
+    private void leer(Path archivo, BlockingQueue<Bloque> leidos, Semaphore enCurso)
+            throws IOException, InterruptedException {
+        try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            List<String> lineas = new ArrayList<>(LINEAS_POR_BLOQUE);
+            int indice = 0;
+            int numeroLinea = 1;
+            String linea;
+            while (true) {
+                linea = br.readLine();
+                if (linea != null) {
+                    lineas.add(linea);
+                }
+                if (lineas.size() == LINEAS_POR_BLOQUE || (linea == null && !lineas.isEmpty())) {
+                    enCurso.acquire();
+                    leidos.put(new Bloque(indice++, numeroLinea, lineas.toArray(new String[0])));
+                    numeroLinea += lineas.size();
+                    lineas.clear();
+                }
+                if (linea == null) {
+                    break;
+                }
+            }
+        } finally {
+            for (int i = 0; i < hilos; i++) {
+                leidos.put(FIN);
+            }
+        }
+    }
+
+    /**
+     * Etapa de interpretación: convierte las líneas de cada bloque en filas.
+     */
+    private void interpretar(BlockingQueue<Bloque> leidos, BlockingQueue<Bloque> interpretados) {
+        try {
+            Bloque bloque;
+            while ((bloque = leidos.take()) != FIN) {
+                for (int i = 0; i < bloque.lineas.length; i++) {
+                    bloque.filas[i] = interpretar(bloque.primeraLinea + i, bloque.lineas[i]);
+                }
+                interpretados.put(bloque);
+            }
+            interpretados.put(FIN);
+        } catch (InterruptedException e) {
+            // La importación se canceló.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Interpreta y valida una línea.
+     *
+     * @return La fila (con su motivo si es inválida), o null si la línea está vacía o es un comentario.
+     */
+    private Fila interpretar(int numeroLinea, String linea) {
+        String texto = linea.trim();
+        if (texto.isEmpty() || texto.charAt(0) == '#') {
+            return null;
+        }
+        Fila fila = new Fila(numeroLinea, linea);
+        String[] campos = separar(texto);
+        try {
+            String tipo = campos[0].toLowerCase();
+            if (tipo.equals("pago") && (campos.length == 4 || campos.length == 5)) {
+                interpretarPago(fila, campos);
+            } else if (tipo.equals("reserva") && (campos.length == 4 || campos.length == 6)) {
+                interpretarReserva(fila, campos);
+            } else {
+                fila.motivo = "formato inválido";
+            }
+        } catch (NumberFormatException e) {
+            fila.motivo = "número inválido";
+        } catch (DateTimeParseException e) {
+            fila.motivo = "fecha inválida (use dd/MM/yyyy)";
+        } catch (RuntimeException e) {
+            // Un error inesperado rechaza sólo esta línea, sin detener el hilo de interpretación.
+            fila.motivo = "error inesperado: " + e;
+        }
+        return fila;
+    }
+
+    /**
+     * Completa una fila de pago: pago,dni,monto,fecha[,cochera].
+     */
+    private void interpretarPago(Fila fila, String[] campos) {
+        Inquilino inquilino = inquilinoPorDni.apply(campos[1]);
+        if (inquilino == null) {
+            fila.motivo = "no existe un inquilino con DNI " + campos[1];
+            return;
+        }
+        double monto = Double.parseDouble(campos[2]);
+        if (!(monto > 0) || Double.isInfinite(monto)) {
+            fila.motivo = "monto inválido";
+            return;
+        }
+        LocalDate fecha = Fechas.parsear(campos[3]);
+        Cochera cochera;
+        if (campos.length == 5) {
+            cochera = cocheraPorNumero.apply(Integer.parseInt(campos[4]));
+            if (cochera == null) {
+                fila.motivo = "no existe la cochera " + campos[4];
+                return;
+            }
+        } else {
+            cochera = cocheraDeInquilino.apply(inquilino);
+            if (cochera == null) {
+                fila.motivo = "el inquilino no tiene una cochera asignada";
+                return;
+            }
+        }
+        fila.tipo = CodecRegistros.TIPO_PAGO;
+        fila.pago = new Pago(monto, fecha, inquilino, cochera);
+    }
+
+    /**
+     * Completa una fila de reserva: reserva,dni,fecha,lugar[,desde,hasta].
+     */
+    private void interpretarReserva(Fila fila, String[] campos) {
+        Inquilino inquilino = inquilinoPorDni.apply(campos[1]);
+        if (inquilino == null) {
+            fila.motivo = "no existe un inquilino con DNI " + campos[1];
+            return;
+        }
+        LocalDate fecha = Fechas.parsear(campos[2]);
+        if (fecha.isBefore(LocalDate.now())) {
+            fila.motivo = "la fecha de reserva no puede ser anterior a la fecha actual";
+            return;
+        }
+        Lugar lugar;
+        try {
+            lugar = Lugar.valueOf(campos[3].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            fila.motivo = "lugar inválido (PARRILLA, SUM o PILETA)";
+            return;
+        }
+        if (campos.length == 6) {
+            try {
+                fila.desde = Fechas.parsearHora(campos[4]);
+                fila.hasta = Fechas.parsearHora(campos[5]);
+                Reserva.validarHorario(fila.desde, fila.hasta);
+            } catch (DateTimeParseException e) {
+                fila.motivo = "horario inválido (use HH:mm)";
+                return;
+            } catch (IllegalArgumentException e) {
+                fila.motivo = e.getMessage();
+                return;
+            }
+        }
+        fila.tipo = CodecRegistros.TIPO_RESERVA;
+        fila.inquilino = inquilino;
+        fila.fecha = fecha;
+        fila.lugar = lugar;
+    }
+
+    /**
+     * Separa una línea por comas, quitando los espacios de cada campo.
+     */
+    private static String[] separar(String linea) {
+        List<String> campos = new ArrayList<>(5);
+        int desde = 0;
+        int coma;
+        while ((coma = linea.indexOf(',', desde)) >= 0) {
+            campos.add(linea.substring(desde, coma).trim());
+            desde = coma + 1;
+        }
+        campos.add(linea.substring(desde).trim());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Etapa de aplicación de un bloque: entrega las filas válidas al Aplicador y anota los rechazos.
+     */
+    private static void aplicar(Bloque bloque, Aplicador aplicador, Resultado resultado) {
+        for (Fila fila : bloque.filas) {
+            if (fila == null) {
+                continue;
+            }
+            resultado.filas++;
+            String motivo = fila.motivo != null ? fila.motivo : aplicador.aplicar(fila);
+            if (motivo != null) {
+                resultado.rechazos.add(new Rechazo(fila.numeroLinea, fila.linea, motivo));
+            } else if (fila.tipo == CodecRegistros.TIPO_PAGO) {
+                resultado.pagos++;
+            } else {
+                resultado.reservas++;
+            }
+        }
+    }
+}
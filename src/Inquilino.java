@@ -13,8 +13,17 @@ public class Inquilino extends Persona {
      */
     public Inquilino(String nombre, String apellido, String dni) {
         // Asigna los valores proporcionados a los campos de la clase Persona.
-        this.nombre = nombre;
-        this.apellido = apellido;
-        this.dni = dni;
+        super(nombre, apellido, dni);
     }
-}
\ No newline at end of file
+
+    /**
+     * Constructor para un inquilino con DNI numérico.
+     *
+     * @param nombre   Nombre del inquilino.
+     * @param apellido Apellido del inquilino.
+     * @param dni      DNI del inquilino, como número (no negativo).
+     */
+    public Inquilino(String nombre, String apellido, long dni) {
+        super(nombre, apellido, dni);
+    }
+}
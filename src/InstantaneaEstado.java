@@ -0,0 +1,644 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Instantánea binaria de inquilinos y cocheras, con índices ya armados, que se proyecta
+ * en memoria al iniciar y se lee de forma perezosa.
+ * <p>
+ * Al abrirla no se crea ningún objeto: cada Inquilino y cada Cochera se construye la
+ * primera vez que se accede a él y luego se reutiliza la misma instancia. Las búsquedas
+ * por DNI y por número de cochera son búsquedas binarias sobre tablas ordenadas dentro
+ * del archivo, que no construyen objetos. El estado de pago no se guarda en la instantánea:
+ * se lee del almacén de cocheras (ArchivoCocheras) al construir cada cochera.
+ * <p>
+ * Los textos (nombres, apellidos, DNI no numéricos y categorías) se guardan una única vez
+ * en un diccionario, y los registros guardan su código. En memoria, cada texto distinto
+ * se construye una sola vez y lo comparten todos los objetos que lo usan. Los DNI numéricos
+ * se guardan como números (ver Persona.dniNumerico).
+ * <p>
+ * La cabecera guarda el tamaño y la fecha de modificación de "inquilinos.txt" y de
+ * "cocheras.txt", y el tamaño del almacén de cocheras. Si no coinciden con los archivos
+ * actuales, la instantánea está desactualizada: se vuelve a generar a partir de los archivos
+ * de texto y se reemplaza de forma atómica (archivo temporal + renombrado). Cuando el propio
+ * sistema exporta "cocheras.txt" se actualizan esos datos (ver actualizarOrigenCocheras), ya
+ * que la exportación sólo cambia estados de pago, que no se guardan en la instantánea.
+ * <p>
+ * Formato del archivo (enteros de 4 bytes salvo que se indique otra cosa):
+ * <ul>
+ *     <li>Cabecera: marca, versión, tamaño y fecha de "inquilinos.txt" y de "cocheras.txt"
+ *     (8 bytes cada uno), tamaño del almacén de cocheras (8 bytes), cantidad de inquilinos,
+ *     cantidad de cocheras y cantidad de textos.</li>
+ *     <li>Registro de cada inquilino, en el orden del archivo de texto: código del nombre,
+ *     código del apellido y DNI (8 bytes; si no es numérico, -1 - código del texto).</li>
+ *     <li>Índices de inquilinos ordenados por DNI: primero los numéricos, por valor,
+ *     y luego los demás, por texto.</li>
+ *     <li>Índice de la cochera de cada inquilino (-1 si no tiene).</li>
+ *     <li>Posición en el almacén de cada cochera con inquilino, en el orden del almacén.</li>
+ *     <li>Índice del inquilino de cada cochera.</li>
+ *     <li>Código de la categoría de cada cochera.</li>
+ *     <li>Índices de cocheras ordenados por número.</li>
+ *     <li>Diccionario: comienzo de cada texto (más el fin del último), relativo al comienzo
+ *     de los textos, y los textos en UTF-8.</li>
+ * </ul>
+ */
+class InstantaneaEstado {
+
+    // Marca que identifica al archivo como una instantánea ("SNAP").
+    private static final int MARCA = 0x534E4150;
+
+    // Versión del formato.
+    private static final int VERSION = 3;
+
+    // Posición del tamaño y la fecha de "cocheras.txt" dentro de la cabecera.
+    private static final int DESP_ORIGEN_COCHERAS = 4 + 4 + 8 + 8;
+
+    // Tamaño de la cabecera.
+    private static final int TAM_CABECERA = 4 + 4 + 8 + 8 + 8 + 8 + 8 + 4 + 4 + 4;
+
+    // Tamaño del registro de un inquilino: código del nombre, código del apellido y DNI.
+    private static final int TAM_INQUILINO = 4 + 4 + 8;
+
+    // Contenido de la instantánea (proyección del archivo o, si no pudo guardarse, copia en memoria).
+    private final ByteBuffer contenido;
+
+    // Archivo de la instantánea (null si sólo está en memoria).
+    private final Path ruta;
+
+    // Almacén de donde se leen número, categoría y estado de cada cochera (puede ser null).
+    private final ArchivoCocheras archivoCocheras;
+
+    // Cantidades de inquilinos, de cocheras y de textos.
+    private final int cantidadInquilinos;
+    private final int cantidadCocheras;
+    private final int cantidadTextos;
+
+    // Comienzo de cada tabla dentro del contenido.
+    private final int tablaInquilinos;
+    private final int tablaInquilinosPorDni;
+    private final int tablaCocheraDeInquilino;
+    private final int tablaPosiciones;
+    private final int tablaInquilinoDeCochera;
+    private final int tablaCategoriaDeCochera;
+    private final int tablaCocherasPorNumero;
+    private final int tablaTextos;
+    private final int inicioTextos;
+
+    // Instancias ya construidas (null hasta el primer acceso).
+    private final AtomicReferenceArray<Inquilino> inquilinos;
+    private final AtomicReferenceArray<Cochera> cocheras;
+    private final AtomicReferenceArray<String> textos;
+
+    private InstantaneaEstado(ByteBuffer contenido, Path ruta, ArchivoCocheras archivoCocheras) {
+        this.contenido = contenido;
+        this.ruta = ruta;
+        this.archivoCocheras = archivoCocheras;
+        this.cantidadInquilinos = contenido.getInt(TAM_CABECERA - 12);
+        this.cantidadCocheras = contenido.getInt(TAM_CABECERA - 8);
+        this.cantidadTextos = contenido.getInt(TAM_CABECERA - 4);
+        this.tablaInquilinos = TAM_CABECERA;
+        this.tablaInquilinosPorDni = tablaInquilinos + cantidadInquilinos * TAM_INQUILINO;
+        this.tablaCocheraDeInquilino = tablaInquilinosPorDni + cantidadInquilinos * 4;
+        this.tablaPosiciones = tablaCocheraDeInquilino + cantidadInquilinos * 4;
+        this.tablaInquilinoDeCochera = tablaPosiciones + cantidadCocheras * 4;
+        this.tablaCategoriaDeCochera = tablaInquilinoDeCochera + cantidadCocheras * 4;
+        this.tablaCocherasPorNumero = tablaCategoriaDeCochera + cantidadCocheras * 4;
+        this.tablaTextos = tablaCocherasPorNumero + cantidadCocheras * 4;
+        this.inicioTextos = tablaTextos + (cantidadTextos + 1) * 4;
+        this.inquilinos = new AtomicReferenceArray<>(cantidadInquilinos);
+        this.cocheras = new AtomicReferenceArray<>(cantidadCocheras);
+        this.textos = new AtomicReferenceArray<>(cantidadTextos);
+    }
+
+    /**
+     * Abre la instantánea indicada. Si no existe o está desactualizada, se genera a partir
+     * de "inquilinos.txt" y del almacén de cocheras, y se guarda para el próximo inicio.
+     *
+     * @param archivo             Ruta de la instantánea.
+     * @param archivoInquilinos   Ruta del archivo de texto de inquilinos (nombre,apellido,dni).
+     * @param archivoCsvCocheras  Ruta del archivo de texto de cocheras, usada para detectar cambios.
+     * @param archivoCocheras     Almacén de cocheras (puede ser null).
+     * @param almacenCocheras     Ruta del almacén de cocheras, usada para detectar cambios.
+     * @return Instantánea lista para usar.
+     */
+    public static InstantaneaEstado abrir(String archivo, String archivoInquilinos, String archivoCsvCocheras,
+                                          ArchivoCocheras archivoCocheras, String almacenCocheras) {
+        Path ruta = Paths.get(archivo);
+        long[] origen = origen(Paths.get(archivoInquilinos), Paths.get(archivoCsvCocheras),
+                archivoCocheras == null ? null : Paths.get(almacenCocheras));
+
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            ByteBuffer contenido = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (contenido.capacity() >= TAM_CABECERA && contenido.getInt(0) == MARCA && contenido.getInt(4) == VERSION
+                    && contenido.getLong(8) == origen[0] && contenido.getLong(16) == origen[1]
+                    && contenido.getLong(24) == origen[2] && contenido.getLong(32) == origen[3]
+                    && contenido.getLong(40) == origen[4]) {
+                return new InstantaneaEstado(contenido, ruta, archivoCocheras);
+            }
+        } catch (NoSuchFileException e) {
+            // Primera ejecución: la instantánea se genera a continuación.
+        } catch (IOException e) {
+            System.out.println("Error al leer la instantánea " + archivo + ": " + e.getMessage());
+        }
+
+        // La instantánea no existe o está desactualizada: se genera desde los archivos de texto.
+        ByteBuffer contenido = generar(Paths.get(archivoInquilinos), archivoCocheras, origen);
+        try {
+            guardar(ruta, contenido);
+        } catch (IOException e) {
+            // Se sigue trabajando con la copia en memoria; se volverá a generar en el próximo inicio.
+            System.out.println("Error al guardar la instantánea " + archivo + ": " + e.getMessage());
+            return new InstantaneaEstado(contenido, null, archivoCocheras);
+        }
+        return new InstantaneaEstado(contenido, ruta, archivoCocheras);
+    }
+
+    /**
+     * Devuelve tamaño y fecha de modificación de "inquilinos.txt" y de "cocheras.txt", y tamaño
+     * del almacén de cocheras (-1 si el archivo no existe).
+     */
+    private static long[] origen(Path inquilinos, Path csvCocheras, Path almacen) {
+        long[] origen = {-1, -1, -1, -1, -1};
+        try {
+            origen[0] = Files.size(inquilinos);
+            origen[1] = Files.getLastModifiedTime(inquilinos).toMillis();
+        } catch (IOException e) {
+            // Sin archivo de inquilinos.
+        }
+        try {
+            origen[2] = Files.size(csvCocheras);
+            origen[3] = Files.getLastModifiedTime(csvCocheras).toMillis();
+        } catch (IOException e) {
+            // Sin archivo de texto de cocheras.
+        }
+        try {
+            if (almacen != null) {
+                origen[4] = Files.size(almacen);
+            }
+        } catch (IOException e) {
+            // Sin almacén de cocheras.
+        }
+        return origen;
+    }
+
+    /**
+     * Guarda en la cabecera el tamaño y la fecha actuales de "cocheras.txt", después de que el
+     * propio sistema lo exportó desde el almacén, para que la instantánea siga siendo válida
+     * en el próximo inicio. Si la instantánea sólo está en memoria, no hace nada.
+     *
+     * @param archivoCsvCocheras Ruta del archivo de texto de cocheras.
+     * @throws IOException Si no se puede leer el archivo de texto o escribir la instantánea.
+     */
+    public void actualizarOrigenCocheras(String archivoCsvCocheras) throws IOException {
+        if (ruta == null) {
+            return;
+        }
+        Path csv = Paths.get(archivoCsvCocheras);
+        ByteBuffer origen = ByteBuffer.allocate(16)
+                .putLong(Files.size(csv))
+                .putLong(Files.getLastModifiedTime(csv).toMillis())
+                .flip();
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE)) {
+            while (origen.hasRemaining()) {
+                canal.write(origen, DESP_ORIGEN_COCHERAS + origen.position());
+            }
+            canal.force(false);
+        }
+    }
+
+    /**
+     * Genera el contenido de la instantánea leyendo "inquilinos.txt" y el almacén de cocheras.
+     * Si hay DNI o números de cochera repetidos se conserva el primero; las cocheras cuyo
+     * inquilino no existe se omiten.
+     */
+    private static ByteBuffer generar(Path archivoInquilinos, ArchivoCocheras archivoCocheras, long[] origen) {
+        // Inquilinos, en el orden del archivo y sin DNI repetidos.
+        // Los bloques del archivo se leen en paralelo y se unen en orden, conservando el primer DNI.
+        List<List<Inquilino>> bloques;
+        try {
+            bloques = inquilinosDesdeTexto(archivoInquilinos, ForkJoinPool.commonPool());
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo de inquilinos: " + e.getMessage());
+            bloques = List.of();
+        }
+        int leidos = 0;
+        for (List<Inquilino> bloque : bloques) {
+            leidos += bloque.size();
+        }
+        List<Inquilino> inquilinos = new ArrayList<>(leidos);
+        Map<String, Integer> indicePorDni = HashMap.newHashMap(leidos);
+        for (List<Inquilino> bloque : bloques) {
+            for (Inquilino inquilino : bloque) {
+                if (indicePorDni.putIfAbsent(inquilino.getDni(), inquilinos.size()) == null) {
+                    inquilinos.add(inquilino);
+                }
+            }
+        }
+        int n = inquilinos.size();
+
+        // Diccionario de textos: cada texto distinto recibe un código, en orden de aparición.
+        Map<String, Integer> codigos = new HashMap<>();
+        List<String> textos = new ArrayList<>();
+        ToIntFunction<String> codigo = texto -> codigos.computeIfAbsent(texto, t -> {
+            textos.add(t);
+            return textos.size() - 1;
+        });
+
+        // Registros de los inquilinos.
+        int[] nombres = new int[n];
+        int[] apellidos = new int[n];
+        long[] dnis = new long[n];
+        for (int i = 0; i < n; i++) {
+            Inquilino inquilino = inquilinos.get(i);
+            nombres[i] = codigo.applyAsInt(inquilino.getNombre());
+            apellidos[i] = codigo.applyAsInt(inquilino.getApellido());
+            long dni = inquilino.getDniNumerico();
+            dnis[i] = dni >= 0 ? dni : -1 - codigo.applyAsInt(inquilino.getDni());
+        }
+
+        Integer[] porDni = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            porDni[i] = i;
+        }
+        Arrays.parallelSort(porDni, (a, b) -> {
+            long dniA = dnis[a];
+            long dniB = dnis[b];
+            if (dniA >= 0 || dniB >= 0) {
+                // Los DNI numéricos van primero, ordenados por valor.
+                return dniA >= 0 && dniB >= 0 ? Long.compare(dniA, dniB) : (dniA >= 0 ? -1 : 1);
+            }
+            return textos.get((int) (-1 - dniA)).compareTo(textos.get((int) (-1 - dniB)));
+        });
+
+        // Cocheras con inquilino, en el orden del almacén y sin números repetidos.
+        List<Integer> posicionesAlmacen = new ArrayList<>();
+        List<Integer> inquilinoDeCochera = new ArrayList<>();
+        List<Integer> categoriaDeCochera = new ArrayList<>();
+        int[] cocheraDeInquilino = new int[n];
+        Arrays.fill(cocheraDeInquilino, -1);
+        Set<Integer> numeros = new HashSet<>();
+        int cantidadAlmacen = archivoCocheras == null ? 0 : archivoCocheras.getCantidad();
+        for (int posicion = 0; posicion < cantidadAlmacen; posicion++) {
+            Integer inquilino = indicePorDni.get(archivoCocheras.getDniInquilino(posicion));
+            if (inquilino != null && numeros.add(archivoCocheras.getNumero(posicion))) {
+                if (cocheraDeInquilino[inquilino] < 0) {
+                    cocheraDeInquilino[inquilino] = posicionesAlmacen.size();
+                }
+                posicionesAlmacen.add(posicion);
+                inquilinoDeCochera.add(inquilino);
+                categoriaDeCochera.add(codigo.applyAsInt(archivoCocheras.getCategoria(posicion)));
+            }
+        }
+        int m = posicionesAlmacen.size();
+
+        // Orden por número: se ordenan pares (número, índice) empaquetados en un long.
+        long[] porNumero = new long[m];
+        for (int i = 0; i < m; i++) {
+            porNumero[i] = ((long) archivoCocheras.getNumero(posicionesAlmacen.get(i)) << 32) | i;
+        }
+        Arrays.sort(porNumero);
+
+        // Textos del diccionario en UTF-8.
+        int t = textos.size();
+        byte[][] bytesTextos = new byte[t][];
+        long tamanioTextos = 0;
+        for (int i = 0; i < t; i++) {
+            bytesTextos[i] = textos.get(i).getBytes(StandardCharsets.UTF_8);
+            tamanioTextos += bytesTextos[i].length;
+        }
+
+        long tamanio = TAM_CABECERA + (long) TAM_INQUILINO * n + 4L * (2L * n + 4L * m + t + 1) + tamanioTextos;
+        if (tamanio > Integer.MAX_VALUE) {
+            throw new IllegalStateException("La instantánea supera el tamaño máximo permitido.");
+        }
+        ByteBuffer contenido = ByteBuffer.allocate((int) tamanio);
+        contenido.putInt(MARCA).putInt(VERSION)
+                .putLong(origen[0]).putLong(origen[1]).putLong(origen[2]).putLong(origen[3]).putLong(origen[4])
+                .putInt(n).putInt(m).putInt(t);
+        for (int i = 0; i < n; i++) {
+            contenido.putInt(nombres[i]).putInt(apellidos[i]).putLong(dnis[i]);
+        }
+        for (int indice : porDni) {
+            contenido.putInt(indice);
+        }
+        for (int indice : cocheraDeInquilino) {
+            contenido.putInt(indice);
+        }
+        for (int posicion : posicionesAlmacen) {
+            contenido.putInt(posicion);
+        }
+        for (int indice : inquilinoDeCochera) {
+            contenido.putInt(indice);
+        }
+        for (int categoria : categoriaDeCochera) {
+            contenido.putInt(categoria);
+        }
+        for (long par : porNumero) {
+            contenido.putInt((int) par);
+        }
+        int inicio = 0;
+        for (byte[] texto : bytesTextos) {
+            contenido.putInt(inicio);
+            inicio += texto.length;
+        }
+        contenido.putInt(inicio);
+        for (byte[] texto : bytesTextos) {
+            contenido.put(texto);
+        }
+        return contenido.flip();
+    }
+
+    /**
+     * Lee los inquilinos de "inquilinos.txt" (nombre,apellido,dni) por bloques en paralelo
+     * (ver LectorCsvParalelo). Las líneas que no tengan tres campos se omiten.
+     *
+     * @param archivo Archivo de texto de inquilinos.
+     * @param pool    Pool donde se procesan los bloques.
+     * @return Inquilinos de cada bloque, en el orden del archivo (puede haber DNI repetidos).
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    static List<List<Inquilino>> inquilinosDesdeTexto(Path archivo, ForkJoinPool pool) throws IOException {
+        return LectorCsvParalelo.leer(archivo, lineas -> {
+            List<Inquilino> inquilinos = new ArrayList<>();
+            while (lineas.siguienteLinea()) {
+                if (lineas.getCantidadCampos() == 3) {
+                    inquilinos.add(new Inquilino(lineas.texto(0), lineas.texto(1), lineas.texto(2)));
+                }
+            }
+            return inquilinos;
+        }, pool);
+    }
+
+    /**
+     * Guarda el contenido en un archivo temporal, lo fuerza a disco y lo renombra sobre la instantánea.
+     */
+    private static void guardar(Path ruta, ByteBuffer contenido) throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer copia = contenido.duplicate();
+                while (copia.hasRemaining()) {
+                    canal.write(copia);
+                }
+                canal.force(true);
+            }
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Devuelve la cantidad de inquilinos.
+     *
+     * @return Cantidad de inquilinos.
+     */
+    public int getCantidadInquilinos() {
+        return cantidadInquilinos;
+    }
+
+    /**
+     * Devuelve el inquilino ubicado en la posición indicada (en el orden de "inquilinos.txt"),
+     * construyéndolo la primera vez que se solicita.
+     *
+     * @param indice Posición del inquilino (entre 0 y getCantidadInquilinos() - 1).
+     * @return Inquilino en esa posición; siempre la misma instancia.
+     */
+    public Inquilino getInquilino(int indice) {
+        Inquilino inquilino = inquilinos.get(indice);
+        if (inquilino == null) {
+            int registro = tablaInquilinos + indice * TAM_INQUILINO;
+            String nombre = getTexto(contenido.getInt(registro));
+            String apellido = getTexto(contenido.getInt(registro + 4));
+            long dni = contenido.getLong(registro + 8);
+            Inquilino leido = dni >= 0
+                    ? new Inquilino(nombre, apellido, dni)
+                    : new Inquilino(nombre, apellido, getTexto((int) (-1 - dni)));
+            inquilino = inquilinos.compareAndSet(indice, null, leido) ? leido : inquilinos.get(indice);
+        }
+        return inquilino;
+    }
+
+    /**
+     * Devuelve el texto del diccionario con el código indicado, construyéndolo la primera
+     * vez que se solicita.
+     */
+    private String getTexto(int codigo) {
+        String texto = textos.get(codigo);
+        if (texto == null) {
+            int inicio = contenido.getInt(tablaTextos + codigo * 4);
+            byte[] bytes = new byte[contenido.getInt(tablaTextos + codigo * 4 + 4) - inicio];
+            contenido.get(inicioTextos + inicio, bytes);
+            String leido = new String(bytes, StandardCharsets.UTF_8);
+            texto = textos.compareAndSet(codigo, null, leido) ? leido : textos.get(codigo);
+        }
+        return texto;
+    }
+
+    /**
+     * Busca la posición de un inquilino por DNI (búsqueda binaria sobre los DNI guardados,
+     * sin construir los inquilinos).
+     *
+     * @return Posición del inquilino, o -1 si no existe.
+     */
+    private int indiceInquilino(String dni) {
+        long numero = Persona.dniNumerico(dni);
+        int desde = 0;
+        int hasta = cantidadInquilinos - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int indice = contenido.getInt(tablaInquilinosPorDni + medio * 4);
+            long guardado = contenido.getLong(tablaInquilinos + indice * TAM_INQUILINO + 8);
+            int comparacion;
+            if (guardado >= 0 || numero >= 0) {
+                // Los DNI numéricos van antes que los demás.
+                comparacion = guardado >= 0 && numero >= 0 ? Long.compare(guardado, numero) : (guardado >= 0 ? -1 : 1);
+            } else {
+                comparacion = getTexto((int) (-1 - guardado)).compareTo(dni);
+            }
+            if (comparacion < 0) {
+                desde = medio + 1;
+            } else if (comparacion > 0) {
+                hasta = medio - 1;
+            } else {
+                return indice;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca un inquilino por DNI.
+     *
+     * @param dni DNI del inquilino.
+     * @return El inquilino, o null si no existe.
+     */
+    public Inquilino buscarInquilino(String dni) {
+        int indice = indiceInquilino(dni);
+        return indice < 0 ? null : getInquilino(indice);
+    }
+
+    /**
+     * Devuelve la cantidad de cocheras con inquilino.
+     *
+     * @return Cantidad de cocheras.
+     */
+    public int getCantidadCocheras() {
+        return cantidadCocheras;
+    }
+
+    /**
+     * Devuelve la cochera ubicada en la posición indicada (en el orden del almacén),
+     * construyéndola la primera vez que se solicita con el estado de pago actual del almacén.
+     *
+     * @param indice Posición de la cochera (entre 0 y getCantidadCocheras() - 1).
+     * @return Cochera en esa posición; siempre la misma instancia.
+     */
+    public Cochera getCochera(int indice) {
+        Cochera cochera = cocheras.get(indice);
+        if (cochera == null) {
+            int posicion = getPosicionEnAlmacen(indice);
+            Cochera leida = new Cochera(
+                    archivoCocheras.getNumero(posicion),
+                    getTexto(contenido.getInt(tablaCategoriaDeCochera + indice * 4)),
+                    archivoCocheras.isEstadoPago(posicion),
+                    getInquilino(contenido.getInt(tablaInquilinoDeCochera + indice * 4)));
+            cochera = cocheras.compareAndSet(indice, null, leida) ? leida : cocheras.get(indice);
+        }
+        return cochera;
+    }
+
+    /**
+     * Devuelve la cochera ubicada en la posición indicada sólo si ya fue construida,
+     * sin construirla.
+     *
+     * @param indice Posición de la cochera (entre 0 y getCantidadCocheras() - 1).
+     * @return Cochera en esa posición, o null si todavía no se accedió a ella.
+     */
+    public Cochera getCocheraConstruida(int indice) {
+        return cocheras.get(indice);
+    }
+
+    /**
+     * Devuelve la categoría de la cochera indicada, sin construir la cochera.
+     *
+     * @param indice Posición de la cochera (entre 0 y getCantidadCocheras() - 1).
+     * @return Categoría de la cochera; siempre la misma instancia para una misma categoría.
+     */
+    public String getCategoria(int indice) {
+        return getTexto(contenido.getInt(tablaCategoriaDeCochera + indice * 4));
+    }
+
+    /**
+     * Devuelve la posición, dentro del almacén de cocheras, de la cochera indicada.
+     *
+     * @param indice Posición de la cochera (entre 0 y getCantidadCocheras() - 1).
+     * @return Posición del registro en el almacén.
+     */
+    public int getPosicionEnAlmacen(int indice) {
+        return contenido.getInt(tablaPosiciones + indice * 4);
+    }
+
+    /**
+     * Busca la posición de una cochera por número (búsqueda binaria).
+     *
+     * @param numero Número de la cochera.
+     * @return Posición de la cochera, o -1 si no existe.
+     */
+    public int indiceCochera(int numero) {
+        int desde = 0;
+        int hasta = cantidadCocheras - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            int indice = contenido.getInt(tablaCocherasPorNumero + medio * 4);
+            int actual = archivoCocheras.getNumero(getPosicionEnAlmacen(indice));
+            if (actual < numero) {
+                desde = medio + 1;
+            } else if (actual > numero) {
+                hasta = medio - 1;
+            } else {
+                return indice;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca una cochera por número.
+     *
+     * @param numero Número de la cochera.
+     * @return La cochera, o null si no existe.
+     */
+    public Cochera buscarCochera(int numero) {
+        int indice = indiceCochera(numero);
+        return indice < 0 ? null : getCochera(indice);
+    }
+
+    /**
+     * Busca la cochera asignada a un inquilino.
+     *
+     * @param dni DNI del inquilino.
+     * @return La cochera, o null si el inquilino no existe o no tiene cochera.
+     */
+    public Cochera buscarCocheraDeInquilino(String dni) {
+        int inquilino = indiceInquilino(dni);
+        if (inquilino < 0) {
+            return null;
+        }
+        int indice = contenido.getInt(tablaCocheraDeInquilino + inquilino * 4);
+        return indice < 0 ? null : getCochera(indice);
+    }
+
+    /**
+     * Devuelve una vista de sólo lectura de los inquilinos, en el orden de "inquilinos.txt".
+     * Cada inquilino se construye recién cuando se accede a él.
+     *
+     * @return Lista de inquilinos.
+     */
+    public List<Inquilino> getInquilinos() {
+        return new Vista<>(cantidadInquilinos) {
+            @Override
+            public Inquilino get(int indice) {
+                return getInquilino(Objects.checkIndex(indice, cantidadInquilinos));
+            }
+        };
+    }
+
+    /**
+     * Devuelve una vista de sólo lectura de las cocheras con inquilino, en el orden del almacén.
+     * Cada cochera se construye recién cuando se accede a ella.
+     *
+     * @return Lista de cocheras.
+     */
+    public List<Cochera> getCocheras() {
+        return new Vista<>(cantidadCocheras) {
+            @Override
+            public Cochera get(int indice) {
+                return getCochera(Objects.checkIndex(indice, cantidadCocheras));
+            }
+        };
+    }
+
+    /**
+     * Lista de sólo lectura y tamaño fijo cuyos elementos se obtienen por posición.
+     */
+    private abstract static class Vista<T> extends AbstractList<T> implements RandomAccess {
+        private final int tamanio;
+
+        Vista(int tamanio) {
+            this.tamanio = tamanio;
+        }
+
+        @Override
+        public int size() {
+            return tamanio;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lectura en paralelo de archivos de texto con campos separados por comas (sin comillas),
+ * como "inquilinos.txt" y "cocheras.txt".
+ * <p>
+ * El archivo se proyecta en memoria y se divide en bloques que terminan en un salto de línea.
+ * Los bloques se recorren en un ForkJoinPool, cada uno con su propio Tokenizador, que busca las
+ * comas directamente sobre los bytes (sin expresiones regulares ni arreglos de cadenas) y sólo
+ * crea las cadenas de los campos que se piden. Cada bloque produce un resultado parcial, y los
+ * resultados se devuelven en el orden de los bloques: quien los une puede respetar el orden del
+ * archivo (por ejemplo, para conservar el primero de dos registros repetidos).
+ * <p>
+ * Las líneas terminan en "\n" o "\r\n", como en BufferedReader.readLine(), y los campos se
+ * separan como en String.split(","): no se cuentan los campos vacíos al final de la línea.
+ * Los textos se leen en UTF-8.
+ */
+final class LectorCsvParalelo {
+
+    // Tamaño mínimo de un bloque, en bytes: por debajo de él, repartir el trabajo cuesta más de lo que ahorra.
+    private static final int TAM_MINIMO_BLOQUE = 1 << 20;
+
+    // Cantidad de bloques por hilo del pool, para que los hilos que terminan antes tomen más trabajo.
+    private static final int BLOQUES_POR_HILO = 4;
+
+    /**
+     * Procesa las líneas de un bloque y devuelve su resultado parcial.
+     *
+     * @param <R> Tipo del resultado parcial.
+     */
+    interface ProcesadorBloque<R> {
+
+        /**
+         * Recorre las líneas del bloque.
+         *
+         * @param lineas Tokenizador posicionado antes de la primera línea del bloque.
+         * @return Resultado parcial del bloque.
+         * @throws IOException Si una línea no puede procesarse.
+         */
+        R procesar(Tokenizador lineas) throws IOException;
+    }
+
+    private LectorCsvParalelo() {
+    }
+
+    /**
+     * Lee el archivo en paralelo en el pool común de ForkJoin.
+     *
+     * @param archivo    Archivo a leer.
+     * @param procesador Procesador de cada bloque.
+     * @param <R>        Tipo del resultado parcial de cada bloque.
+     * @return Resultados de los bloques, en el orden del archivo.
+     * @throws IOException Si no se puede leer el archivo o el procesador falla.
+     */
+    public static <R> List<R> leer(Path archivo, ProcesadorBloque<R> procesador) throws IOException {
+        return leer(archivo, procesador, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Lee el archivo en paralelo en el pool indicado.
+     *
+     * @param archivo    Archivo a leer.
+     * @param procesador Procesador de cada bloque.
+     * @param pool       Pool donde se procesan los bloques.
+     * @param <R>        Tipo del resultado parcial de cada bloque.
+     * @return Resultados de los bloques, en el orden del archivo.
+     * @throws IOException Si no se puede leer el archivo o el procesador falla.
+     */
+    public static <R> List<R> leer(Path archivo, ProcesadorBloque<R> procesador, ForkJoinPool pool) throws IOException {
+        ByteBuffer datos;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("El archivo " + archivo + " supera el tamaño máximo permitido.");
+            }
+            // La proyección sigue siendo válida después de cerrar el canal.
+            datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+
+        int[] limites = dividir(datos, pool.getParallelism());
+        if (limites.length == 2) {
+            // Un único bloque: se procesa en el hilo actual.
+            return Collections.singletonList(procesador.procesar(new Tokenizador(datos, 0, limites[1])));
+        }
+        try {
+            return pool.invoke(new Tarea<>(datos, limites, 0, limites.length - 1, procesador));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Divide los datos en bloques que terminan en un salto de línea (o al final de los datos).
+     *
+     * @return Límites de los bloques: el bloque i va de limites[i] a limites[i + 1].
+     */
+    private static int[] dividir(ByteBuffer datos, int hilos) {
+        int tamanio = datos.limit();
+        int tamBloque = Math.max(TAM_MINIMO_BLOQUE, (int) Math.ceil(tamanio / (double) (hilos * BLOQUES_POR_HILO)));
+        // Todos los bloques menos el último tienen al menos tamBloque bytes.
+        int[] limites = new int[tamanio / tamBloque + 2];
+        int cantidad = 1;
+        int inicio = 0;
+        do {
+            int fin = (int) Math.min(tamanio, (long) inicio + tamBloque);
+            while (fin < tamanio && datos.get(fin - 1) != '\n') {
+                fin++;
+            }
+            limites[cantidad++] = fin;
+            inicio = fin;
+        } while (inicio < tamanio);
+        return Arrays.copyOf(limites, cantidad);
+    }
+
+    /**
+     * Procesa un rango de bloques dividiéndolo en mitades, y une los resultados en orden.
+     */
+    private static final class Tarea<R> extends RecursiveTask<List<R>> {
+
+        // La tarea sólo vive dentro del ForkJoinPool; nunca se serializa.
+        private static final long serialVersionUID = 1L;
+
+        private final transient ByteBuffer datos;
+        private final int[] limites;
+        private final int desde;
+        private final int hasta;
+        private final transient ProcesadorBloque<R> procesador;
+
+        Tarea(ByteBuffer datos, int[] limites, int desde, int hasta, ProcesadorBloque<R> procesador) {
+            this.datos = datos;
+            this.limites = limites;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.procesador = procesador;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (hasta - desde == 1) {
+                List<R> resultado = new ArrayList<>();
+                try {
+                    resultado.add(procesador.procesar(new Tokenizador(datos, limites[desde], limites[hasta])));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return resultado;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tarea<R> segundaMitad = new Tarea<>(datos, limites, medio, hasta, procesador);
+            segundaMitad.fork();
+            List<R> resultado = new Tarea<>(datos, limites, desde, medio, procesador).compute();
+            resultado.addAll(segundaMitad.join());
+            return resultado;
+        }
+    }
+
+    /**
+     * Recorre las líneas de un bloque y separa los campos de la línea actual.
+     * Sólo lee los datos con accesos absolutos, por lo que varios tokenizadores pueden
+     * recorrer a la vez la misma proyección. Cada uno debe usarse desde un único hilo.
+     */
+    static final class Tokenizador {
+
+        private final ByteBuffer datos;
+        private final int fin;
+
+        // Comienzo de la próxima línea.
+        private int posicion;
+
+        // Comienzo y fin (exclusivo) de cada campo de la línea actual.
+        private int[] inicios = new int[8];
+        private int[] fines = new int[8];
+        private int cantidadCampos;
+
+        // Copia de los bytes de un campo, reutilizada para decodificarlo.
+        private byte[] bytes = new byte[64];
+
+        private Tokenizador(ByteBuffer datos, int inicio, int fin) {
+            this.datos = datos;
+            this.posicion = inicio;
+            this.fin = fin;
+        }
+
+        /**
+         * Avanza a la línea siguiente y separa sus campos.
+         *
+         * @return true si hay una línea, false si se llegó al final del bloque.
+         */
+        public boolean siguienteLinea() {
+            if (posicion >= fin) {
+                return false;
+            }
+            int campo = 0;
+            int inicioCampo = posicion;
+            int i = posicion;
+            while (i < fin) {
+                byte b = datos.get(i);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == ',') {
+                    campo = agregarCampo(campo, inicioCampo, i);
+                    inicioCampo = i + 1;
+                }
+                i++;
+            }
+            posicion = i + 1;
+            int finUltimo = i > inicioCampo && datos.get(i - 1) == '\r' ? i - 1 : i;
+            campo = agregarCampo(campo, inicioCampo, finUltimo);
+            // Como en String.split, no se cuentan los campos vacíos del final.
+            while (campo > 0 && inicios[campo - 1] == fines[campo - 1]) {
+                campo--;
+            }
+            cantidadCampos = campo;
+            return true;
+        }
+
+        private int agregarCampo(int campo, int inicio, int fin) {
+            if (campo == inicios.length) {
+                inicios = Arrays.copyOf(inicios, campo * 2);
+                fines = Arrays.copyOf(fines, campo * 2);
+            }
+            inicios[campo] = inicio;
+            fines[campo] = fin;
+            return campo + 1;
+        }
+
+        /**
+         * Devuelve la cantidad de campos de la línea actual.
+         *
+         * @return Cantidad de campos, sin contar los vacíos del final.
+         */
+        public int getCantidadCampos() {
+            return cantidadCampos;
+        }
+
+        /**
+         * Devuelve el largo de un campo de la línea actual.
+         *
+         * @param campo Número de campo (desde 0).
+         * @return Largo del campo, en bytes.
+         */
+        public int getLargo(int campo) {
+            return fines[campo] - inicios[campo];
+        }
+
+        /**
+         * Devuelve el texto de un campo de la línea actual.
+         *
+         * @param campo Número de campo (desde 0).
+         * @return Texto del campo.
+         */
+        public String texto(int campo) {
+            int largo = getLargo(campo);
+            if (largo > bytes.length) {
+                bytes = new byte[Math.max(largo, bytes.length * 2)];
+            }
+            datos.get(inicios[campo], bytes, 0, largo);
+            return new String(bytes, 0, largo, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Copia los bytes de un campo de la línea actual en el destino.
+         *
+         * @param campo   Número de campo (desde 0).
+         * @param destino Buffer donde se copian, a partir de su posición.
+         */
+        public void copiar(int campo, ByteBuffer destino) {
+            destino.put(datos.slice(inicios[campo], getLargo(campo)));
+        }
+
+        /**
+         * Interpreta un campo de la línea actual como un entero, como Integer.parseInt.
+         *
+         * @param campo Número de campo (desde 0).
+         * @return Valor del campo.
+         * @throws NumberFormatException Si el campo no es un entero válido.
+         */
+        public int entero(int campo) {
+            int inicio = inicios[campo];
+            int largo = getLargo(campo);
+            boolean negativo = largo > 1 && datos.get(inicio) == '-';
+            int i = negativo ? inicio + 1 : inicio;
+            // Hasta 9 dígitos no hay desbordamiento posible; los demás casos los resuelve Integer.parseInt.
+            if (largo == 0 || fines[campo] - i > 9) {
+                return Integer.parseInt(texto(campo));
+            }
+            int valor = 0;
+            for (; i < fines[campo]; i++) {
+                int digito = datos.get(i) - '0';
+                if (digito < 0 || digito > 9) {
+                    return Integer.parseInt(texto(campo));
+                }
+                valor = valor * 10 + digito;
+            }
+            return negativo ? -valor : valor;
+        }
+
+        /**
+         * Interpreta un campo de la línea actual como Boolean.parseBoolean: es true sólo
+         * si el campo es "true", sin distinguir mayúsculas.
+         *
+         * @param campo Número de campo (desde 0).
+         * @return Valor del campo.
+         */
+        public boolean booleano(int campo) {
+            if (getLargo(campo) != 4) {
+                return false;
+            }
+            int inicio = inicios[campo];
+            return (datos.get(inicio) | 0x20) == 't' && (datos.get(inicio + 1) | 0x20) == 'r'
+                    && (datos.get(inicio + 2) | 0x20) == 'u' && (datos.get(inicio + 3) | 0x20) == 'e';
+        }
+    }
+}
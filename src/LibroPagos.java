@@ -0,0 +1,116 @@
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Libro de pagos en memoria: acumula, para cada inquilino (por DNI), el total pagado
+ * y la fecha de su último pago, y para cada mes el total recaudado.
+ * <p>
+ * Se actualiza de forma incremental con cada Pago, por lo que las consultas no
+ * necesitan leer "pagos.txt". Los montos se guardan en centavos (long) para evitar
+ * errores de redondeo al sumar. Es seguro para ser usado desde varios hilos.
+ */
+class LibroPagos {
+
+    /**
+     * Estado de cuenta de un inquilino.
+     */
+    private static class Cuenta {
+        // Total pagado, en centavos.
+        private long totalCentavos;
+
+        // Fecha del último pago (la más reciente), o null si no hay pagos.
+        private LocalDate ultimoPago;
+
+        synchronized void registrar(long centavos, LocalDate fecha) {
+            totalCentavos += centavos;
+            if (ultimoPago == null || fecha.isAfter(ultimoPago)) {
+                ultimoPago = fecha;
+            }
+        }
+
+        synchronized long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        synchronized LocalDate getUltimoPago() {
+            return ultimoPago;
+        }
+    }
+
+    // Cuentas por DNI de inquilino.
+    private final Map<String, Cuenta> cuentas = new ConcurrentHashMap<>();
+
+    // Total recaudado por mes, en centavos.
+    private final Map<YearMonth, LongAdder> recaudadoPorMes = new ConcurrentHashMap<>();
+
+    /**
+     * Suma un pago al libro.
+     *
+     * @param pago Pago a registrar.
+     */
+    public void registrar(Pago pago) {
+        long centavos = Math.round(pago.getMonto() * 100);
+        cuentas.computeIfAbsent(pago.getInquilino().getDni(), dni -> new Cuenta())
+                .registrar(centavos, pago.getFecha());
+        recaudadoPorMes.computeIfAbsent(YearMonth.from(pago.getFecha()), mes -> new LongAdder())
+                .add(centavos);
+    }
+
+    /**
+     * Devuelve el total pagado por un inquilino, en centavos.
+     *
+     * @param dni DNI del inquilino.
+     * @return Total pagado (0 si no tiene pagos).
+     */
+    public long getTotalCentavos(String dni) {
+        Cuenta cuenta = cuentas.get(dni);
+        return cuenta == null ? 0 : cuenta.getTotalCentavos();
+    }
+
+    /**
+     * Devuelve la fecha del último pago de un inquilino.
+     *
+     * @param dni DNI del inquilino.
+     * @return Fecha del último pago, o null si no tiene pagos.
+     */
+    public LocalDate getUltimoPago(String dni) {
+        Cuenta cuenta = cuentas.get(dni);
+        return cuenta == null ? null : cuenta.getUltimoPago();
+    }
+
+    /**
+     * Devuelve el total recaudado en un mes, en centavos.
+     *
+     * @param mes Mes a consultar.
+     * @return Total recaudado en ese mes.
+     */
+    public long getRecaudadoCentavos(YearMonth mes) {
+        LongAdder total = recaudadoPorMes.get(mes);
+        return total == null ? 0 : total.sum();
+    }
+
+    /**
+     * Devuelve los inquilinos que no registran pagos en el mes indicado ni después.
+     *
+     * @param inquilinos Inquilinos a revisar.
+     * @param mes        Mes que debe estar pagado.
+     * @return Inquilinos en mora, en el mismo orden recibido.
+     */
+    public List<Inquilino> getEnMora(Collection<Inquilino> inquilinos, YearMonth mes) {
+        LocalDate inicioMes = mes.atDay(1);
+        List<Inquilino> enMora = new ArrayList<>();
+        for (Inquilino inquilino : inquilinos) {
+            LocalDate ultimoPago = getUltimoPago(inquilino.getDni());
+            if (ultimoPago == null || ultimoPago.isBefore(inicioMes)) {
+                enMora.add(inquilino);
+            }
+        }
+        return enMora;
+    }
+}
@@ -1,15 +1,61 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeParseException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Clase principal que gestiona el menú de opciones para un sistema de pagos y reservas.
+ * <p>
+ * Con el argumento --batch se ejecuta sin menú (ver ProcesadorComandos):
+ * <pre>
+ *     java Main --batch comandos.txt
+ *     java Main --batch &lt; comandos.txt
+ * </pre>
+ * El código de salida es 0 si todos los comandos se ejecutaron, 1 si alguno falló
+ * y 2 si no se pudo leer la entrada.
+ * <p>
+ * Con el argumento --http se inicia la API HTTP local (ver ServidorHttp) en el puerto
+ * indicado (por defecto 8080; 0 elige un puerto libre), hasta que se detenga el proceso.
  */
 public class Main {
 
+    // Cantidad de registros por página en los listados de pagos y reservas.
+    private static final int TAMANIO_PAGINA = 20;
+
+    // Puerto por defecto de la API HTTP.
+    private static final int PUERTO_HTTP = 8080;
+
     public static void main(String[] args) {
+        // Si se indica -Dmetricas.intervalo=<segundos>, se escribe un resumen de las métricas
+        // en la salida de errores con esa periodicidad.
+        long intervaloMetricas = Long.getLong("metricas.intervalo", 0);
+        if (intervaloMetricas > 0) {
+            Metricas.global().iniciarRegistroPeriodico(intervaloMetricas, System.err::println);
+        }
+
+        // Modo por lotes: los comandos se leen del archivo indicado o, si no se indica, de la entrada estándar.
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(ejecutarLote(args.length > 1 ? args[1] : "-"));
+        }
+
+        // API HTTP local.
+        if (args.length > 0 && args[0].equals("--http")) {
+            iniciarServidor(args.length > 1 ? Integer.parseInt(args[1]) : PUERTO_HTTP);
+            return;
+        }
+
         // Se crea un objeto Scanner para leer datos desde la consola.
         Scanner scanner = new Scanner(System.in);
 
@@ -36,7 +82,7 @@ public class Main {
                     mostrarTitulo("Cancelar Reserva");
                     System.out.print("Ingrese número de reserva a cancelar: ");
                     int nroReserva = scanner.nextInt();
-                    admin.cancelarReserva(nroReserva);
+                    cancelarReserva(admin, nroReserva);
                     esperarEntrada(scanner);
                     break;
                 case 4:
@@ -46,20 +92,35 @@ public class Main {
                     esperarEntrada(scanner);
                     break;
                 case 5:
-                    // Opción para listar todos los pagos realizados.
-                    mostrarTitulo("Listar Pagos");
-                    admin.listarPagos();
-                    esperarEntrada(scanner);
+                    // Opción para listar los pagos realizados, por páginas y con filtro opcional.
+                    listarPagos(scanner, admin);
                     break;
                 case 6:
-                    // Opción para listar todas las reservas realizadas.
-                    mostrarTitulo("Listar Reservas");
-                    admin.listarReservas();
-                    esperarEntrada(scanner);
+                    // Opción para listar las reservas vigentes, por páginas y con filtros opcionales.
+                    listarReservas(scanner, admin);
                     break;
                 case 7:
+                    // Opción para ver las métricas de las operaciones realizadas.
+                    mostrarTitulo("Métricas");
+                    System.out.print(Metricas.global().resumen());
+                    esperarEntrada(scanner);
+                    break;
+                case 8:
+                    // Opción para importar pagos y reservas desde un archivo CSV.
+                    importarCsv(scanner, admin);
+                    break;
+                case 9:
+                    // Opción para ejecutar la facturación mensual de las cocheras.
+                    facturar(scanner, admin);
+                    break;
+                case 10:
+                    // Opción para consultar el calendario y las franjas libres de un lugar.
+                    disponibilidad(scanner, admin);
+                    break;
+                case 11:
                     // Opción para salir del sistema.
                     System.out.println("Saliendo...");
+                    admin.cerrar();  // Se cierran los archivos abiertos por el administrador.
                     scanner.close(); // Se cierra el Scanner antes de terminar.
                     return;
                 default:
@@ -70,6 +131,53 @@ public class Main {
         }
     }
 
+    /**
+     * Método que ejecuta los comandos de un archivo (o de la entrada estándar, si es "-")
+     * sin menú ni pausas, escribiendo los resultados en la salida estándar con un buffer.
+     * @param archivo Ruta del archivo de comandos, o "-" para la entrada estándar.
+     * @return Código de salida: 0 si todos los comandos se ejecutaron, 1 si alguno falló,
+     *         2 si no se pudo leer la entrada.
+     */
+    private static int ejecutarLote(String archivo) {
+        PrintWriter salida = Consola.crearSalida();
+        Administrador admin = new Administrador("Juan", "Perez", "12345678", salida);
+        try (BufferedReader entrada = archivo.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8)) {
+            return new ProcesadorComandos(admin, salida).procesar(entrada) == 0 ? 0 : 1;
+        } catch (IOException e) {
+            salida.flush();
+            System.err.println("Error al leer los comandos: " + e.getMessage());
+            return 2;
+        } finally {
+            salida.flush();
+            admin.cerrar();
+        }
+    }
+
+    /**
+     * Método que inicia la API HTTP. El servidor atiende solicitudes en hilos virtuales
+     * hasta que se detiene el proceso; al detenerlo se cierran los archivos del administrador.
+     * @param puerto Puerto local (0 = cualquier puerto libre).
+     */
+    private static void iniciarServidor(int puerto) {
+        Administrador admin = new Administrador("Juan", "Perez", "12345678");
+        ServidorHttp servidor;
+        try {
+            servidor = new ServidorHttp(admin, puerto);
+        } catch (IOException e) {
+            System.out.println("Error al iniciar el servidor HTTP: " + e.getMessage());
+            admin.cerrar();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.detener();
+            admin.cerrar();
+        }, "detener-servidor"));
+        servidor.iniciar();
+        System.out.println("Servidor HTTP escuchando en http://127.0.0.1:" + servidor.getPuerto());
+    }
+
     /**
      * Método para registrar un pago realizado por un inquilino.
      * @param scanner Objeto Scanner para leer la entrada desde la consola.
@@ -87,14 +195,19 @@ public class Main {
         double monto = scanner.nextDouble();
         scanner.nextLine(); // Limpia el buffer después de leer el número.
 
-        // Se toma la fecha de hoy como fecha de pago, en formato dd/MM/yyyy.
-        String fechaPago = LocalDate.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        // Se toma la fecha de hoy como fecha de pago.
+        LocalDate fechaPago = LocalDate.now();
 
         // Se obtiene la cochera asociada al inquilino, si existe.
         Cochera cochera = admin.getCocheraPorInquilino(inquilino);
         if (cochera != null) {
             // Se registra el pago mediante el objeto Administrador.
-            admin.registrarPago(new Pago(monto, fechaPago, inquilino, cochera));
+            try {
+                admin.registrarPago(new Pago(monto, fechaPago, inquilino, cochera));
+                System.out.println("Pago registrado con éxito.");
+            } catch (UncheckedIOException e) {
+                System.out.println("Error al registrar el pago: " + e.getCause().getMessage());
+            }
         } else {
             // Si el inquilino no tiene cochera asignada, se informa al usuario.
             System.out.println("Error: El inquilino no tiene una cochera asignada.");
@@ -102,6 +215,23 @@ public class Main {
         esperarEntrada(scanner);
     }
 
+    /**
+     * Método para cancelar una reserva e informar el resultado.
+     * @param admin      Administrador que gestionará la cancelación.
+     * @param nroReserva Número de la reserva a cancelar.
+     */
+    private static void cancelarReserva(Administrador admin, int nroReserva) {
+        try {
+            if (admin.cancelarReserva(nroReserva)) {
+                System.out.println("Reserva N°" + nroReserva + " eliminada con éxito.");
+            } else {
+                System.out.println("Error: No se encontró una reserva con el número " + nroReserva);
+            }
+        } catch (UncheckedIOException e) {
+            System.out.println("Error al cancelar la reserva: " + e.getCause().getMessage());
+        }
+    }
+
     /**
      * Método para reservar un lugar común (ej: PARRILLA, SUM o PILETA).
      * @param scanner Objeto Scanner para leer la entrada desde la consola.
@@ -117,9 +247,8 @@ public class Main {
 
             LocalDate fecha;
             try {
-                // 2. Crear un formatter para el formato dd/MM/yyyy
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-                fecha = LocalDate.parse(fechaReserva, formatter);
+                // 2. Convertir el texto con el formato compartido dd/MM/yyyy
+                fecha = Fechas.parsear(fechaReserva);
 
                 // Validar que la fecha no sea anterior a hoy
                 if (fecha.isBefore(LocalDate.now())) {
@@ -147,9 +276,32 @@ public class Main {
                 return;
             }
 
-            // Registrar la reserva
-            admin.reservarLugar(new Reserva(fechaReserva, inquilino, lugar));
-            System.out.println("Reserva realizada con éxito.");
+            // Solicitar el horario (opcional): sin horario se reserva el día completo
+            System.out.print("Ingrese horario (HH:mm-HH:mm, vacío para el día completo): ");
+            String horario = scanner.nextLine().trim();
+            LocalTime desde = LocalTime.MIDNIGHT;
+            LocalTime hasta = LocalTime.MIDNIGHT;
+            if (!horario.isEmpty()) {
+                int guion = horario.indexOf('-');
+                try {
+                    if (guion < 0) {
+                        throw new DateTimeParseException("Falta la hora de fin", horario, 0);
+                    }
+                    desde = Fechas.parsearHora(horario.substring(0, guion).trim());
+                    hasta = Fechas.parsearHora(horario.substring(guion + 1).trim());
+                } catch (DateTimeParseException e) {
+                    System.out.println("Error: Formato de horario inválido. Use HH:mm-HH:mm (por ejemplo 10:00-14:00).");
+                    return;
+                }
+            }
+
+            // Registrar la reserva (se rechaza si se superpone con otra reserva del lugar)
+            Reserva reserva = new Reserva(fecha, desde, hasta, inquilino, lugar);
+            if (admin.reservarLugar(reserva)) {
+                System.out.println("Reserva N°" + reserva.getNroReserva() + " realizada con éxito.");
+            } else {
+                System.out.println("Error: " + lugar + " ya está reservado para el " + reserva.getTurno() + ".");
+            }
 
         } catch (Exception e) {
             // Captura cualquier otra excepción inesperada
@@ -159,6 +311,208 @@ public class Main {
         esperarEntrada(scanner);
     }
 
+    /**
+     * Método para listar los pagos, opcionalmente filtrados por DNI del inquilino.
+     * @param scanner Objeto Scanner para leer la entrada desde la consola.
+     * @param admin   Administrador que realiza la consulta.
+     */
+    private static void listarPagos(Scanner scanner, Administrador admin) {
+        mostrarTitulo("Listar Pagos");
+        System.out.print("DNI del inquilino (ENTER para todos): ");
+        String dni = scanner.nextLine().trim();
+        Predicate<Pago> filtro = dni.isEmpty() ? pago -> true : Filtros.pagosDeInquilino(dni);
+
+        System.out.println("Listado de Pagos:");
+        try (Stream<Pago> pagos = admin.pagos(filtro, 0, Long.MAX_VALUE)) {
+            mostrarPaginado(scanner, pagos.iterator());
+        }
+    }
+
+    /**
+     * Método para listar las reservas vigentes, opcionalmente filtradas por DNI y por lugar.
+     * @param scanner Objeto Scanner para leer la entrada desde la consola.
+     * @param admin   Administrador que realiza la consulta.
+     */
+    private static void listarReservas(Scanner scanner, Administrador admin) {
+        mostrarTitulo("Listar Reservas");
+        System.out.print("DNI del inquilino (ENTER para todos): ");
+        String dni = scanner.nextLine().trim();
+        System.out.print("Lugar (PARRILLA, SUM, PILETA o ENTER para todos): ");
+        String lugarIngresado = scanner.nextLine().trim().toUpperCase();
+
+        Predicate<Reserva> filtro = reserva -> true;
+        if (!dni.isEmpty()) {
+            filtro = filtro.and(Filtros.reservasDeInquilino(dni));
+        }
+        if (!lugarIngresado.isEmpty()) {
+            try {
+                filtro = filtro.and(Filtros.reservasEnLugar(Lugar.valueOf(lugarIngresado)));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: Lugar inválido. Ingrese PARRILLA, SUM o PILETA.");
+                esperarEntrada(scanner);
+                return;
+            }
+        }
+
+        System.out.println("Listado de Reservas:");
+        try (Stream<Reserva> reservas = admin.reservas(filtro, 0, Long.MAX_VALUE)) {
+            mostrarPaginado(scanner, reservas.iterator());
+        }
+    }
+
+    /**
+     * Método para importar pagos y reservas desde un archivo CSV, mostrando el resultado
+     * y las primeras líneas rechazadas.
+     * @param scanner Objeto Scanner para leer la entrada desde la consola.
+     * @param admin   Administrador que realiza la importación.
+     */
+    private static void importarCsv(Scanner scanner, Administrador admin) {
+        mostrarTitulo("Importar Pagos y Reservas");
+        System.out.println("Formato de cada línea:");
+        System.out.println("  pago,DNI,monto,dd/MM/yyyy[,número de cochera]");
+        System.out.println("  reserva,DNI,dd/MM/yyyy,PARRILLA|SUM|PILETA[,HH:mm,HH:mm]");
+        System.out.println("  (el horario es opcional: hora de inicio y de fin; sin horario se reserva el día completo)");
+        System.out.print("Ingrese la ruta del archivo: ");
+        String archivo = scanner.nextLine().trim();
+
+        try {
+            ImportadorCsv.Resultado resultado = admin.importarCsv(archivo);
+            System.out.println("Importación finalizada: " + resultado);
+            List<ImportadorCsv.Rechazo> rechazos = resultado.getRechazos();
+            for (int i = 0; i < rechazos.size() && i < TAMANIO_PAGINA; i++) {
+                System.out.println(rechazos.get(i));
+            }
+            if (rechazos.size() > TAMANIO_PAGINA) {
+                System.out.println("... y " + (rechazos.size() - TAMANIO_PAGINA) + " rechazos más.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error al importar el archivo: " + e.getMessage());
+        }
+        esperarEntrada(scanner);
+    }
+
+    /**
+     * Método para ejecutar la facturación mensual: todas las cocheras quedan pendientes salvo
+     * las que registran un pago en el mes indicado. Se muestran los totales por categoría.
+     * @param scanner Objeto Scanner para leer la entrada desde la consola.
+     * @param admin   Administrador que ejecuta la facturación.
+     */
+    private static void facturar(Scanner scanner, Administrador admin) {
+        mostrarTitulo("Facturación Mensual");
+        System.out.print("Ingrese el mes a facturar (MM/yyyy, vacío para el mes actual): ");
+        String texto = scanner.nextLine().trim();
+
+        try {
+            YearMonth periodo = texto.isEmpty() ? YearMonth.now() : Fechas.parsearMes(texto);
+            System.out.println("Facturación finalizada: " + admin.facturar(periodo));
+        } catch (DateTimeParseException e) {
+            System.out.println("Error: formato de mes inválido. Use MM/yyyy.");
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al facturar: " + e.getMessage());
+        }
+        esperarEntrada(scanner);
+    }
+
+    /**
+     * Método para consultar la disponibilidad de un lugar común: muestra el calendario de
+     * un mes (un renglón por día) y las próximas franjas libres de una duración mínima.
+     * @param scanner Objeto Scanner para leer la entrada desde la consola.
+     * @param admin   Administrador que realiza la consulta.
+     */
+    private static void disponibilidad(Scanner scanner, Administrador admin) {
+        mostrarTitulo("Disponibilidad de Lugares");
+        try {
+            System.out.print("Ingrese lugar (PARRILLA, SUM, PILETA): ");
+            Lugar lugar;
+            try {
+                lugar = Lugar.valueOf(scanner.nextLine().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: Lugar inválido. Ingrese PARRILLA, SUM o PILETA.");
+                esperarEntrada(scanner);
+                return;
+            }
+
+            System.out.print("Ingrese el mes (MM/yyyy, vacío para el mes actual): ");
+            String texto = scanner.nextLine().trim();
+            YearMonth mes = texto.isEmpty() ? YearMonth.now() : Fechas.parsearMes(texto);
+
+            // Calendario: un renglón por día, con sus franjas ocupadas y libres.
+            mostrarTitulo(lugar + " - " + Fechas.formatearMes(mes));
+            StringBuilder dia = new StringBuilder();
+            LocalDate fechaDia = null;
+            for (AgendaLugares.Franja franja : admin.getCalendario(lugar, mes)) {
+                LocalDate fecha = franja.getInicio().toLocalDate();
+                if (!fecha.equals(fechaDia)) {
+                    if (fechaDia != null) {
+                        System.out.println(dia);
+                    }
+                    fechaDia = fecha;
+                    dia.setLength(0);
+                    dia.append(Fechas.formatear(fecha)).append(':');
+                } else {
+                    dia.append(" |");
+                }
+                dia.append(' ').append(franja.getHorario());
+                if (franja.isLibre()) {
+                    dia.append(" libre");
+                } else {
+                    Inquilino inquilino = franja.getReserva().getInquilino();
+                    dia.append(" Reserva N°").append(franja.getReserva().getNroReserva())
+                            .append(" (").append(inquilino.getNombre()).append(' ').append(inquilino.getApellido()).append(')');
+                }
+            }
+            System.out.println(dia);
+
+            // Próximas franjas libres, desde ahora o desde el comienzo del mes si es posterior.
+            System.out.print("\nDuración mínima de las franjas libres en minutos (vacío para 60): ");
+            texto = scanner.nextLine().trim();
+            int minutos = texto.isEmpty() ? 60 : Integer.parseInt(texto);
+            LocalDateTime desde = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            if (mes.atDay(1).atStartOfDay().isAfter(desde)) {
+                desde = mes.atDay(1).atStartOfDay();
+            }
+            mostrarTitulo("Próximas franjas libres de " + lugar);
+            for (AgendaLugares.Franja franja : admin.getFranjasLibres(lugar, desde, Duration.ofMinutes(minutos), 10)) {
+                System.out.println(Fechas.formatear(franja.getInicio().toLocalDate()) + " " + franja.getHorario());
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Error: formato de mes inválido. Use MM/yyyy.");
+        } catch (NumberFormatException e) {
+            System.out.println("Error: cantidad de minutos inválida.");
+        } catch (IllegalArgumentException e) {
+            // Duración fuera de rango.
+            System.out.println("Error: " + e.getMessage());
+        }
+        esperarEntrada(scanner);
+    }
+
+    /**
+     * Método que muestra los elementos de a una página por vez. Los elementos se van
+     * obteniendo a medida que se muestran, por lo que no se lee más de lo necesario.
+     * @param scanner   Objeto Scanner para leer la entrada desde la consola.
+     * @param elementos Elementos a mostrar.
+     */
+    private static void mostrarPaginado(Scanner scanner, Iterator<?> elementos) {
+        if (!elementos.hasNext()) {
+            System.out.println("No hay registros.");
+            esperarEntrada(scanner);
+            return;
+        }
+        while (true) {
+            for (int i = 0; i < TAMANIO_PAGINA && elementos.hasNext(); i++) {
+                System.out.println(elementos.next());
+            }
+            if (!elementos.hasNext()) {
+                esperarEntrada(scanner);
+                return;
+            }
+            System.out.println("\nPresione ENTER para ver la página siguiente o 'q' para volver al menú...");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+        }
+    }
+
     /**
      * Método para seleccionar un inquilino de una lista y retornarlo.
      * @param scanner     Objeto Scanner para leer la entrada desde la consola.
@@ -200,7 +554,11 @@ public class Main {
         System.out.println("4. Listar Cocheras");
         System.out.println("5. Listar Pagos");
         System.out.println("6. Listar Reservas");
-        System.out.println("7. Salir");
+        System.out.println("7. Ver Métricas");
+        System.out.println("8. Importar Pagos y Reservas (CSV)");
+        System.out.println("9. Facturación Mensual");
+        System.out.println("10. Disponibilidad de Lugares");
+        System.out.println("11. Salir");
         System.out.print("Seleccione una opción: ");
     }
 
@@ -0,0 +1,178 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Registro de métricas del sistema, sin dependencias externas:
+ * <ul>
+ *     <li>Contadores: cantidad de veces que ocurrió algo (por ejemplo, reservas rechazadas).</li>
+ *     <li>Latencias: histograma de duraciones de una operación (ver Histograma).</li>
+ *     <li>Indicadores: valores que se consultan al momento de mostrar las métricas
+ *     (por ejemplo, la cantidad de reservas vigentes).</li>
+ * </ul>
+ * Las métricas se identifican por nombre y se crean la primera vez que se usan.
+ * Hay una única instancia para todo el sistema, y todos sus métodos pueden usarse
+ * desde varios hilos; registrar un valor no usa bloqueos.
+ */
+class Metricas {
+
+    // Contadores, latencias e indicadores por nombre.
+    private final Map<String, LongAdder> contadores = new ConcurrentHashMap<>();
+    private final Map<String, Histograma> latencias = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> indicadores = new ConcurrentHashMap<>();
+
+    // Hilo que escribe el resumen periódicamente (null si no se inició).
+    private ScheduledExecutorService registroPeriodico;
+
+    /**
+     * Contenedor de la única instancia, que se crea la primera vez que se solicita.
+     */
+    private static class Instancia {
+        private static final Metricas METRICAS = new Metricas();
+    }
+
+    /**
+     * Devuelve el registro de métricas del sistema.
+     *
+     * @return Única instancia de Metricas.
+     */
+    public static Metricas global() {
+        return Instancia.METRICAS;
+    }
+
+    /**
+     * Suma uno al contador indicado.
+     *
+     * @param nombre Nombre del contador.
+     */
+    public void incrementar(String nombre) {
+        contadores.computeIfAbsent(nombre, n -> new LongAdder()).increment();
+    }
+
+    /**
+     * Registra la duración de una operación, desde el instante indicado hasta ahora.
+     *
+     * @param nombre      Nombre de la operación.
+     * @param inicioNanos Instante de inicio, obtenido con System.nanoTime().
+     */
+    public void registrarLatencia(String nombre, long inicioNanos) {
+        latencias.computeIfAbsent(nombre, n -> new Histograma()).registrar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Registra un indicador, cuyo valor se obtiene cada vez que se muestran las métricas.
+     * Si ya existía un indicador con ese nombre, se reemplaza.
+     *
+     * @param nombre Nombre del indicador.
+     * @param valor  Función que devuelve el valor actual.
+     */
+    public void registrarIndicador(String nombre, LongSupplier valor) {
+        indicadores.put(nombre, valor);
+    }
+
+    /**
+     * Devuelve el valor de un contador.
+     *
+     * @param nombre Nombre del contador.
+     * @return Valor del contador, o 0 si nunca se incrementó.
+     */
+    public long getContador(String nombre) {
+        LongAdder contador = contadores.get(nombre);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    /**
+     * Devuelve el histograma de latencias de una operación.
+     *
+     * @param nombre Nombre de la operación.
+     * @return Histograma, o null si la operación nunca se registró.
+     */
+    public Histograma getLatencia(String nombre) {
+        return latencias.get(nombre);
+    }
+
+    /**
+     * Arma un resumen de todas las métricas, una por línea y ordenadas por nombre.
+     * Las latencias se muestran en microsegundos.
+     *
+     * @return Texto del resumen.
+     */
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Contadores:\n");
+        for (Map.Entry<String, LongAdder> entrada : new TreeMap<>(contadores).entrySet()) {
+            sb.append(String.format("  %-32s %d%n", entrada.getKey(), entrada.getValue().sum()));
+        }
+        sb.append("Indicadores:\n");
+        for (Map.Entry<String, LongSupplier> entrada : new TreeMap<>(indicadores).entrySet()) {
+            sb.append(String.format("  %-32s %d%n", entrada.getKey(), entrada.getValue().getAsLong()));
+        }
+        sb.append("Latencias (us):\n");
+        sb.append(String.format("  %-32s %9s %9s %9s %9s %9s %9s%n",
+                "operación", "cantidad", "promedio", "p50", "p99", "p99.9", "máximo"));
+        for (Map.Entry<String, Histograma> entrada : new TreeMap<>(latencias).entrySet()) {
+            Histograma h = entrada.getValue();
+            sb.append(String.format("  %-32s %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n", entrada.getKey(),
+                    h.getCantidad(), h.getPromedio() / 1000, h.getPercentil(50) / 1000.0,
+                    h.getPercentil(99) / 1000.0, h.getPercentil(99.9) / 1000.0, h.getMaximo() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Arma un resumen de una sola línea, apto para un archivo de registro (log):
+     * contadores e indicadores como nombre=valor y latencias como nombre=cantidad/p50/p99 (us).
+     *
+     * @return Línea de resumen.
+     */
+    public String lineaResumen() {
+        StringBuilder sb = new StringBuilder("metricas");
+        for (Map.Entry<String, LongAdder> entrada : new TreeMap<>(contadores).entrySet()) {
+            sb.append(' ').append(entrada.getKey()).append('=').append(entrada.getValue().sum());
+        }
+        for (Map.Entry<String, LongSupplier> entrada : new TreeMap<>(indicadores).entrySet()) {
+            sb.append(' ').append(entrada.getKey()).append('=').append(entrada.getValue().getAsLong());
+        }
+        for (Map.Entry<String, Histograma> entrada : new TreeMap<>(latencias).entrySet()) {
+            Histograma h = entrada.getValue();
+            sb.append(' ').append(entrada.getKey()).append('=').append(h.getCantidad())
+                    .append('/').append(h.getPercentil(50) / 1000)
+                    .append('/').append(h.getPercentil(99) / 1000);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Entrega la línea de resumen al destino indicado cada cierto intervalo, desde un hilo
+     * en segundo plano. Si ya había un registro periódico, se reemplaza.
+     *
+     * @param periodoSeg Cada cuántos segundos se escribe la línea.
+     * @param destino    Acción que recibe cada línea (por ejemplo, System.err::println).
+     */
+    public synchronized void iniciarRegistroPeriodico(long periodoSeg, Consumer<String> destino) {
+        detenerRegistroPeriodico();
+        registroPeriodico = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "registro-metricas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        registroPeriodico.scheduleAtFixedRate(() -> destino.accept(lineaResumen()),
+                periodoSeg, periodoSeg, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Detiene el registro periódico, si estaba iniciado.
+     */
+    public synchronized void detenerRegistroPeriodico() {
+        if (registroPeriodico != null) {
+            registroPeriodico.shutdown();
+            registroPeriodico = null;
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.time.LocalDate;
+
 /**
  * Clase que representa un Pago realizado por un inquilino, asociado a una cochera.
  * Contiene información sobre el monto, la fecha, el inquilino y la cochera pagada.
@@ -7,8 +9,8 @@ class Pago {
     // Monto total del pago.
     private double monto;
 
-    // Fecha en la que se realiza el pago (generalmente en formato dd/MM/yyyy).
-    private String fecha;
+    // Fecha en la que se realiza el pago.
+    private LocalDate fecha;
 
     // Inquilino que realiza el pago.
     private Inquilino inquilino;
@@ -24,15 +26,43 @@ class Pago {
      * @param inquilino Inquilino que efectuó el pago.
      * @param cochera   Cochera por la que se está pagando.
      */
-    public Pago(double monto, String fecha, Inquilino inquilino, Cochera cochera) {
+    public Pago(double monto, LocalDate fecha, Inquilino inquilino, Cochera cochera) {
         this.monto = monto;
         this.fecha = fecha;
         this.inquilino = inquilino;
         this.cochera = cochera;
     }
 
+    /**
+     * Devuelve el monto del pago.
+     *
+     * @return Monto abonado.
+     */
+    public double getMonto() {
+        return monto;
+    }
+
+    /**
+     * Devuelve la fecha del pago.
+     *
+     * @return Fecha en la que se realizó el pago.
+     */
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Devuelve el inquilino que realizó el pago.
+     *
+     * @return Inquilino del pago.
+     */
+    public Inquilino getInquilino() {
+        return inquilino;
+    }
+
     /**
      * Devuelve la cochera asociada a este pago.
+     * Los pagos leídos del formato anterior de "pagos.txt" pueden no tener cochera (null).
      *
      * @return La cochera pagada.
      */
@@ -49,7 +79,7 @@ class Pago {
     @Override
     public String toString() {
         return "Pago por : $" + monto
-                + " | Fecha: " + fecha
+                + " | Fecha: " + Fechas.formatear(fecha)
                 + " | Inquilino: " + inquilino.getNombre() + " " + inquilino.getApellido();
     }
 }
\ No newline at end of file
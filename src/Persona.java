@@ -1,7 +1,41 @@
+import java.util.Objects;
+
 abstract class Persona {
     protected String nombre;
     protected String apellido;
-    protected String dni;
+
+    // DNI como número, o -1 si no es un número y se guarda como texto.
+    // La mayoría de los DNI son numéricos: guardarlos como long evita una cadena por persona.
+    private long dni = -1;
+
+    // DNI como texto, sólo si no es numérico (null en caso contrario).
+    private String dniTexto;
+
+    /**
+     * Inicializa la persona con sus datos; el DNI se guarda como número si es numérico.
+     *
+     * @param nombre   Nombre de la persona.
+     * @param apellido Apellido de la persona.
+     * @param dni      DNI de la persona.
+     */
+    protected Persona(String nombre, String apellido, String dni) {
+        this.nombre = nombre;
+        this.apellido = apellido;
+        asignarDni(dni);
+    }
+
+    /**
+     * Inicializa la persona con un DNI numérico.
+     *
+     * @param nombre   Nombre de la persona.
+     * @param apellido Apellido de la persona.
+     * @param dni      DNI de la persona (no negativo).
+     */
+    protected Persona(String nombre, String apellido, long dni) {
+        this.nombre = nombre;
+        this.apellido = apellido;
+        asignarDni(dni);
+    }
 
     public String getNombre() {
         return nombre;
@@ -11,7 +45,103 @@ abstract class Persona {
         return apellido;
     }
 
+    /**
+     * Devuelve el DNI como texto. Si el DNI es numérico, la cadena se crea en cada llamada.
+     *
+     * @return DNI de la persona.
+     */
     public String getDni() {
+        return dniTexto != null ? dniTexto : Long.toString(dni);
+    }
+
+    /**
+     * Devuelve el DNI como número.
+     *
+     * @return DNI de la persona, o -1 si no es numérico (ver dniNumerico).
+     */
+    public long getDniNumerico() {
         return dni;
     }
+
+    /**
+     * Asigna el DNI, guardándolo como número si es numérico.
+     *
+     * @param dni DNI de la persona.
+     */
+    private void asignarDni(String dni) {
+        long numero = dniNumerico(dni);
+        this.dni = numero;
+        this.dniTexto = numero < 0 ? dni : null;
+    }
+
+    /**
+     * Asigna un DNI numérico.
+     *
+     * @param dni DNI de la persona (no negativo).
+     */
+    private void asignarDni(long dni) {
+        this.dni = dni;
+        this.dniTexto = null;
+    }
+
+    /**
+     * Indica si la persona tiene el DNI indicado, sin crear cadenas.
+     *
+     * @param dni DNI a comparar.
+     * @return true si es el DNI de la persona.
+     */
+    public boolean tieneDni(String dni) {
+        return dniTexto != null ? dniTexto.equals(dni) : dniNumerico(dni) == this.dni;
+    }
+
+    /**
+     * Interpreta un DNI como número. Sólo se aceptan los DNI que vuelven a escribirse igual
+     * con Long.toString: de 1 a 18 dígitos, sin signo ni ceros a la izquierda.
+     *
+     * @param dni DNI a interpretar.
+     * @return El DNI como número, o -1 si no es numérico.
+     */
+    static long dniNumerico(String dni) {
+        int largo = dni.length();
+        if (largo == 0 || largo > 18 || (largo > 1 && dni.charAt(0) == '0')) {
+            return -1;
+        }
+        long numero = 0;
+        for (int i = 0; i < largo; i++) {
+            int digito = dni.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return -1;
+            }
+            numero = numero * 10 + digito;
+        }
+        return numero;
+    }
+
+    /**
+     * Dos personas del mismo tipo son iguales si tienen el mismo DNI.
+     *
+     * @param o Objeto a comparar.
+     * @return true si ambos objetos representan a la misma persona.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Persona otra = (Persona) o;
+        return dni == otra.dni && Objects.equals(dniTexto, otra.dniTexto);
+    }
+
+    /**
+     * El código hash se calcula a partir del DNI, coherente con equals.
+     *
+     * @return Código hash de la persona.
+     */
+    @Override
+    public int hashCode() {
+        return dniTexto != null ? dniTexto.hashCode() : Long.hashCode(dni);
+    }
 }
@@ -0,0 +1,250 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Ejecución no interactiva de comandos sobre un Administrador (modo por lotes).
+ * <p>
+ * Se lee un comando por línea; las líneas vacías y las que empiezan con '#' se ignoran.
+ * Los campos se separan con espacios y el nombre del comando no distingue mayúsculas:
+ * <pre>
+ *     pago DNI MONTO [dd/MM/yyyy]          (sin fecha, se usa la de hoy)
+ *     reserva DNI dd/MM/yyyy LUGAR [HH:mm HH:mm]   (PARRILLA, SUM o PILETA; sin horario, el día completo)
+ *     cancelar NRO_RESERVA
+ *     facturar [MM/yyyy]                   (sin mes, se usa el actual)
+ * </pre>
+ * Por cada comando se escribe una línea con campos separados por tabulaciones:
+ * número de línea, OK o ERROR, el comando y el resultado (la cochera pagada, el número
+ * de reserva o los totales de la facturación) o el motivo del error. Al final se escribe un resumen en una línea que
+ * empieza con '#'. La salida se escribe con un buffer, sin esperas ni confirmaciones.
+ */
+class ProcesadorComandos {
+
+    // Administrador sobre el que se ejecutan los comandos.
+    private final Administrador admin;
+
+    // Salida de los resultados.
+    private final PrintWriter salida;
+
+    // Cantidad de comandos ejecutados y de comandos con error.
+    private long comandos;
+    private long errores;
+
+    /**
+     * Crea un procesador de comandos.
+     *
+     * @param admin  Administrador sobre el que se ejecutan los comandos.
+     * @param salida Salida de los resultados (se recomienda que tenga buffer).
+     */
+    public ProcesadorComandos(Administrador admin, PrintWriter salida) {
+        this.admin = admin;
+        this.salida = salida;
+    }
+
+    /**
+     * Ejecuta todos los comandos de la entrada y escribe el resumen.
+     *
+     * @param entrada Entrada de comandos.
+     * @return Cantidad de comandos con error.
+     * @throws IOException Si ocurre un error al leer la entrada.
+     */
+    public long procesar(BufferedReader entrada) throws IOException {
+        long inicio = System.nanoTime();
+        int numeroLinea = 0;
+        String linea;
+        while ((linea = entrada.readLine()) != null) {
+            numeroLinea++;
+            String texto = linea.trim();
+            if (texto.isEmpty() || texto.charAt(0) == '#') {
+                continue;
+            }
+            ejecutar(numeroLinea, texto.split("\\s+"));
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        salida.printf("# comandos=%d ok=%d errores=%d segundos=%.3f comandos_por_segundo=%.0f%n",
+                comandos, comandos - errores, errores, segundos, segundos == 0 ? 0 : comandos / segundos);
+        salida.flush();
+        return errores;
+    }
+
+    /**
+     * Ejecuta un comando y escribe su resultado.
+     */
+    private void ejecutar(int numeroLinea, String[] campos) {
+        comandos++;
+        String comando = campos[0].toLowerCase();
+        String resultado;
+        try {
+            switch (comando) {
+                case "pago":
+                    resultado = pago(campos);
+                    break;
+                case "reserva":
+                    resultado = reserva(campos);
+                    break;
+                case "cancelar":
+                    resultado = cancelar(campos);
+                    break;
+                case "facturar":
+                    resultado = facturar(campos);
+                    break;
+                default:
+                    throw new IllegalArgumentException("comando desconocido");
+            }
+        } catch (NumberFormatException e) {
+            error(numeroLinea, comando, "número inválido");
+            return;
+        } catch (DateTimeParseException e) {
+            error(numeroLinea, comando, "fecha inválida (use dd/MM/yyyy)");
+            return;
+        } catch (IllegalArgumentException e) {
+            error(numeroLinea, comando, e.getMessage());
+            return;
+        } catch (UncheckedIOException e) {
+            error(numeroLinea, comando, "error de escritura: " + e.getCause().getMessage());
+            return;
+        }
+        salida.print(numeroLinea);
+        salida.print("\tOK\t");
+        salida.print(comando);
+        salida.print('\t');
+        salida.println(resultado);
+    }
+
+    /**
+     * Escribe la línea de un comando con error.
+     */
+    private void error(int numeroLinea, String comando, String motivo) {
+        errores++;
+        salida.print(numeroLinea);
+        salida.print("\tERROR\t");
+        salida.print(comando);
+        salida.print('\t');
+        salida.println(motivo);
+    }
+
+    /**
+     * pago DNI MONTO [dd/MM/yyyy]: registra el pago de la cochera del inquilino.
+     *
+     * @return Número de la cochera pagada.
+     */
+    private String pago(String[] campos) {
+        verificarCantidad(campos, 3, 4);
+        Inquilino inquilino = inquilino(campos[1]);
+        double monto = Double.parseDouble(campos[2]);
+        if (!(monto > 0) || Double.isInfinite(monto)) {
+            throw new IllegalArgumentException("monto inválido");
+        }
+        LocalDate fecha = campos.length == 4 ? Fechas.parsear(campos[3]) : LocalDate.now();
+        Cochera cochera = admin.getCocheraPorInquilino(inquilino);
+        if (cochera == null) {
+            throw new IllegalArgumentException("el inquilino no tiene una cochera asignada");
+        }
+        admin.registrarPago(new Pago(monto, fecha, inquilino, cochera));
+        return String.valueOf(cochera.getNumero());
+    }
+
+    /**
+     * reserva DNI dd/MM/yyyy LUGAR [HH:mm HH:mm]: reserva un lugar común, el día completo
+     * o en el horario indicado ("24:00" es el final del día).
+     *
+     * @return Número de la reserva.
+     */
+    private String reserva(String[] campos) {
+        verificarCantidad(campos, 4, 6);
+        if (campos.length == 5) {
+            throw new IllegalArgumentException("indique la hora de inicio y la de fin");
+        }
+        Inquilino inquilino = inquilino(campos[1]);
+        LocalDate fecha = Fechas.parsear(campos[2]);
+        if (fecha.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("la fecha de reserva no puede ser anterior a la fecha actual");
+        }
+        Lugar lugar;
+        try {
+            lugar = Lugar.valueOf(campos[3].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("lugar inválido (PARRILLA, SUM o PILETA)");
+        }
+        LocalTime desde = LocalTime.MIDNIGHT;
+        LocalTime hasta = LocalTime.MIDNIGHT;
+        if (campos.length == 6) {
+            try {
+                desde = Fechas.parsearHora(campos[4]);
+                hasta = Fechas.parsearHora(campos[5]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("horario inválido (use HH:mm)");
+            }
+        }
+        Reserva reserva = new Reserva(fecha, desde, hasta, inquilino, lugar);
+        if (!admin.reservarLugar(reserva)) {
+            throw new IllegalArgumentException(lugar + " ya está reservado para el " + reserva.getTurno());
+        }
+        return String.valueOf(reserva.getNroReserva());
+    }
+
+    /**
+     * cancelar NRO_RESERVA: cancela una reserva vigente.
+     *
+     * @return Número de la reserva cancelada.
+     */
+    private String cancelar(String[] campos) {
+        verificarCantidad(campos, 2, 2);
+        int nroReserva = Integer.parseInt(campos[1]);
+        if (!admin.cancelarReserva(nroReserva)) {
+            throw new IllegalArgumentException("no existe una reserva vigente con el número " + nroReserva);
+        }
+        return String.valueOf(nroReserva);
+    }
+
+    /**
+     * facturar [MM/yyyy]: ejecuta la facturación mensual del período.
+     *
+     * @return Cantidad de cocheras, pagadas, pendientes, monto recaudado y duración.
+     */
+    private String facturar(String[] campos) {
+        verificarCantidad(campos, 1, 2);
+        YearMonth periodo;
+        try {
+            periodo = campos.length == 2 ? Fechas.parsearMes(campos[1]) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("mes inválido (use MM/yyyy)");
+        }
+        FacturacionMensual.Resultado resultado;
+        try {
+            resultado = admin.facturar(periodo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return String.format("%s cocheras=%d pagadas=%d pendientes=%d recaudado=%.2f segundos=%.3f",
+                Fechas.formatearMes(periodo), resultado.getCocheras(), resultado.getPagadas(),
+                resultado.getCocheras() - resultado.getPagadas(), resultado.getRecaudadoCentavos() / 100.0,
+                resultado.getDuracionNanos() / 1e9);
+    }
+
+    /**
+     * Busca un inquilino por DNI.
+     *
+     * @throws IllegalArgumentException Si no existe.
+     */
+    private Inquilino inquilino(String dni) {
+        Inquilino inquilino = admin.getInquilinoPorDni(dni);
+        if (inquilino == null) {
+            throw new IllegalArgumentException("no existe un inquilino con DNI " + dni);
+        }
+        return inquilino;
+    }
+
+    /**
+     * Verifica la cantidad de campos del comando (incluyendo su nombre).
+     *
+     * @throws IllegalArgumentException Si la cantidad no está entre los valores indicados.
+     */
+    private static void verificarCantidad(String[] campos, int minimo, int maximo) {
+        if (campos.length < minimo || campos.length > maximo) {
+            throw new IllegalArgumentException("cantidad de campos inválida");
+        }
+    }
+}
@@ -0,0 +1,614 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de operaciones (write-ahead log) de pagos, reservas y cancelaciones.
+ * <p>
+ * Antes de aplicar una operación sobre los archivos de datos, se agrega al final de este
+ * registro y se fuerza a disco. Cada entrada guarda el registro (pago, reserva o baja) en el
+ * formato binario de CodecRegistros y la posición (en bytes) en la que debe quedar su línea
+ * dentro del archivo de datos; las entradas de pago guardan además el número de la cochera
+ * que se marca como pagada. Al recuperar, la línea se arma a partir del registro.
+ * <p>
+ * La escritura de una entrada (anotar) y la espera de que llegue a disco (esperarEnDisco)
+ * están separadas: la entrada se anota mientras se tiene el bloqueo del archivo de datos,
+ * para que su posición sea la de la línea, y se espera después de soltarlo. Las esperas se
+ * agrupan: un hilo fuerza el registro a disco y con eso confirma todas las entradas anotadas
+ * hasta ese momento, mientras los demás esperan a que termine. Los archivos de datos invocan
+ * forzar() antes de escribir sus líneas, de modo que ninguna línea llega a un archivo de datos
+ * antes que su entrada. Si una escritura forzada falla, el registro deja de aceptar entradas
+ * y no se vacía: las que no se confirmaron se resuelven al recuperar, en el próximo inicio.
+ * La cantidad de escrituras forzadas se registra en Metricas ("operaciones.escriturasForzadas").
+ * <p>
+ * Al iniciar el sistema, recuperar() vuelve a aplicar las entradas cuya línea no llegó
+ * completa a su archivo y vuelve a marcar las cocheras pagadas, de modo que una interrupción
+ * entre la escritura del pago y la de la cochera no deja los archivos inconsistentes.
+ * <p>
+ * Periódicamente se hace un punto de control: se fuerzan a disco los archivos de datos
+ * (y se exporta el CSV de cocheras con un reemplazo atómico) y el registro se vacía.
+ * Las operaciones toman el bloqueo compartido y el punto de control el exclusivo, por lo
+ * que ninguna operación queda a medio registrar mientras se vacía el registro.
+ * <p>
+ * Formato de una entrada: largo (4 bytes), CRC32 (4 bytes), tipo (1 byte, los de
+ * CodecRegistros), posición en el archivo de datos (8 bytes), número de cochera
+ * (4 bytes, -1 si no corresponde) y el registro binario. Las entradas escritas por
+ * versiones anteriores guardan en su lugar la línea en UTF-8; se distinguen porque el
+ * registro binario empieza con su largo, cuyo primer byte es 0. Una entrada incompleta
+ * o con un CRC que no coincide marca el final del registro.
+ * <p>
+ * Varias operaciones pueden registrarse juntas como un lote (ver Lote), con una única
+ * escritura forzada a disco: el lote empieza con una entrada de encabezado que indica
+ * cuántas entradas lo forman, y al recuperar se aplica completo o no se aplica.
+ */
+class RegistroOperaciones implements Closeable {
+
+    // Cada cuántos segundos se revisa si hace falta un punto de control.
+    private static final long PERIODO_PUNTO_DE_CONTROL_SEG = 60;
+
+    // Tamaño de los campos que preceden a la línea: largo + CRC.
+    private static final int TAM_PREFIJO = 8;
+
+    // Tamaño de los campos fijos cubiertos por el CRC: tipo + posición + cochera.
+    private static final int TAM_CAMPOS = 1 + 8 + 4;
+
+    // Tipo de la entrada de encabezado de un lote; su posición indica la cantidad de entradas del lote.
+    private static final byte TIPO_LOTE = 'L';
+
+    // Tamaño máximo de una entrada: los campos fijos y un registro con textos de hasta 64 KB.
+    private static final int TAM_MAX_ENTRADA = 128 * 1024;
+
+    // Salto de línea de los archivos de datos, en UTF-8.
+    private static final byte[] SEPARADOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Acción sobre los archivos que puede fallar con un error de lectura/escritura.
+     */
+    interface Operacion {
+        void ejecutar() throws IOException;
+    }
+
+    /**
+     * Conjunto de entradas que se registran con una única escritura forzada a disco
+     * y que, al recuperar, se aplican todas o ninguna. Se arma en memoria y se escribe
+     * con registrar(Lote); no es seguro para ser usado desde varios hilos.
+     */
+    static class Lote {
+
+        // Entradas del lote, ya codificadas.
+        private final ByteArrayOutputStream entradas = new ByteArrayOutputStream();
+
+        // Buffer reutilizado para codificar cada entrada, y su CRC.
+        private final ByteBuffer entrada = ByteBuffer.allocate(TAM_MAX_ENTRADA);
+        private final CRC32 crc = new CRC32();
+
+        // Cantidad de entradas del lote.
+        private int cantidad;
+
+        /**
+         * Agrega una entrada al lote.
+         *
+         * @param desplazamiento Posición de la línea dentro del archivo de datos.
+         * @param numeroCochera  Número de la cochera que se marca como pagada, o -1 si no corresponde.
+         * @param linea          Línea que se agregará al archivo de datos.
+         * @param registro       Escribe el registro de la línea en formato binario (ver CodecRegistros).
+         * @return Posición que sigue a la línea (y su salto de línea) en el archivo de datos.
+         */
+        public long agregar(long desplazamiento, int numeroCochera, String linea, Consumer<ByteBuffer> registro) {
+            codificar(entrada, crc, (byte) 0, desplazamiento, numeroCochera, registro);
+            entradas.write(entrada.array(), 0, entrada.limit());
+            cantidad++;
+            return desplazamiento + linea.getBytes(StandardCharsets.UTF_8).length + SEPARADOR.length;
+        }
+
+        /**
+         * Devuelve la cantidad de entradas del lote.
+         *
+         * @return Cantidad de entradas.
+         */
+        public int getCantidad() {
+            return cantidad;
+        }
+    }
+
+    // Canal del registro; las entradas se escriben siempre al final.
+    private final FileChannel canal;
+
+    // Archivos de datos a los que se aplican los pagos y las reservas.
+    private final Path archivoPagos;
+    private final Path archivoReservas;
+
+    // Acción que fuerza a disco los archivos de datos durante un punto de control.
+    private final Operacion sincronizarDatos;
+
+    // Bloqueo compartido por las operaciones y exclusivo para los puntos de control.
+    private final ReadWriteLock bloqueo;
+
+    // Bloqueo de las escrituras en el canal. Es un ReentrantLock y no un bloque synchronized
+    // para que un hilo virtual que espera un punto de control no retenga su hilo portador.
+    private final Lock escritura = new ReentrantLock();
+
+    // Cantidad de entradas escritas en el canal desde que se abrió el registro (se modifica
+    // bajo el bloqueo de escritura). Sirve como número de secuencia de cada entrada.
+    private volatile long anotadas;
+
+    // Bloqueo y condición de las escrituras forzadas a disco agrupadas.
+    private final Lock forzado = new ReentrantLock();
+    private final Condition enDisco = forzado.newCondition();
+
+    // Cantidad de entradas que ya están en disco, si hay un hilo forzando el registro
+    // y el error de la escritura forzada que falló (null si ninguna falló).
+    // Se protegen con el bloqueo de las escrituras forzadas.
+    private long confirmadas;
+    private boolean forzando;
+    private IOException falla;
+
+    // Registro de métricas del sistema.
+    private final Metricas metricas = Metricas.global();
+
+    // Buffer reutilizado para codificar cada entrada, y su CRC (se usan bajo el bloqueo de escritura).
+    private final ByteBuffer entrada = ByteBuffer.allocate(TAM_MAX_ENTRADA);
+    private final CRC32 crc = new CRC32();
+
+    // Hilo en segundo plano que hace los puntos de control periódicos.
+    private final ScheduledExecutorService temporizador;
+
+    /**
+     * Abre (o crea) el registro de operaciones e inicia los puntos de control periódicos.
+     * Antes de aplicar nuevas operaciones debe invocarse recuperar().
+     *
+     * @param archivo          Ruta del registro de operaciones.
+     * @param archivoPagos     Ruta del archivo de pagos.
+     * @param archivoReservas  Ruta del archivo de reservas.
+     * @param sincronizarDatos Acción que fuerza a disco los archivos de datos.
+     * @throws IOException Si no se puede abrir el registro.
+     */
+    public RegistroOperaciones(String archivo, String archivoPagos, String archivoReservas,
+                               Operacion sincronizarDatos) throws IOException {
+        this.canal = FileChannel.open(Paths.get(archivo),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        canal.position(canal.size());
+        this.archivoPagos = Paths.get(archivoPagos);
+        this.archivoReservas = Paths.get(archivoReservas);
+        this.sincronizarDatos = sincronizarDatos;
+        this.bloqueo = new ReentrantReadWriteLock();
+
+        this.temporizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "punto-de-control");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        temporizador.scheduleWithFixedDelay(this::puntoDeControlSiHaceFalta,
+                PERIODO_PUNTO_DE_CONTROL_SEG, PERIODO_PUNTO_DE_CONTROL_SEG, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Vuelve a aplicar las entradas del registro que no llegaron a sus archivos de datos.
+     * Debe invocarse al iniciar, antes de abrir los archivos de datos para escribir y de cargarlos.
+     * Aplicar una entrada dos veces no tiene efecto, por lo que una recuperación interrumpida
+     * puede repetirse.
+     *
+     * @param archivoCocheras Almacén de cocheras donde se marcan las cocheras pagadas (puede ser null).
+     * @return Cantidad de entradas que debieron volver a aplicarse.
+     * @throws IOException Si ocurre un error al leer el registro o al escribir los archivos de datos.
+     */
+    public int recuperar(ArchivoCocheras archivoCocheras) throws IOException {
+        ByteBuffer contenido = ByteBuffer.allocate((int) canal.size());
+        while (contenido.hasRemaining() && canal.read(contenido, contenido.position()) >= 0) {
+            // Se lee el registro completo.
+        }
+        contenido.flip();
+
+        int reaplicadas = 0;
+        CRC32 crc = new CRC32();
+        while (contenido.remaining() >= TAM_PREFIJO) {
+            int largo = contenido.getInt();
+            int crcEsperado = contenido.getInt();
+            if (largo < TAM_CAMPOS || contenido.remaining() < largo) {
+                break; // Entrada incompleta: la escritura se interrumpió.
+            }
+            crc.reset();
+            crc.update(contenido.slice(contenido.position(), largo));
+            if ((int) crc.getValue() != crcEsperado) {
+                break; // Entrada dañada: se descarta junto con lo que sigue.
+            }
+
+            byte tipo = contenido.get();
+            long desplazamiento = contenido.getLong();
+            int numeroCochera = contenido.getInt();
+            byte[] registro = new byte[largo - TAM_CAMPOS];
+            contenido.get(registro);
+
+            if (tipo == TIPO_LOTE) {
+                // Un lote se aplica sólo si todas sus entradas llegaron completas.
+                if (!loteCompleto(contenido.slice(), desplazamiento, crc)) {
+                    break;
+                }
+                continue;
+            }
+
+            byte[] linea;
+            try {
+                linea = lineaDeEntrada(registro);
+            } catch (RuntimeException e) {
+                System.out.println("Error: entrada ilegible en el registro de operaciones: " + e.getMessage());
+                break;
+            }
+            Path destino = tipo == CodecRegistros.TIPO_PAGO ? archivoPagos : archivoReservas;
+            if (rehacer(destino, desplazamiento, linea)) {
+                reaplicadas++;
+            }
+            if (numeroCochera >= 0 && archivoCocheras != null) {
+                archivoCocheras.actualizarEstadoPago(numeroCochera, true);
+            }
+        }
+        return reaplicadas;
+    }
+
+    /**
+     * Devuelve la línea (en UTF-8) que corresponde al registro de una entrada. Las entradas de
+     * versiones anteriores guardan directamente la línea, que no empieza con el byte 0.
+     */
+    private static byte[] lineaDeEntrada(byte[] registro) {
+        if (registro.length == 0 || registro[0] != 0) {
+            return registro;
+        }
+        return CodecRegistros.lineaDesdeBinario(ByteBuffer.wrap(registro)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Verifica que el contenido empiece con la cantidad indicada de entradas completas y con CRC válido.
+     */
+    private static boolean loteCompleto(ByteBuffer contenido, long cantidad, CRC32 crc) {
+        for (long i = 0; i < cantidad; i++) {
+            if (contenido.remaining() < TAM_PREFIJO) {
+                return false;
+            }
+            int largo = contenido.getInt();
+            int crcEsperado = contenido.getInt();
+            if (largo < TAM_CAMPOS || contenido.remaining() < largo) {
+                return false;
+            }
+            crc.reset();
+            crc.update(contenido.slice(contenido.position(), largo));
+            if ((int) crc.getValue() != crcEsperado) {
+                return false;
+            }
+            contenido.position(contenido.position() + largo);
+        }
+        return true;
+    }
+
+    /**
+     * Escribe la línea en la posición indicada del archivo de datos si no está completa.
+     *
+     * @return true si hubo que escribirla.
+     */
+    private static boolean rehacer(Path destino, long desplazamiento, byte[] linea) throws IOException {
+        try (FileChannel datos = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long tamanio = datos.size();
+            if (tamanio >= desplazamiento + linea.length + SEPARADOR.length) {
+                return false;
+            }
+            if (tamanio < desplazamiento) {
+                // Faltan datos anteriores a la línea: se agrega al final para no dejar un hueco.
+                System.out.println("Error: el archivo " + destino + " es más corto de lo esperado.");
+                desplazamiento = tamanio;
+            }
+            // Se descarta la parte de la línea que haya quedado escrita a medias.
+            datos.truncate(desplazamiento);
+            ByteBuffer buffer = ByteBuffer.allocate(linea.length + SEPARADOR.length).put(linea).put(SEPARADOR).flip();
+            while (buffer.hasRemaining()) {
+                desplazamiento += datos.write(buffer, desplazamiento);
+            }
+            datos.force(false);
+            return true;
+        }
+    }
+
+    /**
+     * Ejecuta una operación con el bloqueo compartido: dentro de ella deben invocarse
+     * registrar() y la escritura en el archivo de datos.
+     *
+     * @param operacion Operación a ejecutar.
+     * @throws IOException Si la operación falla.
+     */
+    public void ejecutar(Operacion operacion) throws IOException {
+        bloqueo.readLock().lock();
+        try {
+            operacion.ejecutar();
+        } finally {
+            bloqueo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una acción con el bloqueo exclusivo, sin operaciones en curso; por ejemplo,
+     * para leer un archivo de datos sabiendo que ninguna línea se está agregando.
+     * No debe invocarse desde dentro de ejecutar().
+     *
+     * @param accion Acción a ejecutar.
+     * @throws IOException Si la acción falla.
+     */
+    public void ejecutarExclusiva(Operacion accion) throws IOException {
+        bloqueo.writeLock().lock();
+        try {
+            accion.ejecutar();
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Agrega una entrada al registro y la fuerza a disco (ver anotar y esperarEnDisco).
+     *
+     * @param desplazamiento Posición de la línea dentro del archivo de datos.
+     * @param numeroCochera  Número de la cochera que se marca como pagada, o -1 si no corresponde.
+     * @param registro       Escribe el registro de la línea en formato binario (ver CodecRegistros).
+     * @throws UncheckedIOException Si no se pudo escribir el registro; en ese caso la operación no debe aplicarse.
+     */
+    public void registrar(long desplazamiento, int numeroCochera, Consumer<ByteBuffer> registro) {
+        long secuencia = anotar(desplazamiento, numeroCochera, registro);
+        try {
+            esperarEnDisco(secuencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Agrega una entrada al final del registro, sin esperar a que llegue a disco. Se invoca
+     * con la posición que informa GestorArchivo justo antes de guardar la línea en el archivo
+     * de datos; antes de dar la operación por aplicada debe invocarse esperarEnDisco().
+     * El registro se escribe en un buffer reutilizado, con el bloqueo de escritura tomado.
+     *
+     * @param desplazamiento Posición de la línea dentro del archivo de datos.
+     * @param numeroCochera  Número de la cochera que se marca como pagada, o -1 si no corresponde.
+     * @param registro       Escribe el registro de la línea en formato binario (ver CodecRegistros).
+     * @return Número de secuencia de la entrada, para esperarEnDisco().
+     * @throws UncheckedIOException Si no se pudo escribir el registro; en ese caso la línea no debe guardarse.
+     */
+    public long anotar(long desplazamiento, int numeroCochera, Consumer<ByteBuffer> registro) {
+        escritura.lock();
+        try {
+            verificarSinFallas();
+            codificar(entrada, crc, (byte) 0, desplazamiento, numeroCochera, registro);
+            while (entrada.hasRemaining()) {
+                canal.write(entrada);
+            }
+            return ++anotadas;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Espera a que la entrada indicada (y todas las anteriores) estén en disco. Si ningún otro
+     * hilo está forzando el registro, lo fuerza este hilo; si no, espera a que termine y, si
+     * la entrada no quedó incluida, lo vuelve a intentar. Así, las operaciones que se anotan
+     * mientras se fuerza el registro comparten la siguiente escritura forzada.
+     *
+     * @param secuencia Número de secuencia devuelto por anotar().
+     * @throws IOException Si no se pudo forzar el registro a disco.
+     */
+    public void esperarEnDisco(long secuencia) throws IOException {
+        forzado.lock();
+        try {
+            while (forzando && confirmadas < secuencia && falla == null) {
+                enDisco.awaitUninterruptibly();
+            }
+            if (falla != null) {
+                throw new IOException("No se pudo forzar a disco el registro de operaciones.", falla);
+            }
+            if (confirmadas >= secuencia) {
+                return;
+            }
+            forzando = true;
+        } finally {
+            forzado.unlock();
+        }
+
+        // Se fuerza sin el bloqueo tomado, para que otros hilos puedan anotar y sumarse a la espera.
+        // Quedan confirmadas las entradas escritas antes de empezar.
+        long hasta = anotadas;
+        IOException error = null;
+        try {
+            canal.force(false);
+            metricas.incrementar("operaciones.escriturasForzadas");
+        } catch (IOException e) {
+            error = e;
+        }
+
+        forzado.lock();
+        try {
+            forzando = false;
+            if (error != null) {
+                falla = error;
+            } else {
+                confirmadas = Math.max(confirmadas, hasta);
+            }
+            enDisco.signalAll();
+        } finally {
+            forzado.unlock();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Espera a que todas las entradas anotadas hasta el momento estén en disco. Se invoca
+     * antes de escribir líneas en los archivos de datos.
+     *
+     * @throws IOException Si no se pudo forzar el registro a disco.
+     */
+    public void forzar() throws IOException {
+        esperarEnDisco(anotadas);
+    }
+
+    /**
+     * Deja el registro como si una escritura forzada hubiera fallado: no acepta más entradas
+     * ni se vacía en los puntos de control, de modo que las operaciones ya registradas que no
+     * llegaron a sus archivos de datos se apliquen al recuperar, en el próximo inicio.
+     *
+     * @param causa Error que impidió aplicar las operaciones registradas.
+     */
+    public void marcarFalla(IOException causa) {
+        forzado.lock();
+        try {
+            if (falla == null) {
+                falla = causa;
+            }
+            enDisco.signalAll();
+        } finally {
+            forzado.unlock();
+        }
+    }
+
+    /**
+     * Lanza una excepción si alguna escritura forzada falló (o se marcó una falla).
+     */
+    private void verificarSinFallas() throws IOException {
+        forzado.lock();
+        try {
+            if (falla != null) {
+                throw new IOException("No se pudo forzar a disco el registro de operaciones.", falla);
+            }
+        } finally {
+            forzado.unlock();
+        }
+    }
+
+    /**
+     * Agrega al registro todas las entradas de un lote, precedidas por su encabezado,
+     * y las fuerza a disco con una única operación. Se invoca antes de escribir las
+     * líneas del lote en los archivos de datos, con el bloqueo exclusivo tomado
+     * (ver ejecutarExclusiva), ya que las posiciones del lote se calculan de antemano.
+     *
+     * @param lote Lote a registrar.
+     * @throws IOException Si no se pudo escribir el registro; en ese caso el lote no debe aplicarse.
+     */
+    public void registrar(Lote lote) throws IOException {
+        ByteBuffer entradas = ByteBuffer.wrap(lote.entradas.toByteArray());
+        long secuencia;
+        escritura.lock();
+        try {
+            verificarSinFallas();
+            codificar(entrada, crc, TIPO_LOTE, lote.cantidad, -1, null);
+            while (entrada.hasRemaining()) {
+                canal.write(entrada);
+            }
+            while (entradas.hasRemaining()) {
+                canal.write(entradas);
+            }
+            secuencia = ++anotadas;
+        } finally {
+            escritura.unlock();
+        }
+        esperarEnDisco(secuencia);
+    }
+
+    /**
+     * Codifica una entrada del registro en el buffer indicado (largo, CRC y los campos) y lo deja
+     * listo para escribirse. Si hay un registro, el tipo de la entrada es el del registro.
+     */
+    private static void codificar(ByteBuffer entrada, CRC32 crc, byte tipo, long desplazamiento,
+                                  int numeroCochera, Consumer<ByteBuffer> registro) {
+        entrada.clear();
+        entrada.putInt(0).putInt(0).put(tipo).putLong(desplazamiento).putInt(numeroCochera);
+        if (registro != null) {
+            int inicio = entrada.position();
+            registro.accept(entrada);
+            entrada.put(TAM_PREFIJO, CodecRegistros.tipoSiguiente(entrada.duplicate().position(inicio)));
+        }
+        int largo = entrada.position() - TAM_PREFIJO;
+        crc.reset();
+        crc.update(entrada.array(), TAM_PREFIJO, largo);
+        entrada.putInt(0, largo).putInt(4, (int) crc.getValue()).flip();
+    }
+
+    /**
+     * Hace un punto de control: fuerza a disco los archivos de datos y vacía el registro.
+     *
+     * @param tareaExclusiva Acción que se ejecuta después de vaciar el registro, sin operaciones
+     *                       en curso (por ejemplo, reemplazar un archivo de datos); puede ser null.
+     * @throws IOException Si falla la sincronización (el registro no se vacía) o la tarea, o si
+     *                     una falla anterior impide vaciar el registro (ver marcarFalla).
+     */
+    public void puntoDeControl(Operacion tareaExclusiva) throws IOException {
+        bloqueo.writeLock().lock();
+        try {
+            verificarSinFallas();
+            sincronizarDatos.ejecutar();
+            escritura.lock();
+            try {
+                canal.truncate(0);
+                canal.force(true);
+                confirmarTodas();
+            } finally {
+                escritura.unlock();
+            }
+            // Las posiciones registradas ya no se necesitan, por lo que la tarea puede reescribir los archivos.
+            if (tareaExclusiva != null) {
+                tareaExclusiva.ejecutar();
+            }
+        } finally {
+            bloqueo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Da por confirmadas todas las entradas anotadas, tras vaciar el registro.
+     */
+    private void confirmarTodas() {
+        forzado.lock();
+        try {
+            confirmadas = Math.max(confirmadas, anotadas);
+            enDisco.signalAll();
+        } finally {
+            forzado.unlock();
+        }
+    }
+
+    /**
+     * Hace un punto de control si el registro tiene entradas (tarea periódica).
+     */
+    private void puntoDeControlSiHaceFalta() {
+        try {
+            if (canal.size() > 0) {
+                puntoDeControl(null);
+            }
+        } catch (IOException e) {
+            System.out.println("Error en el punto de control: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detiene los puntos de control periódicos, hace uno final y cierra el registro.
+     *
+     * @throws IOException Si ocurre un error en el punto de control o al cerrar el canal.
+     */
+    @Override
+    public void close() throws IOException {
+        temporizador.shutdown();
+        try {
+            puntoDeControl(null);
+        } finally {
+            canal.close();
+        }
+    }
+}
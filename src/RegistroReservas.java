@@ -0,0 +1,368 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Registro de reservas vigentes, mantenido en memoria y respaldado por un archivo
+ * de sólo agregado (append-only).
+ * <p>
+ * Cada reserva nueva se agrega al final del archivo y cada cancelación se registra
+ * agregando una línea de baja, sin reescribir el archivo. Las líneas se escriben y
+ * se leen con CodecRegistros, y cada una se anota antes en el registro de operaciones.
+ * Periódicamente, un hilo en segundo plano compacta el archivo dejando sólo las
+ * reservas vigentes, fuera del camino de las operaciones de los usuarios. El reemplazo
+ * del archivo se hace dentro de un punto de control del registro de operaciones.
+ * <p>
+ * El bloqueo del registro es un ReentrantLock y no un bloque synchronized: bajo él se
+ * anota cada línea en el registro de operaciones, que la fuerza a disco, y un hilo virtual
+ * que espera esa escritura no debe retener su hilo portador.
+ */
+class RegistroReservas implements Closeable {
+
+    // Cada cuántos segundos se revisa si hace falta compactar el archivo.
+    private static final long PERIODO_COMPACTACION_SEG = 60;
+
+    // Archivo de reservas.
+    private final Path archivo;
+
+    // Codec para escribir y leer las líneas del archivo.
+    private final CodecRegistros codec;
+
+    // Gestor que mantiene abierto el archivo para agregar líneas.
+    private final GestorArchivo gestorArchivo;
+
+    // Registro de operaciones donde se anota cada línea antes de agregarla al archivo.
+    private final RegistroOperaciones operaciones;
+
+    // Reservas vigentes, indexadas por número de reserva (en orden de alta).
+    private final Map<Integer, Reserva> reservas;
+
+    // Bloqueo que protege las reservas, el contador de bajas y las líneas de la compactación.
+    private final Lock bloqueo = new ReentrantLock();
+
+    // Cantidad de líneas de baja presentes en el archivo desde la última compactación.
+    private int bajas;
+
+    // Mayor número de reserva leído del archivo al cargarlo (de altas o de bajas).
+    private int mayorNroReserva;
+
+    // Líneas agregadas mientras hay una compactación en curso (null si no hay ninguna).
+    private List<String> agregadasDuranteCompactacion;
+
+    // Hilo en segundo plano que compacta el archivo periódicamente.
+    private final ScheduledExecutorService compactador;
+
+    /**
+     * Crea el registro cargando las reservas vigentes desde el archivo indicado
+     * e inicia la compactación periódica en segundo plano.
+     *
+     * @param archivo       Ruta del archivo de reservas.
+     * @param codec         Codec para escribir y leer las líneas del archivo.
+     * @param gestorArchivo Gestor usado para agregar líneas al archivo.
+     * @param operaciones   Registro de operaciones, ya recuperado.
+     */
+    public RegistroReservas(String archivo, CodecRegistros codec, GestorArchivo gestorArchivo,
+                            RegistroOperaciones operaciones) {
+        this.archivo = Paths.get(archivo);
+        this.codec = codec;
+        this.gestorArchivo = gestorArchivo;
+        this.operaciones = operaciones;
+        this.reservas = new LinkedHashMap<>();
+        cargar();
+
+        this.compactador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "compactador-reservas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        compactador.scheduleWithFixedDelay(this::compactarSiHaceFalta,
+                PERIODO_COMPACTACION_SEG, PERIODO_COMPACTACION_SEG, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Lee el archivo de reservas aplicando, en orden, las altas y las bajas.
+     * Las líneas inválidas se informan y se omiten.
+     */
+    private void cargar() {
+        try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                try {
+                    byte tipo = CodecRegistros.tipoDeLinea(linea);
+                    if (tipo == CodecRegistros.TIPO_BAJA_RESERVA) {
+                        int nroReserva = codec.bajaDesdeLinea(linea);
+                        reservas.remove(nroReserva);
+                        mayorNroReserva = Math.max(mayorNroReserva, nroReserva);
+                        bajas++;
+                    } else if (tipo == CodecRegistros.TIPO_RESERVA) {
+                        Reserva reserva = codec.reservaDesdeLinea(linea);
+                        reservas.put(reserva.getNroReserva(), reserva);
+                        mayorNroReserva = Math.max(mayorNroReserva, reserva.getNroReserva());
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Error: línea de reserva inválida: " + linea);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Si todavía no hay reservas, el registro empieza vacío.
+        } catch (IOException e) {
+            System.out.println("Error al leer el archivo de reservas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Agrega una reserva al registro y la escribe al final del archivo.
+     *
+     * @param reserva Reserva a agregar.
+     * @throws UncheckedIOException Si no se pudo registrar la operación; la reserva no se agrega.
+     */
+    public void agregar(Reserva reserva) {
+        bloqueo.lock();
+        try {
+            escribirLinea(codec.aCsv(reserva), destino -> codec.codificar(reserva, destino));
+            reservas.put(reserva.getNroReserva(), reserva);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Agrega una reserva cuya línea ya fue anotada en el registro de operaciones como parte
+     * de un lote (ver RegistroOperaciones.Lote), y la escribe al final del archivo.
+     *
+     * @param reserva Reserva a agregar.
+     * @param linea   Línea de la reserva, tal como fue anotada.
+     * @throws IOException Si no se pudo escribir la línea; la reserva no se agrega, y la línea
+     *                     se vuelve a aplicar desde el registro de operaciones al iniciar.
+     */
+    public void agregarRegistrada(Reserva reserva, String linea) throws IOException {
+        bloqueo.lock();
+        try {
+            gestorArchivo.agregarEnArchivo(archivo.toString(), linea);
+            if (agregadasDuranteCompactacion != null) {
+                agregadasDuranteCompactacion.add(linea);
+            }
+            reservas.put(reserva.getNroReserva(), reserva);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Cancela una reserva vigente. La baja se registra agregando una línea al archivo.
+     *
+     * @param nroReserva Número de la reserva a cancelar.
+     * @return La reserva cancelada, o null si no existía una reserva vigente con ese número.
+     * @throws UncheckedIOException Si no se pudo registrar la operación; la reserva sigue vigente.
+     */
+    public Reserva cancelar(int nroReserva) {
+        bloqueo.lock();
+        try {
+            Reserva reserva = reservas.get(nroReserva);
+            if (reserva == null) {
+                return null;
+            }
+            escribirLinea(codec.aCsvBaja(nroReserva), destino -> codec.codificarBaja(nroReserva, destino));
+            reservas.remove(nroReserva);
+            bajas++;
+            return reserva;
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Busca una reserva vigente por su número.
+     *
+     * @param nroReserva Número de la reserva.
+     * @return La reserva, o null si no existe o fue cancelada.
+     */
+    public Reserva buscar(int nroReserva) {
+        bloqueo.lock();
+        try {
+            return reservas.get(nroReserva);
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Devuelve el archivo de reservas.
+     *
+     * @return Ruta del archivo de reservas.
+     */
+    public String getArchivo() {
+        return archivo.toString();
+    }
+
+    /**
+     * Devuelve una copia de las reservas vigentes, en orden de alta.
+     *
+     * @return Lista de reservas vigentes.
+     */
+    public List<Reserva> getReservas() {
+        bloqueo.lock();
+        try {
+            return new ArrayList<>(reservas.values());
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Devuelve el mayor número de reserva que había en el archivo al cargarlo, incluidas
+     * las reservas ya canceladas que todavía no se compactaron.
+     *
+     * @return Mayor número de reserva leído (0 si el archivo no tenía reservas).
+     */
+    public int getMayorNroReserva() {
+        return mayorNroReserva;
+    }
+
+    /**
+     * Devuelve la cantidad de reservas vigentes.
+     *
+     * @return Cantidad de reservas vigentes.
+     */
+    public int getCantidad() {
+        bloqueo.lock();
+        try {
+            return reservas.size();
+        } finally {
+            bloqueo.unlock();
+        }
+    }
+
+    /**
+     * Devuelve el bloqueo del registro, para quien deba agregar varias reservas junto con otras
+     * operaciones sin que se intercale una compactación (ver Administrador.importarCsv). Se toma
+     * antes que el bloqueo del registro de operaciones.
+     *
+     * @return Bloqueo del registro de reservas.
+     */
+    public Lock getBloqueo() {
+        return bloqueo;
+    }
+
+    /**
+     * Anota el registro de la línea en el registro de operaciones y agrega la línea al archivo,
+     * recordándola también si hay una compactación en curso.
+     */
+    private void escribirLinea(String linea, Consumer<ByteBuffer> registro) {
+        try {
+            operaciones.ejecutar(() -> {
+                long[] secuencia = new long[1];
+                gestorArchivo.guardarEnArchivo(archivo.toString(), linea,
+                        desplazamiento -> secuencia[0] = operaciones.anotar(desplazamiento, -1, registro));
+                operaciones.esperarEnDisco(secuencia[0]);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (agregadasDuranteCompactacion != null) {
+            agregadasDuranteCompactacion.add(linea);
+        }
+    }
+
+    /**
+     * Compacta el archivo si contiene líneas de baja.
+     */
+    private void compactarSiHaceFalta() {
+        bloqueo.lock();
+        try {
+            if (bajas == 0 || agregadasDuranteCompactacion != null) {
+                return;
+            }
+        } finally {
+            bloqueo.unlock();
+        }
+        try {
+            compactar();
+        } catch (IOException e) {
+            System.out.println("Error al compactar el archivo de reservas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reescribe el archivo con las reservas vigentes. La copia se toma bajo el bloqueo,
+     * pero la escritura del archivo temporal se hace fuera de él; las líneas agregadas
+     * mientras tanto se suman al final antes de reemplazar el archivo original.
+     */
+    private void compactar() throws IOException {
+        List<Reserva> vigentes;
+        bloqueo.lock();
+        try {
+            vigentes = new ArrayList<>(reservas.values());
+            agregadasDuranteCompactacion = new ArrayList<>();
+        } finally {
+            bloqueo.unlock();
+        }
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter bw = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+                for (Reserva reserva : vigentes) {
+                    bw.write(codec.aCsv(reserva));
+                    bw.newLine();
+                }
+            }
+
+            bloqueo.lock();
+            try {
+                int bajasPendientes = 0;
+                try (FileOutputStream fos = new FileOutputStream(temporal.toFile(), true);
+                     BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+                    for (String linea : agregadasDuranteCompactacion) {
+                        bw.write(linea);
+                        bw.newLine();
+                        if (CodecRegistros.tipoDeLinea(linea) == CodecRegistros.TIPO_BAJA_RESERVA) {
+                            bajasPendientes++;
+                        }
+                    }
+                    bw.flush();
+                    fos.getFD().sync();
+                }
+                // Las entradas del registro de operaciones apuntan a posiciones del archivo anterior,
+                // por lo que el reemplazo se hace dentro de un punto de control, con el registro ya vacío.
+                operaciones.puntoDeControl(() -> {
+                    // El escritor abierto apunta al archivo anterior: se cierra antes de reemplazarlo.
+                    gestorArchivo.cerrarArchivo(archivo.toString());
+                    Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                });
+                bajas = bajasPendientes;
+            } finally {
+                bloqueo.unlock();
+            }
+        } finally {
+            bloqueo.lock();
+            try {
+                agregadasDuranteCompactacion = null;
+            } finally {
+                bloqueo.unlock();
+            }
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Detiene la compactación periódica y compacta el archivo por última vez si hace falta.
+     */
+    @Override
+    public void close() {
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(PERIODO_COMPACTACION_SEG, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactarSiHaceFalta();
+    }
+}
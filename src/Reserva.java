@@ -1,16 +1,23 @@
-import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 
 /**
  * Clase que representa una Reserva, identificada por un número único, fecha,
  * el inquilino que la realiza y el lugar reservado.
+ * <p>
+ * La reserva ocupa un horario dentro de su fecha, desde la hora de inicio (incluida) hasta la
+ * de fin (excluida), con precisión de minutos. Una hora de fin igual a medianoche (00:00)
+ * indica el final del día; las reservas sin horario ocupan el día completo (00:00 a 24:00).
  */
 class Reserva {
 
-    // Número de la reserva (se asigna automáticamente a partir del último número registrado).
+    // Número de la reserva (0 hasta que el Administrador la registra y le asigna uno de la secuencia de reservas).
     private int nroReserva;
 
-    // Fecha en la que se realiza la reserva (formato manejado externamente).
-    private String fecha;
+    // Fecha para la que se realiza la reserva.
+    private LocalDate fecha;
 
     // Inquilino que realiza la reserva.
     private Inquilino inquilino;
@@ -18,65 +25,221 @@ class Reserva {
     // Lugar que se ha reservado (por ejemplo, PARRILLA, SUM, PILETA).
     private Lugar lugar;
 
+    // Horario reservado dentro de la fecha: desde (incluida) y hasta (excluida; 00:00 es fin del día).
+    private LocalTime desde;
+    private LocalTime hasta;
+
     /**
-     * Constructor de la clase Reserva. Asigna el número de reserva tomando
-     * como base el último número en el archivo "reservas.txt".
+     * Constructor de la clase Reserva. La reserva no tiene número hasta que se registra
+     * (ver Administrador.reservarLugar).
      *
-     * @param fecha      Cadena que representa la fecha de la reserva.
+     * @param fecha      Fecha de la reserva.
      * @param inquilino  Inquilino que realiza la reserva.
      * @param lugar      Lugar a reservar.
      */
-    public Reserva(String fecha, Inquilino inquilino, Lugar lugar) {
-        // Se asigna el número de reserva al valor máximo actual +1.
-        this.nroReserva = obtenerUltimoNroReserva() + 1;
+    public Reserva(LocalDate fecha, Inquilino inquilino, Lugar lugar) {
+        this(fecha, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, inquilino, lugar);
+    }
+
+    /**
+     * Constructor de una reserva por horario. La reserva no tiene número hasta que se registra
+     * (ver Administrador.reservarLugar).
+     *
+     * @param fecha      Fecha de la reserva.
+     * @param desde      Hora de inicio (incluida).
+     * @param hasta      Hora de fin (excluida); 00:00 indica el final del día.
+     * @param inquilino  Inquilino que realiza la reserva.
+     * @param lugar      Lugar a reservar.
+     * @throws IllegalArgumentException Si la hora de fin no es posterior a la de inicio.
+     */
+    public Reserva(LocalDate fecha, LocalTime desde, LocalTime hasta, Inquilino inquilino, Lugar lugar) {
+        this(0, fecha, desde, hasta, inquilino, lugar);
+    }
+
+    /**
+     * Constructor para reconstruir una reserva ya existente (por ejemplo, al leerla
+     * desde el archivo de reservas), conservando su número original.
+     *
+     * @param nroReserva Número de la reserva.
+     * @param fecha      Fecha de la reserva.
+     * @param inquilino  Inquilino que realizó la reserva.
+     * @param lugar      Lugar reservado.
+     */
+    Reserva(int nroReserva, LocalDate fecha, Inquilino inquilino, Lugar lugar) {
+        this(nroReserva, fecha, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, inquilino, lugar);
+    }
+
+    /**
+     * Constructor para reconstruir una reserva por horario ya existente, conservando su número original.
+     *
+     * @param nroReserva Número de la reserva.
+     * @param fecha      Fecha de la reserva.
+     * @param desde      Hora de inicio (incluida).
+     * @param hasta      Hora de fin (excluida); 00:00 indica el final del día.
+     * @param inquilino  Inquilino que realizó la reserva.
+     * @param lugar      Lugar reservado.
+     * @throws IllegalArgumentException Si la hora de fin no es posterior a la de inicio.
+     */
+    Reserva(int nroReserva, LocalDate fecha, LocalTime desde, LocalTime hasta, Inquilino inquilino, Lugar lugar) {
+        validarHorario(desde, hasta);
+        this.nroReserva = nroReserva;
         this.fecha = fecha;
+        this.desde = desde.truncatedTo(ChronoUnit.MINUTES);
+        this.hasta = hasta.truncatedTo(ChronoUnit.MINUTES);
         this.inquilino = inquilino;
         this.lugar = lugar;
     }
 
     /**
-     * Método privado que lee el archivo "reservas.txt" para obtener el
-     * mayor número de reserva registrado hasta el momento.
-     *
-     * @return El último número de reserva registrado. Si no hay registros,
-     *         se devuelve 0.
-     */
-    private static int obtenerUltimoNroReserva() {
-        int ultimoNumero = 0;
-        // Uso de try-with-resources para asegurar el cierre del BufferedReader.
-        try (BufferedReader br = new BufferedReader(new FileReader("reservas.txt"))) {
-            String linea;
-            // Se leen las líneas del archivo para extraer el número de reserva.
-            while ((linea = br.readLine()) != null) {
-                String[] partes = linea.split("\\|");
-                if (partes.length > 0) {
-                    try {
-                        // Ejemplo de línea: "Reserva N°123 | Fecha: ... | Lugar: ... | Inquilino: ..."
-                        String numeroReservaTexto = partes[0].replace("Reserva N°", "").trim();
-                        // Se convierte a entero y se compara con el último número encontrado.
-                        ultimoNumero = Math.max(ultimoNumero, Integer.parseInt(numeroReservaTexto));
-                    } catch (NumberFormatException e) {
-                        System.out.println("Error al leer el número de reserva en el archivo.");
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error al leer el archivo de reservas: " + e.getMessage());
+     * Verifica que el horario no esté vacío: la hora de fin debe ser posterior a la de inicio,
+     * salvo que sea medianoche (fin del día).
+     *
+     * @throws IllegalArgumentException Si el horario no es válido.
+     */
+    static void validarHorario(LocalTime desde, LocalTime hasta) {
+        if (!LocalTime.MIDNIGHT.equals(hasta) && !desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("la hora de fin (" + Fechas.formatearHora(hasta)
+                    + ") debe ser posterior a la de inicio (" + Fechas.formatearHora(desde) + ")");
+        }
+    }
+
+    /**
+     * Devuelve el número de la reserva.
+     *
+     * @return Número de la reserva (0 si todavía no se registró).
+     */
+    public int getNroReserva() {
+        return nroReserva;
+    }
+
+    /**
+     * Asigna el número de la reserva al registrarla.
+     *
+     * @param nroReserva Número entregado por la secuencia de reservas.
+     */
+    void asignarNumero(int nroReserva) {
+        this.nroReserva = nroReserva;
+    }
+
+    /**
+     * Devuelve la fecha de la reserva.
+     *
+     * @return Fecha de la reserva.
+     */
+    public LocalDate getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Devuelve la hora de inicio de la reserva.
+     *
+     * @return Hora de inicio (incluida).
+     */
+    public LocalTime getHoraDesde() {
+        return desde;
+    }
+
+    /**
+     * Devuelve la hora de fin de la reserva.
+     *
+     * @return Hora de fin (excluida); 00:00 indica el final del día.
+     */
+    public LocalTime getHoraHasta() {
+        return hasta;
+    }
+
+    /**
+     * Indica si la reserva ocupa el día completo.
+     *
+     * @return true si el horario es de 00:00 a 24:00.
+     */
+    public boolean isDiaCompleto() {
+        return LocalTime.MIDNIGHT.equals(desde) && LocalTime.MIDNIGHT.equals(hasta);
+    }
+
+    /**
+     * Devuelve el instante en que comienza la reserva.
+     *
+     * @return Fecha y hora de inicio.
+     */
+    public LocalDateTime getInicio() {
+        return fecha.atTime(desde);
+    }
+
+    /**
+     * Devuelve el instante en que termina la reserva (excluido). Si termina al final
+     * del día, es la medianoche del día siguiente.
+     *
+     * @return Fecha y hora de fin.
+     */
+    public LocalDateTime getFin() {
+        return LocalTime.MIDNIGHT.equals(hasta) ? fecha.plusDays(1).atStartOfDay() : fecha.atTime(hasta);
+    }
+
+    /**
+     * Devuelve el horario de la reserva como texto, por ejemplo "10:00 a 14:00".
+     *
+     * @return Horario en formato HH:mm a HH:mm.
+     */
+    public String getHorario() {
+        return Fechas.formatearHora(desde) + " a " + Fechas.formatearHoraFin(hasta);
+    }
+
+    /**
+     * Devuelve la fecha de la reserva y, si no ocupa el día completo, su horario.
+     * Por ejemplo "20/11/2026" o "20/11/2026 de 10:00 a 14:00".
+     *
+     * @return Fecha y horario como texto.
+     */
+    public String getTurno() {
+        return turno(fecha, desde, hasta);
+    }
+
+    /**
+     * Devuelve una fecha y un horario como texto, con el mismo formato que getTurno().
+     *
+     * @param fecha Fecha.
+     * @param desde Hora de inicio.
+     * @param hasta Hora de fin; 00:00 indica el final del día.
+     * @return Fecha y, si no es el día completo, horario.
+     */
+    static String turno(LocalDate fecha, LocalTime desde, LocalTime hasta) {
+        String texto = Fechas.formatear(fecha);
+        if (LocalTime.MIDNIGHT.equals(desde) && LocalTime.MIDNIGHT.equals(hasta)) {
+            return texto;
         }
-        // Devuelve el número más alto encontrado.
-        return ultimoNumero;
+        return texto + " de " + Fechas.formatearHora(desde) + " a " + Fechas.formatearHoraFin(hasta);
+    }
+
+    /**
+     * Devuelve el inquilino que realizó la reserva.
+     *
+     * @return Inquilino de la reserva.
+     */
+    public Inquilino getInquilino() {
+        return inquilino;
+    }
+
+    /**
+     * Devuelve el lugar reservado.
+     *
+     * @return Lugar de la reserva.
+     */
+    public Lugar getLugar() {
+        return lugar;
     }
 
     /**
      * Genera la representación en cadena de la reserva, que incluye:
-     * número de reserva, fecha, lugar e inquilino.
+     * número de reserva, fecha, horario (si no ocupa el día completo), lugar e inquilino.
      *
      * @return Cadena representando la información de la reserva.
      */
     @Override
     public String toString() {
         return "Reserva N°" + nroReserva
-                + " | Fecha: " + fecha
+                + " | Fecha: " + Fechas.formatear(fecha)
+                + (isDiaCompleto() ? "" : " | Horario: " + getHorario())
                 + " | Lugar: " + lugar
                 + " | Inquilino: " + inquilino.getNombre() + " " + inquilino.getApellido();
     }
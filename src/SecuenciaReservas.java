@@ -0,0 +1,103 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generador de números de reserva únicos.
+ * <p>
+ * El último número entregado se mantiene en un AtomicInteger, por lo que obtener
+ * el siguiente es una operación de tiempo constante y segura entre hilos.
+ * Además se guarda en un pequeño archivo (marca de agua) para no reutilizar
+ * números al reiniciar el sistema, aunque la reserva correspondiente haya sido cancelada
+ * y el archivo de reservas ya se haya compactado. Al iniciar, el dueño de la secuencia
+ * la adelanta hasta el mayor número presente en el archivo de reservas (ver avanzarHasta),
+ * por si la marca de agua no existía o quedó atrasada.
+ */
+class SecuenciaReservas {
+
+    // Último número de reserva entregado.
+    private final AtomicInteger ultimo;
+
+    // Proyección en memoria del archivo de marca de agua (null si no pudo abrirse).
+    private final MappedByteBuffer marca;
+
+    // Mayor número escrito en la marca de agua; protegido por el monitor de la instancia.
+    private int ultimoPersistido;
+
+    /**
+     * Crea la secuencia a partir de la marca de agua indicada. Si el archivo no existe,
+     * se crea y la secuencia empieza desde 0.
+     *
+     * @param archivoMarca Archivo donde se persiste el último número de reserva entregado.
+     */
+    public SecuenciaReservas(String archivoMarca) {
+        MappedByteBuffer buffer = null;
+        int inicial = 0;
+        try (FileChannel canal = FileChannel.open(Paths.get(archivoMarca),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean nuevo = canal.size() < Integer.BYTES;
+            buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, Integer.BYTES);
+            inicial = nuevo ? 0 : buffer.getInt(0);
+            buffer.putInt(0, inicial);
+        } catch (IOException e) {
+            System.out.println("Error al abrir el archivo " + archivoMarca + ": " + e.getMessage());
+        }
+        this.ultimo = new AtomicInteger(inicial);
+        this.ultimoPersistido = inicial;
+        this.marca = buffer;
+    }
+
+    /**
+     * Devuelve el siguiente número de reserva disponible.
+     *
+     * @return Número de reserva nuevo, distinto de todos los entregados anteriormente.
+     */
+    public int siguiente() {
+        int nro = ultimo.incrementAndGet();
+        persistir(nro);
+        return nro;
+    }
+
+    /**
+     * Adelanta la secuencia para que no vuelva a entregar el número indicado ni los anteriores.
+     * Si la secuencia ya está más adelante, no hace nada.
+     *
+     * @param nro Mayor número de reserva ya usado.
+     */
+    public void avanzarHasta(int nro) {
+        persistir(ultimo.accumulateAndGet(nro, Math::max));
+    }
+
+    /**
+     * Devuelve el último número de reserva entregado.
+     *
+     * @return Último número entregado (0 si todavía no se entregó ninguno).
+     */
+    public int getUltimo() {
+        return ultimo.get();
+    }
+
+    /**
+     * Fuerza a disco la marca de agua. Se invoca en cada punto de control del registro de
+     * operaciones, antes de vaciarlo: desde ahí, los números entregados ya no se recuperan
+     * de las reservas anotadas en el registro. No toma el monitor de la instancia: la escritura
+     * a disco no debe bloquear a quienes piden números.
+     */
+    public void sincronizar() {
+        if (marca != null) {
+            marca.force();
+        }
+    }
+
+    /**
+     * Escribe el número en la marca de agua si es mayor que el último guardado.
+     */
+    private synchronized void persistir(int nro) {
+        if (marca != null && nro > ultimoPersistido) {
+            marca.putInt(0, nro);
+            ultimoPersistido = nro;
+        }
+    }
+}
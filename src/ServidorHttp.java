@@ -0,0 +1,700 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * API HTTP/JSON local sobre un Administrador, con el servidor incluido en el JDK
+ * (com.sun.net.httpserver). Cada solicitud se atiende en un hilo virtual propio,
+ * por lo que miles de clientes concurrentes no requieren miles de hilos del sistema.
+ * El servidor escucha sólo en la interfaz local (127.0.0.1).
+ * <pre>
+ *     GET    /inquilinos?offset=&amp;limite=             Lista de inquilinos.
+ *     GET    /inquilinos/{dni}                        Inquilino.
+ *     GET    /cocheras?offset=&amp;limite=               Lista de cocheras.
+ *     GET    /cocheras/{numero}                       Cochera.
+ *     GET    /pagos?dni=&amp;offset=&amp;limite=             Pagos, en orden de registro.
+ *     POST   /pagos     {"dni", "monto", "fecha"}     Registra un pago (fecha opcional, dd/MM/yyyy).
+ *     GET    /reservas?dni=&amp;lugar=&amp;offset=&amp;limite=   Reservas vigentes.
+ *     POST   /reservas  {"dni", "fecha", "lugar", "desde", "hasta"}
+ *                                                     Reserva un lugar común (horario opcional, HH:mm).
+ *     DELETE /reservas/{nroReserva}                   Cancela una reserva.
+ *     GET    /disponibilidad?lugar=&amp;desde=&amp;hora=&amp;minutos=&amp;cantidad=
+ *                                                     Próximas franjas libres de al menos esos minutos.
+ *     GET    /calendario?lugar=&amp;mes=                  Franjas ocupadas y libres de un mes (MM/yyyy).
+ *     POST   /facturacion {"periodo"}                 Facturación mensual (periodo opcional, MM/yyyy).
+ *     GET    /metricas                                Resumen de métricas (texto).
+ * </pre>
+ * Los errores se responden con el código HTTP que corresponde (400, 404, 405, 409, 413 o 500)
+ * y un objeto {"error": motivo}. Los errores internos (500) se responden con un motivo
+ * genérico y el detalle se informa sólo en la salida del servidor. El cuerpo de una
+ * solicitud puede tener hasta 64 KB. Las listas se devuelven por páginas: por defecto 100
+ * elementos y como máximo 1000.
+ */
+class ServidorHttp {
+
+    // Tamaño de página por defecto y máximo de las listas.
+    private static final int LIMITE_POR_DEFECTO = 100;
+    private static final int LIMITE_MAXIMO = 1000;
+
+    // Cantidad máxima de conexiones pendientes de aceptar.
+    private static final int CONEXIONES_PENDIENTES = 1024;
+
+    // Tamaño máximo del cuerpo de una solicitud, en bytes.
+    private static final int MAXIMO_CUERPO = 64 * 1024;
+
+    /**
+     * Error que se responde al cliente con un código HTTP.
+     */
+    private static class ErrorHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int estado;
+
+        ErrorHttp(int estado, String motivo) {
+            super(motivo);
+            this.estado = estado;
+        }
+    }
+
+    /**
+     * Atención de una solicitud: devuelve el cuerpo JSON de la respuesta.
+     */
+    private interface Manejador {
+        Respuesta atender(HttpExchange intercambio) throws IOException;
+    }
+
+    /**
+     * Respuesta de una solicitud: código HTTP y cuerpo.
+     */
+    private static class Respuesta {
+        private final int estado;
+        private final String cuerpo;
+
+        Respuesta(int estado, String cuerpo) {
+            this.estado = estado;
+            this.cuerpo = cuerpo;
+        }
+    }
+
+    // Administrador sobre el que se ejecutan las operaciones.
+    private final Administrador admin;
+
+    // Servidor HTTP y ejecutor de hilos virtuales.
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+
+    // Registro de métricas del sistema.
+    private final Metricas metricas = Metricas.global();
+
+    /**
+     * Crea el servidor, sin iniciarlo.
+     *
+     * @param admin  Administrador sobre el que se ejecutan las operaciones.
+     * @param puerto Puerto local (0 = cualquier puerto libre, ver getPuerto()).
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorHttp(Administrador admin, int puerto) throws IOException {
+        this.admin = admin;
+        this.servidor = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), CONEXIONES_PENDIENTES);
+        this.hilos = Executors.newVirtualThreadPerTaskExecutor();
+        servidor.setExecutor(hilos);
+        servidor.createContext("/inquilinos", intercambio -> atender(intercambio, "inquilinos", this::inquilinos));
+        servidor.createContext("/cocheras", intercambio -> atender(intercambio, "cocheras", this::cocheras));
+        servidor.createContext("/pagos", intercambio -> atender(intercambio, "pagos", this::pagos));
+        servidor.createContext("/reservas", intercambio -> atender(intercambio, "reservas", this::reservas));
+        servidor.createContext("/disponibilidad", intercambio -> atender(intercambio, "disponibilidad", this::disponibilidad));
+        servidor.createContext("/calendario", intercambio -> atender(intercambio, "calendario", this::calendario));
+        servidor.createContext("/facturacion", intercambio -> atender(intercambio, "facturacion", this::facturacion));
+        servidor.createContext("/metricas", this::metricas);
+    }
+
+    /**
+     * Comienza a atender solicitudes.
+     */
+    public void iniciar() {
+        servidor.start();
+    }
+
+    /**
+     * Devuelve el puerto en el que escucha el servidor.
+     *
+     * @return Número de puerto.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar solicitudes y espera hasta un segundo a que terminen las que están en curso.
+     */
+    public void detener() {
+        servidor.stop(1);
+        hilos.shutdown();
+    }
+
+    /**
+     * Atiende una solicitud: ejecuta el manejador, convierte los errores en respuestas
+     * y registra la duración y el código de la respuesta en las métricas.
+     */
+    private void atender(HttpExchange intercambio, String recurso, Manejador manejador) throws IOException {
+        long inicio = System.nanoTime();
+        Respuesta respuesta;
+        try {
+            respuesta = manejador.atender(intercambio);
+        } catch (ErrorHttp e) {
+            respuesta = error(e.estado, e.getMessage());
+        } catch (NumberFormatException e) {
+            respuesta = error(400, "número inválido");
+        } catch (DateTimeParseException e) {
+            respuesta = error(400, "fecha inválida (use dd/MM/yyyy)");
+        } catch (IllegalArgumentException e) {
+            respuesta = error(400, e.getMessage());
+        } catch (UncheckedIOException e) {
+            informarError(intercambio, e.getCause());
+            respuesta = error(500, "error al acceder a los archivos");
+        } catch (RuntimeException e) {
+            informarError(intercambio, e);
+            respuesta = error(500, "error interno");
+        }
+        try {
+            enviar(intercambio, respuesta.estado, "application/json; charset=utf-8", respuesta.cuerpo);
+        } finally {
+            metricas.incrementar("http.respuestas." + respuesta.estado / 100 + "xx");
+            metricas.registrarLatencia("http." + intercambio.getRequestMethod() + " /" + recurso, inicio);
+        }
+    }
+
+    /**
+     * GET /inquilinos y GET /inquilinos/{dni}.
+     */
+    private Respuesta inquilinos(HttpExchange intercambio) {
+        exigirMetodo(intercambio, "GET");
+        String dni = identificador(intercambio, "/inquilinos");
+        if (dni != null) {
+            return new Respuesta(200, json(buscarInquilino(dni)));
+        }
+        Map<String, String> parametros = parametros(intercambio);
+        List<Inquilino> inquilinos = admin.listarInquilinos();
+        StringBuilder sb = new StringBuilder("[");
+        int desde = offset(parametros);
+        int hasta = (int) Math.min(inquilinos.size(), (long) desde + limite(parametros));
+        for (int i = desde; i < hasta; i++) {
+            separar(sb).append(json(inquilinos.get(i)));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * GET /cocheras y GET /cocheras/{numero}.
+     */
+    private Respuesta cocheras(HttpExchange intercambio) {
+        exigirMetodo(intercambio, "GET");
+        String numero = identificador(intercambio, "/cocheras");
+        if (numero != null) {
+            Cochera cochera = admin.getCocheraPorNumero(Integer.parseInt(numero));
+            if (cochera == null) {
+                throw new ErrorHttp(404, "no existe la cochera " + numero);
+            }
+            return new Respuesta(200, json(cochera));
+        }
+        Map<String, String> parametros = parametros(intercambio);
+        List<Cochera> cocheras = admin.getCocheras();
+        StringBuilder sb = new StringBuilder("[");
+        int desde = offset(parametros);
+        int hasta = (int) Math.min(cocheras.size(), (long) desde + limite(parametros));
+        for (int i = desde; i < hasta; i++) {
+            separar(sb).append(json(cocheras.get(i)));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * GET /pagos y POST /pagos.
+     */
+    private Respuesta pagos(HttpExchange intercambio) throws IOException {
+        if (intercambio.getRequestMethod().equals("POST")) {
+            Map<String, String> cuerpo = leerObjeto(intercambio);
+            Inquilino inquilino = buscarInquilino(requerido(cuerpo, "dni"));
+            double monto = Double.parseDouble(requerido(cuerpo, "monto"));
+            if (!(monto > 0) || Double.isInfinite(monto)) {
+                throw new IllegalArgumentException("monto inválido");
+            }
+            LocalDate fecha = cuerpo.containsKey("fecha") ? Fechas.parsear(cuerpo.get("fecha")) : LocalDate.now();
+            Cochera cochera = admin.getCocheraPorInquilino(inquilino);
+            if (cochera == null) {
+                throw new ErrorHttp(409, "el inquilino no tiene una cochera asignada");
+            }
+            Pago pago = new Pago(monto, fecha, inquilino, cochera);
+            admin.registrarPago(pago);
+            return new Respuesta(201, json(pago));
+        }
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        String dni = parametros.get("dni");
+        Predicate<Pago> filtro = dni == null ? pago -> true : Filtros.pagosDeInquilino(dni);
+        StringBuilder sb = new StringBuilder("[");
+        try (Stream<Pago> pagos = admin.pagos(filtro, offset(parametros), limite(parametros))) {
+            pagos.forEach(pago -> separar(sb).append(json(pago)));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * GET /reservas, POST /reservas y DELETE /reservas/{nroReserva}.
+     */
+    private Respuesta reservas(HttpExchange intercambio) throws IOException {
+        String metodo = intercambio.getRequestMethod();
+        if (metodo.equals("POST")) {
+            Map<String, String> cuerpo = leerObjeto(intercambio);
+            Inquilino inquilino = buscarInquilino(requerido(cuerpo, "dni"));
+            LocalDate fecha = Fechas.parsear(requerido(cuerpo, "fecha"));
+            if (fecha.isBefore(LocalDate.now())) {
+                throw new IllegalArgumentException("la fecha de reserva no puede ser anterior a la fecha actual");
+            }
+            Lugar lugar = lugar(requerido(cuerpo, "lugar"));
+            LocalTime desde = LocalTime.MIDNIGHT;
+            LocalTime hasta = LocalTime.MIDNIGHT;
+            if (cuerpo.containsKey("desde") || cuerpo.containsKey("hasta")) {
+                desde = hora(requerido(cuerpo, "desde"));
+                hasta = hora(requerido(cuerpo, "hasta"));
+            }
+            Reserva reserva = new Reserva(fecha, desde, hasta, inquilino, lugar);
+            if (!admin.reservarLugar(reserva)) {
+                throw new ErrorHttp(409, lugar + " ya está reservado para el " + reserva.getTurno());
+            }
+            return new Respuesta(201, json(reserva));
+        }
+        if (metodo.equals("DELETE")) {
+            String numero = identificador(intercambio, "/reservas");
+            if (numero == null) {
+                throw new ErrorHttp(405, "indique la reserva: DELETE /reservas/{nroReserva}");
+            }
+            int nroReserva = Integer.parseInt(numero);
+            if (!admin.cancelarReserva(nroReserva)) {
+                throw new ErrorHttp(404, "no existe una reserva vigente con el número " + nroReserva);
+            }
+            return new Respuesta(200, "{\"nroReserva\":" + nroReserva + "}");
+        }
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        Predicate<Reserva> filtro = reserva -> true;
+        if (parametros.containsKey("dni")) {
+            filtro = filtro.and(Filtros.reservasDeInquilino(parametros.get("dni")));
+        }
+        if (parametros.containsKey("lugar")) {
+            filtro = filtro.and(Filtros.reservasEnLugar(lugar(parametros.get("lugar"))));
+        }
+        StringBuilder sb = new StringBuilder("[");
+        try (Stream<Reserva> reservas = admin.reservas(filtro, offset(parametros), limite(parametros))) {
+            reservas.forEach(reserva -> separar(sb).append(json(reserva)));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * GET /disponibilidad: próximas franjas libres de un lugar. Por defecto se busca desde
+     * ahora, franjas de al menos 60 minutos, y se devuelven 10.
+     */
+    private Respuesta disponibilidad(HttpExchange intercambio) {
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        Lugar lugar = lugar(requerido(parametros, "lugar"));
+        LocalDateTime desde = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        if (parametros.containsKey("desde")) {
+            desde = Fechas.parsear(parametros.get("desde")).atTime(
+                    parametros.containsKey("hora") ? hora(parametros.get("hora")) : LocalTime.MIDNIGHT);
+        }
+        int minutos = Integer.parseInt(parametros.getOrDefault("minutos", "60"));
+        int cantidad = Integer.parseInt(parametros.getOrDefault("cantidad", "10"));
+        StringBuilder sb = new StringBuilder("[");
+        for (AgendaLugares.Franja franja : admin.getFranjasLibres(lugar, desde, Duration.ofMinutes(minutos),
+                Math.min(cantidad, LIMITE_MAXIMO))) {
+            separar(sb).append(json(franja));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * GET /calendario: franjas ocupadas y libres de un lugar en un mes (por defecto, el actual).
+     */
+    private Respuesta calendario(HttpExchange intercambio) {
+        exigirMetodo(intercambio, "GET");
+        Map<String, String> parametros = parametros(intercambio);
+        Lugar lugar = lugar(requerido(parametros, "lugar"));
+        YearMonth mes;
+        try {
+            mes = parametros.containsKey("mes") ? Fechas.parsearMes(parametros.get("mes")) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("mes inválido (use MM/yyyy)");
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (AgendaLugares.Franja franja : admin.getCalendario(lugar, mes)) {
+            separar(sb).append(json(franja));
+        }
+        return new Respuesta(200, sb.append(']').toString());
+    }
+
+    /**
+     * POST /facturacion: ejecuta la facturación mensual y devuelve sus totales.
+     */
+    private Respuesta facturacion(HttpExchange intercambio) throws IOException {
+        exigirMetodo(intercambio, "POST");
+        Map<String, String> cuerpo = leerObjeto(intercambio);
+        YearMonth periodo;
+        try {
+            periodo = cuerpo.containsKey("periodo") ? Fechas.parsearMes(cuerpo.get("periodo")) : YearMonth.now();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("mes inválido (use MM/yyyy)");
+        }
+        try {
+            return new Respuesta(200, json(admin.facturar(periodo)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * GET /metricas: resumen de métricas en texto.
+     */
+    private void metricas(HttpExchange intercambio) throws IOException {
+        if (!intercambio.getRequestMethod().equals("GET")) {
+            enviar(intercambio, 405, "application/json; charset=utf-8", "{\"error\":\"método no permitido\"}");
+            return;
+        }
+        enviar(intercambio, 200, "text/plain; charset=utf-8", metricas.resumen());
+    }
+
+    /**
+     * Envía la respuesta y cierra el intercambio.
+     */
+    private static void enviar(HttpExchange intercambio, int estado, String tipo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", tipo);
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream os = intercambio.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /**
+     * Informa en la salida del servidor el detalle de un error interno, que no se envía al cliente.
+     */
+    private static void informarError(HttpExchange intercambio, Throwable e) {
+        System.out.println("Error al atender " + intercambio.getRequestMethod() + " "
+                + intercambio.getRequestURI().getPath() + ": " + e);
+    }
+
+    private static Respuesta error(int estado, String motivo) {
+        return new Respuesta(estado, "{\"error\":" + texto(motivo) + "}");
+    }
+
+    private static void exigirMetodo(HttpExchange intercambio, String metodo) {
+        if (!intercambio.getRequestMethod().equals(metodo)) {
+            throw new ErrorHttp(405, "método no permitido");
+        }
+    }
+
+    /**
+     * Devuelve el identificador que sigue al recurso en la ruta ("/cocheras/7" → "7"),
+     * o null si la ruta es la del recurso.
+     */
+    private static String identificador(HttpExchange intercambio, String recurso) {
+        String ruta = intercambio.getRequestURI().getPath();
+        if (ruta.equals(recurso) || ruta.equals(recurso + "/")) {
+            return null;
+        }
+        if (!ruta.startsWith(recurso + "/") || ruta.indexOf('/', recurso.length() + 1) >= 0) {
+            throw new ErrorHttp(404, "ruta inexistente: " + ruta);
+        }
+        return ruta.substring(recurso.length() + 1);
+    }
+
+    /**
+     * Devuelve los parámetros de la consulta (query string), ya decodificados.
+     */
+    private static Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = intercambio.getRequestURI().getRawQuery();
+        if (consulta == null) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametros;
+    }
+
+    private static int offset(Map<String, String> parametros) {
+        int offset = Integer.parseInt(parametros.getOrDefault("offset", "0"));
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset inválido");
+        }
+        return offset;
+    }
+
+    private static int limite(Map<String, String> parametros) {
+        int limite = Integer.parseInt(parametros.getOrDefault("limite", String.valueOf(LIMITE_POR_DEFECTO)));
+        if (limite < 0) {
+            throw new IllegalArgumentException("límite inválido");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    private Inquilino buscarInquilino(String dni) {
+        Inquilino inquilino = admin.getInquilinoPorDni(dni);
+        if (inquilino == null) {
+            throw new ErrorHttp(404, "no existe un inquilino con DNI " + dni);
+        }
+        return inquilino;
+    }
+
+    private static Lugar lugar(String texto) {
+        try {
+            return Lugar.valueOf(texto.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("lugar inválido (PARRILLA, SUM o PILETA)");
+        }
+    }
+
+    private static LocalTime hora(String texto) {
+        try {
+            return Fechas.parsearHora(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("horario inválido (use HH:mm)");
+        }
+    }
+
+    private static String requerido(Map<String, String> objeto, String campo) {
+        String valor = objeto.get(campo);
+        if (valor == null) {
+            throw new IllegalArgumentException("falta el campo \"" + campo + "\"");
+        }
+        return valor;
+    }
+
+    /**
+     * Lee el cuerpo de la solicitud como un objeto JSON plano: las claves y los valores
+     * (textos, números o booleanos) se devuelven como texto; null equivale a no indicar el campo.
+     * Se leen a lo sumo MAXIMO_CUERPO bytes, para que un cliente no pueda ocupar memoria sin límite.
+     *
+     * @throws ErrorHttp                Si el cuerpo supera MAXIMO_CUERPO bytes (413).
+     * @throws IllegalArgumentException Si el cuerpo no es un objeto JSON plano.
+     */
+    private static Map<String, String> leerObjeto(HttpExchange intercambio) throws IOException {
+        byte[] bytes;
+        try (InputStream is = intercambio.getRequestBody()) {
+            bytes = is.readNBytes(MAXIMO_CUERPO + 1);
+        }
+        if (bytes.length > MAXIMO_CUERPO) {
+            throw new ErrorHttp(413, "el cuerpo de la solicitud supera los " + MAXIMO_CUERPO / 1024 + " KB");
+        }
+        String cuerpo = new String(bytes, StandardCharsets.UTF_8);
+        LectorJson lector = new LectorJson(cuerpo);
+        Map<String, String> objeto = new HashMap<>();
+        lector.esperar('{');
+        if (!lector.consumir('}')) {
+            do {
+                String clave = lector.texto();
+                lector.esperar(':');
+                String valor = lector.valor();
+                if (valor != null) {
+                    objeto.put(clave, valor);
+                }
+            } while (lector.consumir(','));
+            lector.esperar('}');
+        }
+        lector.fin();
+        return objeto;
+    }
+
+    /**
+     * Lector de JSON plano, con recorrido manual del texto.
+     */
+    private static class LectorJson {
+        private final String texto;
+        private int posicion;
+
+        LectorJson(String texto) {
+            this.texto = texto;
+        }
+
+        private void saltarEspacios() {
+            while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+        }
+
+        boolean consumir(char caracter) {
+            saltarEspacios();
+            if (posicion < texto.length() && texto.charAt(posicion) == caracter) {
+                posicion++;
+                return true;
+            }
+            return false;
+        }
+
+        void esperar(char caracter) {
+            if (!consumir(caracter)) {
+                throw new IllegalArgumentException("JSON inválido: se esperaba '" + caracter + "' en la posición " + posicion);
+            }
+        }
+
+        void fin() {
+            saltarEspacios();
+            if (posicion < texto.length()) {
+                throw new IllegalArgumentException("JSON inválido: contenido después del objeto");
+            }
+        }
+
+        String texto() {
+            esperar('"');
+            StringBuilder sb = new StringBuilder();
+            while (posicion < texto.length()) {
+                char c = texto.charAt(posicion++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\' && posicion < texto.length()) {
+                    char escape = texto.charAt(posicion++);
+                    switch (escape) {
+                        case 'n': sb.append('\n'); break;
+                        case 't': sb.append('\t'); break;
+                        case 'r': sb.append('\r'); break;
+                        case 'b': sb.append('\b'); break;
+                        case 'f': sb.append('\f'); break;
+                        case 'u':
+                            if (posicion + 4 > texto.length()) {
+                                throw new IllegalArgumentException("JSON inválido: escape incompleto");
+                            }
+                            sb.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                            posicion += 4;
+                            break;
+                        default: sb.append(escape);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new IllegalArgumentException("JSON inválido: texto sin cerrar");
+        }
+
+        String valor() {
+            saltarEspacios();
+            if (posicion < texto.length() && texto.charAt(posicion) == '"') {
+                return texto();
+            }
+            int inicio = posicion;
+            while (posicion < texto.length() && ",}".indexOf(texto.charAt(posicion)) < 0
+                    && !Character.isWhitespace(texto.charAt(posicion))) {
+                posicion++;
+            }
+            String valor = texto.substring(inicio, posicion);
+            if (valor.isEmpty() || valor.charAt(0) == '{' || valor.charAt(0) == '[') {
+                throw new IllegalArgumentException("JSON inválido: se esperaba un texto, número o booleano");
+            }
+            return valor.equals("null") ? null : valor;
+        }
+    }
+
+    private static StringBuilder separar(StringBuilder sb) {
+        if (sb.length() > 1) {
+            sb.append(',');
+        }
+        return sb;
+    }
+
+    private static String json(Inquilino inquilino) {
+        return "{\"dni\":" + texto(inquilino.getDni())
+                + ",\"nombre\":" + texto(inquilino.getNombre())
+                + ",\"apellido\":" + texto(inquilino.getApellido()) + "}";
+    }
+
+    private static String json(Cochera cochera) {
+        return "{\"numero\":" + cochera.getNumero()
+                + ",\"categoria\":" + texto(cochera.getCategoria())
+                + ",\"pagada\":" + cochera.isEstadoPago()
+                + ",\"dni\":" + texto(cochera.getInquilino().getDni()) + "}";
+    }
+
+    private static String json(Pago pago) {
+        return "{\"monto\":" + pago.getMonto()
+                + ",\"fecha\":" + texto(Fechas.formatear(pago.getFecha()))
+                + ",\"dni\":" + texto(pago.getInquilino().getDni())
+                + ",\"cochera\":" + (pago.getCochera() == null ? "null" : pago.getCochera().getNumero()) + "}";
+    }
+
+    private static String json(Reserva reserva) {
+        return "{\"nroReserva\":" + reserva.getNroReserva()
+                + ",\"fecha\":" + texto(Fechas.formatear(reserva.getFecha()))
+                + ",\"desde\":" + texto(Fechas.formatearHora(reserva.getHoraDesde()))
+                + ",\"hasta\":" + texto(Fechas.formatearHoraFin(reserva.getHoraHasta()))
+                + ",\"lugar\":" + texto(reserva.getLugar().name())
+                + ",\"dni\":" + texto(reserva.getInquilino().getDni()) + "}";
+    }
+
+    private static String json(AgendaLugares.Franja franja) {
+        return "{\"fecha\":" + texto(Fechas.formatear(franja.getInicio().toLocalDate()))
+                + ",\"desde\":" + texto(Fechas.formatearHora(franja.getInicio().toLocalTime()))
+                + ",\"hasta\":" + texto(Fechas.formatearHoraFin(franja.getFin().toLocalTime()))
+                + ",\"libre\":" + franja.isLibre()
+                + ",\"nroReserva\":" + (franja.isLibre() ? "null" : franja.getReserva().getNroReserva()) + "}";
+    }
+
+    private static String json(FacturacionMensual.Resultado resultado) {
+        StringBuilder categorias = new StringBuilder("{");
+        resultado.getCategorias().forEach((categoria, totales) -> separar(categorias)
+                .append(texto(categoria))
+                .append(":{\"cocheras\":").append(totales.getCocheras())
+                .append(",\"pagadas\":").append(totales.getPagadas())
+                .append(",\"pendientes\":").append(totales.getPendientes())
+                .append(",\"pagos\":").append(totales.getPagos())
+                .append(",\"recaudado\":").append(totales.getRecaudadoCentavos() / 100.0).append('}'));
+        return "{\"periodo\":" + texto(Fechas.formatearMes(resultado.getPeriodo()))
+                + ",\"cocheras\":" + resultado.getCocheras()
+                + ",\"pagadas\":" + resultado.getPagadas()
+                + ",\"recaudado\":" + resultado.getRecaudadoCentavos() / 100.0
+                + ",\"pagosSinCochera\":" + resultado.getPagosSinCochera()
+                + ",\"segundos\":" + resultado.getDuracionNanos() / 1e9
+                + ",\"categorias\":" + categorias.append('}') + "}";
+    }
+
+    /**
+     * Devuelve un texto como cadena JSON, entre comillas y con los caracteres especiales escapados.
+     */
+    private static String texto(String valor) {
+        StringBuilder sb = new StringBuilder(valor.length() + 2).append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los cambios hechos a mano en "cocheras.txt" e "inquilinos.txt" entre dos
+ * ejecuciones: el sistema debe leerlos y no perderlos al exportar "cocheras.txt".
+ */
+class AdministradorCocherasTest {
+
+    private static final Path COCHERAS = Paths.get("cocheras.txt");
+    private static final Path INQUILINOS = Paths.get("inquilinos.txt");
+    private static final Path INSTANTANEA = Paths.get("estado.snap");
+
+    @BeforeEach
+    void prepararDatos() throws IOException {
+        DatosPrueba.preparar();
+    }
+
+    @Test
+    void leeLasCocherasAgregadasAlCsvYNoLasPierdeAlExportar() throws IOException {
+        DatosPrueba.abrir().cerrar();
+        Files.writeString(INQUILINOS, "Ana,Diaz,10000011\n", StandardOpenOption.APPEND);
+        Files.writeString(COCHERAS, "11,Base,false,10000011\n", StandardOpenOption.APPEND);
+
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            Inquilino ana = admin.getInquilinoPorDni("10000011");
+            Cochera cochera = admin.getCocheraPorInquilino(ana);
+            assertNotNull(cochera);
+            assertEquals(11, cochera.getNumero());
+            admin.registrarPago(new Pago(5000.0, LocalDate.of(2025, 3, 1), ana, cochera));
+        } finally {
+            admin.cerrar();
+        }
+
+        String exportado = Files.readString(COCHERAS);
+        assertTrue(exportado.contains("11,Base,true,10000011"), exportado);
+        assertTrue(exportado.contains("1,Base,false,10000001"), exportado);
+    }
+
+    @Test
+    void leeUnCambioDeInquilinoDeUnaCocheraDelMismoTamanio() throws IOException {
+        DatosPrueba.abrir().cerrar();
+        // Se reasigna la cochera 2 a Carlos: el archivo queda del mismo tamaño.
+        Files.writeString(COCHERAS, "1,Base,false,10000001\n2,Base,false,10000003\n");
+        Files.setLastModifiedTime(COCHERAS, FileTime.fromMillis(Files.getLastModifiedTime(COCHERAS).toMillis() + 2000));
+
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            Cochera cochera = admin.getCocheraPorInquilino(admin.getInquilinoPorDni("10000003"));
+            assertNotNull(cochera);
+            assertEquals(2, cochera.getNumero());
+            assertNull(admin.getCocheraPorInquilino(admin.getInquilinoPorDni("10000002")));
+        } finally {
+            admin.cerrar();
+        }
+    }
+
+    @Test
+    void noRegeneraLaInstantaneaPorLasExportacionesDelSistema() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        Inquilino juan = admin.getInquilinoPorDni("10000001");
+        admin.registrarPago(new Pago(5000.0, LocalDate.of(2025, 3, 1), juan, admin.getCocheraPorInquilino(juan)));
+        admin.cerrar();
+        assertTrue(Files.readString(COCHERAS).contains("1,Base,true,10000001"));
+        Object generada = Files.readAttributes(INSTANTANEA, BasicFileAttributes.class).fileKey();
+
+        DatosPrueba.abrir().cerrar();
+        // La instantánea se reemplaza (nuevo archivo) sólo cuando se vuelve a generar.
+        assertEquals(generada, Files.readAttributes(INSTANTANEA, BasicFileAttributes.class).fileKey());
+    }
+}
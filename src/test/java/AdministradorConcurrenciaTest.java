@@ -0,0 +1,189 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de carga con muchos hilos que registran pagos, reservas y cancelaciones a la vez
+ * sobre un mismo Administrador: no se pierden operaciones, no se repiten números de reserva,
+ * los archivos quedan completos y un mismo lugar se otorga una sola vez por día. Los pagos
+ * simultáneos de cocheras distintas comparten las escrituras forzadas del registro de operaciones.
+ */
+class AdministradorConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int OPERACIONES_POR_HILO = 25;
+    private static final LocalDate PRIMERA_FECHA = LocalDate.of(2030, 1, 1);
+
+    @BeforeEach
+    void prepararDatos() throws IOException {
+        // Un inquilino con su cochera por hilo.
+        StringBuilder inquilinos = new StringBuilder();
+        StringBuilder cocheras = new StringBuilder();
+        for (int i = 1; i <= HILOS; i++) {
+            inquilinos.append("Inquilino,").append(i).append(',').append(dni(i)).append('\n');
+            cocheras.append(i).append(",Base,false,").append(dni(i)).append('\n');
+        }
+        DatosPrueba.preparar(inquilinos.toString(), cocheras.toString());
+    }
+
+    private static String dni(int i) {
+        return String.valueOf(20000000 + i);
+    }
+
+    /**
+     * Ejecuta la tarea en todos los hilos a la vez y devuelve sus resultados.
+     */
+    private static <T> List<T> enParalelo(Callable<T> tarea) throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<T>> futuros = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                futuros.add(hilos.submit(() -> {
+                    largada.await();
+                    return tarea.call();
+                }));
+            }
+            largada.countDown();
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> futuro : futuros) {
+                resultados.add(futuro.get(2, TimeUnit.MINUTES));
+            }
+            return resultados;
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    /**
+     * Cuenta las líneas de pago de "pagos.txt".
+     */
+    private static long pagosEnArchivo() throws IOException {
+        return Files.readAllLines(Paths.get("pagos.txt")).stream()
+                .filter(linea -> CodecRegistros.tipoDeLinea(linea) == CodecRegistros.TIPO_PAGO)
+                .count();
+    }
+
+    /**
+     * Devuelve los números de las reservas de "reservas.txt" que no tienen una baja posterior.
+     */
+    private static Set<Integer> reservasVigentesEnArchivo() throws IOException {
+        CodecRegistros codec = new CodecRegistros(dni -> null, nombre -> null, numero -> null);
+        Set<Integer> vigentes = new HashSet<>();
+        for (String linea : Files.readAllLines(Paths.get("reservas.txt"))) {
+            byte tipo = CodecRegistros.tipoDeLinea(linea);
+            if (tipo == CodecRegistros.TIPO_RESERVA) {
+                assertTrue(vigentes.add(CodecRegistros.nroReservaDesdeLinea(linea)), "reserva repetida: " + linea);
+            } else if (tipo == CodecRegistros.TIPO_BAJA_RESERVA) {
+                assertTrue(vigentes.remove(codec.bajaDesdeLinea(linea)), "baja sin reserva: " + linea);
+            } else {
+                fail("línea incompleta o inválida: " + linea);
+            }
+        }
+        return vigentes;
+    }
+
+    @Test
+    void pagosReservasYCancelacionesConcurrentes() throws Exception {
+        Administrador admin = DatosPrueba.abrir();
+        ConcurrentLinkedQueue<Integer> numeros = new ConcurrentLinkedQueue<>();
+        Set<Integer> vigentes = ConcurrentHashMap.newKeySet();
+        AtomicInteger siguienteInquilino = new AtomicInteger();
+        try {
+            enParalelo(() -> {
+                int propio = siguienteInquilino.incrementAndGet();
+                Inquilino inquilino = admin.getInquilinoPorDni(dni(propio));
+                Cochera cochera = admin.getCocheraPorInquilino(inquilino);
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    admin.registrarPago(new Pago(1000 + i, PRIMERA_FECHA, inquilino, cochera));
+                    // Cada hilo reserva días distintos: ninguna reserva debe rechazarse.
+                    LocalDate fecha = PRIMERA_FECHA.plusDays((long) propio * OPERACIONES_POR_HILO + i);
+                    Reserva reserva = new Reserva(fecha, inquilino, Lugar.SUM);
+                    assertTrue(admin.reservarLugar(reserva));
+                    numeros.add(reserva.getNroReserva());
+                    if (i % 2 == 0) {
+                        assertTrue(admin.cancelarReserva(reserva.getNroReserva()));
+                    } else {
+                        vigentes.add(reserva.getNroReserva());
+                    }
+                }
+                return null;
+            });
+
+            Set<Integer> distintos = new HashSet<>(numeros);
+            assertEquals(HILOS * OPERACIONES_POR_HILO, numeros.size());
+            assertEquals(numeros.size(), distintos.size(), "se repitieron números de reserva");
+            for (int i = 1; i <= HILOS; i++) {
+                assertTrue(admin.getCocheraPorNumero(i).isEstadoPago());
+            }
+        } finally {
+            admin.cerrar();
+        }
+
+        // Los archivos tienen todas las operaciones, sin líneas incompletas.
+        assertEquals(HILOS * OPERACIONES_POR_HILO, pagosEnArchivo());
+        assertEquals(vigentes, reservasVigentesEnArchivo());
+
+        // El estado de pago de todas las cocheras sobrevive al reinicio.
+        Administrador reabierto = DatosPrueba.abrir();
+        try {
+            for (int i = 1; i <= HILOS; i++) {
+                assertTrue(reabierto.getCocheraPorNumero(i).isEstadoPago());
+            }
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    @Test
+    void unMismoDiaSeOtorgaUnaSolaVez() throws Exception {
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            List<Boolean> otorgadas = enParalelo(() -> {
+                Inquilino inquilino = admin.getInquilinoPorDni(dni(1));
+                return admin.reservarLugar(new Reserva(PRIMERA_FECHA, inquilino, Lugar.PARRILLA));
+            });
+            assertEquals(1, otorgadas.stream().filter(Boolean::booleanValue).count());
+        } finally {
+            admin.cerrar();
+        }
+        assertEquals(1, reservasVigentesEnArchivo().size());
+    }
+
+    @Test
+    void pagosDeCocherasDistintasCompartenLasEscriturasForzadas() throws Exception {
+        Administrador admin = DatosPrueba.abrir();
+        AtomicInteger siguienteInquilino = new AtomicInteger();
+        long forzadasAntes = Metricas.global().getContador("operaciones.escriturasForzadas");
+        try {
+            enParalelo(() -> {
+                Inquilino inquilino = admin.getInquilinoPorDni(dni(siguienteInquilino.incrementAndGet()));
+                Cochera cochera = admin.getCocheraPorInquilino(inquilino);
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    admin.registrarPago(new Pago(1000 + i, PRIMERA_FECHA, inquilino, cochera));
+                }
+                return null;
+            });
+            // Si cada pago esperara su escritura forzada con el bloqueo de "pagos.txt" tomado,
+            // habría una por pago; al esperarlas fuera del bloqueo, los pagos se superponen.
+            long forzadas = Metricas.global().getContador("operaciones.escriturasForzadas") - forzadasAntes;
+            assertTrue(forzadas < HILOS * OPERACIONES_POR_HILO,
+                    forzadas + " escrituras forzadas para " + HILOS * OPERACIONES_POR_HILO + " pagos");
+        } finally {
+            admin.cerrar();
+        }
+        assertEquals(HILOS * OPERACIONES_POR_HILO, pagosEnArchivo());
+    }
+}
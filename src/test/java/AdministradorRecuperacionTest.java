@@ -0,0 +1,152 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de recuperación del Administrador ante una interrupción: los archivos de datos
+ * quedan como estaban antes de las operaciones y sólo sobrevive el registro de operaciones,
+ * que se fuerza a disco antes de aplicar cada una.
+ */
+class AdministradorRecuperacionTest {
+
+    private static final LocalDate FECHA_PAGO = LocalDate.of(2025, 3, 1);
+    private static final LocalDate FECHA_RESERVA = LocalDate.of(2030, 1, 10);
+    private static final Path REGISTRO = Paths.get("operaciones.wal");
+
+    @BeforeEach
+    void prepararDatos() throws IOException {
+        DatosPrueba.preparar();
+    }
+
+    /**
+     * Deja los archivos de datos como en la copia y el registro de operaciones con el contenido indicado.
+     */
+    private static void interrumpir(Path copia, byte[] registro) throws IOException {
+        DatosPrueba.restaurar(copia);
+        Files.write(REGISTRO, registro);
+    }
+
+    private static List<Pago> pagos(Administrador admin) {
+        try (Stream<Pago> pagos = admin.pagos(pago -> true, 0, Long.MAX_VALUE)) {
+            return pagos.toList();
+        }
+    }
+
+    private static Reserva reservaVigente(Administrador admin, int nroReserva) {
+        try (Stream<Reserva> reservas = admin.reservas(r -> r.getNroReserva() == nroReserva, 0, 1)) {
+            return reservas.findFirst().orElse(null);
+        }
+    }
+
+    @Test
+    void recuperaPagosYReservasDelRegistroDeOperaciones() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        Path copia = DatosPrueba.copiar();
+
+        Inquilino juan = admin.getInquilinoPorDni("10000001");
+        admin.registrarPago(new Pago(15000.0, FECHA_PAGO, juan, admin.getCocheraPorInquilino(juan)));
+        Reserva reserva = new Reserva(FECHA_RESERVA, LocalTime.of(10, 0), LocalTime.of(12, 0), juan, Lugar.SUM);
+        assertTrue(admin.reservarLugar(reserva));
+        byte[] registro = Files.readAllBytes(REGISTRO);
+        admin.cerrar();
+        interrumpir(copia, registro);
+
+        Administrador recuperado = DatosPrueba.abrir();
+        try {
+            List<Pago> pagos = pagos(recuperado);
+            assertEquals(1, pagos.size());
+            assertEquals(15000.0, pagos.get(0).getMonto());
+            assertEquals(FECHA_PAGO, pagos.get(0).getFecha());
+            assertTrue(recuperado.getCocheraPorNumero(1).isEstadoPago());
+            assertFalse(recuperado.getCocheraPorNumero(2).isEstadoPago());
+
+            Reserva recuperada = reservaVigente(recuperado, reserva.getNroReserva());
+            assertNotNull(recuperada);
+            assertEquals(reserva.getHorario(), recuperada.getHorario());
+            // La agenda se reconstruye con la reserva recuperada.
+            Reserva superpuesta = new Reserva(FECHA_RESERVA, LocalTime.of(11, 0), LocalTime.of(13, 0), juan, Lugar.SUM);
+            assertFalse(recuperado.reservarLugar(superpuesta));
+        } finally {
+            recuperado.cerrar();
+        }
+        // La recuperación termina con un punto de control: el registro queda vacío.
+        assertEquals(0, Files.size(REGISTRO));
+    }
+
+    @Test
+    void recuperaUnaCancelacion() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        Inquilino maria = admin.getInquilinoPorDni("10000002");
+        Reserva reserva = new Reserva(FECHA_RESERVA, maria, Lugar.PILETA);
+        assertTrue(admin.reservarLugar(reserva));
+        admin.cerrar();
+
+        admin = DatosPrueba.abrir();
+        Path copia = DatosPrueba.copiar();
+        assertTrue(admin.cancelarReserva(reserva.getNroReserva()));
+        byte[] registro = Files.readAllBytes(REGISTRO);
+        admin.cerrar();
+        interrumpir(copia, registro);
+
+        Administrador recuperado = DatosPrueba.abrir();
+        try {
+            assertNull(reservaVigente(recuperado, reserva.getNroReserva()));
+            assertTrue(recuperado.reservarLugar(new Reserva(FECHA_RESERVA, maria, Lugar.PILETA)));
+        } finally {
+            recuperado.cerrar();
+        }
+    }
+
+    @Test
+    void laSecuenciaSigueDespuesDeLasReservasRecuperadas() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        Path copia = DatosPrueba.copiar();
+
+        Inquilino juan = admin.getInquilinoPorDni("10000001");
+        Reserva reserva = new Reserva(FECHA_RESERVA, juan, Lugar.PARRILLA);
+        assertTrue(admin.reservarLugar(reserva));
+        byte[] registro = Files.readAllBytes(REGISTRO);
+        admin.cerrar();
+        // La marca de agua de la secuencia también vuelve a su estado anterior a la reserva.
+        interrumpir(copia, registro);
+
+        Administrador recuperado = DatosPrueba.abrir();
+        try {
+            assertNotNull(reservaVigente(recuperado, reserva.getNroReserva()));
+            Reserva nueva = new Reserva(FECHA_RESERVA, juan, Lugar.SUM);
+            assertTrue(recuperado.reservarLugar(nueva));
+            assertTrue(nueva.getNroReserva() > reserva.getNroReserva());
+        } finally {
+            recuperado.cerrar();
+        }
+    }
+
+    @Test
+    void unCierreNormalNoDejaOperacionesPendientes() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        Inquilino maria = admin.getInquilinoPorDni("10000002");
+        admin.registrarPago(new Pago(9000.0, FECHA_PAGO, maria, admin.getCocheraPorInquilino(maria)));
+        admin.cerrar();
+
+        assertEquals(0, Files.size(REGISTRO));
+        assertTrue(Files.readString(Paths.get("cocheras.txt")).contains("2,Base,true,10000002"));
+
+        Administrador reabierto = DatosPrueba.abrir();
+        try {
+            assertEquals(1, pagos(reabierto).size());
+            assertTrue(reabierto.getCocheraPorNumero(2).isEstadoPago());
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+}
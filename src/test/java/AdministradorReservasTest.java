@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la numeración de las reservas que registra el Administrador.
+ */
+class AdministradorReservasTest {
+
+    private static final LocalDate FECHA_RESERVA = LocalDate.of(2030, 1, 10);
+    private static final Path MARCA = Paths.get("reservas.seq");
+
+    @BeforeEach
+    void prepararDatos() throws IOException {
+        DatosPrueba.preparar();
+    }
+
+    private static int reservar(Administrador admin, LocalDate fecha, Lugar lugar) {
+        Reserva reserva = new Reserva(fecha, admin.getInquilinoPorDni("10000001"), lugar);
+        assertTrue(admin.reservarLugar(reserva));
+        return reserva.getNroReserva();
+    }
+
+    @Test
+    void laReservaRecibeSuNumeroAlRegistrarse() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            Reserva reserva = new Reserva(FECHA_RESERVA, admin.getInquilinoPorDni("10000001"), Lugar.SUM);
+            assertEquals(0, reserva.getNroReserva());
+            assertTrue(admin.reservarLugar(reserva));
+            assertEquals(1, reserva.getNroReserva());
+            assertEquals(2, reservar(admin, FECHA_RESERVA, Lugar.PILETA));
+        } finally {
+            admin.cerrar();
+        }
+    }
+
+    @Test
+    void lasReservasRechazadasNoConsumenNumeros() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            int primera = reservar(admin, FECHA_RESERVA, Lugar.SUM);
+            Reserva superpuesta = new Reserva(FECHA_RESERVA, admin.getInquilinoPorDni("10000002"), Lugar.SUM);
+            assertFalse(admin.reservarLugar(superpuesta));
+            assertEquals(0, superpuesta.getNroReserva());
+            assertEquals(primera + 1, reservar(admin, FECHA_RESERVA, Lugar.PILETA));
+        } finally {
+            admin.cerrar();
+        }
+    }
+
+    @Test
+    void laImportacionNoConsumeNumerosEnFilasRechazadas() throws IOException {
+        Path archivo = Paths.get("importacion.csv");
+        Files.writeString(archivo, "reserva,10000001,10/01/2030,SUM,10:00,12:00\n"
+                + "reserva,10000002,10/01/2030,SUM,11:00,13:00\n"
+                + "reserva,10000002,10/01/2030,SUM,12:00,13:00\n");
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            ImportadorCsv.Resultado resultado = admin.importarCsv(archivo.toString());
+            assertEquals(1, resultado.getRechazos().size());
+            assertEquals(3, reservar(admin, FECHA_RESERVA, Lugar.PILETA));
+        } finally {
+            admin.cerrar();
+        }
+    }
+
+    @Test
+    void noReutilizaNumerosDeReservasCanceladasAlReiniciar() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        int cancelada = reservar(admin, FECHA_RESERVA, Lugar.SUM);
+        assertTrue(admin.cancelarReserva(cancelada));
+        admin.cerrar();
+
+        Administrador reabierto = DatosPrueba.abrir();
+        try {
+            assertEquals(cancelada + 1, reservar(reabierto, FECHA_RESERVA, Lugar.SUM));
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    @Test
+    void adelantaUnaMarcaDeAguaAtrasadaHastaLaMayorReserva() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        reservar(admin, FECHA_RESERVA, Lugar.SUM);
+        int mayor = reservar(admin, FECHA_RESERVA, Lugar.PILETA);
+        admin.cerrar();
+        // La marca de agua queda en 0, como si no hubiera llegado a disco.
+        Files.write(MARCA, ByteBuffer.allocate(Integer.BYTES).putInt(0).array());
+
+        Administrador reabierto = DatosPrueba.abrir();
+        try {
+            assertEquals(mayor + 1, reservar(reabierto, FECHA_RESERVA, Lugar.PARRILLA));
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    @Test
+    void informaLasReservasSuperpuestasAlIniciar() throws IOException {
+        Files.writeString(Paths.get("reservas.txt"), "R1,1,10/01/2030,SUM,10000001\n"
+                + "R1,2,10/01/2030,SUM,10000002,10:00,12:00\n");
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        PrintStream anterior = System.out;
+        System.setOut(new PrintStream(salida, true));
+        Administrador admin;
+        try {
+            admin = DatosPrueba.abrir();
+        } finally {
+            System.setOut(anterior);
+        }
+        try {
+            assertTrue(salida.toString().contains("la reserva N°2"), salida.toString());
+            // Cancelar la reserva superpuesta no libera el horario de la otra.
+            assertTrue(admin.cancelarReserva(2));
+            Reserva otra = new Reserva(FECHA_RESERVA, admin.getInquilinoPorDni("10000003"), Lugar.SUM);
+            assertFalse(admin.reservarLugar(otra));
+        } finally {
+            admin.cerrar();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los intervalos de la agenda de lugares: superposiciones, liberación de
+ * tramos unidos, franjas libres y calendario mensual.
+ */
+class AgendaLugaresTest {
+
+    private static final LocalDate DIA = LocalDate.of(2030, 1, 10);
+
+    private final Inquilino inquilino = new Inquilino("Juan", "Perez", "10000001");
+
+    private AgendaLugares agenda;
+    private int proximoNumero;
+
+    @BeforeEach
+    void crearAgenda() {
+        agenda = new AgendaLugares();
+        proximoNumero = 1;
+    }
+
+    private Reserva reserva(LocalDate fecha, int desde, int hasta) {
+        return new Reserva(proximoNumero++, fecha, LocalTime.of(desde, 0), LocalTime.of(hasta % 24, 0),
+                inquilino, Lugar.SUM);
+    }
+
+    private static LocalDateTime instante(LocalDate fecha, int hora) {
+        return fecha.atTime(hora, 0);
+    }
+
+    @Test
+    void rechazaReservasSuperpuestasDelMismoLugar() {
+        assertTrue(agenda.ocupar(reserva(DIA, 10, 12)));
+        assertFalse(agenda.ocupar(reserva(DIA, 11, 13)));
+        assertFalse(agenda.ocupar(reserva(DIA, 9, 11)));
+        assertFalse(agenda.ocupar(reserva(DIA, 10, 12)));
+        assertFalse(agenda.ocupar(new Reserva(99, DIA, inquilino, Lugar.SUM)));
+    }
+
+    @Test
+    void aceptaReservasContiguasYDeOtrosLugares() {
+        assertTrue(agenda.ocupar(reserva(DIA, 10, 12)));
+        assertTrue(agenda.ocupar(reserva(DIA, 12, 14)));
+        assertTrue(agenda.ocupar(reserva(DIA, 8, 10)));
+        assertTrue(agenda.ocupar(new Reserva(99, DIA, LocalTime.of(10, 0), LocalTime.of(12, 0), inquilino, Lugar.PILETA)));
+        assertFalse(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(8, 0), LocalTime.of(14, 0)));
+        assertTrue(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(14, 0), LocalTime.MIDNIGHT));
+    }
+
+    @Test
+    void elFinDelDiaNoSeSuperponeConElDiaSiguiente() {
+        assertTrue(agenda.ocupar(reserva(DIA, 22, 24)));
+        assertTrue(agenda.ocupar(reserva(DIA.plusDays(1), 0, 2)));
+        assertFalse(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(23, 0), LocalTime.MIDNIGHT));
+        assertTrue(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(20, 0), LocalTime.of(22, 0)));
+    }
+
+    @Test
+    void liberarSeparaUnTramoUnido() {
+        Reserva primera = reserva(DIA, 10, 12);
+        Reserva segunda = reserva(DIA, 12, 14);
+        Reserva tercera = reserva(DIA, 14, 16);
+        assertTrue(agenda.ocupar(primera));
+        assertTrue(agenda.ocupar(segunda));
+        assertTrue(agenda.ocupar(tercera));
+
+        agenda.liberar(segunda);
+        assertTrue(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(12, 0), LocalTime.of(14, 0)));
+        assertFalse(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(11, 0), LocalTime.of(13, 0)));
+        assertFalse(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(13, 0), LocalTime.of(15, 0)));
+
+        // Liberar una reserva que no está en la agenda no cambia nada.
+        agenda.liberar(reserva(DIA, 10, 12));
+        assertFalse(agenda.estaLibre(Lugar.SUM, DIA, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+
+        assertTrue(agenda.ocupar(reserva(DIA, 12, 14)));
+    }
+
+    @Test
+    void proximasLibresSaltaLosTramosOcupadosYLosHuecosCortos() {
+        agenda.ocupar(reserva(DIA, 10, 12));
+        agenda.ocupar(reserva(DIA, 13, 20));
+
+        List<AgendaLugares.Franja> libres = agenda.proximasLibres(Lugar.SUM, instante(DIA, 8), Duration.ofHours(1), 4);
+        assertEquals(4, libres.size());
+        assertFranja(libres.get(0), instante(DIA, 8), instante(DIA, 10));
+        assertFranja(libres.get(1), instante(DIA, 12), instante(DIA, 13));
+        assertFranja(libres.get(2), instante(DIA, 20), instante(DIA.plusDays(1), 0));
+        assertFranja(libres.get(3), instante(DIA.plusDays(1), 0), instante(DIA.plusDays(2), 0));
+
+        // El hueco de una hora entre las reservas no alcanza para dos horas.
+        libres = agenda.proximasLibres(Lugar.SUM, instante(DIA, 10), Duration.ofHours(2), 1);
+        assertFranja(libres.get(0), instante(DIA, 20), instante(DIA.plusDays(1), 0));
+    }
+
+    @Test
+    void proximasLibresAtraviesaDiasCompletosOcupados() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(agenda.ocupar(new Reserva(proximoNumero++, DIA.plusDays(i), inquilino, Lugar.SUM)));
+        }
+        List<AgendaLugares.Franja> libres = agenda.proximasLibres(Lugar.SUM, instante(DIA, 0), Duration.ofDays(1), 1);
+        assertFranja(libres.get(0), instante(DIA.plusDays(3), 0), instante(DIA.plusDays(4), 0));
+    }
+
+    @Test
+    void proximasLibresValidaLaDuracionYLaCantidad() {
+        LocalDateTime desde = instante(DIA, 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.proximasLibres(Lugar.SUM, desde, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.proximasLibres(Lugar.SUM, desde, Duration.ofHours(25), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> agenda.proximasLibres(Lugar.SUM, desde, Duration.ofHours(1), 0));
+    }
+
+    @Test
+    void calendarioCubreElMesSinHuecosNiSuperposiciones() {
+        Reserva reserva = reserva(DIA, 10, 12);
+        agenda.ocupar(reserva);
+        // Una reserva de otro mes no aparece.
+        agenda.ocupar(reserva(DIA.plusMonths(1), 10, 12));
+
+        YearMonth mes = YearMonth.from(DIA);
+        List<AgendaLugares.Franja> franjas = agenda.calendario(Lugar.SUM, mes);
+
+        LocalDateTime esperado = mes.atDay(1).atStartOfDay();
+        int ocupadas = 0;
+        for (AgendaLugares.Franja franja : franjas) {
+            assertEquals(esperado, franja.getInicio());
+            assertTrue(franja.getFin().isAfter(franja.getInicio()));
+            if (!franja.isLibre()) {
+                ocupadas++;
+                assertSame(reserva, franja.getReserva());
+            }
+            esperado = franja.getFin();
+        }
+        assertEquals(mes.plusMonths(1).atDay(1).atStartOfDay(), esperado);
+        assertEquals(1, ocupadas);
+        // Un día libre por cada día del mes, salvo el de la reserva, que queda en dos franjas libres.
+        assertEquals(mes.lengthOfMonth() + 2, franjas.size());
+    }
+
+    private static void assertFranja(AgendaLugares.Franja franja, LocalDateTime inicio, LocalDateTime fin) {
+        assertTrue(franja.isLibre());
+        assertEquals(inicio, franja.getInicio());
+        assertEquals(fin, franja.getFin());
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del almacén binario de cocheras: migración desde el CSV, cambios de estado
+ * y nueva migración cuando el CSV se modifica por fuera del sistema.
+ */
+class ArchivoCocherasTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path datos;
+    private Path csv;
+
+    @BeforeEach
+    void crearCsv() throws IOException {
+        datos = directorio.resolve("cocheras.dat");
+        csv = directorio.resolve("cocheras.txt");
+        Files.writeString(csv, "1,Base,false,10000001\n2,Premium,true,10000002\n");
+    }
+
+    private ArchivoCocheras abrir() throws IOException {
+        return ArchivoCocheras.abrir(datos.toString(), csv.toString());
+    }
+
+    private static List<String> lineas(ArchivoCocheras cocheras) {
+        List<String> lineas = new ArrayList<>();
+        cocheras.lineasCsv().forEach(lineas::add);
+        return lineas;
+    }
+
+    /**
+     * Exporta el almacén al CSV, como hace el punto de control del Administrador.
+     */
+    private void exportar(ArchivoCocheras cocheras) throws IOException {
+        Files.write(csv, lineas(cocheras));
+        cocheras.marcarExportado(csv.toString());
+    }
+
+    @Test
+    void migraElCsvAlAbrirPorPrimeraVez() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals(2, cocheras.getCantidad());
+            assertEquals(1, cocheras.getNumero(0));
+            assertEquals("Premium", cocheras.getCategoria(1));
+            assertTrue(cocheras.isEstadoPago(1));
+            assertEquals("10000002", cocheras.getDniInquilino(1));
+            assertEquals(List.of("1,Base,false,10000001", "2,Premium,true,10000002"), lineas(cocheras));
+        }
+    }
+
+    @Test
+    void actualizaElEstadoDePagoPorNumero() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertTrue(cocheras.actualizarEstadoPago(1, true));
+            assertFalse(cocheras.actualizarEstadoPago(99, true));
+            assertTrue(cocheras.isModificado());
+        }
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertTrue(cocheras.isEstadoPago(0));
+        }
+    }
+
+    @Test
+    void vuelveAMigrarSiSeAgreganCocherasAlCsv() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals(2, cocheras.getCantidad());
+        }
+        Files.writeString(csv, "11,Base,false,10000011\n", StandardOpenOption.APPEND);
+
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals(3, cocheras.getCantidad());
+            assertEquals(11, cocheras.getNumero(2));
+            assertEquals("10000011", cocheras.getDniInquilino(2));
+        }
+    }
+
+    @Test
+    void vuelveAMigrarSiSeEditaUnaCocheraSinCambiarElTamanio() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals("10000002", cocheras.getDniInquilino(1));
+        }
+        Files.writeString(csv, "1,Base,false,10000001\n2,Premium,true,10000003\n");
+        Files.setLastModifiedTime(csv, java.nio.file.attribute.FileTime.fromMillis(
+                Files.getLastModifiedTime(csv).toMillis() + 2000));
+
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals("10000003", cocheras.getDniInquilino(1));
+        }
+    }
+
+    @Test
+    void noVuelveAMigrarDesdeElCsvQueExporto() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            cocheras.actualizarEstadoPago(1, true);
+            exportar(cocheras);
+            assertFalse(cocheras.isModificado());
+            // Un cambio posterior que todavía no se exportó sólo está en el almacén.
+            cocheras.actualizarEstadoPago(2, false);
+        }
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertTrue(cocheras.isEstadoPago(0));
+            assertFalse(cocheras.isEstadoPago(1));
+        }
+    }
+
+    @Test
+    void vuelveAMigrarUnAlmacenDelFormatoAnterior() throws IOException {
+        // Almacén de la versión 1 (cabecera sin los datos del CSV) con una única cochera.
+        ByteBuffer anterior = ByteBuffer.allocate(12 + 33);
+        anterior.putInt(0x43434852).putInt(1).putInt(1).putInt(5);
+        Files.write(datos, anterior.array());
+
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals(2, cocheras.getCantidad());
+            assertEquals(1, cocheras.getNumero(0));
+        }
+    }
+
+    @Test
+    void usaElAlmacenSiNoHayCsv() throws IOException {
+        try (ArchivoCocheras cocheras = abrir()) {
+            cocheras.actualizarEstadoPago(1, true);
+        }
+        Files.delete(csv);
+        try (ArchivoCocheras cocheras = abrir()) {
+            assertEquals(2, cocheras.getCantidad());
+            assertTrue(cocheras.isEstadoPago(0));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la caché acotada por peso (W-TinyLFU): el peso nunca supera el máximo, un
+ * recorrido no desplaza a las entradas que se usan seguido y las estadísticas son exactas.
+ * En todas las pruebas el valor guardado es el propio peso de la entrada.
+ */
+class CacheAcotadaTest {
+
+    private static CacheAcotada<Integer, Integer> crear(long pesoMaximo) {
+        return new CacheAcotada<>(pesoMaximo, peso -> peso);
+    }
+
+    /**
+     * Consulta una clave como lo hace AlmacenPagos: si no está, la carga y la agrega.
+     */
+    private static void consultar(CacheAcotada<Integer, Integer> cache, int clave, int peso) {
+        if (cache.obtener(clave) == null) {
+            cache.agregar(clave, peso);
+        }
+    }
+
+    @Test
+    void expulsaParaNoSuperarElPesoMaximo() {
+        CacheAcotada<Integer, Integer> cache = crear(100);
+        Random azar = new Random(1);
+        for (int clave = 0; clave < 1000; clave++) {
+            consultar(cache, clave, 1 + azar.nextInt(20));
+            assertTrue(cache.getEstadisticas().getPeso() <= 100, cache.getEstadisticas().toString());
+        }
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        assertTrue(estadisticas.getExpulsiones() + estadisticas.getRechazos() > 0, estadisticas.toString());
+
+        // El peso y la cantidad de entradas informados son los de los valores que siguen en la caché.
+        long peso = 0;
+        int entradas = 0;
+        for (int clave = 0; clave < 1000; clave++) {
+            Integer valor = cache.obtener(clave);
+            if (valor != null) {
+                peso += valor;
+                entradas++;
+            }
+        }
+        assertEquals(estadisticas.getPeso(), peso);
+        assertEquals(estadisticas.getEntradas(), entradas);
+    }
+
+    @Test
+    void unRecorridoNoDesplazaALasEntradasProtegidas() {
+        CacheAcotada<Integer, Integer> cache = crear(1000);
+        // Cien claves que se consultan seguido. Las últimas diez quedan en la ventana: otras
+        // diez claves las empujan a prueba y una vuelta más pasa todas a la cola protegida.
+        for (int vuelta = 0; vuelta < 10; vuelta++) {
+            for (int clave = 0; clave < 100; clave++) {
+                consultar(cache, clave, 1);
+            }
+        }
+        for (int clave = 100; clave < 110; clave++) {
+            consultar(cache, clave, 1);
+        }
+        for (int clave = 0; clave < 100; clave++) {
+            consultar(cache, clave, 1);
+        }
+        // Un recorrido de claves que se consultan una sola vez, cinco veces más que la caché.
+        for (int clave = 1000; clave < 6000; clave++) {
+            consultar(cache, clave, 1);
+        }
+        for (int clave = 0; clave < 100; clave++) {
+            assertNotNull(cache.obtener(clave), "se expulsó la clave " + clave);
+        }
+        assertTrue(cache.getEstadisticas().getPeso() <= 1000);
+    }
+
+    @Test
+    void unaAdmisionRechazadaSeCuentaEnRechazos() {
+        CacheAcotada<Integer, Integer> cache = crear(10);
+        // Quince accesos llevan la frecuencia estimada de cada clave al máximo del contador.
+        for (int vuelta = 0; vuelta < 15; vuelta++) {
+            for (int clave = 0; clave < 10; clave++) {
+                consultar(cache, clave, 1);
+            }
+        }
+        assertEquals(10, cache.getEstadisticas().getPeso());
+
+        // Cada clave nueva empuja fuera de la ventana a la anterior, que se accedió menos veces
+        // que la más antigua de prueba: se descarta sin expulsar a nadie.
+        for (int clave = 100; clave < 105; clave++) {
+            consultar(cache, clave, 1);
+        }
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        assertEquals(5, estadisticas.getRechazos());
+        assertEquals(0, estadisticas.getExpulsiones());
+        assertEquals(10, estadisticas.getPeso());
+
+        // Un valor que pesa más que la caché completa tampoco se guarda.
+        cache.agregar(200, 11);
+        assertNull(cache.obtener(200));
+        assertEquals(6, cache.getEstadisticas().getRechazos());
+    }
+
+    @Test
+    void llevaLasEstadisticasDeUso() {
+        CacheAcotada<Integer, Integer> cache = crear(100);
+        assertNull(cache.obtener(1));
+        cache.agregar(1, 5);
+        assertEquals(5, cache.obtener(1));
+        assertEquals(5, cache.obtener(1));
+        assertNull(cache.obtener(2));
+        cache.agregar(2, 3);
+
+        CacheAcotada.Estadisticas estadisticas = cache.getEstadisticas();
+        assertEquals(2, estadisticas.getAciertos());
+        assertEquals(2, estadisticas.getFallos());
+        assertEquals(0.5, estadisticas.getTasaAciertos());
+        assertEquals(0, estadisticas.getExpulsiones());
+        assertEquals(0, estadisticas.getRechazos());
+        assertEquals(2, estadisticas.getEntradas());
+        assertEquals(8, estadisticas.getPeso());
+        assertEquals(100, estadisticas.getPesoMaximo());
+
+        // Reemplazar un valor cambia el peso pero no la cantidad de entradas.
+        cache.agregar(1, 7);
+        assertEquals(10, cache.getEstadisticas().getPeso());
+        assertEquals(2, cache.getEstadisticas().getEntradas());
+
+        // Vaciar quita las entradas y conserva los contadores.
+        cache.vaciar();
+        estadisticas = cache.getEstadisticas();
+        assertEquals(0, estadisticas.getEntradas());
+        assertEquals(0, estadisticas.getPeso());
+        assertEquals(2, estadisticas.getAciertos());
+        assertEquals(2, estadisticas.getFallos());
+    }
+
+    @Test
+    void rechazaUnPesoMaximoNoPositivo() {
+        assertThrows(IllegalArgumentException.class, () -> crear(0));
+    }
+}
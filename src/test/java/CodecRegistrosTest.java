@@ -0,0 +1,325 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de ida y vuelta de los formatos binario y CSV de inquilinos, cocheras, pagos,
+ * reservas y bajas, de las líneas armadas desde el formato binario y de la lectura de las
+ * líneas del formato anterior.
+ */
+class CodecRegistrosTest {
+
+    private static final Inquilino JUAN = new Inquilino("Juan", "Perez", "10000001");
+    private static final Inquilino MARIA = new Inquilino("Maria", "Gonzalez", "10000002");
+    private static final Cochera COCHERA = new Cochera(7, "Base", false, JUAN);
+
+    private final CodecRegistros codec = new CodecRegistros(
+            Map.of(JUAN.getDni(), JUAN, MARIA.getDni(), MARIA)::get,
+            Map.of("Juan Perez", JUAN, "Maria Gonzalez", MARIA)::get,
+            numero -> numero == COCHERA.getNumero() ? COCHERA : null);
+
+    @Test
+    void registrosBinariosIdaYVueltaSobreUnMismoBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        Pago pago = new Pago(15000.5, LocalDate.of(2025, 3, 1), JUAN, COCHERA);
+        Reserva reserva = new Reserva(12, LocalDate.of(2030, 1, 10), MARIA, Lugar.PILETA);
+
+        for (int vuelta = 0; vuelta < 2; vuelta++) {
+            // El mismo buffer se reutiliza en cada vuelta.
+            buffer.clear();
+            codec.codificar(MARIA, buffer);
+            codec.codificar(COCHERA, buffer);
+            codec.codificar(pago, buffer);
+            codec.codificar(reserva, buffer);
+            buffer.flip();
+
+            assertEquals(CodecRegistros.TIPO_INQUILINO, CodecRegistros.tipoSiguiente(buffer));
+            Inquilino inquilino = codec.decodificarInquilino(buffer);
+            assertEquals("Maria", inquilino.getNombre());
+            assertEquals("Gonzalez", inquilino.getApellido());
+            assertEquals("10000002", inquilino.getDni());
+
+            assertEquals(CodecRegistros.TIPO_COCHERA, CodecRegistros.tipoSiguiente(buffer));
+            Cochera cochera = codec.decodificarCochera(buffer);
+            assertEquals(7, cochera.getNumero());
+            assertEquals("Base", cochera.getCategoria());
+            assertFalse(cochera.isEstadoPago());
+            assertSame(JUAN, cochera.getInquilino());
+
+            assertEquals(CodecRegistros.TIPO_PAGO, CodecRegistros.tipoSiguiente(buffer));
+            Pago pagoLeido = codec.decodificarPago(buffer);
+            assertEquals(15000.5, pagoLeido.getMonto());
+            assertEquals(LocalDate.of(2025, 3, 1), pagoLeido.getFecha());
+            assertSame(JUAN, pagoLeido.getInquilino());
+            assertSame(COCHERA, pagoLeido.getCochera());
+
+            assertEquals(CodecRegistros.TIPO_RESERVA, CodecRegistros.tipoSiguiente(buffer));
+            Reserva reservaLeida = codec.decodificarReserva(buffer);
+            assertEquals(12, reservaLeida.getNroReserva());
+            assertEquals(LocalDate.of(2030, 1, 10), reservaLeida.getFecha());
+            assertEquals(Lugar.PILETA, reservaLeida.getLugar());
+            assertSame(MARIA, reservaLeida.getInquilino());
+
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void reservasConHorarioIdaYVueltaEnBinario() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.codificar(new Reserva(3, LocalDate.of(2030, 2, 1), LocalTime.of(10, 30), LocalTime.of(12, 0), JUAN, Lugar.SUM), buffer);
+        codec.codificar(new Reserva(4, LocalDate.of(2030, 2, 1), LocalTime.of(20, 0), LocalTime.MIDNIGHT, JUAN, Lugar.PARRILLA), buffer);
+        codec.codificar(new Reserva(5, LocalDate.of(2030, 2, 2), MARIA, Lugar.PILETA), buffer);
+        buffer.flip();
+
+        Reserva conHorario = codec.decodificarReserva(buffer);
+        assertEquals(LocalTime.of(10, 30), conHorario.getHoraDesde());
+        assertEquals(LocalTime.of(12, 0), conHorario.getHoraHasta());
+        Reserva hastaElFin = codec.decodificarReserva(buffer);
+        assertEquals(LocalTime.of(20, 0), hastaElFin.getHoraDesde());
+        assertEquals(LocalTime.MIDNIGHT, hastaElFin.getHoraHasta());
+        assertFalse(hastaElFin.isDiaCompleto());
+        // Sin horario, el registro no lleva los campos opcionales.
+        Reserva diaCompleto = codec.decodificarReserva(buffer);
+        assertTrue(diaCompleto.isDiaCompleto());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void textosNoAsciiIdaYVueltaEnBinario() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        codec.codificar(new Inquilino("Begoña", "Muñoz", "10000009"), buffer);
+        buffer.flip();
+        Inquilino leido = codec.decodificarInquilino(buffer);
+        assertEquals("Begoña", leido.getNombre());
+        assertEquals("Muñoz", leido.getApellido());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void detectaRegistrosBinariosIncompletos() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        codec.codificar(new Pago(900.0, LocalDate.of(2025, 12, 31), MARIA, null), buffer);
+        int largo = buffer.position();
+        buffer.flip();
+        assertTrue(CodecRegistros.hayRegistroCompleto(buffer));
+
+        buffer.limit(largo - 1);
+        assertFalse(CodecRegistros.hayRegistroCompleto(buffer));
+        buffer.limit(3);
+        assertFalse(CodecRegistros.hayRegistroCompleto(buffer));
+
+        buffer.limit(largo);
+        Pago leido = codec.decodificarPago(buffer);
+        assertNull(leido.getCochera());
+    }
+
+    @Test
+    void rechazaUnRegistroBinarioDeOtroTipo() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        codec.codificar(JUAN, buffer);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> codec.decodificarPago(buffer));
+    }
+
+    @Test
+    void bajaIdaYVueltaEnBinario() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        codec.codificarBaja(42, buffer);
+        buffer.flip();
+        assertEquals(CodecRegistros.TIPO_BAJA_RESERVA, CodecRegistros.tipoSiguiente(buffer));
+        assertEquals(42, codec.decodificarBaja(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void lasLineasArmadasDesdeBinarioSonLasDeCsv() {
+        Pago pago = new Pago(15000.5, LocalDate.of(2025, 3, 1), JUAN, COCHERA);
+        Pago sinCochera = new Pago(800, LocalDate.of(2025, 3, 2), MARIA, null);
+        Reserva diaCompleto = new Reserva(12, LocalDate.of(2030, 1, 10), MARIA, Lugar.PILETA);
+        Reserva conHorario = new Reserva(3, LocalDate.of(2030, 2, 1), LocalTime.of(10, 30), LocalTime.of(12, 0), JUAN, Lugar.SUM);
+        Reserva hastaElFin = new Reserva(4, LocalDate.of(2030, 2, 1), LocalTime.of(20, 0), LocalTime.MIDNIGHT, JUAN, Lugar.PARRILLA);
+
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        codec.codificar(pago, buffer);
+        codec.codificar(sinCochera, buffer);
+        codec.codificar(diaCompleto, buffer);
+        codec.codificar(conHorario, buffer);
+        codec.codificar(hastaElFin, buffer);
+        codec.codificarBaja(12, buffer);
+        buffer.flip();
+
+        assertEquals(codec.aCsv(pago), CodecRegistros.lineaDesdeBinario(buffer));
+        assertEquals(codec.aCsv(sinCochera), CodecRegistros.lineaDesdeBinario(buffer));
+        assertEquals(codec.aCsv(diaCompleto), CodecRegistros.lineaDesdeBinario(buffer));
+        assertEquals(codec.aCsv(conHorario), CodecRegistros.lineaDesdeBinario(buffer));
+        assertEquals(codec.aCsv(hastaElFin), CodecRegistros.lineaDesdeBinario(buffer));
+        assertEquals(codec.aCsvBaja(12), CodecRegistros.lineaDesdeBinario(buffer));
+        assertFalse(buffer.hasRemaining());
+
+        // Inquilinos y cocheras no tienen línea en los archivos de datos.
+        buffer.clear();
+        codec.codificar(JUAN, buffer);
+        buffer.flip();
+        assertThrows(IllegalArgumentException.class, () -> CodecRegistros.lineaDesdeBinario(buffer));
+    }
+
+    @Test
+    void inquilinoYCocheraIdaYVueltaEnCsv() {
+        String lineaInquilino = codec.aCsv(JUAN);
+        assertEquals("I1,Juan,Perez,10000001", lineaInquilino);
+        Inquilino inquilino = codec.inquilinoDesdeCsv(lineaInquilino);
+        assertEquals(JUAN.getNombre(), inquilino.getNombre());
+        assertEquals(JUAN.getApellido(), inquilino.getApellido());
+        assertEquals(JUAN.getDni(), inquilino.getDni());
+
+        String lineaCochera = codec.aCsv(new Cochera(3, "Base", true, MARIA));
+        assertEquals("K1,3,Base,true,10000002", lineaCochera);
+        Cochera cochera = codec.cocheraDesdeCsv(lineaCochera);
+        assertEquals(3, cochera.getNumero());
+        assertEquals("Base", cochera.getCategoria());
+        assertTrue(cochera.isEstadoPago());
+        assertSame(MARIA, cochera.getInquilino());
+    }
+
+    @Test
+    void pagoIdaYVuelta() {
+        Pago pago = new Pago(15000.5, LocalDate.of(2025, 3, 1), JUAN, COCHERA);
+        String linea = codec.aCsv(pago);
+        assertEquals("P1,15000.5,01/03/2025,10000001,7", linea);
+        assertEquals(CodecRegistros.TIPO_PAGO, CodecRegistros.tipoDeLinea(linea));
+
+        Pago leido = codec.pagoDesdeLinea(linea);
+        assertEquals(pago.getMonto(), leido.getMonto());
+        assertEquals(pago.getFecha(), leido.getFecha());
+        assertSame(JUAN, leido.getInquilino());
+        assertSame(COCHERA, leido.getCochera());
+    }
+
+    @Test
+    void pagoSinCocheraIdaYVuelta() {
+        String linea = codec.aCsv(new Pago(900.0, LocalDate.of(2025, 12, 31), MARIA, null));
+        assertEquals("P1,900.0,31/12/2025,10000002,-1", linea);
+        Pago leido = codec.pagoDesdeLinea(linea);
+        assertSame(MARIA, leido.getInquilino());
+        assertNull(leido.getCochera());
+    }
+
+    @Test
+    void reservaDeDiaCompletoIdaYVuelta() {
+        Reserva reserva = new Reserva(12, LocalDate.of(2030, 1, 10), MARIA, Lugar.PILETA);
+        String linea = codec.aCsv(reserva);
+        // Sin horario, la línea conserva el formato anterior a los horarios.
+        assertEquals("R1,12,10/01/2030,PILETA,10000002", linea);
+
+        Reserva leida = codec.reservaDesdeLinea(linea);
+        assertEquals(12, leida.getNroReserva());
+        assertEquals(reserva.getFecha(), leida.getFecha());
+        assertEquals(Lugar.PILETA, leida.getLugar());
+        assertSame(MARIA, leida.getInquilino());
+        assertTrue(leida.isDiaCompleto());
+    }
+
+    @Test
+    void reservaConHorarioIdaYVuelta() {
+        Reserva reserva = new Reserva(3, LocalDate.of(2030, 2, 1), LocalTime.of(10, 30), LocalTime.of(12, 0), JUAN, Lugar.SUM);
+        String linea = codec.aCsv(reserva);
+        assertEquals("R1,3,01/02/2030,SUM,10000001,10:30,12:00", linea);
+
+        Reserva leida = codec.reservaDesdeLinea(linea);
+        assertEquals(LocalTime.of(10, 30), leida.getHoraDesde());
+        assertEquals(LocalTime.of(12, 0), leida.getHoraHasta());
+        assertEquals(reserva.getHorario(), leida.getHorario());
+    }
+
+    @Test
+    void reservaHastaElFinDelDiaIdaYVuelta() {
+        Reserva reserva = new Reserva(4, LocalDate.of(2030, 2, 1), LocalTime.of(20, 0), LocalTime.MIDNIGHT, JUAN, Lugar.PARRILLA);
+        String linea = codec.aCsv(reserva);
+        assertEquals("R1,4,01/02/2030,PARRILLA,10000001,20:00,24:00", linea);
+
+        Reserva leida = codec.reservaDesdeLinea(linea);
+        assertEquals(LocalTime.of(20, 0), leida.getHoraDesde());
+        assertEquals(LocalTime.MIDNIGHT, leida.getHoraHasta());
+        assertFalse(leida.isDiaCompleto());
+    }
+
+    @Test
+    void bajaIdaYVuelta() {
+        String linea = codec.aCsvBaja(42);
+        assertEquals("B1,42", linea);
+        assertEquals(CodecRegistros.TIPO_BAJA_RESERVA, CodecRegistros.tipoDeLinea(linea));
+        assertEquals(42, codec.bajaDesdeLinea(linea));
+    }
+
+    @Test
+    void leeLasLineasDelFormatoAnterior() {
+        String pago = "Pago por : $55650.0 | Fecha: 19/02/2025 | Inquilino: Maria Gonzalez";
+        assertEquals(CodecRegistros.TIPO_PAGO, CodecRegistros.tipoDeLinea(pago));
+        Pago leido = codec.pagoDesdeLinea(pago);
+        assertEquals(55650.0, leido.getMonto());
+        assertEquals(LocalDate.of(2025, 2, 19), leido.getFecha());
+        assertSame(MARIA, leido.getInquilino());
+        assertNull(leido.getCochera());
+
+        String reserva = "Reserva N°5 | Fecha: 20/09/2025 | Lugar: SUM | Inquilino: Juan Perez";
+        assertEquals(CodecRegistros.TIPO_RESERVA, CodecRegistros.tipoDeLinea(reserva));
+        Reserva leida = codec.reservaDesdeLinea(reserva);
+        assertEquals(5, leida.getNroReserva());
+        assertEquals(Lugar.SUM, leida.getLugar());
+        assertSame(JUAN, leida.getInquilino());
+        assertTrue(leida.isDiaCompleto());
+        assertEquals(5, CodecRegistros.nroReservaDesdeLinea(reserva));
+
+        String baja = "Cancelada N°5";
+        assertEquals(CodecRegistros.TIPO_BAJA_RESERVA, CodecRegistros.tipoDeLinea(baja));
+        assertEquals(5, codec.bajaDesdeLinea(baja));
+    }
+
+    @Test
+    void conservaLosRegistrosDeInquilinosQueYaNoExisten() {
+        Pago leido = codec.pagoDesdeLinea("P1,100.0,01/03/2025,99999999,-1");
+        assertEquals("99999999", leido.getInquilino().getDni());
+        assertEquals("", leido.getInquilino().getNombre());
+
+        Reserva leida = codec.reservaDesdeLinea("Reserva N°8 | Fecha: 20/09/2025 | Lugar: SUM | Inquilino: Diego Silva");
+        assertEquals("Diego", leida.getInquilino().getNombre());
+        assertEquals("Silva", leida.getInquilino().getApellido());
+    }
+
+    @Test
+    void leeSoloElNumeroDeUnaReserva() {
+        // El número se lee sin resolver el inquilino.
+        assertEquals(17, CodecRegistros.nroReservaDesdeLinea("R1,17,10/01/2030,SUM,00000000"));
+    }
+
+    @Test
+    void rechazaLineasInvalidas() {
+        assertEquals(0, CodecRegistros.tipoDeLinea("P2,100.0,01/03/2025"));
+        assertEquals(0, CodecRegistros.tipoDeLinea("una línea cualquiera"));
+        assertEquals(0, CodecRegistros.tipoDeLinea(""));
+        assertThrows(IllegalArgumentException.class, () -> codec.pagoDesdeLinea("R1,1,10/01/2030,SUM,10000001"));
+        assertThrows(IllegalArgumentException.class, () -> codec.pagoDesdeLinea("P1,100.0,32/13/2025,10000001,-1"));
+        assertThrows(IllegalArgumentException.class, () -> codec.reservaDesdeLinea("R1,1"));
+        assertThrows(IllegalArgumentException.class, () -> codec.reservaDesdeLinea("R1,1,10/01/2030,SUM,10000001,25:00,26:00"));
+        assertThrows(IllegalArgumentException.class, () -> codec.reservaDesdeLinea("Reserva N°1 sin separadores"));
+    }
+
+    @Test
+    void filtraLasLineasDePagosDeUnMes() {
+        Predicate<String> marzo = CodecRegistros.lineasDePagosDelMes(YearMonth.of(2025, 3));
+        assertTrue(marzo.test("P1,100.0,01/03/2025,10000001,7"));
+        assertFalse(marzo.test("P1,100.0,01/04/2025,10000001,7"));
+        assertFalse(marzo.test("P1,100.0,01/03/2024,10000001,7"));
+        assertFalse(marzo.test("R1,1,01/03/2025,SUM,10000001"));
+        // Las líneas del formato anterior pasan siempre: se filtran luego por fecha.
+        assertTrue(marzo.test("Pago por : $100.0 | Fecha: 19/02/2025 | Inquilino: Maria Gonzalez"));
+    }
+}
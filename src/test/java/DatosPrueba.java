@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Archivos de datos de las pruebas que crean un Administrador, que trabaja sobre los archivos
+ * del directorio actual. Maven ejecuta las pruebas en target/datos-prueba (ver pom.xml); si el
+ * directorio actual es otro, esas pruebas se omiten para no tocar datos reales.
+ */
+final class DatosPrueba {
+
+    // Inquilinos y cocheras con los que empieza cada prueba: el tercer inquilino no tiene cochera.
+    static final String INQUILINOS = "Juan,Perez,10000001\nMaria,Gonzalez,10000002\nCarlos,Lopez,10000003\n";
+    static final String COCHERAS = "1,Base,false,10000001\n2,Base,false,10000002\n";
+
+    private DatosPrueba() {
+    }
+
+    /**
+     * Borra los archivos del directorio de pruebas y escribe los inquilinos y las cocheras iniciales.
+     */
+    static void preparar() throws IOException {
+        preparar(INQUILINOS, COCHERAS);
+    }
+
+    /**
+     * Borra los archivos del directorio de pruebas y escribe los inquilinos y las cocheras indicados.
+     */
+    static void preparar(String inquilinos, String cocheras) throws IOException {
+        Path actual = Paths.get("").toAbsolutePath();
+        Assumptions.assumeTrue(actual.getFileName().toString().equals("datos-prueba"),
+                "las pruebas del Administrador se ejecutan sólo en target/datos-prueba");
+        for (Path archivo : archivos(actual)) {
+            Files.delete(archivo);
+        }
+        Files.writeString(Paths.get("inquilinos.txt"), inquilinos);
+        Files.writeString(Paths.get("cocheras.txt"), cocheras);
+    }
+
+    /**
+     * Crea un Administrador sobre los archivos del directorio de pruebas, sin salida de listados.
+     */
+    static Administrador abrir() {
+        return new Administrador("Admin", "Prueba", "1", new PrintWriter(Writer.nullWriter()));
+    }
+
+    /**
+     * Copia los archivos del directorio de pruebas, con sus fechas de modificación, en un directorio temporal.
+     *
+     * @return Directorio con la copia.
+     */
+    static Path copiar() throws IOException {
+        Path copia = Files.createTempDirectory("datos-prueba");
+        for (Path archivo : archivos(Paths.get("").toAbsolutePath())) {
+            Files.copy(archivo, copia.resolve(archivo.getFileName()), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        return copia;
+    }
+
+    /**
+     * Reemplaza los archivos del directorio de pruebas por una copia hecha con copiar().
+     */
+    static void restaurar(Path copia) throws IOException {
+        for (Path archivo : archivos(Paths.get("").toAbsolutePath())) {
+            Files.delete(archivo);
+        }
+        for (Path archivo : archivos(copia)) {
+            Files.copy(archivo, Paths.get(archivo.getFileName().toString()), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    private static List<Path> archivos(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(Files::isRegularFile).toList();
+        }
+    }
+}
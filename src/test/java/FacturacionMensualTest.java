@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la facturación mensual hecha por el Administrador: recalcula el estado de pago
+ * de todas las cocheras a partir de los pagos del período.
+ */
+class FacturacionMensualTest {
+
+    private static final Path PAGOS = Paths.get("pagos.txt");
+
+    // Cantidad de cocheras de la prueba de facturación, suficientes para repartirse entre hilos.
+    private static final int COCHERAS = 600;
+
+    @BeforeEach
+    void prepararDatos() throws IOException {
+        DatosPrueba.preparar();
+    }
+
+    @Test
+    void recalculaLosEstadosYTotalesDeTodasLasCocheras() throws IOException {
+        // Todas las cocheras empiezan pagadas, alternando dos categorías.
+        StringBuilder inquilinos = new StringBuilder();
+        StringBuilder cocheras = new StringBuilder();
+        for (int i = 1; i <= COCHERAS; i++) {
+            inquilinos.append("Inquilino,").append(i).append(',').append(30000000 + i).append('\n');
+            cocheras.append(i).append(i % 2 == 0 ? ",Base," : ",Grande,").append("true,").append(30000000 + i).append('\n');
+        }
+        DatosPrueba.preparar(inquilinos.toString(), cocheras.toString());
+
+        // Pagan en marzo las cocheras múltiplos de 3 (la 3 dos veces); las anteriores en dos a ellas pagaron
+        // en febrero y deben quedar pendientes, como todas las demás.
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            for (int i = 3; i <= COCHERAS; i += 3) {
+                pagar(admin, i, LocalDate.of(2025, 3, 10));
+                pagar(admin, i - 2, LocalDate.of(2025, 2, 10));
+            }
+            pagar(admin, 3, LocalDate.of(2025, 3, 20));
+
+            FacturacionMensual.Resultado resultado = admin.facturar(YearMonth.of(2025, 3));
+
+            assertEquals(COCHERAS, resultado.getCocheras());
+            assertEquals(COCHERAS / 3, resultado.getPagadas());
+            assertEquals((COCHERAS / 3 + 1) * 150_000L, resultado.getRecaudadoCentavos());
+            assertEquals(0, resultado.getPagosSinCochera());
+            // Los múltiplos de 3 son pares e impares por igual; la cochera 3 (Grande) pagó dos veces.
+            FacturacionMensual.TotalesCategoria base = resultado.getCategorias().get("Base");
+            FacturacionMensual.TotalesCategoria grande = resultado.getCategorias().get("Grande");
+            assertEquals(COCHERAS / 2, base.getCocheras());
+            assertEquals(COCHERAS / 6, base.getPagadas());
+            assertEquals(COCHERAS / 6, base.getPagos());
+            assertEquals(COCHERAS / 6, grande.getPagadas());
+            assertEquals(COCHERAS / 6 + 1, grande.getPagos());
+            assertEquals(COCHERAS / 3, base.getPendientes());
+
+            for (int i = 1; i <= COCHERAS; i++) {
+                assertEquals(i % 3 == 0, admin.getCocheraPorNumero(i).isEstadoPago(), "cochera " + i);
+            }
+        } finally {
+            admin.cerrar();
+        }
+
+        // Los estados quedan en disco.
+        Administrador reabierto = DatosPrueba.abrir();
+        try {
+            for (int i = 1; i <= COCHERAS; i++) {
+                assertEquals(i % 3 == 0, reabierto.getCocheraPorNumero(i).isEstadoPago(), "cochera " + i);
+            }
+        } finally {
+            reabierto.cerrar();
+        }
+    }
+
+    private static void pagar(Administrador admin, int numero, LocalDate fecha) {
+        Cochera cochera = admin.getCocheraPorNumero(numero);
+        admin.registrarPago(new Pago(1500.0, fecha, cochera.getInquilino(), cochera));
+    }
+
+    @Test
+    void unErrorAlLeerLosPagosNoCambiaNingunEstado() throws IOException {
+        Administrador admin = DatosPrueba.abrir();
+        try {
+            Inquilino juan = admin.getInquilinoPorDni("10000001");
+            admin.registrarPago(new Pago(5000.0, LocalDate.of(2025, 3, 1), juan, admin.getCocheraPorInquilino(juan)));
+            String antes = Files.readString(Paths.get("cocheras.txt"));
+
+            // "pagos.txt" pasa a ser un directorio: no se puede leer.
+            Files.delete(PAGOS);
+            Files.createDirectory(PAGOS);
+            try {
+                assertThrows(IOException.class, () -> admin.facturar(YearMonth.of(2025, 4)));
+            } finally {
+                Files.delete(PAGOS);
+            }
+
+            // Facturar abril dejaría pendiente la cochera 1: sigue pagada y "cocheras.txt" no cambió.
+            assertTrue(admin.getCocheraPorNumero(1).isEstadoPago());
+            assertEquals(antes, Files.readString(Paths.get("cocheras.txt")));
+        } finally {
+            admin.cerrar();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del importador de CSV: las filas llegan al Aplicador en el orden del archivo aunque
+ * se interpreten en paralelo, y cada línea rechazada se informa con su número y su motivo.
+ */
+class ImportadorCsvTest {
+
+    private static final Inquilino JUAN = new Inquilino("Juan", "Perez", "10000001");
+    private static final Inquilino CARLOS = new Inquilino("Carlos", "Lopez", "10000003");
+    private static final Cochera COCHERA = new Cochera(1, "Base", false, JUAN);
+
+    @TempDir
+    Path directorio;
+
+    // Juan tiene la cochera 1; Carlos no tiene cochera.
+    private static ImportadorCsv crear(int hilos) {
+        Map<String, Inquilino> inquilinos = Map.of(JUAN.getDni(), JUAN, CARLOS.getDni(), CARLOS);
+        return new ImportadorCsv(inquilinos::get, inquilino -> inquilino == JUAN ? COCHERA : null,
+                numero -> numero == 1 ? COCHERA : null, hilos);
+    }
+
+    private Path escribir(String contenido) throws IOException {
+        return Files.writeString(directorio.resolve("importar.csv"), contenido);
+    }
+
+    @Test
+    void entregaLasFilasEnElOrdenDelArchivo() throws IOException {
+        // Muchos más bloques que los que pueden estar en curso a la vez; el monto es el número de línea.
+        int cantidad = 50_000;
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= cantidad; i++) {
+            csv.append("pago,10000001,").append(i).append(",01/03/2025\n");
+        }
+        Path archivo = escribir(csv.toString());
+
+        List<Double> montos = new ArrayList<>();
+        ImportadorCsv.Resultado resultado = crear(4).importar(archivo.toString(), fila -> {
+            montos.add(fila.getPago().getMonto());
+            return null;
+        });
+
+        assertEquals(cantidad, resultado.getFilas());
+        assertEquals(cantidad, resultado.getPagos());
+        assertTrue(resultado.getRechazos().isEmpty());
+        assertEquals(cantidad, montos.size());
+        for (int i = 0; i < cantidad; i++) {
+            assertEquals(i + 1, montos.get(i));
+        }
+    }
+
+    @Test
+    void informaLasLineasRechazadasConSuMotivo() throws IOException {
+        Path archivo = escribir("""
+                # pagos y reservas de prueba
+                pago,10000001,5000,01/03/2025
+
+                pago,99999999,5000,01/03/2025
+                pago,10000001,-1,01/03/2025
+                pago,10000001,5000,2025-03-01
+                pago,10000003,5000,01/03/2025
+                pago,10000001,5000,01/03/2025,7
+                reserva,10000001,01/01/2099,QUINCHO
+                reserva,10000001,01/01/2099,SUM
+                reserva,10000001,02/01/2099,SUM
+                otra,cosa
+                """);
+
+        // El Aplicador rechaza la segunda reserva, como si el lugar ya estuviera ocupado.
+        ImportadorCsv.Resultado resultado = crear(2).importar(archivo.toString(),
+                fila -> LocalDate.of(2099, 1, 2).equals(fila.getFecha()) ? "ocupado" : null);
+
+        assertEquals(10, resultado.getFilas());
+        assertEquals(1, resultado.getPagos());
+        assertEquals(1, resultado.getReservas());
+        List<ImportadorCsv.Rechazo> rechazos = resultado.getRechazos();
+        assertEquals(List.of(4, 5, 6, 7, 8, 9, 11, 12),
+                rechazos.stream().map(ImportadorCsv.Rechazo::getNumeroLinea).toList());
+        assertEquals("no existe un inquilino con DNI 99999999", rechazos.get(0).getMotivo());
+        assertEquals("monto inválido", rechazos.get(1).getMotivo());
+        assertEquals("fecha inválida (use dd/MM/yyyy)", rechazos.get(2).getMotivo());
+        assertEquals("el inquilino no tiene una cochera asignada", rechazos.get(3).getMotivo());
+        assertEquals("no existe la cochera 7", rechazos.get(4).getMotivo());
+        assertEquals("lugar inválido (PARRILLA, SUM o PILETA)", rechazos.get(5).getMotivo());
+        assertEquals("ocupado", rechazos.get(6).getMotivo());
+        assertEquals("formato inválido", rechazos.get(7).getMotivo());
+        assertEquals("otra,cosa", rechazos.get(7).getLinea());
+    }
+
+    @Test
+    void unArchivoInexistenteEsUnErrorDeLectura() {
+        String archivo = directorio.resolve("no-existe.csv").toString();
+        assertThrows(IOException.class, () -> crear(2).importar(archivo, fila -> null));
+    }
+}
@@ -0,0 +1,316 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la recuperación del registro de operaciones: las entradas forzadas a disco
+ * se vuelven a aplicar sobre los archivos de datos, y las entradas incompletas o dañadas
+ * (una escritura interrumpida) se descartan. También se prueba que las esperas de varias
+ * entradas anotadas a la vez se resuelven con una única escritura forzada.
+ */
+class RegistroOperacionesTest {
+
+    private static final String SALTO = System.lineSeparator();
+
+    private static final String PAGO = "P1,15000.0,01/03/2025,10000001,1";
+    private static final String OTRO_PAGO = "P1,20000.0,02/03/2025,10000002,2";
+    private static final String RESERVA = "R1,7,10/01/2030,SUM,10000001,10:00,12:00";
+    private static final String BAJA = "B1,7";
+
+    // Codec para armar los registros binarios de las entradas a partir de las líneas.
+    private static final CodecRegistros CODEC = new CodecRegistros(dni -> null, nombre -> null,
+            numero -> new Cochera(numero, "Base", false, null));
+
+    @TempDir
+    Path directorio;
+
+    private Path wal;
+    private Path pagos;
+    private Path reservas;
+    private ArchivoCocheras cocheras;
+
+    // Cantidad de veces que el punto de control sincronizó los archivos de datos.
+    private final AtomicInteger sincronizaciones = new AtomicInteger();
+
+    @BeforeEach
+    void crearArchivos() throws IOException {
+        wal = directorio.resolve("operaciones.wal");
+        pagos = directorio.resolve("pagos.txt");
+        reservas = directorio.resolve("reservas.txt");
+        Path csv = directorio.resolve("cocheras.txt");
+        Files.writeString(csv, "1,Base,false,10000001\n2,Base,false,10000002\n");
+        cocheras = ArchivoCocheras.abrir(directorio.resolve("cocheras.dat").toString(), csv.toString());
+    }
+
+    @AfterEach
+    void cerrarCocheras() throws IOException {
+        cocheras.close();
+    }
+
+    private RegistroOperaciones abrir() throws IOException {
+        return new RegistroOperaciones(wal.toString(), pagos.toString(), reservas.toString(),
+                sincronizaciones::incrementAndGet);
+    }
+
+    /**
+     * Cierra el registro conservando sus entradas, como si el proceso se hubiera interrumpido
+     * (cerrarlo normalmente hace un punto de control, que lo vacía).
+     */
+    private void interrumpir(RegistroOperaciones registro) throws IOException {
+        Path copia = directorio.resolve("operaciones.copia");
+        Files.copy(wal, copia);
+        registro.close();
+        Files.move(copia, wal, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private int recuperar() throws IOException {
+        RegistroOperaciones registro = abrir();
+        try {
+            return registro.recuperar(cocheras);
+        } finally {
+            registro.close();
+        }
+    }
+
+    /**
+     * Devuelve la acción que escribe el registro binario de una línea de pago, reserva o baja.
+     */
+    private static Consumer<ByteBuffer> binario(String linea) {
+        byte tipo = CodecRegistros.tipoDeLinea(linea);
+        if (tipo == CodecRegistros.TIPO_PAGO) {
+            Pago pago = CODEC.pagoDesdeLinea(linea);
+            return destino -> CODEC.codificar(pago, destino);
+        }
+        if (tipo == CodecRegistros.TIPO_RESERVA) {
+            Reserva reserva = CODEC.reservaDesdeLinea(linea);
+            return destino -> CODEC.codificar(reserva, destino);
+        }
+        int nroReserva = CODEC.bajaDesdeLinea(linea);
+        return destino -> CODEC.codificarBaja(nroReserva, destino);
+    }
+
+    private static String leer(Path archivo) throws IOException {
+        return Files.exists(archivo) ? Files.readString(archivo, StandardCharsets.UTF_8) : "";
+    }
+
+    @Test
+    void reaplicaLasLineasQueNoLlegaronALosArchivos() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        registro.registrar(0, -1, binario(RESERVA));
+        interrumpir(registro);
+
+        assertEquals(2, recuperar());
+        assertEquals(PAGO + SALTO, leer(pagos));
+        assertEquals(RESERVA + SALTO, leer(reservas));
+        assertTrue(cocheras.isEstadoPago(0));
+        assertFalse(cocheras.isEstadoPago(1));
+    }
+
+    @Test
+    void completaUnaLineaEscritaAMedias() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        registro.registrar(PAGO.length() + SALTO.length(), 2, binario(OTRO_PAGO));
+        interrumpir(registro);
+        Files.writeString(pagos, PAGO + SALTO + OTRO_PAGO.substring(0, 10));
+
+        assertEquals(1, recuperar());
+        assertEquals(PAGO + SALTO + OTRO_PAGO + SALTO, leer(pagos));
+    }
+
+    @Test
+    void aplicarDosVecesNoDuplicaLineas() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        interrumpir(registro);
+
+        Path copia = directorio.resolve("operaciones.copia");
+        Files.copy(wal, copia);
+        assertEquals(1, recuperar());
+        // Una recuperación interrumpida se repite con el mismo registro.
+        Files.move(copia, wal, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(0, recuperar());
+        assertEquals(PAGO + SALTO, leer(pagos));
+    }
+
+    @Test
+    void descartaUnaEntradaIncompleta() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        registro.registrar(PAGO.length() + SALTO.length(), 2, binario(OTRO_PAGO));
+        interrumpir(registro);
+        // La última entrada quedó cortada.
+        byte[] contenido = Files.readAllBytes(wal);
+        Files.write(wal, java.util.Arrays.copyOf(contenido, contenido.length - 5));
+
+        assertEquals(1, recuperar());
+        assertEquals(PAGO + SALTO, leer(pagos));
+        assertFalse(cocheras.isEstadoPago(1));
+    }
+
+    @Test
+    void descartaUnaEntradaDaniadaYLasSiguientes() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        registro.registrar(PAGO.length() + SALTO.length(), 2, binario(OTRO_PAGO));
+        interrumpir(registro);
+        // Se altera un byte de la línea de la primera entrada: su CRC ya no coincide.
+        byte[] contenido = Files.readAllBytes(wal);
+        contenido[8 + 13 + 3] ^= 1;
+        Files.write(wal, contenido);
+
+        assertEquals(0, recuperar());
+        assertEquals("", leer(pagos));
+        assertFalse(cocheras.isEstadoPago(0));
+        assertFalse(cocheras.isEstadoPago(1));
+    }
+
+    @Test
+    void unLoteSeAplicaCompletoONoSeAplica() throws IOException {
+        RegistroOperaciones.Lote lote = new RegistroOperaciones.Lote();
+        long posicion = lote.agregar(0, 1, PAGO, binario(PAGO));
+        lote.agregar(posicion, 2, OTRO_PAGO, binario(OTRO_PAGO));
+        lote.agregar(0, -1, RESERVA, binario(RESERVA));
+        assertEquals(3, lote.getCantidad());
+
+        RegistroOperaciones registro = abrir();
+        registro.registrar(lote);
+        interrumpir(registro);
+        byte[] completo = Files.readAllBytes(wal);
+
+        // Sin la última entrada, no se aplica ninguna.
+        Files.write(wal, java.util.Arrays.copyOf(completo, completo.length - 1));
+        assertEquals(0, recuperar());
+        assertEquals("", leer(pagos));
+        assertEquals("", leer(reservas));
+
+        Files.write(wal, completo);
+        assertEquals(3, recuperar());
+        assertEquals(PAGO + SALTO + OTRO_PAGO + SALTO, leer(pagos));
+        assertEquals(RESERVA + SALTO, leer(reservas));
+        assertTrue(cocheras.isEstadoPago(0));
+        assertTrue(cocheras.isEstadoPago(1));
+    }
+
+    @Test
+    void elPuntoDeControlSincronizaLosDatosYVaciaElRegistro() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        assertTrue(Files.size(wal) > 0);
+
+        AtomicInteger tareas = new AtomicInteger();
+        registro.puntoDeControl(tareas::incrementAndGet);
+        assertEquals(0, Files.size(wal));
+        assertEquals(1, sincronizaciones.get());
+        assertEquals(1, tareas.get());
+        registro.close();
+
+        // Tras el punto de control no queda nada por recuperar.
+        assertEquals(0, recuperar());
+        assertEquals("", leer(pagos));
+    }
+
+    @Test
+    void lasEsperasSimultaneasCompartenUnaEscrituraForzada() throws Exception {
+        int hilos = 8;
+        RegistroOperaciones registro = abrir();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            // Cada hilo anota su entrada y espera a que todas estén anotadas antes de esperar el disco.
+            CyclicBarrier anotadas = new CyclicBarrier(hilos);
+            AtomicInteger posicion = new AtomicInteger();
+            List<Future<?>> futuros = new ArrayList<>();
+            long forzadasAntes = Metricas.global().getContador("operaciones.escriturasForzadas");
+            for (int i = 0; i < hilos; i++) {
+                int cochera = i % 2 + 1;
+                futuros.add(ejecutor.submit(() -> {
+                    // Como en GestorArchivo, la posición se toma y se anota bajo un mismo bloqueo.
+                    long secuencia;
+                    synchronized (posicion) {
+                        secuencia = registro.anotar(posicion.getAndAdd(PAGO.length() + SALTO.length()),
+                                cochera, binario(PAGO));
+                    }
+                    anotadas.await();
+                    registro.esperarEnDisco(secuencia);
+                    return null;
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get(1, TimeUnit.MINUTES);
+            }
+            assertEquals(1, Metricas.global().getContador("operaciones.escriturasForzadas") - forzadasAntes);
+            // Una entrada ya confirmada no vuelve a forzar el registro.
+            registro.forzar();
+            assertEquals(1, Metricas.global().getContador("operaciones.escriturasForzadas") - forzadasAntes);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+        interrumpir(registro);
+
+        assertEquals(hilos, recuperar());
+        assertEquals((PAGO + SALTO).repeat(hilos), leer(pagos));
+    }
+
+    @Test
+    void reconstruyeLasLineasDeReservasYBajas() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, -1, binario(RESERVA));
+        registro.registrar(RESERVA.length() + SALTO.length(), -1, binario(BAJA));
+        interrumpir(registro);
+
+        assertEquals(2, recuperar());
+        assertEquals(RESERVA + SALTO + BAJA + SALTO, leer(reservas));
+    }
+
+    @Test
+    void reaplicaEntradasDeVersionesAnterioresConLaLinea() throws IOException {
+        // Entrada escrita antes del formato binario: los campos fijos seguidos de la línea en UTF-8.
+        byte[] linea = PAGO.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entrada = ByteBuffer.allocate(8 + 13 + linea.length);
+        entrada.putInt(13 + linea.length).putInt(0)
+                .put(CodecRegistros.TIPO_PAGO).putLong(0).putInt(1).put(linea);
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        crc.update(entrada.array(), 8, 13 + linea.length);
+        entrada.putInt(4, (int) crc.getValue());
+        Files.write(wal, entrada.array());
+
+        assertEquals(1, recuperar());
+        assertEquals(PAGO + SALTO, leer(pagos));
+        assertTrue(cocheras.isEstadoPago(0));
+    }
+
+    @Test
+    void trasUnaFallaNoSeVaciaNiAceptaEntradas() throws IOException {
+        RegistroOperaciones registro = abrir();
+        registro.registrar(0, 1, binario(PAGO));
+        registro.marcarFalla(new IOException("no se pudo guardar la línea"));
+
+        // El registro conserva la entrada para que se aplique al recuperar.
+        assertThrows(IOException.class, () -> registro.puntoDeControl(null));
+        assertTrue(Files.size(wal) > 0);
+        assertThrows(UncheckedIOException.class, () -> registro.anotar(0, 2, binario(OTRO_PAGO)));
+        assertThrows(IOException.class, registro::forzar);
+        // Al cerrarlo tampoco se vacía.
+        assertThrows(IOException.class, registro::close);
+
+        assertEquals(1, recuperar());
+        assertEquals(PAGO + SALTO, leer(pagos));
+    }
+}
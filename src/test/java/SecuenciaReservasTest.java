@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la secuencia de números de reserva y de su marca de agua.
+ */
+class SecuenciaReservasTest {
+
+    @TempDir
+    Path directorio;
+
+    private SecuenciaReservas abrir() {
+        return new SecuenciaReservas(directorio.resolve("reservas.seq").toString());
+    }
+
+    @Test
+    void empiezaDesdeCeroSinMarcaDeAgua() {
+        SecuenciaReservas secuencia = abrir();
+        assertEquals(0, secuencia.getUltimo());
+        assertEquals(1, secuencia.siguiente());
+        assertEquals(2, secuencia.siguiente());
+    }
+
+    @Test
+    void continuaDesdeLaMarcaDeAguaAlReabrir() {
+        SecuenciaReservas secuencia = abrir();
+        secuencia.siguiente();
+        secuencia.siguiente();
+        secuencia.siguiente();
+
+        assertEquals(4, abrir().siguiente());
+    }
+
+    @Test
+    void avanzarHastaNoRetrocede() throws IOException {
+        SecuenciaReservas secuencia = abrir();
+        secuencia.avanzarHasta(10);
+        assertEquals(11, secuencia.siguiente());
+        secuencia.avanzarHasta(5);
+        assertEquals(12, secuencia.siguiente());
+
+        // El avance también queda en la marca de agua.
+        assertEquals(12, ByteBuffer.wrap(Files.readAllBytes(directorio.resolve("reservas.seq"))).getInt());
+    }
+}
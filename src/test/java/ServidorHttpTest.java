@@ -0,0 +1,137 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la API HTTP sobre un Administrador con los datos de prueba, a través de un
+ * cliente HTTP real.
+ */
+class ServidorHttpTest {
+
+    private final HttpClient cliente = HttpClient.newHttpClient();
+    private Administrador admin;
+    private ServidorHttp servidor;
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        DatosPrueba.preparar();
+        admin = DatosPrueba.abrir();
+        servidor = new ServidorHttp(admin, 0);
+        servidor.iniciar();
+    }
+
+    @AfterEach
+    void detener() {
+        servidor.detener();
+        if (admin != null) {
+            admin.cerrar();
+        }
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpRequest.BodyPublisher publicador = cuerpo == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(cuerpo);
+        HttpRequest solicitud = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + servidor.getPuerto() + ruta))
+                .method(metodo, publicador)
+                .build();
+        return cliente.send(solicitud, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Verifica el código de la respuesta y que su cuerpo sea {"error": motivo}.
+     */
+    private static void assertError(int estado, String motivo, HttpResponse<String> respuesta) {
+        assertEquals(estado, respuesta.statusCode(), respuesta.body());
+        assertEquals("{\"error\":\"" + motivo.replace("\"", "\\\"") + "\"}", respuesta.body());
+    }
+
+    @Test
+    void enrutaCadaRecursoYMetodo() throws Exception {
+        HttpResponse<String> cochera = enviar("GET", "/cocheras/1", null);
+        assertEquals(200, cochera.statusCode());
+        assertEquals("{\"numero\":1,\"categoria\":\"Base\",\"pagada\":false,\"dni\":\"10000001\"}", cochera.body());
+
+        HttpResponse<String> inquilinos = enviar("GET", "/inquilinos?offset=1&limite=1", null);
+        assertEquals(200, inquilinos.statusCode());
+        assertEquals("[{\"dni\":\"10000002\",\"nombre\":\"Maria\",\"apellido\":\"Gonzalez\"}]", inquilinos.body());
+
+        assertEquals(404, enviar("GET", "/cocheras/99", null).statusCode());
+        assertEquals(404, enviar("GET", "/cocheras/1/pagos", null).statusCode());
+        assertEquals(404, enviar("GET", "/inquilinos/99999999", null).statusCode());
+        assertEquals(404, enviar("DELETE", "/reservas/12345", null).statusCode());
+        assertEquals(405, enviar("DELETE", "/cocheras/1", null).statusCode());
+        assertEquals(405, enviar("DELETE", "/reservas", null).statusCode());
+        assertEquals(400, enviar("GET", "/cocheras/uno", null).statusCode());
+        assertEquals(400, enviar("GET", "/cocheras?limite=-1", null).statusCode());
+    }
+
+    @Test
+    void reservaYCancelaPorLaApi() throws Exception {
+        String fecha = Fechas.formatear(LocalDate.now().plusDays(1));
+        String cuerpo = "{\"dni\":\"10000002\",\"fecha\":\"" + fecha + "\",\"lugar\":\"sum\",\"desde\":\"10:00\",\"hasta\":\"12:00\"}";
+        HttpResponse<String> creada = enviar("POST", "/reservas", cuerpo);
+        assertEquals(201, creada.statusCode(), creada.body());
+        int numero = Integer.parseInt(creada.body().replaceAll("^\\{\"nroReserva\":(\\d+),.*", "$1"));
+
+        // El mismo horario ya está ocupado.
+        assertEquals(409, enviar("POST", "/reservas", cuerpo).statusCode());
+        assertEquals(200, enviar("DELETE", "/reservas/" + numero, null).statusCode());
+        assertEquals(404, enviar("DELETE", "/reservas/" + numero, null).statusCode());
+    }
+
+    @Test
+    void leeObjetosJsonPlanos() throws Exception {
+        // Espacios, escapes, números sin comillas y null (el campo se toma como no indicado).
+        HttpResponse<String> pago = enviar("POST", "/pagos",
+                " { \"dni\" : \"1000\\u0030001\" ,\n\"monto\": 5000.5, \"nota\": \"a \\\"b\\\"\", \"fecha\": null } ");
+        assertEquals(201, pago.statusCode(), pago.body());
+        assertTrue(pago.body().contains("\"monto\":5000.5"), pago.body());
+        assertTrue(pago.body().contains("\"fecha\":\"" + Fechas.formatear(LocalDate.now()) + "\""), pago.body());
+        assertTrue(admin.getCocheraPorNumero(1).isEstadoPago());
+
+        assertError(400, "falta el campo \"monto\"", enviar("POST", "/pagos", "{\"dni\":\"10000002\"}"));
+        assertError(400, "JSON inválido: texto sin cerrar", enviar("POST", "/pagos", "{\"dni\":\"10000002"));
+        assertError(400, "JSON inválido: se esperaba un texto, número o booleano",
+                enviar("POST", "/pagos", "{\"dni\":{\"numero\":1}}"));
+        assertError(400, "JSON inválido: contenido después del objeto", enviar("POST", "/pagos", "{} {}"));
+        assertError(400, "JSON inválido: se esperaba '{' en la posición 0", enviar("POST", "/pagos", "[]"));
+        assertError(400, "monto inválido",
+                enviar("POST", "/pagos", "{\"dni\":\"10000002\",\"monto\":-1}"));
+        assertError(409, "el inquilino no tiene una cochera asignada",
+                enviar("POST", "/pagos", "{\"dni\":\"10000003\",\"monto\":1}"));
+        assertFalse(admin.getCocheraPorNumero(2).isEstadoPago());
+    }
+
+    @Test
+    void rechazaUnCuerpoDemasiadoGrande() throws Exception {
+        String relleno = "x".repeat(100 * 1024);
+        HttpResponse<String> respuesta = enviar("POST", "/pagos",
+                "{\"dni\":\"10000001\",\"monto\":5000,\"nota\":\"" + relleno + "\"}");
+        assertEquals(413, respuesta.statusCode());
+        assertTrue(respuesta.body().contains("64 KB"), respuesta.body());
+        assertFalse(admin.getCocheraPorNumero(1).isEstadoPago());
+    }
+
+    @Test
+    void unErrorInternoNoMuestraElDetalle() throws Exception {
+        // Con el registro de operaciones cerrado, el pago no puede registrarse. El Administrador
+        // ya queda cerrado: detener() no vuelve a cerrarlo.
+        admin.cerrar();
+        Administrador cerrado = admin;
+        admin = null;
+        HttpResponse<String> respuesta = enviar("POST", "/pagos",
+                "{\"dni\":\"10000001\",\"monto\":5000,\"fecha\":\"" + Fechas.formatear(LocalDate.now()) + "\"}");
+        assertEquals(500, respuesta.statusCode());
+        assertEquals("{\"error\":\"error al acceder a los archivos\"}", respuesta.body());
+        assertFalse(cerrado.getCocheraPorNumero(1).isEstadoPago());
+    }
+}